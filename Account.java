@@ -2,13 +2,15 @@ package budget_program;
 
 /**
  * This class stores the account type for income and expenses, such as Food, Fun, Other Needs, or Payroll Income.
+ * Account names are unique, so two Account objects with the same name are equal.
+ * The name can't be changed once the account is created, since accounts are used as keys in HashMaps.
  * 
  * @author Asa Swain
  */
 
 public class Account {
-	// name of the Income/Expense type - should be unique
-	private String accountName;
+	// name of the Income/Expense type - should be unique (final because equals and hashCode use it)
+	private final String accountName;
 	// description of the Income/Expense type
 	private String accountDesc;
 	// is this type an Expense or an Income (entry amounts will always be positive,  
@@ -16,6 +18,8 @@ public class Account {
 	private boolean isAnExpense;
 	// is this type included in the budget?
 	private boolean isIncludedInBudget;
+	// id given to this account by the AccountRegistry (-1 if it isn't in a registry)
+	private int accountId;
 
 	/**
 	 * blank constructor
@@ -25,6 +29,7 @@ public class Account {
 		accountDesc = "";
 		isAnExpense = false;
 		isIncludedInBudget = false;
+		accountId = -1;
 	}
 
 	/**
@@ -40,6 +45,7 @@ public class Account {
 		accountDesc = desc;
 		isAnExpense = expense;
 		isIncludedInBudget = inBudget;
+		accountId = -1;
 	}
 
 	/**
@@ -51,15 +57,6 @@ public class Account {
 		return accountName;
 	}
 
-	/**
-	 * This method sets the name of the account
-	 * 
-	 * @param newName - new account name
-	 */
-	public void setAccountName(String newName) {
-		accountName = newName;
-	}
-
 	/**
 	 * This method gets the description of the account
 	 * 
@@ -114,4 +111,41 @@ public class Account {
 	public void setIsIncludedInBudget(boolean newIsIncludedInBudget) {
 		isIncludedInBudget = newIsIncludedInBudget;
 	}
+
+	/**
+	 * This method gets the id the AccountRegistry gave this account
+	 * 
+	 * @return account id (or -1 if the account isn't in a registry)
+	 */
+	public int getAccountId() {
+		return accountId;
+	}
+
+	/**
+	 * This method sets the id of the account (only the AccountRegistry should call this)
+	 * 
+	 * @param newAccountId - new account id
+	 */
+	void setAccountId(int newAccountId) {
+		accountId = newAccountId;
+	}
+
+	/**
+	 * Two accounts are equal if they have the same name
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Account)) {
+			return false;
+		}
+		return accountName.equals(((Account) other).accountName);
+	}
+
+	@Override
+	public int hashCode() {
+		return accountName.hashCode();
+	}
 }
@@ -0,0 +1,120 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class stores the list of accounts in the general ledger.
+ * Accounts can be looked up by name in a HashMap, and each account is given an integer id
+ * when it is added to the registry. Ids are handed out in order starting at 0 and are never
+ * reused, so they can be used as positions in arrays.
+ *
+ * @author Asa Swain
+ */
+
+public class AccountRegistry {
+	// accounts in the order they were added
+	private ArrayList<Account> accountList;
+	// accounts indexed by name
+	private HashMap<String, Account> accountNameList;
+	// accounts indexed by id (removed accounts leave a null behind)
+	private ArrayList<Account> accountIdList;
+
+	/**
+	 * This is a blank constructor
+	 */
+	public AccountRegistry() {
+		accountList = new ArrayList<Account>();
+		accountNameList = new HashMap<String, Account>();
+		accountIdList = new ArrayList<Account>();
+	}
+
+	/**
+	 * This adds an account to the registry and gives it an id
+	 *
+	 * @param newAccount - the account to add
+	 * @exception IllegalArgumentException - if an account with the same name is already in the registry
+	 */
+	public void addAccount(Account newAccount) {
+		if (accountNameList.containsKey(newAccount.getAccountName())) {
+			throw new IllegalArgumentException("Account " + newAccount.getAccountName() + " already exists in the account list.");
+		}
+		newAccount.setAccountId(accountIdList.size());
+		accountIdList.add(newAccount);
+		accountNameList.put(newAccount.getAccountName(), newAccount);
+		accountList.add(newAccount);
+	}
+
+	/**
+	 * This removes an account from the registry (its id isn't given to any other account)
+	 *
+	 * @param deleteAccount - the account to remove
+	 */
+	public void removeAccount(Account deleteAccount) {
+		Account oldAccount = accountNameList.remove(deleteAccount.getAccountName());
+		if (oldAccount != null) {
+			accountIdList.set(oldAccount.getAccountId(), null);
+			accountList.remove(oldAccount);
+		}
+	}
+
+	/**
+	 * This gets an account by its name
+	 *
+	 * @param accountName - name of the account to search for
+	 * @return the account object or null if not found
+	 */
+	public Account getAccount(String accountName) {
+		return accountNameList.get(accountName);
+	}
+
+	/**
+	 * This gets an account by its id
+	 *
+	 * @param accountId - id of the account to search for
+	 * @return the account object or null if not found
+	 */
+	public Account getAccount(int accountId) {
+		if (accountId < 0 || accountId >= accountIdList.size()) {
+			return null;
+		}
+		return accountIdList.get(accountId);
+	}
+
+	/**
+	 * This checks if an account is in the registry
+	 *
+	 * @param searchAccount - the account to search for
+	 * @return true if an account with the same name is in the registry, else false
+	 */
+	public boolean isAccountInList(Account searchAccount) {
+		return accountNameList.containsKey(searchAccount.getAccountName());
+	}
+
+	/**
+	 * This returns the number of accounts in the registry
+	 *
+	 * @return the number of accounts
+	 */
+	public int size() {
+		return accountList.size();
+	}
+
+	/**
+	 * This returns one more than the highest id that has been given to an account,
+	 * which is the size of an array that can be indexed by account id
+	 *
+	 * @return the number of ids that have been handed out
+	 */
+	public int getIdCount() {
+		return accountIdList.size();
+	}
+
+	/**
+	 * This returns a list of all the accounts in the order they were added
+	 *
+	 * @return an ArrayList of all the accounts
+	 */
+	public ArrayList<Account> getAccountList() {
+		return new ArrayList<Account>(accountList);
+	}
+}
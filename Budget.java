@@ -13,13 +13,13 @@ import java.math.BigDecimal;
 public class Budget {
 
 	// a hashmap of how much money was budgeted for each account (aka type)
-	private HashMap<Account,BigDecimal> budgetAccountList;
+	private HashMap<Account,Money> budgetAccountList;
 
 	/**
 	 * blank constructor
 	 */
 	public Budget() {
-		budgetAccountList = new HashMap<Account,BigDecimal>();
+		budgetAccountList = new HashMap<Account,Money>();
 	}
 
 	/**
@@ -28,8 +28,7 @@ public class Budget {
 	 * @param originalBudget original budget to copy from when creating new BudgetAmtList object
 	 */
 	public Budget(Budget originalBudget) {
-		budgetAccountList = new HashMap<Account,BigDecimal>();
-		this.budgetAccountList = originalBudget.budgetAccountList;
+		budgetAccountList = new HashMap<Account,Money>(originalBudget.budgetAccountList);
 	}
 
 	/**
@@ -38,7 +37,7 @@ public class Budget {
 	 * user isn't trying to set a budget amount for an account type that can't be budgeted)
 	 * 
 	 * @param newAccount  the new account to add to the budget
-	 * @param newBudgetAmount  the new amount to add to the budget
+	 * @param newBudgetAmount  the new amount to add to the budget (rounded to the nearest cent)
 	 * @exception if the account already exists in the budget
 	 * @exception if the account type can't be budgeted  
 	 */
@@ -47,10 +46,10 @@ public class Budget {
 			throw new IllegalArgumentException("Account " + newAccount.getAccountName() + " already exists in the budget for this month.");	
 		} else {
 			if (newAccount.getIsIncludedInBudget() == true) {
-				budgetAccountList.put(newAccount,newBudgetAmount);
+				budgetAccountList.put(newAccount,Money.valueOf(newBudgetAmount));
 			} else {
 				// accounts outside the budget have no amount, so load a placeholder zero value
-				budgetAccountList.put(newAccount,BigDecimal.ZERO);
+				budgetAccountList.put(newAccount,Money.ZERO);
 				if (newBudgetAmount.compareTo(BigDecimal.ZERO) != 0) {
 					throw new IllegalArgumentException("Account " + newAccount.getAccountName() + " isn't a budgeted account. Can't set a budget amount for this account.");
 				}
@@ -77,7 +76,7 @@ public class Budget {
 	 */
 	public void updateBudgetAmount(Account account, BigDecimal newBudgetAmount) {
 		if (account.getIsIncludedInBudget() == true) {
-			budgetAccountList.put(account,newBudgetAmount);
+			budgetAccountList.put(account,Money.valueOf(newBudgetAmount));
 		} else {
 			if (newBudgetAmount.compareTo(BigDecimal.ZERO) != 0) {
 				throw new IllegalArgumentException("Account " + account + " isn't a budgeted account. Can't set a budget amount for this account.");
@@ -113,6 +112,18 @@ public class Budget {
 	 * @return amount for this account
 	 */
 	public BigDecimal getBudgetAmount(Account account) {
+		return getBudgetMoney(account).toBigDecimal();
+	}
+
+	/**
+	 * This returns an amount for this account (aka type) as a Money object, unless the account is not used in the budget
+	 * 
+	 * @param account account to get an amount for
+	 * @exception if the account isn't in the monthly budget
+	 * @exception if the account isn't a budgeted account (according to Type object settings)
+	 * @return amount for this account
+	 */
+	public Money getBudgetMoney(Account account) {
 		if (budgetAccountList.containsKey(account)) {
 			if (account.getIsIncludedInBudget() == true) {
 				return budgetAccountList.get(account);
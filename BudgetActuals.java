@@ -0,0 +1,309 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class keeps the actual totals for each month and account, split into single, repeating and installment entries,
+ * so a month's budget can be compared with what was spent without going through the entries.
+ * The totals are updated each time an entry is added or removed.
+ *
+ * A single entry is added to the total for its month and account, which takes O(1) time.
+ * A repeating or installment entry adds its monthly amount to every month it is active in, so instead of updating every month
+ * the amount is added to a RunningBalance (keyed by month index) at the first active month and taken back out after the last one.
+ * The total for a month is then the running balance as of that month, and adding an entry or getting a month's total
+ * both take O(log n) time however many months the entry covers. Entries with no start date are kept in a separate total
+ * that counts in every month.
+ *
+ * A repeating or installment entry is active in a month if it has started by the first day of the month
+ * and hasn't ended before it (the same rule used to list the entries for a month).
+ *
+ * @author Asa Swain
+ */
+
+class BudgetActuals {
+	// total of the single entries for each account, by month index
+	private HashMap<Integer, HashMap<Account, Money>> singleTotalList;
+	// monthly totals of the repeating and installment entries for each account
+	private HashMap<Account, MonthRangeTotal> repeatingTotalList;
+	private HashMap<Account, MonthRangeTotal> installmentTotalList;
+
+	/**
+	 * This is a blank constructor
+	 */
+	BudgetActuals() {
+		singleTotalList = new HashMap<Integer, HashMap<Account, Money>>();
+		repeatingTotalList = new HashMap<Account, MonthRangeTotal>();
+		installmentTotalList = new HashMap<Account, MonthRangeTotal>();
+	}
+
+	/**
+	 * This adds a single entry to the total for its month and account
+	 *
+	 * @param newEntry - the SingleEntry that was added
+	 */
+	void addSingleEntry(SingleEntry newEntry) {
+		addToSingleTotal(EpochDay.toMonthIndex(newEntry.getDate()), newEntry.getAccount(), newEntry.getMonthlyMoney());
+	}
+
+	/**
+	 * This takes a single entry back out of the total for its month and account
+	 *
+	 * @param delEntry - the SingleEntry that was removed
+	 */
+	void removeSingleEntry(SingleEntry delEntry) {
+		addToSingleTotal(EpochDay.toMonthIndex(delEntry.getDate()), delEntry.getAccount(), delEntry.getMonthlyMoney().negate());
+	}
+
+	/**
+	 * This adds a repeating entry to the totals of the months it is active in
+	 *
+	 * @param newEntry - the RepeatingEntry that was added
+	 */
+	void addRepeatingEntry(RepeatingEntry newEntry) {
+		addToRangeTotal(repeatingTotalList, newEntry, newEntry.getMonthlyMoney());
+	}
+
+	/**
+	 * This takes a repeating entry back out of the totals of the months it is active in
+	 *
+	 * @param delEntry - the RepeatingEntry that was removed
+	 */
+	void removeRepeatingEntry(RepeatingEntry delEntry) {
+		addToRangeTotal(repeatingTotalList, delEntry, delEntry.getMonthlyMoney().negate());
+	}
+
+	/**
+	 * This adds an installment entry to the totals of the months it is active in
+	 *
+	 * @param newEntry - the InstallmentEntry that was added
+	 */
+	void addInstallmentEntry(InstallmentEntry newEntry) {
+		addToRangeTotal(installmentTotalList, newEntry, newEntry.getMonthlyMoney());
+	}
+
+	/**
+	 * This takes an installment entry back out of the totals of the months it is active in
+	 *
+	 * @param delEntry - the InstallmentEntry that was removed
+	 */
+	void removeInstallmentEntry(InstallmentEntry delEntry) {
+		addToRangeTotal(installmentTotalList, delEntry, delEntry.getMonthlyMoney().negate());
+	}
+
+	/**
+	 * This returns the accounts that have single, repeating or installment entries in a month
+	 *
+	 * @param monthIndex - the month to check
+	 * @return a HashSet of the accounts with a total in that month (accounts whose entries add up to zero may be left out)
+	 */
+	HashSet<Account> getAccounts(int monthIndex) {
+		HashSet<Account> accountList = new HashSet<Account>();
+		HashMap<Account, Money> monthTotalList = singleTotalList.get(monthIndex);
+		if (monthTotalList != null) {
+			accountList.addAll(monthTotalList.keySet());
+		}
+		addAccountsWithTotal(repeatingTotalList, monthIndex, accountList);
+		addAccountsWithTotal(installmentTotalList, monthIndex, accountList);
+		return accountList;
+	}
+
+	/**
+	 * This returns the total of the single entries for an account in a month
+	 *
+	 * @param monthIndex - the month to total
+	 * @param searchAccount - the account to total
+	 * @return the total (negative for money spent)
+	 */
+	Money getSingleTotal(int monthIndex, Account searchAccount) {
+		HashMap<Account, Money> monthTotalList = singleTotalList.get(monthIndex);
+		if (monthTotalList == null || !monthTotalList.containsKey(searchAccount)) {
+			return Money.ZERO;
+		}
+		return monthTotalList.get(searchAccount);
+	}
+
+	/**
+	 * This returns the total of the repeating entries for an account in a month
+	 *
+	 * @param monthIndex - the month to total
+	 * @param searchAccount - the account to total
+	 * @return the total (negative for money spent)
+	 */
+	Money getRepeatingTotal(int monthIndex, Account searchAccount) {
+		MonthRangeTotal rangeTotal = repeatingTotalList.get(searchAccount);
+		return (rangeTotal == null) ? Money.ZERO : rangeTotal.getTotal(monthIndex);
+	}
+
+	/**
+	 * This returns the total of the installment entries for an account in a month
+	 *
+	 * @param monthIndex - the month to total
+	 * @param searchAccount - the account to total
+	 * @return the total (negative for money spent)
+	 */
+	Money getInstallmentTotal(int monthIndex, Account searchAccount) {
+		MonthRangeTotal rangeTotal = installmentTotalList.get(searchAccount);
+		return (rangeTotal == null) ? Money.ZERO : rangeTotal.getTotal(monthIndex);
+	}
+
+	/**
+	 * This returns the total of the repeating and installment entries for an account over a range of months
+	 *
+	 * @param searchAccount - the account to total
+	 * @param firstMonth - the first month to include
+	 * @param lastMonth - the last month to include
+	 * @return the total of the monthly amounts of the entries active in each month (negative for money spent)
+	 */
+	Money getMultipleEntryTotal(Account searchAccount, int firstMonth, int lastMonth) {
+		MonthRangeTotal repeatingTotal = repeatingTotalList.get(searchAccount);
+		MonthRangeTotal installmentTotal = installmentTotalList.get(searchAccount);
+		Money total = Money.ZERO;
+		for (int i = firstMonth; i <= lastMonth && (repeatingTotal != null || installmentTotal != null); i++) {
+			if (repeatingTotal != null) {
+				total = total.add(repeatingTotal.getTotal(i));
+			}
+			if (installmentTotal != null) {
+				total = total.add(installmentTotal.getTotal(i));
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * This gets the first month a repeating or installment entry counts in
+	 * (the month after its start date, unless it starts on the first day of a month)
+	 *
+	 * @param targetEntry - the entry to check
+	 * @return the month index of the first month, or null if the entry has no start date
+	 */
+	static Integer getFirstActiveMonth(MultipleEntry targetEntry) {
+		if (targetEntry.getStartDate() == null) {
+			return null;
+		}
+		int firstMonth = EpochDay.toMonthIndex(targetEntry.getStartDate());
+		if (targetEntry.getStartDate().getDay() != 1) {
+			firstMonth++;
+		}
+		return firstMonth;
+	}
+
+	/**
+	 * This gets the last month a repeating or installment entry counts in (the month of its end date)
+	 *
+	 * @param targetEntry - the entry to check
+	 * @return the month index of the last month, or null if the entry has no end date
+	 */
+	static Integer getLastActiveMonth(MultipleEntry targetEntry) {
+		if (targetEntry.getEndDate() == null) {
+			return null;
+		}
+		return EpochDay.toMonthIndex(targetEntry.getEndDate());
+	}
+
+	/**
+	 * This adds an amount to the single entry total for a month and account,
+	 * removing the total when it goes down to zero (so months that are removed from memory don't leave empty totals behind)
+	 *
+	 * @param monthIndex - the month of the entry
+	 * @param targetAccount - the account of the entry
+	 * @param amount - the amount to add (negative to take an entry back out)
+	 */
+	private void addToSingleTotal(int monthIndex, Account targetAccount, Money amount) {
+		HashMap<Account, Money> monthTotalList = singleTotalList.get(monthIndex);
+		if (monthTotalList == null) {
+			monthTotalList = new HashMap<Account, Money>();
+			singleTotalList.put(monthIndex, monthTotalList);
+		}
+		Money oldTotal = monthTotalList.get(targetAccount);
+		Money newTotal = (oldTotal == null) ? amount : oldTotal.add(amount);
+		if (newTotal.signum() != 0) {
+			monthTotalList.put(targetAccount, newTotal);
+		} else {
+			monthTotalList.remove(targetAccount);
+			if (monthTotalList.isEmpty()) {
+				singleTotalList.remove(monthIndex);
+			}
+		}
+	}
+
+	/**
+	 * This adds an entry's monthly amount to the months it is active in
+	 *
+	 * @param rangeTotalList - the totals for the kind of entry
+	 * @param targetEntry - the entry being added or removed
+	 * @param amount - the monthly amount to add (negative to take an entry back out)
+	 */
+	private static void addToRangeTotal(HashMap<Account, MonthRangeTotal> rangeTotalList, MultipleEntry targetEntry, Money amount) {
+		MonthRangeTotal rangeTotal = rangeTotalList.get(targetEntry.getAccount());
+		if (rangeTotal == null) {
+			rangeTotal = new MonthRangeTotal();
+			rangeTotalList.put(targetEntry.getAccount(), rangeTotal);
+		}
+		Integer firstMonth = getFirstActiveMonth(targetEntry);
+		Integer lastMonth = getLastActiveMonth(targetEntry);
+		if (firstMonth == null || lastMonth == null || firstMonth <= lastMonth) {
+			rangeTotal.add(firstMonth, lastMonth, amount);
+		}
+	}
+
+	/**
+	 * This adds the accounts that have a repeating or installment total in a month to a set of accounts
+	 *
+	 * @param rangeTotalList - the totals for the kind of entry
+	 * @param monthIndex - the month to check
+	 * @param accountList - the set to add the accounts to
+	 */
+	private static void addAccountsWithTotal(HashMap<Account, MonthRangeTotal> rangeTotalList, int monthIndex, HashSet<Account> accountList) {
+		for (Map.Entry<Account, MonthRangeTotal> rangeTotal : rangeTotalList.entrySet()) {
+			if (rangeTotal.getValue().getTotal(monthIndex).signum() != 0) {
+				accountList.add(rangeTotal.getKey());
+			}
+		}
+	}
+
+	/**
+	 * This class keeps the monthly totals of a set of entries that each add the same amount to a range of months
+	 */
+	private static class MonthRangeTotal {
+		// monthly amounts added at the first month of each range and taken back out after the last month
+		private RunningBalance monthChangeList;
+		// total of the ranges with no first month (they count in every month up to their last month)
+		private Money openStartTotal;
+
+		/**
+		 * This is a blank constructor
+		 */
+		MonthRangeTotal() {
+			monthChangeList = new RunningBalance();
+			openStartTotal = Money.ZERO;
+		}
+
+		/**
+		 * This adds an amount to every month in a range
+		 *
+		 * @param firstMonth - the first month of the range (null if the range has no start)
+		 * @param lastMonth - the last month of the range (null if the range has no end)
+		 * @param amount - the amount to add to each month (negative to take a range back out)
+		 */
+		void add(Integer firstMonth, Integer lastMonth, Money amount) {
+			if (firstMonth == null) {
+				openStartTotal = openStartTotal.add(amount);
+			} else {
+				monthChangeList.add(firstMonth, amount);
+			}
+			if (lastMonth != null) {
+				monthChangeList.add(lastMonth + 1, amount.negate());
+			}
+		}
+
+		/**
+		 * This returns the total for a month
+		 *
+		 * @param monthIndex - the month to total
+		 * @return the total of the ranges that include the month
+		 */
+		Money getTotal(int monthIndex) {
+			return openStartTotal.add(monthChangeList.getBalanceAsOf(monthIndex));
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package budget_program;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds one line of a budget variance report: the amount budgeted for an account in a month,
+ * the actual totals of the single, repeating and installment entries for the account in that month,
+ * and the difference between the budget and the actual amount.
+ * Actual amounts are signed the same way as the entries (negative for money spent), and budget amounts are positive.
+ *
+ * @author Asa Swain
+ */
+
+public class BudgetVariance {
+	// the account this line is for
+	private Account account;
+	// true if the account is in the budget for the month
+	private boolean isBudgeted;
+	// amount budgeted for the account (zero if it isn't in the budget)
+	private Money budgetAmount;
+	// actual totals of each kind of entry for the account
+	private Money singleAmount;
+	private Money repeatingAmount;
+	private Money installmentAmount;
+
+	/**
+	 * This is a constructor for a line of the report (only the GeneralLedger should call this)
+	 *
+	 * @param newAccount - the account the line is for
+	 * @param newIsBudgeted - true if the account is in the budget for the month
+	 * @param newBudgetAmount - the amount budgeted for the account
+	 * @param newSingleAmount - the total of the single entries for the account
+	 * @param newRepeatingAmount - the total of the repeating entries for the account
+	 * @param newInstallmentAmount - the total of the installment entries for the account
+	 */
+	BudgetVariance(Account newAccount, boolean newIsBudgeted, Money newBudgetAmount, Money newSingleAmount, Money newRepeatingAmount,
+			Money newInstallmentAmount) {
+		account = newAccount;
+		isBudgeted = newIsBudgeted;
+		budgetAmount = newBudgetAmount;
+		singleAmount = newSingleAmount;
+		repeatingAmount = newRepeatingAmount;
+		installmentAmount = newInstallmentAmount;
+	}
+
+	/**
+	 * This returns the account this line is for
+	 *
+	 * @return the account
+	 */
+	public Account getAccount() {
+		return account;
+	}
+
+	/**
+	 * This checks if the account is in the budget for the month
+	 *
+	 * @return true if the account is in the budget, false if it only has entries
+	 */
+	public boolean getIsBudgeted() {
+		return isBudgeted;
+	}
+
+	/**
+	 * This returns the amount budgeted for the account
+	 *
+	 * @return the budgeted amount (zero if the account isn't in the budget)
+	 */
+	public BigDecimal getBudgetAmount() {
+		return budgetAmount.toBigDecimal();
+	}
+
+	/**
+	 * This returns the total of the single entries for the account
+	 *
+	 * @return the total (negative for money spent)
+	 */
+	public BigDecimal getSingleAmount() {
+		return singleAmount.toBigDecimal();
+	}
+
+	/**
+	 * This returns the total of the repeating entries for the account
+	 *
+	 * @return the total (negative for money spent)
+	 */
+	public BigDecimal getRepeatingAmount() {
+		return repeatingAmount.toBigDecimal();
+	}
+
+	/**
+	 * This returns the total of the installment entries for the account
+	 *
+	 * @return the total (negative for money spent)
+	 */
+	public BigDecimal getInstallmentAmount() {
+		return installmentAmount.toBigDecimal();
+	}
+
+	/**
+	 * This returns the total of all the entries for the account
+	 *
+	 * @return the total of the single, repeating and installment entries (negative for money spent)
+	 */
+	public BigDecimal getActualAmount() {
+		return getActualMoney().toBigDecimal();
+	}
+
+	/**
+	 * This returns the difference between the budget and the actual amount, which is positive when the month did better
+	 * than the budget: for an expense account the amount budgeted minus the amount spent, and for an income account
+	 * the amount received minus the amount budgeted
+	 *
+	 * @return the variance (negative if more was spent or less was received than budgeted)
+	 */
+	public BigDecimal getVariance() {
+		if (account.getIsAnExpense()) {
+			return budgetAmount.add(getActualMoney()).toBigDecimal();
+		} else {
+			return getActualMoney().subtract(budgetAmount).toBigDecimal();
+		}
+	}
+
+	/**
+	 * This returns the total of all the entries for the account as a Money object
+	 *
+	 * @return the total of the single, repeating and installment entries
+	 */
+	private Money getActualMoney() {
+		return singleAmount.add(repeatingAmount).add(installmentAmount);
+	}
+}
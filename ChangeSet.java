@@ -0,0 +1,208 @@
+package budget_program;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * This class keeps the list of changes made to the general ledger since it was last saved.
+ * Changes to the same row are combined as they are recorded (for example an entry that is added and then
+ * updated only needs one INSERT, and an entry that is added and then deleted doesn't need any statements),
+ * so saving costs one statement per changed row no matter how many times the row was changed.
+ *
+ * Recording can be turned off while the ledger is being loaded from the database.
+ * If the change set has a journal, each change is also added to the journal as it is recorded (before it is combined).
+ *
+ * The methods are synchronized, since a WriteBehindQueue takes the changes out of the set on its own thread
+ * while new changes are being recorded. record writes the change to the journal while it holds the lock, but waits
+ * for the journal to be synced after releasing it, so changes recorded on several threads share a sync and the
+ * WriteBehindQueue isn't held up by a sync.
+ *
+ * @author Asa Swain
+ */
+
+public class ChangeSet {
+	// changes keyed by the row they change, in the order each row was first changed
+	private LinkedHashMap<String, LedgerChange> changeList;
+	// false while changes shouldn't be recorded (such as when loading)
+	private boolean isRecording;
+	// journal that each recorded change is added to (or null)
+	private LedgerJournal journal;
+	// size of the journal when the last list of changes was taken (the records before it hold the taken changes)
+	private long takenJournalSize;
+	// queue that is told about each recorded change, so it can save the changes in the background (or null)
+	private WriteBehindQueue writeBehindQueue;
+
+	/**
+	 * This is a blank constructor
+	 */
+	public ChangeSet() {
+		changeList = new LinkedHashMap<String, LedgerChange>();
+		isRecording = true;
+	}
+
+	/**
+	 * This records a change, combining it with any earlier change to the same row, and waits until the change
+	 * has been synced to the journal
+	 *
+	 * @param newChange - the change to record
+	 * @exception IllegalStateException if the change can't be written to the journal (the change isn't recorded),
+	 *		or if the journal can't be synced (the change is recorded, so it is still saved with the other changes)
+	 */
+	public void record(LedgerChange newChange) {
+		LedgerJournal recordJournal;
+		long recordNbr = 0;
+		synchronized (this) {
+			if (isRecording == false) {
+				return;
+			}
+			recordJournal = journal;
+			if (recordJournal != null) {
+				try {
+					recordNbr = recordJournal.write(newChange);
+				} catch (IOException e) {
+					throw new IllegalStateException("Unable to add the change to the journal: " + e.getMessage(), e);
+				}
+			}
+			combineChange(newChange);
+			if (writeBehindQueue != null) {
+				writeBehindQueue.changeRecorded(changeList.size());
+			}
+		}
+		if (recordJournal != null) {
+			try {
+				recordJournal.awaitDurable(recordNbr);
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to sync the change to the journal: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * This adds a change to the list, combining it with any earlier change to the same row
+	 *
+	 * @param newChange - the change to add
+	 */
+	private void combineChange(LedgerChange newChange) {
+		LedgerChange oldChange = changeList.get(newChange.getChangeKey());
+		if (oldChange == null) {
+			changeList.put(newChange.getChangeKey(), newChange);
+			return;
+		}
+		LedgerChange combinedChange = oldChange.combine(newChange);
+		if (combinedChange == null) {
+			changeList.remove(newChange.getChangeKey());
+		} else {
+			changeList.put(newChange.getChangeKey(), combinedChange);
+		}
+	}
+
+	/**
+	 * This sets the journal that recorded changes are added to
+	 *
+	 * @param newJournal - an open journal (or null for no journal)
+	 */
+	public synchronized void setJournal(LedgerJournal newJournal) {
+		journal = newJournal;
+	}
+
+	/**
+	 * This sets the queue that is told about each recorded change
+	 *
+	 * @param newWriteBehindQueue - the queue (or null to keep the changes until they are saved by saveData)
+	 */
+	synchronized void setWriteBehindQueue(WriteBehindQueue newWriteBehindQueue) {
+		writeBehindQueue = newWriteBehindQueue;
+	}
+
+	/**
+	 * This turns recording on or off
+	 *
+	 * @param newIsRecording - true to record changes, false to ignore them
+	 */
+	public synchronized void setRecording(boolean newIsRecording) {
+		isRecording = newIsRecording;
+	}
+
+	/**
+	 * This checks if there are any changes that haven't been saved
+	 *
+	 * @return true if there are no changes, else false
+	 */
+	public synchronized boolean isEmpty() {
+		return changeList.isEmpty();
+	}
+
+	/**
+	 * This returns the number of rows that have changed
+	 *
+	 * @return the number of changes
+	 */
+	public synchronized int size() {
+		return changeList.size();
+	}
+
+	/**
+	 * This returns a list of the changes in the order the rows were first changed
+	 *
+	 * @return an ArrayList of the changes
+	 */
+	public synchronized ArrayList<LedgerChange> getChangeList() {
+		return new ArrayList<LedgerChange>(changeList.values());
+	}
+
+	/**
+	 * This forgets all the changes (call after the changes have been saved)
+	 */
+	public synchronized void clear() {
+		changeList.clear();
+	}
+
+	/**
+	 * This returns a list of the changes and forgets them, so changes recorded while the list is being saved
+	 * are kept apart from it
+	 *
+	 * @return an ArrayList of the changes in the order the rows were first changed
+	 */
+	synchronized ArrayList<LedgerChange> takeChangeList() {
+		ArrayList<LedgerChange> oldChangeList = new ArrayList<LedgerChange>(changeList.values());
+		changeList.clear();
+		if (journal != null) {
+			takenJournalSize = journal.getSize();
+		}
+		return oldChangeList;
+	}
+
+	/**
+	 * This puts back changes that were taken by takeChangeList but couldn't be saved, combining them with the changes
+	 * recorded since (the changes aren't added to the journal again, since they were added when they were recorded)
+	 *
+	 * @param olderChangeList - the changes that were taken
+	 */
+	synchronized void restoreChangeList(List<LedgerChange> olderChangeList) {
+		LinkedHashMap<String, LedgerChange> newerChangeList = changeList;
+		changeList = new LinkedHashMap<String, LedgerChange>();
+		for (LedgerChange tmpChange : olderChangeList) {
+			combineChange(tmpChange);
+		}
+		for (LedgerChange tmpChange : newerChangeList.values()) {
+			combineChange(tmpChange);
+		}
+	}
+
+	/**
+	 * This drops the changes taken by the last takeChangeList from the journal (call once they have been saved),
+	 * keeping the changes recorded since. If no changes have been recorded since, the journal is emptied.
+	 *
+	 * @exception IOException if the journal can't be changed
+	 */
+	synchronized void trimJournal() throws IOException {
+		if (journal == null) {
+			return;
+		}
+		if (changeList.isEmpty()) {
+			journal.reset();
+		} else {
+			journal.dropBefore(takenJournalSize);
+		}
+	}
+}
@@ -0,0 +1,549 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * The ColumnarEntryList class stores the single entries of an EntryList in primitive columns instead of SingleEntry objects,
+ * for very large ledgers (such as several households consolidated into one ledger). EntryList uses it in place of its
+ * DayIndex when it is created with columnar storage.
+ *
+ * Each entry is a row: an int epoch day, an int account id, a long amount in cents, an int description id and a long entry id.
+ * Accounts and descriptions are stored once in lookup tables. A row keeps its row number while it is in the list
+ * (the rows of removed entries are reused), and a separate int array lists the rows in date order (entries on the same day
+ * are in the order of the day's list), so adding an entry in date order is an append and the other changes move ints.
+ * Entry ids are found through an open addressing hash table of row numbers. All together each entry takes about 40 bytes.
+ *
+ * SingleEntry objects are only created when an entry is read, and they are copies: changing one doesn't change the list.
+ * Reports loop over the columns without creating any entries.
+ *
+ * @author Asa Swain
+ */
+
+class ColumnarEntryList {
+	// initial number of rows to allocate room for
+	private static final int INITIAL_CAPACITY = 1024;
+
+	// epoch day of each row
+	private int[] entryDays;
+	// id of the account of each row (position in accountTable)
+	private int[] entryAccountIds;
+	// amount of each row in cents (negative for expenses)
+	private long[] entryCents;
+	// id of the description of each row (position in descTable)
+	private int[] entryDescIds;
+	// entry id of each row
+	private long[] entryIds;
+	// number of rows in use, including removed rows that haven't been reused yet
+	private int rowCount;
+	// rows of removed entries, to reuse for new entries
+	private int[] freeRows;
+	private int freeCount;
+
+	// rows in date order
+	private int[] rowOrder;
+	// number of entries in the list
+	private int entryCount;
+
+	// hash table of (row number + 1) indexed by entry id (0 is an empty slot)
+	private int[] idSlots;
+
+	// lookup tables for accounts and descriptions
+	private ArrayList<Account> accountTable;
+	private HashMap<Account, Integer> accountIdList;
+	private ArrayList<String> descTable;
+	private HashMap<String, Integer> descIdList;
+
+	/**
+	 * This is a blank constructor
+	 */
+	ColumnarEntryList() {
+		entryDays = new int[INITIAL_CAPACITY];
+		entryAccountIds = new int[INITIAL_CAPACITY];
+		entryCents = new long[INITIAL_CAPACITY];
+		entryDescIds = new int[INITIAL_CAPACITY];
+		entryIds = new long[INITIAL_CAPACITY];
+		rowCount = 0;
+		freeRows = new int[16];
+		freeCount = 0;
+		rowOrder = new int[INITIAL_CAPACITY];
+		entryCount = 0;
+		idSlots = new int[INITIAL_CAPACITY * 2];
+		accountTable = new ArrayList<Account>();
+		accountIdList = new HashMap<Account, Integer>();
+		descTable = new ArrayList<String>();
+		descIdList = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * This returns the number of entries in the list
+	 *
+	 * @return the number of entries
+	 */
+	int size() {
+		return entryCount;
+	}
+
+	/**
+	 * This checks if an entry id is used by an entry in the list
+	 *
+	 * @param searchId - the entry id to look for
+	 * @return true if there is an entry with this id, else false
+	 */
+	boolean hasEntryId(long searchId) {
+		return idSlots[findIdSlot(searchId)] != 0;
+	}
+
+	/**
+	 * This returns a copy of the entry with an entry id
+	 *
+	 * @param searchId - the id of the entry
+	 * @return a new SingleEntry object, or null if there is no entry with this id
+	 */
+	SingleEntry getEntry(long searchId) {
+		int row = idSlots[findIdSlot(searchId)] - 1;
+		return (row < 0) ? null : createEntry(row);
+	}
+
+	/**
+	 * This returns a copy of the entry at a position in the list of entries for a day
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param position - the position of the entry on that day
+	 * @return a new SingleEntry object, or null if the day doesn't have that many entries
+	 */
+	SingleEntry getEntry(int epochDay, int position) {
+		int slot = findSlot(epochDay, position);
+		return (slot < 0) ? null : createEntry(rowOrder[slot]);
+	}
+
+	/**
+	 * This adds an entry onto the end of the list for its day (the entry must already have an id that isn't used in the list)
+	 *
+	 * @param newEntry - the entry to add
+	 * @return the position of the entry in the list for its day
+	 */
+	int add(SingleEntry newEntry) {
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		int slot = ceilingSlot(newDay + 1);
+		insertSlot(slot, storeRow(newEntry, newDay));
+		return slot - ceilingSlot(newDay);
+	}
+
+	/**
+	 * This inserts an entry at a position in the list for its day, moving the later entries on that day down one position
+	 * (the entry must already have an id that isn't used in the list)
+	 *
+	 * @param newEntry - the entry to insert
+	 * @param position - the position to insert the entry at
+	 * @exception IndexOutOfBoundsException - if the position is past the end of the day's list
+	 */
+	void insert(SingleEntry newEntry, int position) {
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		int firstSlot = ceilingSlot(newDay);
+		if (position < 0 || firstSlot + position > ceilingSlot(newDay + 1)) {
+			throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + (ceilingSlot(newDay + 1) - firstSlot));
+		}
+		insertSlot(firstSlot + position, storeRow(newEntry, newDay));
+	}
+
+	/**
+	 * This removes the entry with an entry id
+	 *
+	 * @param targetId - the id of the entry to remove
+	 * @return a copy of the removed entry, or null if there is no entry with this id
+	 */
+	SingleEntry remove(long targetId) {
+		int row = idSlots[findIdSlot(targetId)] - 1;
+		if (row < 0) {
+			return null;
+		}
+		SingleEntry oldEntry = createEntry(row);
+		removeSlot(findRowSlot(row));
+		freeRow(row);
+		return oldEntry;
+	}
+
+	/**
+	 * This replaces the entry with an entry id. The new entry keeps the old entry's id, and if both entries are on the same day
+	 * it keeps the old entry's position, otherwise it goes onto the end of the list for its day.
+	 *
+	 * @param targetId - the id of the entry to replace
+	 * @param newEntry - the new entry data
+	 * @return a copy of the replaced entry, or null if there is no entry with this id (nothing is changed)
+	 */
+	SingleEntry replace(long targetId, SingleEntry newEntry) {
+		int row = idSlots[findIdSlot(targetId)] - 1;
+		if (row < 0) {
+			return null;
+		}
+		SingleEntry oldEntry = createEntry(row);
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		if (newDay != entryDays[row]) {
+			removeSlot(findRowSlot(row));
+			entryDays[row] = newDay;
+			insertSlot(ceilingSlot(newDay + 1), row);
+		}
+		entryAccountIds[row] = getAccountId(newEntry.getAccount());
+		entryCents[row] = newEntry.getMonthlyMoney().getCents();
+		entryDescIds[row] = getDescId(newEntry.getDesc());
+		return oldEntry;
+	}
+
+	/**
+	 * This removes the entries in a range of days
+	 *
+	 * @param firstDay - the first day to remove
+	 * @param lastDay - the last day to remove
+	 * @return copies of the removed entries, in date order
+	 */
+	ArrayList<SingleEntry> removeDays(int firstDay, int lastDay) {
+		int startSlot = ceilingSlot(firstDay);
+		int endSlot = ceilingSlot(lastDay + 1);
+		ArrayList<SingleEntry> removedList = new ArrayList<SingleEntry>(endSlot - startSlot);
+		for (int i = startSlot; i < endSlot; i++) {
+			removedList.add(createEntry(rowOrder[i]));
+			freeRow(rowOrder[i]);
+		}
+		System.arraycopy(rowOrder, endSlot, rowOrder, startSlot, entryCount - endSlot);
+		entryCount -= endSlot - startSlot;
+		return removedList;
+	}
+
+	/**
+	 * This returns the number of entries on a day
+	 *
+	 * @param epochDay - the day to count the entries for
+	 * @return the number of entries
+	 */
+	int getDayCount(int epochDay) {
+		return ceilingSlot(epochDay + 1) - ceilingSlot(epochDay);
+	}
+
+	/**
+	 * This returns the days that have entries
+	 *
+	 * @return the epoch days, in date order
+	 */
+	ArrayList<Integer> getDays() {
+		ArrayList<Integer> dayList = new ArrayList<Integer>();
+		for (int i = 0; i < entryCount; i++) {
+			int tmpDay = entryDays[rowOrder[i]];
+			if (dayList.isEmpty() || dayList.get(dayList.size() - 1) != tmpDay) {
+				dayList.add(tmpDay);
+			}
+		}
+		return dayList;
+	}
+
+	/**
+	 * This copies the entries in a range of days onto a list
+	 *
+	 * @param firstDay - the first day to copy entries for
+	 * @param lastDay - the last day to copy entries for
+	 * @param searchAccount - the account to copy entries for (if null copy every account)
+	 * @param returnList - the list to add new SingleEntry objects onto, in date order
+	 */
+	void addEntries(int firstDay, int lastDay, Account searchAccount, ArrayList<SingleEntry> returnList) {
+		int startSlot = ceilingSlot(firstDay);
+		int endSlot = (lastDay == Integer.MAX_VALUE) ? entryCount : ceilingSlot(lastDay + 1);
+		if (searchAccount == null) {
+			for (int i = startSlot; i < endSlot; i++) {
+				returnList.add(createEntry(rowOrder[i]));
+			}
+			return;
+		}
+		Integer searchId = accountIdList.get(searchAccount);
+		if (searchId == null) {
+			return;
+		}
+		int accountId = searchId;
+		for (int i = startSlot; i < endSlot; i++) {
+			if (entryAccountIds[rowOrder[i]] == accountId) {
+				returnList.add(createEntry(rowOrder[i]));
+			}
+		}
+	}
+
+	/**
+	 * This finds the first position in date order with an entry on or after a day
+	 *
+	 * @param epochDay - the day to search for
+	 * @return the position (or the number of entries if every entry is before the day)
+	 */
+	int ceilingSlot(int epochDay) {
+		// most entries are added in date order, so check the last entry before searching
+		if (entryCount == 0 || entryDays[rowOrder[entryCount - 1]] < epochDay) {
+			return entryCount;
+		}
+		int low = 0;
+		int high = entryCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (entryDays[rowOrder[mid]] < epochDay) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * This returns the epoch day of the entry at a position in date order
+	 *
+	 * @param slot - the position of the entry
+	 * @return the epoch day
+	 */
+	int dayAt(int slot) {
+		return entryDays[rowOrder[slot]];
+	}
+
+	/**
+	 * This returns the account id of the entry at a position in date order
+	 *
+	 * @param slot - the position of the entry
+	 * @return the account id (see getAccount)
+	 */
+	int accountIdAt(int slot) {
+		return entryAccountIds[rowOrder[slot]];
+	}
+
+	/**
+	 * This returns the amount of the entry at a position in date order
+	 *
+	 * @param slot - the position of the entry
+	 * @return the amount in cents (negative for expenses)
+	 */
+	long centsAt(int slot) {
+		return entryCents[rowOrder[slot]];
+	}
+
+	/**
+	 * This returns the number of accounts that have an account id
+	 *
+	 * @return the number of accounts (account ids are 0 up to this number)
+	 */
+	int getAccountCount() {
+		return accountTable.size();
+	}
+
+	/**
+	 * This returns the account with an account id
+	 *
+	 * @param accountId - the account id
+	 * @return the account
+	 */
+	Account getAccount(int accountId) {
+		return accountTable.get(accountId);
+	}
+
+	/**
+	 * This creates a SingleEntry object from the data in a row
+	 *
+	 * @param row - the row of the entry
+	 * @return a new SingleEntry object
+	 */
+	private SingleEntry createEntry(int row) {
+		SingleEntry newEntry = SingleEntry.fromSignedAmount(EpochDay.toDate(entryDays[row]), accountTable.get(entryAccountIds[row]),
+				descTable.get(entryDescIds[row]), Money.ofCents(entryCents[row]));
+		newEntry.setEntryId(entryIds[row]);
+		return newEntry;
+	}
+
+	/**
+	 * This finds the position in date order of the entry at a position in the list for a day
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param position - the position of the entry on that day
+	 * @return the position in date order, or -1 if the day doesn't have that many entries
+	 */
+	private int findSlot(int epochDay, int position) {
+		int slot = ceilingSlot(epochDay) + position;
+		if (position < 0 || slot >= entryCount || entryDays[rowOrder[slot]] != epochDay) {
+			return -1;
+		}
+		return slot;
+	}
+
+	/**
+	 * This finds the position of a row in date order
+	 *
+	 * @param row - the row to find
+	 * @return the position of the row
+	 */
+	private int findRowSlot(int row) {
+		int slot = ceilingSlot(entryDays[row]);
+		while (rowOrder[slot] != row) {
+			slot++;
+		}
+		return slot;
+	}
+
+	/**
+	 * This stores an entry's data in a free row and adds its id to the hash table
+	 *
+	 * @param newEntry - the entry to store
+	 * @param newDay - the epoch day of the entry
+	 * @return the row the entry is stored in
+	 */
+	private int storeRow(SingleEntry newEntry, int newDay) {
+		int row;
+		if (freeCount > 0) {
+			freeCount--;
+			row = freeRows[freeCount];
+		} else {
+			if (rowCount == entryDays.length) {
+				int newCapacity = rowCount * 2;
+				entryDays = Arrays.copyOf(entryDays, newCapacity);
+				entryAccountIds = Arrays.copyOf(entryAccountIds, newCapacity);
+				entryCents = Arrays.copyOf(entryCents, newCapacity);
+				entryDescIds = Arrays.copyOf(entryDescIds, newCapacity);
+				entryIds = Arrays.copyOf(entryIds, newCapacity);
+			}
+			row = rowCount;
+			rowCount++;
+		}
+		entryDays[row] = newDay;
+		entryAccountIds[row] = getAccountId(newEntry.getAccount());
+		entryCents[row] = newEntry.getMonthlyMoney().getCents();
+		entryDescIds[row] = getDescId(newEntry.getDesc());
+		entryIds[row] = newEntry.getEntryId();
+		if ((entryCount + 1) * 2 > idSlots.length) {
+			resizeIdSlots(idSlots.length * 2);
+		}
+		idSlots[findIdSlot(entryIds[row])] = row + 1;
+		return row;
+	}
+
+	/**
+	 * This removes a row's id from the hash table and puts the row on the list of rows to reuse
+	 *
+	 * @param row - the row to free
+	 */
+	private void freeRow(int row) {
+		removeIdSlot(findIdSlot(entryIds[row]));
+		if (freeCount == freeRows.length) {
+			freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+		}
+		freeRows[freeCount] = row;
+		freeCount++;
+	}
+
+	/**
+	 * This puts a row at a position in date order, moving the later rows down one position
+	 *
+	 * @param slot - the position to put the row at
+	 * @param row - the row
+	 */
+	private void insertSlot(int slot, int row) {
+		if (entryCount == rowOrder.length) {
+			rowOrder = Arrays.copyOf(rowOrder, entryCount * 2);
+		}
+		System.arraycopy(rowOrder, slot, rowOrder, slot + 1, entryCount - slot);
+		rowOrder[slot] = row;
+		entryCount++;
+	}
+
+	/**
+	 * This takes the row at a position out of date order, moving the later rows up one position
+	 *
+	 * @param slot - the position of the row
+	 */
+	private void removeSlot(int slot) {
+		System.arraycopy(rowOrder, slot + 1, rowOrder, slot, entryCount - slot - 1);
+		entryCount--;
+	}
+
+	/**
+	 * This finds the slot in the hash table for an entry id
+	 *
+	 * @param searchId - the entry id
+	 * @return the slot holding the id's row, or the empty slot where it would go
+	 */
+	private int findIdSlot(long searchId) {
+		int mask = idSlots.length - 1;
+		int slot = hashId(searchId) & mask;
+		while (idSlots[slot] != 0 && entryIds[idSlots[slot] - 1] != searchId) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * This empties a slot in the hash table, moving later rows in the same run back so they can still be found
+	 *
+	 * @param slot - the slot to empty
+	 */
+	private void removeIdSlot(int slot) {
+		int mask = idSlots.length - 1;
+		int nextSlot = (slot + 1) & mask;
+		while (idSlots[nextSlot] != 0) {
+			int homeSlot = hashId(entryIds[idSlots[nextSlot] - 1]) & mask;
+			// move the row back if its home slot isn't between the empty slot and where it is now
+			if (((nextSlot - homeSlot) & mask) >= ((nextSlot - slot) & mask)) {
+				idSlots[slot] = idSlots[nextSlot];
+				slot = nextSlot;
+			}
+			nextSlot = (nextSlot + 1) & mask;
+		}
+		idSlots[slot] = 0;
+	}
+
+	/**
+	 * This moves the hash table into a bigger array
+	 *
+	 * @param newCapacity - the number of slots (a power of 2)
+	 */
+	private void resizeIdSlots(int newCapacity) {
+		int[] oldSlots = idSlots;
+		idSlots = new int[newCapacity];
+		for (int i = 0; i < oldSlots.length; i++) {
+			if (oldSlots[i] != 0) {
+				idSlots[findIdSlot(entryIds[oldSlots[i] - 1])] = oldSlots[i];
+			}
+		}
+	}
+
+	/**
+	 * This mixes the bits of an entry id, so ids handed out in order spread over the hash table
+	 *
+	 * @param entryId - the entry id
+	 * @return the hash of the id
+	 */
+	private static int hashId(long entryId) {
+		long hash = entryId * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * This gets the id of an account, adding it to the account table if needed
+	 *
+	 * @param tmpAccount - the account to look up
+	 * @return the id of the account
+	 */
+	private int getAccountId(Account tmpAccount) {
+		Integer accountId = accountIdList.get(tmpAccount);
+		if (accountId == null) {
+			accountId = accountTable.size();
+			accountTable.add(tmpAccount);
+			accountIdList.put(tmpAccount, accountId);
+		}
+		return accountId;
+	}
+
+	/**
+	 * This gets the id of a description, adding it to the description table if needed
+	 *
+	 * @param tmpDesc - the description to look up
+	 * @return the id of the description
+	 */
+	private int getDescId(String tmpDesc) {
+		Integer descId = descIdList.get(tmpDesc);
+		if (descId == null) {
+			descId = descTable.size();
+			descTable.add(tmpDesc);
+			descIdList.put(tmpDesc, descId);
+		}
+		return descId;
+	}
+}
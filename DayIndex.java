@@ -0,0 +1,323 @@
+package budget_program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class stores lists of single entries indexed by epoch day.
+ * The days are kept in a sorted int array, and each day has an ArrayList of the entries on that day
+ * (stored at the same position in a parallel list), so looking up a day is a binary search over ints
+ * and walking the days in date order is a simple loop.
+ *
+ * Removing an entry leaves a null in its place in the day's list, so the other entries keep their positions
+ * and a caller that knows where an entry is can remove or replace it in O(1) time. A day's list is compacted
+ * once more than half of it is removed entries (or by the caller before it works with positions on the day),
+ * and a day whose entries have all been removed stays in the index as an empty day until more than half
+ * the days are empty. Code that walks the lists must skip the nulls and the empty days.
+ *
+ * @author Asa Swain
+ */
+
+class DayIndex {
+	// initial number of days to allocate room for
+	private static final int INITIAL_CAPACITY = 64;
+
+	// sorted list of epoch days that have entries
+	private int[] days;
+	// number of entries that haven't been removed on each day (at the same position as the day in the days array)
+	private int[] liveCounts;
+	// list of entries for each day (at the same position as the day in the days array)
+	private ArrayList<ArrayList<SingleEntry>> dayLists;
+	// number of days in the index and how many of them are empty
+	private int dayCount;
+	private int emptyDayCount;
+	// number of entries in the index that haven't been removed
+	private int entryCount;
+
+	/**
+	 * This is a blank constructor
+	 */
+	DayIndex() {
+		days = new int[INITIAL_CAPACITY];
+		liveCounts = new int[INITIAL_CAPACITY];
+		dayLists = new ArrayList<ArrayList<SingleEntry>>(INITIAL_CAPACITY);
+		dayCount = 0;
+		emptyDayCount = 0;
+		entryCount = 0;
+	}
+
+	/**
+	 * This finds the position of a day in the index
+	 *
+	 * @param epochDay - the day to search for
+	 * @return the position of the day, or (-(insertion point) - 1) if the day isn't in the index
+	 */
+	int findDay(int epochDay) {
+		// most entries are added in date order, so check the last day before searching
+		if (dayCount > 0 && days[dayCount - 1] == epochDay) {
+			return dayCount - 1;
+		}
+		return Arrays.binarySearch(days, 0, dayCount, epochDay);
+	}
+
+	/**
+	 * This returns the list of entries for a day (removed entries are null until the list is compacted)
+	 *
+	 * @param epochDay - the day to get the entries for
+	 * @return the list of entries for that day or null if the day isn't in the index
+	 */
+	ArrayList<SingleEntry> get(int epochDay) {
+		int slot = findDay(epochDay);
+		if (slot >= 0) {
+			return dayLists.get(slot);
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * This adds an entry onto the end of the list for its day
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param newEntry - the entry to add
+	 * @return the position of the entry in the day's list
+	 */
+	int add(int epochDay, SingleEntry newEntry) {
+		int slot = getOrCreateSlot(epochDay);
+		ArrayList<SingleEntry> dayList = dayLists.get(slot);
+		dayList.add(newEntry);
+		addToLiveCount(slot, 1);
+		return dayList.size() - 1;
+	}
+
+	/**
+	 * This inserts an entry at a position in the list for its day, moving the later entries down one position
+	 * (the caller should compact the day first, so the position doesn't count removed entries)
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param position - the position to insert the entry at
+	 * @param newEntry - the entry to insert
+	 * @exception IndexOutOfBoundsException - if the position is past the end of the day's list
+	 */
+	void insert(int epochDay, int position, SingleEntry newEntry) {
+		int slot = getOrCreateSlot(epochDay);
+		dayLists.get(slot).add(position, newEntry);
+		addToLiveCount(slot, 1);
+	}
+
+	/**
+	 * This replaces the entry at a position in the list for a day
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param position - the position of the entry in the day's list
+	 * @param newEntry - the entry to put in its place
+	 */
+	void set(int epochDay, int position, SingleEntry newEntry) {
+		dayLists.get(findDay(epochDay)).set(position, newEntry);
+	}
+
+	/**
+	 * This removes the entry at a position in the list for a day, leaving a null in its place
+	 * (if it was the last entry on the day, the day's list is cleared)
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param position - the position of the entry in the day's list
+	 * @return the entry that was removed
+	 */
+	SingleEntry remove(int epochDay, int position) {
+		int slot = findDay(epochDay);
+		ArrayList<SingleEntry> dayList = dayLists.get(slot);
+		SingleEntry delEntry = dayList.set(position, null);
+		addToLiveCount(slot, -1);
+		if (liveCounts[slot] == 0) {
+			dayList.clear();
+			// don't let empty days build up, but only drop them in bulk so a removal doesn't usually shift the other days
+			if (emptyDayCount > dayCount / 2) {
+				removeEmptyDays();
+			}
+		}
+		return delEntry;
+	}
+
+	/**
+	 * This checks if more than half of a day's list is removed entries (the caller should compact it)
+	 *
+	 * @param epochDay - the day to check
+	 * @return true if the day's list should be compacted, else false
+	 */
+	boolean isSparse(int epochDay) {
+		int slot = findDay(epochDay);
+		return slot >= 0 && liveCounts[slot] < dayLists.get(slot).size() - liveCounts[slot];
+	}
+
+	/**
+	 * This drops the removed entries from a day's list, which moves the entries after them to lower positions
+	 *
+	 * @param epochDay - the day to compact
+	 * @return true if any entries moved, else false
+	 */
+	boolean compactDay(int epochDay) {
+		int slot = findDay(epochDay);
+		if (slot < 0) {
+			return false;
+		}
+		ArrayList<SingleEntry> dayList = dayLists.get(slot);
+		if (dayList.size() == liveCounts[slot]) {
+			return false;
+		}
+		int livePosition = 0;
+		for (int i = 0; i < dayList.size(); i++) {
+			SingleEntry tmpEntry = dayList.get(i);
+			if (tmpEntry != null) {
+				dayList.set(livePosition, tmpEntry);
+				livePosition++;
+			}
+		}
+		dayList.subList(livePosition, dayList.size()).clear();
+		return true;
+	}
+
+	/**
+	 * This removes a day (and its list of entries) from the index
+	 *
+	 * @param epochDay - the day to remove
+	 */
+	void removeDay(int epochDay) {
+		int slot = findDay(epochDay);
+		if (slot >= 0) {
+			entryCount -= liveCounts[slot];
+			if (liveCounts[slot] == 0) {
+				emptyDayCount--;
+			}
+			System.arraycopy(days, slot + 1, days, slot, dayCount - slot - 1);
+			System.arraycopy(liveCounts, slot + 1, liveCounts, slot, dayCount - slot - 1);
+			dayLists.remove(slot);
+			dayCount--;
+		}
+	}
+
+	/**
+	 * This finds the position of the first day in the index that is on or after a day
+	 *
+	 * @param epochDay - the day to search from
+	 * @return the position of the first day on or after epochDay (equal to size() if there isn't one)
+	 */
+	int ceilingSlot(int epochDay) {
+		int slot = Arrays.binarySearch(days, 0, dayCount, epochDay);
+		if (slot >= 0) {
+			return slot;
+		} else {
+			return -(slot + 1);
+		}
+	}
+
+	/**
+	 * This returns the number of days in the index
+	 *
+	 * @return the number of days, including empty days that haven't been dropped yet
+	 */
+	int size() {
+		return dayCount;
+	}
+
+	/**
+	 * This checks if every entry in the index has been removed
+	 *
+	 * @return true if the index has no entries, else false
+	 */
+	boolean isEmpty() {
+		return entryCount == 0;
+	}
+
+	/**
+	 * This returns the day at a position in the index
+	 *
+	 * @param slot - the position in the index (0 is the earliest day)
+	 * @return the epoch day at that position
+	 */
+	int dayAt(int slot) {
+		return days[slot];
+	}
+
+	/**
+	 * This returns the list of entries at a position in the index
+	 *
+	 * @param slot - the position in the index (0 is the earliest day)
+	 * @return the list of entries for the day at that position (removed entries are null)
+	 */
+	ArrayList<SingleEntry> listAt(int slot) {
+		return dayLists.get(slot);
+	}
+
+	/**
+	 * This returns the number of entries at a position in the index that haven't been removed
+	 *
+	 * @param slot - the position in the index (0 is the earliest day)
+	 * @return the number of entries on the day at that position
+	 */
+	int liveSizeAt(int slot) {
+		return liveCounts[slot];
+	}
+
+	/**
+	 * This finds the position of a day in the index, adding the day if it isn't in the index yet
+	 *
+	 * @param epochDay - the day to find
+	 * @return the position of the day
+	 */
+	private int getOrCreateSlot(int epochDay) {
+		int slot = findDay(epochDay);
+		if (slot >= 0) {
+			return slot;
+		}
+		int insertSlot = -(slot + 1);
+		if (dayCount == days.length) {
+			days = Arrays.copyOf(days, dayCount * 2);
+			liveCounts = Arrays.copyOf(liveCounts, dayCount * 2);
+		}
+		// shift later days up one position to make room for the new day
+		System.arraycopy(days, insertSlot, days, insertSlot + 1, dayCount - insertSlot);
+		System.arraycopy(liveCounts, insertSlot, liveCounts, insertSlot + 1, dayCount - insertSlot);
+		days[insertSlot] = epochDay;
+		liveCounts[insertSlot] = 0;
+		dayLists.add(insertSlot, new ArrayList<SingleEntry>(2));
+		dayCount++;
+		emptyDayCount++;
+		return insertSlot;
+	}
+
+	/**
+	 * This adds to the number of entries on a day, keeping the count of empty days up to date
+	 *
+	 * @param slot - the position of the day in the index
+	 * @param change - the amount to add to the count (1 or -1)
+	 */
+	private void addToLiveCount(int slot, int change) {
+		if (liveCounts[slot] == 0) {
+			emptyDayCount--;
+		}
+		liveCounts[slot] += change;
+		entryCount += change;
+		if (liveCounts[slot] == 0) {
+			emptyDayCount++;
+		}
+	}
+
+	/**
+	 * This drops every empty day from the index (the positions of the entries within each day don't change)
+	 */
+	private void removeEmptyDays() {
+		int liveSlot = 0;
+		for (int i = 0; i < dayCount; i++) {
+			if (liveCounts[i] > 0) {
+				days[liveSlot] = days[i];
+				liveCounts[liveSlot] = liveCounts[i];
+				dayLists.set(liveSlot, dayLists.get(i));
+				liveSlot++;
+			}
+		}
+		dayLists.subList(liveSlot, dayCount).clear();
+		dayCount = liveSlot;
+		emptyDayCount = 0;
+	}
+}
@@ -13,6 +13,24 @@ public abstract class Entry {
 	protected Account entryAccount;
 	// description of the income/expense
 	protected String desc;
+	// id given to this entry by the EntryList it was added to (0 if it hasn't been added to a list)
+	protected long entryId;
+
+	/**
+	 * Get the id for this entry
+	 * @return entry id (0 if the entry hasn't been added to a list)
+	 */
+	public long getEntryId() {
+		return entryId;
+	}
+
+	/**
+	 * Set the id for this entry (only the EntryList should call this)
+	 * @param newEntryId - the new id for this entry
+	 */
+	void setEntryId(long newEntryId) {
+		entryId = newEntryId;
+	}
 	
 	/**
 	 * Get the type for this entry
@@ -47,5 +65,6 @@ public abstract class Entry {
 	}
 	
 	abstract BigDecimal getMonthlyAmount();
+	abstract Money getMonthlyMoney();
 	abstract void setTotalAmount(BigDecimal newAmount);
 }
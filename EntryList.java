@@ -1,31 +1,84 @@
 package budget_program;
 
+import java.math.BigDecimal;
 import java.util.*;
 
 import jodd.datetime.JDateTime;
 
 /**
  * The EntryList class consists of: 
- * a TreeMap of single entries indexed by date. Each day contains an ArrayList of single entries.
+ * a DayIndex of single entries indexed by epoch day. Each day contains an ArrayList of single entries.
+ * a HashMap of single entries indexed by entry id, with where each entry is stored, so an entry can be found, deleted or updated in O(1) time.
+ * a HashMap of DayIndex objects for each account, so the single entries for one account can be found in date order.
+ * a RunningBalance for the whole list and for each account, used to get the balance as of a date.
  * a TreeMap of repeating entries indexed by the name of the repeating entry. 
+ * an IntervalIndex of the repeating and installment entries, used to find the entries active in a month.
+ * counters of the number of single entries in the whole list, in each month and in each account.
+ * a BudgetActuals object with the total of each kind of entry for each month and account, used to compare a month with its budget.
+ * 
+ * A list created with columnar storage keeps its single entries in a ColumnarEntryList instead of the DayIndex, the per-account
+ * DayIndex objects and the HashMap of entry ids, which takes a fraction of the memory for very large ledgers. The single entries it
+ * returns are then copies, so changing one doesn't change the list (use the update methods instead). Finding an account's entries
+ * scans the date range, and adding or removing an entry out of date order moves the later entries in an int array.
  * 
  * @author Asa Swain
  */
 
 public class EntryList {	
-	// use date as key in HashMap to return an arraylist of entries for that date
-	private TreeMap<JDateTime, ArrayList<SingleEntry>> singleEntryList;
+	// use epoch day as key in DayIndex to return an arraylist of entries for that date
+	private DayIndex singleEntryList;
+	// single entries stored in columns (null unless the list uses columnar storage, in which case the DayIndex objects and entryIdList aren't used)
+	private ColumnarEntryList columnarList;
+	// secondary index of the single entries for each account (kept in step with singleEntryList)
+	private HashMap<Account, DayIndex> accountEntryList;
+	// where each single entry is stored, indexed by entry id
+	private HashMap<Long, EntryLocation> entryIdList;
+	// next id to give to a new entry
+	private long nextEntryId;
+	// number of single entries in the whole list, in each month (keyed by month index) and in each account
+	private int singleEntryCount;
+	private HashMap<Integer, Integer> monthEntryCountList;
+	private HashMap<Account, Integer> accountEntryCountList;
+	// running balance of all the single entries and of the single entries for each account
+	private RunningBalance totalBalance;
+	private HashMap<Account, RunningBalance> accountBalanceList;
 	// index repeating entries based on their description
 	private TreeMap<String,InstallmentEntry> installmentEntryList;
 	private TreeMap<String,RepeatingEntry> repeatingEntryList;
+	// index repeating and installment entries by the dates they cover
+	private IntervalIndex<InstallmentEntry> installmentEntryIndex;
+	private IntervalIndex<RepeatingEntry> repeatingEntryIndex;
+	// totals of the single, repeating and installment entries for each month and account
+	private BudgetActuals budgetActuals;
 
 	/**
 	 * This is a blank constructor
 	 */
 	public EntryList() {
-		singleEntryList = new TreeMap<JDateTime, ArrayList<SingleEntry>>();
+		this(false);
+	}
+
+	/**
+	 * This is a constructor that chooses how the single entries are stored
+	 * 
+	 * @param useColumnarStorage - true to store the single entries in columns (see ColumnarEntryList), false to store SingleEntry objects
+	 */
+	public EntryList(boolean useColumnarStorage) {
+		singleEntryList = new DayIndex();
+		columnarList = useColumnarStorage ? new ColumnarEntryList() : null;
+		accountEntryList = new HashMap<Account, DayIndex>();
+		entryIdList = new HashMap<Long, EntryLocation>();
+		nextEntryId = 1;
+		singleEntryCount = 0;
+		monthEntryCountList = new HashMap<Integer, Integer>();
+		accountEntryCountList = new HashMap<Account, Integer>();
+		totalBalance = new RunningBalance();
+		accountBalanceList = new HashMap<Account, RunningBalance>();
+		budgetActuals = new BudgetActuals();
 		installmentEntryList = new TreeMap<String,InstallmentEntry>();
 		repeatingEntryList = new TreeMap<String,RepeatingEntry>();
+		installmentEntryIndex = new IntervalIndex<InstallmentEntry>();
+		repeatingEntryIndex = new IntervalIndex<RepeatingEntry>();
 	}
 
 	/**
@@ -34,10 +87,21 @@ public class EntryList {
 	 * @param newEntry  the entry to add to the TreeMap
 	 */
 	public EntryList(SingleEntry newEntry) {
-		singleEntryList = new TreeMap<JDateTime, ArrayList<SingleEntry>>();
+		singleEntryList = new DayIndex();
+		accountEntryList = new HashMap<Account, DayIndex>();
+		entryIdList = new HashMap<Long, EntryLocation>();
+		nextEntryId = 1;
+		singleEntryCount = 0;
+		monthEntryCountList = new HashMap<Integer, Integer>();
+		accountEntryCountList = new HashMap<Account, Integer>();
+		totalBalance = new RunningBalance();
+		accountBalanceList = new HashMap<Account, RunningBalance>();
+		budgetActuals = new BudgetActuals();
 		addSingleEntry(newEntry);
 		installmentEntryList = new TreeMap<String,InstallmentEntry>();
 		repeatingEntryList = new TreeMap<String,RepeatingEntry>();
+		installmentEntryIndex = new IntervalIndex<InstallmentEntry>();
+		repeatingEntryIndex = new IntervalIndex<RepeatingEntry>();
 	}
 
 	/**
@@ -46,12 +110,27 @@ public class EntryList {
 	 * @param newEntry  the new SingleEntry to add onto this day 
 	 */
 	public void addSingleEntry(SingleEntry newEntry) {
-		ArrayList<SingleEntry> tmpList = new ArrayList<SingleEntry>();
-		if (singleEntryList.containsKey(newEntry.getDate())) {
-			tmpList = singleEntryList.get(newEntry.getDate());	
-		} 
-		tmpList.add(newEntry);
-		singleEntryList.put(newEntry.getDate(), tmpList);
+		if (columnarList != null) {
+			assignEntryId(newEntry);
+			columnarList.add(newEntry);
+			addToTotals(newEntry);
+			return;
+		}
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		int position = singleEntryList.add(newDay, newEntry);
+		indexSingleEntry(newEntry, newDay, position);
+	}
+
+	/**
+	 * This adds a batch of single entries onto the lists of entries for their dates
+	 * (entries that are in date order are the fast case, since each day is found without searching the index)
+	 * 
+	 * @param newEntryList - the new SingleEntries to add
+	 */
+	public void addSingleEntries(List<SingleEntry> newEntryList) {
+		for (SingleEntry newEntry : newEntryList) {
+			addSingleEntry(newEntry);
+		}
 	}
 
 	/**
@@ -59,14 +138,28 @@ public class EntryList {
 	 * 
 	 * @param newEntry  the new SingleEntry to add to this day's list of entries
 	 * @param targetIndex  location to insert the new SingleEntry in this day's list of entries
+	 * @exception IndexOutOfBoundsException - if the list of entries for this date has fewer than "targetIndex" items in it
 	 */
 	public void addSingleEntry(SingleEntry newEntry, int targetIndex) {
-		ArrayList<SingleEntry> tmpList = new ArrayList<SingleEntry>();
-		if (singleEntryList.containsKey(newEntry.getDate())) {
-			tmpList = singleEntryList.get(newEntry.getDate());	
-		} 
-		tmpList.add(targetIndex, newEntry);
-		singleEntryList.put(newEntry.getDate(), tmpList);
+		if (columnarList != null) {
+			assignEntryId(newEntry);
+			columnarList.insert(newEntry, targetIndex);
+			addToTotals(newEntry);
+			return;
+		}
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		compactDay(singleEntryList, newDay);
+		singleEntryList.insert(newDay, targetIndex, newEntry);
+		// the entries after the new entry have moved down one position
+		ArrayList<SingleEntry> tmpList = singleEntryList.get(newDay);
+		for (int i = targetIndex + 1; i < tmpList.size(); i++) {
+			entryIdList.get(tmpList.get(i).getEntryId()).position = i;
+		}
+		assignEntryId(newEntry);
+		EntryLocation newLocation = new EntryLocation(newEntry, newDay, targetIndex);
+		entryIdList.put(newEntry.getEntryId(), newLocation);
+		insertIntoAccountIndex(newLocation);
+		addToTotals(newEntry);
 	}
 
 	/**
@@ -75,7 +168,17 @@ public class EntryList {
 	 * @param newEntry - the new InstallmentEntry to add
 	 */
 	public void addInstallmentEntry(InstallmentEntry newEntry) {
-		installmentEntryList.put(newEntry.getDesc(), newEntry);
+		InstallmentEntry oldEntry = installmentEntryList.put(newEntry.getDesc(), newEntry);
+		// an entry that replaces one with the same description keeps the old entry's id
+		if (oldEntry != null) {
+			installmentEntryIndex.remove(oldEntry);
+			budgetActuals.removeInstallmentEntry(oldEntry);
+			newEntry.setEntryId(oldEntry.getEntryId());
+		} else {
+			assignEntryId(newEntry);
+		}
+		installmentEntryIndex.add(newEntry);
+		budgetActuals.addInstallmentEntry(newEntry);
 	}
 	
 	/**
@@ -84,7 +187,17 @@ public class EntryList {
 	 * @param newEntry - the new RepeatingEntry to add
 	 */
 	public void addRepeatingEntry(RepeatingEntry newEntry) {
-		repeatingEntryList.put(newEntry.getDesc(), newEntry);
+		RepeatingEntry oldEntry = repeatingEntryList.put(newEntry.getDesc(), newEntry);
+		// an entry that replaces one with the same description keeps the old entry's id
+		if (oldEntry != null) {
+			repeatingEntryIndex.remove(oldEntry);
+			budgetActuals.removeRepeatingEntry(oldEntry);
+			newEntry.setEntryId(oldEntry.getEntryId());
+		} else {
+			assignEntryId(newEntry);
+		}
+		repeatingEntryIndex.add(newEntry);
+		budgetActuals.addRepeatingEntry(newEntry);
 	}
 
 	/**
@@ -95,13 +208,19 @@ public class EntryList {
 	 * @exception IllegalArgumentException - if the list of entries for this date does not at least "targetIndex" number of items in it
 	 */
 	public void deleteSingleEntry(JDateTime targetDate, int targetIndex) {
-		ArrayList<SingleEntry> tmpList = singleEntryList.get(targetDate);
-		if ((tmpList != null) && (tmpList.size() >= targetIndex)) {
-			tmpList.remove(targetIndex);
-		} else {
+		if (columnarList != null) {
+			SingleEntry delEntry = columnarList.getEntry(EpochDay.fromDate(targetDate), targetIndex);
+			if (delEntry == null) {
+				throw new IllegalArgumentException("The list of entries for this date: " + targetDate + " doesn't have the entry you are trying to delete");
+			}
+			removeFromTotals(columnarList.remove(delEntry.getEntryId()));
+			return;
+		}
+		EntryLocation delLocation = findSingleEntry(EpochDay.fromDate(targetDate), targetIndex);
+		if (delLocation == null) {
 			throw new IllegalArgumentException("The list of entries for this date: " + targetDate + " doesn't have the entry you are trying to delete");
 		}
-		singleEntryList.put(targetDate,tmpList);
+		removeSingleEntry(delLocation);
 	}
 
 	/**
@@ -111,13 +230,41 @@ public class EntryList {
 	 * @exception IllegalArgumentException - if the list of entries for this date does not contain the delEntry object
 	 */
 	public void deleteSingleEntry(SingleEntry delEntry) {
-		ArrayList<SingleEntry> tmpList = singleEntryList.get(delEntry.getDate());
-		if ((tmpList != null) && (tmpList.contains(delEntry))) {
-			tmpList.remove(delEntry);
-		} else {
+		if (columnarList != null) {
+			SingleEntry oldEntry = columnarList.remove(delEntry.getEntryId());
+			if (oldEntry == null) {
+				throw new IllegalArgumentException("The list of entries for this date: " + delEntry.getDate() + " doesn't have the entry you are trying to delete");
+			}
+			removeFromTotals(oldEntry);
+			return;
+		}
+		EntryLocation delLocation = entryIdList.get(delEntry.getEntryId());
+		if (delLocation == null || delLocation.entry != delEntry) {
 			throw new IllegalArgumentException("The list of entries for this date: " + delEntry.getDate() + " doesn't have the entry you are trying to delete");
 		}
-		singleEntryList.put(delEntry.getDate(),tmpList);
+		removeSingleEntry(delLocation);
+	}
+
+	/**
+	 * This removes an entry from the list of single entries using its entry id
+	 *
+	 * @param targetId - the id of the SingleEntry to delete
+	 * @exception IllegalArgumentException - if there is no entry with this id in the list
+	 */
+	public void deleteSingleEntry(long targetId) {
+		if (columnarList != null) {
+			SingleEntry oldEntry = columnarList.remove(targetId);
+			if (oldEntry == null) {
+				throw new IllegalArgumentException("The list of entries doesn't have an entry with id " + targetId);
+			}
+			removeFromTotals(oldEntry);
+			return;
+		}
+		EntryLocation delLocation = entryIdList.get(targetId);
+		if (delLocation == null) {
+			throw new IllegalArgumentException("The list of entries doesn't have an entry with id " + targetId);
+		}
+		removeSingleEntry(delLocation);
 	}
 	
 	/**
@@ -128,7 +275,9 @@ public class EntryList {
 	 */
 	public void deleteInstallmentEntry(String targetDesc) {
 		if ((installmentEntryList != null) && (installmentEntryList.containsKey(targetDesc))) {
-			installmentEntryList.remove(targetDesc);
+			InstallmentEntry delEntry = installmentEntryList.remove(targetDesc);
+			installmentEntryIndex.remove(delEntry);
+			budgetActuals.removeInstallmentEntry(delEntry);
 		} else {
 			throw new IllegalArgumentException("The list of entries for this month doesn't have the repeating entry you are trying to delete");
 		}
@@ -142,7 +291,9 @@ public class EntryList {
 	 */
 	public void deleteInstallmentEntry(InstallmentEntry delEntry) {
 		if ((installmentEntryList != null) && (installmentEntryList.containsKey(delEntry.getDesc()))) {
-			installmentEntryList.remove(delEntry);
+			InstallmentEntry oldEntry = installmentEntryList.remove(delEntry.getDesc());
+			installmentEntryIndex.remove(oldEntry);
+			budgetActuals.removeInstallmentEntry(oldEntry);
 		} else {
 			throw new IllegalArgumentException("The list of entries for this month doesn't have the entry you are trying to delete");
 		}
@@ -156,7 +307,9 @@ public class EntryList {
 	 */
 	public void deleteRepeatingEntry(String targetDesc) {
 		if ((repeatingEntryList != null) && (repeatingEntryList.containsKey(targetDesc))) {
-			repeatingEntryList.remove(targetDesc);
+			RepeatingEntry delEntry = repeatingEntryList.remove(targetDesc);
+			repeatingEntryIndex.remove(delEntry);
+			budgetActuals.removeRepeatingEntry(delEntry);
 		} else {
 			throw new IllegalArgumentException("The list of entries for this month doesn't have the repeating entry you are trying to delete");
 		}
@@ -170,7 +323,9 @@ public class EntryList {
 	 */
 	public void deleteRepeatingEntry(RepeatingEntry delEntry) {
 		if ((repeatingEntryList != null) && (repeatingEntryList.containsKey(delEntry.getDesc()))) {
-			repeatingEntryList.remove(delEntry);
+			RepeatingEntry oldEntry = repeatingEntryList.remove(delEntry.getDesc());
+			repeatingEntryIndex.remove(oldEntry);
+			budgetActuals.removeRepeatingEntry(oldEntry);
 		} else {
 			throw new IllegalArgumentException("The list of entries for this month doesn't have the entry you are trying to delete");
 		}
@@ -184,13 +339,38 @@ public class EntryList {
 	 * @exception IllegalArgumentException - if the oldEntry does not exist on this day
 	 */
 	public void updateSingleEntry(SingleEntry oldEntry, SingleEntry newEntry) {
-		//TODO: this breaks the sort order of the entries
-		try {
-			deleteSingleEntry(oldEntry);
-		} catch (IllegalArgumentException e) {
-			throw new IllegalArgumentException(e);
+		if (columnarList != null) {
+			if (!replaceColumnarEntry(oldEntry.getEntryId(), newEntry)) {
+				throw new IllegalArgumentException("The list of entries for this date: " + oldEntry.getDate() + " doesn't have the entry you are trying to update");
+			}
+			return;
 		}
-		addSingleEntry(newEntry);
+		EntryLocation oldLocation = entryIdList.get(oldEntry.getEntryId());
+		if (oldLocation == null || oldLocation.entry != oldEntry) {
+			throw new IllegalArgumentException("The list of entries for this date: " + oldEntry.getDate() + " doesn't have the entry you are trying to update");
+		}
+		replaceSingleEntry(oldLocation, newEntry);
+	}
+
+	/**
+	 * This updates an entry in the list of single entries using its entry id (the new entry keeps the same id)
+	 *
+	 * @param targetId - the id of the SingleEntry to update
+	 * @param newEntry - the new SingleEntry data to use in the update
+	 * @exception IllegalArgumentException - if there is no entry with this id in the list
+	 */
+	public void updateSingleEntry(long targetId, SingleEntry newEntry) {
+		if (columnarList != null) {
+			if (!replaceColumnarEntry(targetId, newEntry)) {
+				throw new IllegalArgumentException("The list of entries doesn't have an entry with id " + targetId);
+			}
+			return;
+		}
+		EntryLocation oldLocation = entryIdList.get(targetId);
+		if (oldLocation == null) {
+			throw new IllegalArgumentException("The list of entries doesn't have an entry with id " + targetId);
+		}
+		replaceSingleEntry(oldLocation, newEntry);
 	}
 
 	/**
@@ -202,16 +382,134 @@ public class EntryList {
 	 * @exception IllegalArgumentException - if the list of entries for this date does not at least have "targetIndex" number of items in it
 	 */
 	public void updateSingleEntry(JDateTime targetDate, int targetIndex, SingleEntry newEntry) {
-		try {
-			deleteSingleEntry(targetDate,targetIndex);
-		} catch (IllegalArgumentException e) {
-			throw new IllegalArgumentException(e);
-		}
-		// if both entries are on the same date, then insert new entry into the same location in the list as the old entry, otherwise insert onto end of list
-		if (newEntry.getDate().equals(targetDate)) {
-			addSingleEntry(newEntry,targetIndex);
+		if (columnarList != null) {
+			SingleEntry oldEntry = columnarList.getEntry(EpochDay.fromDate(targetDate), targetIndex);
+			if (oldEntry == null) {
+				throw new IllegalArgumentException("The list of entries for this date: " + targetDate + " doesn't have the entry you are trying to update");
+			}
+			replaceColumnarEntry(oldEntry.getEntryId(), newEntry);
+			return;
+		}
+		EntryLocation oldLocation = findSingleEntry(EpochDay.fromDate(targetDate), targetIndex);
+		if (oldLocation == null) {
+			throw new IllegalArgumentException("The list of entries for this date: " + targetDate + " doesn't have the entry you are trying to update");
+		}
+		replaceSingleEntry(oldLocation, newEntry);
+	}
+
+	/**
+	 * This replaces a single entry with a new one, which keeps the old entry's id.
+	 * If both entries are on the same date, then the new entry goes into the same location in the list as the old entry
+	 * (and in its account's list), otherwise it goes onto the end of the lists for its date.
+	 *
+	 * @param oldLocation - where the entry to replace is stored
+	 * @param newEntry - the new SingleEntry
+	 */
+	private void replaceSingleEntry(EntryLocation oldLocation, SingleEntry newEntry) {
+		SingleEntry oldEntry = oldLocation.entry;
+		newEntry.setEntryId(oldEntry.getEntryId());
+		removeFromTotals(oldEntry);
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		if (newDay == oldLocation.day) {
+			// replace the entry in place in both the day's list and its account's list, so the two lists stay in the same order
+			singleEntryList.set(newDay, oldLocation.position, newEntry);
+			oldLocation.entry = newEntry;
+			if (newEntry.getAccount().equals(oldEntry.getAccount())) {
+				accountEntryList.get(oldEntry.getAccount()).set(newDay, oldLocation.accountPosition, newEntry);
+			} else {
+				removeFromAccountIndex(oldEntry, oldLocation);
+				insertIntoAccountIndex(oldLocation);
+			}
 		} else {
-			addSingleEntry(newEntry);
+			removeFromAccountIndex(oldEntry, oldLocation);
+			removeFromDayList(oldLocation);
+			oldLocation.entry = newEntry;
+			oldLocation.day = newDay;
+			oldLocation.position = singleEntryList.add(newDay, newEntry);
+			oldLocation.accountPosition = getOrCreateAccountIndex(newEntry.getAccount()).add(newDay, newEntry);
+		}
+		addToTotals(newEntry);
+	}
+
+	/**
+	 * This replaces a single entry in the columnar storage with a new one, which keeps the old entry's id
+	 * (and its position, if both entries are on the same date)
+	 *
+	 * @param targetId - the id of the entry to replace
+	 * @param newEntry - the new SingleEntry
+	 * @return true if the entry was replaced, false if there is no entry with this id
+	 */
+	private boolean replaceColumnarEntry(long targetId, SingleEntry newEntry) {
+		if (!columnarList.hasEntryId(targetId)) {
+			return false;
+		}
+		newEntry.setEntryId(targetId);
+		removeFromTotals(columnarList.replace(targetId, newEntry));
+		addToTotals(newEntry);
+		return true;
+	}
+
+	/**
+	 * This gives an entry a new id, unless it already has an id that isn't used by another single entry in this list
+	 *
+	 * @param newEntry - the entry being added to the list
+	 */
+	private void assignEntryId(Entry newEntry) {
+		long newId = newEntry.getEntryId();
+		boolean isUsed;
+		if (columnarList != null) {
+			// the columnar storage only keeps copies, so an id in the list is always used by another entry
+			isUsed = columnarList.hasEntryId(newId);
+		} else {
+			EntryLocation oldLocation = entryIdList.get(newId);
+			isUsed = oldLocation != null && oldLocation.entry != newEntry;
+		}
+		if (newId <= 0 || isUsed) {
+			newId = nextEntryId;
+			newEntry.setEntryId(newId);
+		}
+		nextEntryId = Math.max(nextEntryId, newId + 1);
+	}
+
+	/**
+	 * This finds the entry at a position in the list of entries for a day
+	 *
+	 * @param targetDay - epoch day of the entry
+	 * @param targetIndex - index of the entry on that day (not counting removed entries)
+	 * @return where the entry is stored, or null if the day doesn't have that many entries
+	 */
+	private EntryLocation findSingleEntry(int targetDay, int targetIndex) {
+		// positions count only the entries that are still in the list, so drop the removed entries first
+		compactDay(singleEntryList, targetDay);
+		ArrayList<SingleEntry> tmpList = singleEntryList.get(targetDay);
+		if ((tmpList == null) || (targetIndex < 0) || (tmpList.size() <= targetIndex)) {
+			return null;
+		}
+		return entryIdList.get(tmpList.get(targetIndex).getEntryId());
+	}
+
+	/**
+	 * This removes a single entry from the list (the caller has already checked that it's there)
+	 *
+	 * @param delLocation - where the entry to remove is stored
+	 */
+	private void removeSingleEntry(EntryLocation delLocation) {
+		SingleEntry delEntry = delLocation.entry;
+		entryIdList.remove(delEntry.getEntryId());
+		removeFromAccountIndex(delEntry, delLocation);
+		removeFromDayList(delLocation);
+		removeFromTotals(delEntry);
+	}
+
+	/**
+	 * This removes a single entry from the list for its day, compacting the list if it is mostly removed entries
+	 *
+	 * @param delLocation - where the entry to remove is stored
+	 */
+	private void removeFromDayList(EntryLocation delLocation) {
+		singleEntryList.remove(delLocation.day, delLocation.position);
+		if (singleEntryList.isSparse(delLocation.day)) {
+			compactDay(singleEntryList, delLocation.day);
 		}
 	}
 	
@@ -225,7 +523,12 @@ public class EntryList {
 	public void updateInstallmentEntry(String oldDesc, InstallmentEntry newEntry) {
 		if (installmentEntryList.containsKey(oldDesc)) {
 			try {
-				installmentEntryList.replace(oldDesc, newEntry);
+				newEntry.setEntryId(installmentEntryList.get(oldDesc).getEntryId());
+				InstallmentEntry oldEntry = installmentEntryList.replace(oldDesc, newEntry);
+				installmentEntryIndex.remove(oldEntry);
+				budgetActuals.removeInstallmentEntry(oldEntry);
+				installmentEntryIndex.add(newEntry);
+				budgetActuals.addInstallmentEntry(newEntry);
 			} catch (IllegalArgumentException e) {
 				throw new IllegalArgumentException(e);
 			}
@@ -244,7 +547,12 @@ public class EntryList {
 	public void updateRepeatingEntry(String oldDesc, RepeatingEntry newEntry) {
 		if (repeatingEntryList.containsKey(oldDesc)) {
 			try {
-				repeatingEntryList.replace(oldDesc, newEntry);
+				newEntry.setEntryId(repeatingEntryList.get(oldDesc).getEntryId());
+				RepeatingEntry oldEntry = repeatingEntryList.replace(oldDesc, newEntry);
+				repeatingEntryIndex.remove(oldEntry);
+				budgetActuals.removeRepeatingEntry(oldEntry);
+				repeatingEntryIndex.add(newEntry);
+				budgetActuals.addRepeatingEntry(newEntry);
 			} catch (IllegalArgumentException e) {
 				throw new IllegalArgumentException(e);
 			}
@@ -253,6 +561,207 @@ public class EntryList {
 		}
 	}
 
+	/**
+	 * This removes all the single entries in a month from memory (used when a month is unloaded)
+	 *
+	 * @param targetMonth - a date in the month to remove
+	 */
+	public void removeMonth(JDateTime targetMonth) {
+		int monthIndex = EpochDay.toMonthIndex(targetMonth);
+		int firstDay = EpochDay.fromDate(EpochDay.fromMonthIndex(monthIndex));
+		int nextMonthDay = EpochDay.fromDate(EpochDay.fromMonthIndex(monthIndex + 1));
+		if (columnarList != null) {
+			for (SingleEntry delEntry : columnarList.removeDays(firstDay, nextMonthDay - 1)) {
+				removeFromTotals(delEntry);
+			}
+			return;
+		}
+		// collect the days first, since removing a day shifts the positions of the later days
+		ArrayList<Integer> dayList = new ArrayList<Integer>();
+		for (int i = singleEntryList.ceilingSlot(firstDay); i < singleEntryList.size() && singleEntryList.dayAt(i) < nextMonthDay; i++) {
+			dayList.add(singleEntryList.dayAt(i));
+		}
+		for (int targetDay : dayList) {
+			for (SingleEntry delEntry : singleEntryList.get(targetDay)) {
+				if (delEntry != null) {
+					EntryLocation delLocation = entryIdList.remove(delEntry.getEntryId());
+					removeFromAccountIndex(delEntry, delLocation);
+					removeFromTotals(delEntry);
+				}
+			}
+			singleEntryList.removeDay(targetDay);
+		}
+	}
+
+	/**
+	 * This hands out a new entry id (for entries that are stored before they are added to this list)
+	 *
+	 * @return an entry id that hasn't been used
+	 */
+	public long createEntryId() {
+		return nextEntryId++;
+	}
+
+	/**
+	 * This makes sure new entries get ids above an id that is already used outside this list (such as in the database)
+	 *
+	 * @param usedEntryId - the highest id that is already used
+	 */
+	public void reserveEntryIds(long usedEntryId) {
+		nextEntryId = Math.max(nextEntryId, usedEntryId + 1);
+	}
+
+	/**
+	 * This adds a single entry to the secondary indexes (call after adding it to singleEntryList)
+	 * 
+	 * @param newEntry - the SingleEntry that was added
+	 * @param newDay - the epoch day of the entry
+	 * @param position - the position of the entry in the list for its day
+	 */
+	private void indexSingleEntry(SingleEntry newEntry, int newDay, int position) {
+		assignEntryId(newEntry);
+		EntryLocation newLocation = new EntryLocation(newEntry, newDay, position);
+		newLocation.accountPosition = getOrCreateAccountIndex(newEntry.getAccount()).add(newDay, newEntry);
+		entryIdList.put(newEntry.getEntryId(), newLocation);
+		addToTotals(newEntry);
+	}
+
+	/**
+	 * This returns the DayIndex of the single entries for an account, adding an empty one if the account doesn't have one yet
+	 * 
+	 * @param targetAccount - the account to get the DayIndex for
+	 * @return the DayIndex for the account
+	 */
+	private DayIndex getOrCreateAccountIndex(Account targetAccount) {
+		DayIndex accountIndex = accountEntryList.get(targetAccount);
+		if (accountIndex == null) {
+			accountIndex = new DayIndex();
+			accountEntryList.put(targetAccount, accountIndex);
+		}
+		return accountIndex;
+	}
+
+	/**
+	 * This inserts a single entry into its account's list for its day, at the position that keeps that list
+	 * in the same order as the day's list (the number of entries for the account that come before it in the day's list)
+	 * 
+	 * @param newLocation - where the entry is stored in the day's list (its account position is filled in)
+	 */
+	private void insertIntoAccountIndex(EntryLocation newLocation) {
+		Account newAccount = newLocation.entry.getAccount();
+		ArrayList<SingleEntry> dayList = singleEntryList.get(newLocation.day);
+		int accountPosition = 0;
+		for (int i = 0; i < newLocation.position; i++) {
+			SingleEntry tmpEntry = dayList.get(i);
+			if (tmpEntry != null && tmpEntry.getAccount().equals(newAccount)) {
+				accountPosition++;
+			}
+		}
+		DayIndex accountIndex = getOrCreateAccountIndex(newAccount);
+		compactDay(accountIndex, newLocation.day);
+		accountIndex.insert(newLocation.day, accountPosition, newLocation.entry);
+		newLocation.accountPosition = accountPosition;
+		// the account's entries after the new entry have moved down one position
+		ArrayList<SingleEntry> accountList = accountIndex.get(newLocation.day);
+		for (int i = accountPosition + 1; i < accountList.size(); i++) {
+			entryIdList.get(accountList.get(i).getEntryId()).accountPosition = i;
+		}
+	}
+
+	/**
+	 * This removes a single entry from the DayIndex for its account
+	 * 
+	 * @param delEntry - the SingleEntry to remove
+	 * @param delLocation - where the entry is stored
+	 */
+	private void removeFromAccountIndex(SingleEntry delEntry, EntryLocation delLocation) {
+		DayIndex accountIndex = accountEntryList.get(delEntry.getAccount());
+		accountIndex.remove(delLocation.day, delLocation.accountPosition);
+		if (accountIndex.isEmpty()) {
+			accountEntryList.remove(delEntry.getAccount());
+		} else if (accountIndex.isSparse(delLocation.day)) {
+			compactDay(accountIndex, delLocation.day);
+		}
+	}
+
+	/**
+	 * This drops the removed entries from a day's list in a DayIndex, updating the stored positions of the entries that move
+	 * 
+	 * @param targetIndex - singleEntryList or the DayIndex of an account
+	 * @param targetDay - the day to compact
+	 */
+	private void compactDay(DayIndex targetIndex, int targetDay) {
+		if (targetIndex.compactDay(targetDay)) {
+			ArrayList<SingleEntry> tmpList = targetIndex.get(targetDay);
+			for (int i = 0; i < tmpList.size(); i++) {
+				EntryLocation tmpLocation = entryIdList.get(tmpList.get(i).getEntryId());
+				if (targetIndex == singleEntryList) {
+					tmpLocation.position = i;
+				} else {
+					tmpLocation.accountPosition = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This adds a single entry to the counts, running balances and budget actuals
+	 * 
+	 * @param newEntry - the SingleEntry that was added
+	 */
+	private void addToTotals(SingleEntry newEntry) {
+		singleEntryCount++;
+		addToCount(monthEntryCountList, EpochDay.toMonthIndex(newEntry.getDate()), 1);
+		addToCount(accountEntryCountList, newEntry.getAccount(), 1);
+
+		int newDay = EpochDay.fromDate(newEntry.getDate());
+		RunningBalance accountBalance = accountBalanceList.get(newEntry.getAccount());
+		if (accountBalance == null) {
+			accountBalance = new RunningBalance();
+			accountBalanceList.put(newEntry.getAccount(), accountBalance);
+		}
+		accountBalance.add(newDay, newEntry.getMonthlyMoney());
+		totalBalance.add(newDay, newEntry.getMonthlyMoney());
+		budgetActuals.addSingleEntry(newEntry);
+	}
+
+	/**
+	 * This takes a single entry back out of the counts, running balances and budget actuals
+	 * 
+	 * @param delEntry - the SingleEntry that was removed
+	 */
+	private void removeFromTotals(SingleEntry delEntry) {
+		singleEntryCount--;
+		addToCount(monthEntryCountList, EpochDay.toMonthIndex(delEntry.getDate()), -1);
+		addToCount(accountEntryCountList, delEntry.getAccount(), -1);
+
+		int delDay = EpochDay.fromDate(delEntry.getDate());
+		Money negativeAmount = delEntry.getMonthlyMoney().negate();
+		RunningBalance accountBalance = accountBalanceList.get(delEntry.getAccount());
+		if (accountBalance != null) {
+			accountBalance.add(delDay, negativeAmount);
+		}
+		totalBalance.add(delDay, negativeAmount);
+		budgetActuals.removeSingleEntry(delEntry);
+	}
+
+	/**
+	 * This adds to the count for a key, removing the key when its count goes down to zero
+	 * 
+	 * @param countList - the counts to update
+	 * @param countKey - the key to update the count for
+	 * @param change - the amount to add to the count (1 or -1)
+	 */
+	private static <K> void addToCount(HashMap<K, Integer> countList, K countKey, int change) {
+		Integer oldCount = countList.get(countKey);
+		int newCount = ((oldCount == null) ? 0 : oldCount) + change;
+		if (newCount > 0) {
+			countList.put(countKey, newCount);
+		} else {
+			countList.remove(countKey);
+		}
+	}
+
 	/**
 	 * This checks if a single entry is in the list of entries
 	 * 
@@ -260,8 +769,25 @@ public class EntryList {
 	 * @return true if this entry is in the month then return true, else return false
 	 */
 	public boolean isSingleEntryInTheList(SingleEntry testEntry) {
-		ArrayList<SingleEntry> tmpList = singleEntryList.get(testEntry.getDate());	
-		return tmpList.contains(testEntry);
+		if (columnarList != null) {
+			return columnarList.hasEntryId(testEntry.getEntryId());
+		}
+		EntryLocation testLocation = entryIdList.get(testEntry.getEntryId());
+		return testLocation != null && testLocation.entry == testEntry;
+	}
+
+	/**
+	 * This returns the single entry with an entry id
+	 * 
+	 * @param searchId - the id of the entry we are searching for
+	 * @return the SingleEntry with that id or null if there isn't one in the list
+	 */
+	public SingleEntry getSingleEntry(long searchId) {
+		if (columnarList != null) {
+			return columnarList.getEntry(searchId);
+		}
+		EntryLocation searchLocation = entryIdList.get(searchId);
+		return (searchLocation == null) ? null : searchLocation.entry;
 	}
 
 	/**
@@ -271,11 +797,14 @@ public class EntryList {
 	 */
 	public ArrayList<SingleEntry> getSingleEntryList() {
 		ArrayList<SingleEntry> masterList = new ArrayList<SingleEntry>();
-		//keySet returns a set of all the keys in the TreeMap
-		for(JDateTime tmpDate : singleEntryList.keySet()){
+		if (columnarList != null) {
+			columnarList.addEntries(Integer.MIN_VALUE, Integer.MAX_VALUE, null, masterList);
+			return masterList;
+		}
+		// days are stored in date order, so walk them from first to last
+		for (int i = 0; i < singleEntryList.size(); i++) {
 			// add all the items in the list for this date
-			ArrayList<SingleEntry> tmpList = singleEntryList.get(tmpDate);
-			masterList.addAll(tmpList);
+			addLiveEntries(singleEntryList.listAt(i), masterList);
 		}
 		return masterList;
 	};
@@ -283,12 +812,159 @@ public class EntryList {
 	/**
 	 * This returns a list of all the SingleEntries for a specific date
 	 * 
-	 * @return an ArrayList of all the SingleEntries for a specific date
+	 * @return an ArrayList of all the SingleEntries for a specific date (a copy), or null if there are no entries on that date
 	 */
 	public ArrayList<SingleEntry> getSingleEntryList(JDateTime searchDate) {
-		return singleEntryList.get(searchDate);
+		if (columnarList != null) {
+			int searchDay = EpochDay.fromDate(searchDate);
+			ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>();
+			columnarList.addEntries(searchDay, searchDay, null, returnList);
+			return returnList.isEmpty() ? null : returnList;
+		}
+		ArrayList<SingleEntry> tmpList = singleEntryList.get(EpochDay.fromDate(searchDate));
+		if (tmpList == null || tmpList.isEmpty()) {
+			return null;
+		}
+		ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>(tmpList.size());
+		addLiveEntries(tmpList, returnList);
+		return returnList;
 	};
 
+	/**
+	 * This returns a list of all the SingleEntries in a date range, sorted by date
+	 * (only the days that have entries are visited)
+	 * 
+	 * @param startDate - the first date to get entries for (if null start with the earliest entry)
+	 * @param endDate - the last date to get entries for (if null end with the latest entry)
+	 * @return an ArrayList of the SingleEntries in the date range
+	 */
+	public ArrayList<SingleEntry> getSingleEntries(JDateTime startDate, JDateTime endDate) {
+		ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>();
+		if (columnarList != null) {
+			addColumnarEntriesInRange(null, startDate, endDate, returnList);
+		} else {
+			addEntriesInRange(singleEntryList, startDate, endDate, returnList);
+		}
+		return returnList;
+	}
+
+	/**
+	 * This returns a list of all the SingleEntries for an account in a date range, sorted by date
+	 * 
+	 * @param searchAccount - the account to get the entries for
+	 * @param startDate - the first date to get entries for (if null start with the earliest entry)
+	 * @param endDate - the last date to get entries for (if null end with the latest entry)
+	 * @return an ArrayList of the SingleEntries for this account in the date range
+	 */
+	public ArrayList<SingleEntry> getSingleEntries(Account searchAccount, JDateTime startDate, JDateTime endDate) {
+		ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>();
+		if (columnarList != null) {
+			addColumnarEntriesInRange(searchAccount, startDate, endDate, returnList);
+			return returnList;
+		}
+		DayIndex accountIndex = accountEntryList.get(searchAccount);
+		if (accountIndex != null) {
+			addEntriesInRange(accountIndex, startDate, endDate, returnList);
+		}
+		return returnList;
+	}
+
+	/**
+	 * This copies the entries from a DayIndex that fall in a date range onto a list
+	 * 
+	 * @param searchIndex - the DayIndex to read entries from
+	 * @param startDate - the first date to copy entries for (if null start with the earliest entry)
+	 * @param endDate - the last date to copy entries for (if null end with the latest entry)
+	 * @param returnList - the list to add the entries onto
+	 */
+	private void addEntriesInRange(DayIndex searchIndex, JDateTime startDate, JDateTime endDate, ArrayList<SingleEntry> returnList) {
+		int startSlot = 0;
+		if (startDate != null) {
+			startSlot = searchIndex.ceilingSlot(EpochDay.fromDate(startDate));
+		}
+		int lastDay = Integer.MAX_VALUE;
+		if (endDate != null) {
+			lastDay = EpochDay.fromDate(endDate);
+		}
+		for (int i = startSlot; i < searchIndex.size() && searchIndex.dayAt(i) <= lastDay; i++) {
+			addLiveEntries(searchIndex.listAt(i), returnList);
+		}
+	}
+
+	/**
+	 * This copies the entries from the columnar storage that fall in a date range onto a list
+	 * 
+	 * @param searchAccount - the account to copy entries for (if null copy every account)
+	 * @param startDate - the first date to copy entries for (if null start with the earliest entry)
+	 * @param endDate - the last date to copy entries for (if null end with the latest entry)
+	 * @param returnList - the list to add the entries onto
+	 */
+	private void addColumnarEntriesInRange(Account searchAccount, JDateTime startDate, JDateTime endDate, ArrayList<SingleEntry> returnList) {
+		int firstDay = (startDate == null) ? Integer.MIN_VALUE : EpochDay.fromDate(startDate);
+		int lastDay = (endDate == null) ? Integer.MAX_VALUE : EpochDay.fromDate(endDate);
+		columnarList.addEntries(firstDay, lastDay, searchAccount, returnList);
+	}
+
+	/**
+	 * This copies the entries from a day's list onto a list, skipping the entries that have been removed
+	 * 
+	 * @param dayList - the list of entries for a day
+	 * @param returnList - the list to add the entries onto
+	 */
+	private static void addLiveEntries(ArrayList<SingleEntry> dayList, ArrayList<SingleEntry> returnList) {
+		for (int i = 0; i < dayList.size(); i++) {
+			SingleEntry tmpEntry = dayList.get(i);
+			if (tmpEntry != null) {
+				returnList.add(tmpEntry);
+			}
+		}
+	}
+
+	/**
+	 * This returns the total of the SingleEntries on or before a date
+	 * 
+	 * @param searchAccount - the account to get the balance of (if null get the balance of the entire list)
+	 * @param balanceDate - the last date to include in the balance
+	 * @return the balance as of the end of balanceDate
+	 */
+	public BigDecimal getBalanceAsOf(Account searchAccount, JDateTime balanceDate) {
+		RunningBalance searchBalance = getRunningBalance(searchAccount);
+		if (searchBalance == null) {
+			return BigDecimal.ZERO;
+		}
+		return searchBalance.getBalanceAsOf(EpochDay.fromDate(balanceDate)).toBigDecimal();
+	}
+
+	/**
+	 * This returns the total of the SingleEntries between two dates
+	 * 
+	 * @param searchAccount - the account to get the net change of (if null get the net change of the entire list)
+	 * @param startDate - the first date to include
+	 * @param endDate - the last date to include
+	 * @return the net change in the balance from startDate to endDate
+	 */
+	public BigDecimal getNetChange(Account searchAccount, JDateTime startDate, JDateTime endDate) {
+		RunningBalance searchBalance = getRunningBalance(searchAccount);
+		if (searchBalance == null) {
+			return BigDecimal.ZERO;
+		}
+		return searchBalance.getNetChange(EpochDay.fromDate(startDate), EpochDay.fromDate(endDate)).toBigDecimal();
+	}
+
+	/**
+	 * This returns the running balance for an account or for the entire list
+	 * 
+	 * @param searchAccount - the account to get the running balance of (if null get the running balance of the entire list)
+	 * @return the RunningBalance object or null if the account has never had any entries
+	 */
+	private RunningBalance getRunningBalance(Account searchAccount) {
+		if (searchAccount == null) {
+			return totalBalance;
+		} else {
+			return accountBalanceList.get(searchAccount);
+		}
+	}
+
 	/**
 	 * This returns the nth SingleEntry on a specific date
 	 * 
@@ -298,12 +974,41 @@ public class EntryList {
 	 * @exception IllegalArgumentException - if the ledger doesn't have loc entries for the searchDate
 	 */
 	public SingleEntry getSingleEntry(JDateTime searchDate, int loc) {
-		ArrayList<SingleEntry> tmpList = getSingleEntryList(searchDate);	
-		try {
-			return tmpList.get(loc);
-		} catch (IndexOutOfBoundsException e) {
+		if (getNumberOfSingleEntriesInDate(searchDate) == 0) {
+			throw new IllegalArgumentException("Ledger doesn't have any entries for this date");
+		}
+		if (columnarList != null) {
+			SingleEntry searchEntry = columnarList.getEntry(EpochDay.fromDate(searchDate), loc);
+			if (searchEntry == null) {
+				throw new IllegalArgumentException("Ledger doesn't have " + loc + " entries for this date");
+			}
+			return searchEntry;
+		}
+		EntryLocation searchLocation = findSingleEntry(EpochDay.fromDate(searchDate), loc);
+		if (searchLocation == null) {
 			throw new IllegalArgumentException("Ledger doesn't have " + loc + " entries for this date");
 		}
+		return searchLocation.entry;
+	}
+
+	/**
+	 * This returns the installment entry with a description
+	 * 
+	 * @param searchDesc - the description of the entry
+	 * @return the InstallmentEntry or null if there isn't one with that description
+	 */
+	public InstallmentEntry getInstallmentEntry(String searchDesc) {
+		return installmentEntryList.get(searchDesc);
+	}
+
+	/**
+	 * This returns the repeating entry with a description
+	 * 
+	 * @param searchDesc - the description of the entry
+	 * @return the RepeatingEntry or null if there isn't one with that description
+	 */
+	public RepeatingEntry getRepeatingEntry(String searchDesc) {
+		return repeatingEntryList.get(searchDesc);
 	}
 
 	/**
@@ -313,19 +1018,14 @@ public class EntryList {
 	 * @return - an ArrayList of installment entries
 	 */
 	public ArrayList<InstallmentEntry> getInstallmentEntryList(JDateTime targetMonth) {
-		ArrayList<InstallmentEntry> returnList = new ArrayList<InstallmentEntry>();
-		for (String tmpDesc : installmentEntryList.keySet()){
-				InstallmentEntry tmpInstallmentEntry = installmentEntryList.get(tmpDesc);
-				if (targetMonth != null) {
-					if ((targetMonth.isAfterDate(tmpInstallmentEntry.getStartDate()) || targetMonth.equals(tmpInstallmentEntry.getStartDate()))  && 
-							(targetMonth.isBeforeDate(tmpInstallmentEntry.getEndDate()) || targetMonth.equals(tmpInstallmentEntry.getEndDate()))) {
-						returnList.add(tmpInstallmentEntry);
-					} 
-				} else {
-					returnList.add(tmpInstallmentEntry);
-				}
+		if (targetMonth != null) {
+			ArrayList<InstallmentEntry> returnList = installmentEntryIndex.getActiveEntries(EpochDay.fromDate(targetMonth));
+			// sort by description to match the order of the full list
+			Collections.sort(returnList);
+			return returnList;
+		} else {
+			return new ArrayList<InstallmentEntry>(installmentEntryList.values());
 		}
-		return returnList;
 	}
 	
 	/**
@@ -335,19 +1035,14 @@ public class EntryList {
 	 * @return - an ArrayList of repeating entries
 	 */
 	public ArrayList<RepeatingEntry> getRepeatingEntryList(JDateTime targetMonth) {
-		ArrayList<RepeatingEntry> returnList = new ArrayList<RepeatingEntry>();
-		for (String tmpDesc : repeatingEntryList.keySet()){
-				RepeatingEntry tmpRepeatingEntry = repeatingEntryList.get(tmpDesc);
-				if (targetMonth != null) {
-					if ((targetMonth.isAfterDate(tmpRepeatingEntry.getStartDate()) || targetMonth.equals(tmpRepeatingEntry.getStartDate()))  && 
-							(targetMonth.isBeforeDate(tmpRepeatingEntry.getEndDate()) || targetMonth.equals(tmpRepeatingEntry.getEndDate()))) {
-						returnList.add(tmpRepeatingEntry);
-					} 
-				} else {
-					returnList.add(tmpRepeatingEntry);
-				}
+		if (targetMonth != null) {
+			ArrayList<RepeatingEntry> returnList = repeatingEntryIndex.getActiveEntries(EpochDay.fromDate(targetMonth));
+			// sort by description to match the order of the full list
+			Collections.sort(returnList);
+			return returnList;
+		} else {
+			return new ArrayList<RepeatingEntry>(repeatingEntryList.values());
 		}
-		return returnList;
 	}
 	
 //	/**
@@ -423,9 +1118,12 @@ public class EntryList {
 	 * @return the number of entries in that date or zero if no entries have been entered for that date
 	 */
 	public int getNumberOfSingleEntriesInDate(JDateTime searchDate) {
-		ArrayList<SingleEntry> tmpList = getSingleEntryList(searchDate);
-		if (tmpList != null) {
-			return tmpList.size();
+		if (columnarList != null) {
+			return columnarList.getDayCount(EpochDay.fromDate(searchDate));
+		}
+		int slot = singleEntryList.findDay(EpochDay.fromDate(searchDate));
+		if (slot >= 0) {
+			return singleEntryList.liveSizeAt(slot);
 		} else {
 			return 0;
 		}
@@ -437,7 +1135,21 @@ public class EntryList {
 	 * @return an ArrayList of all the dates that have entries in them
 	 */
 	public ArrayList<JDateTime> getSingleEntryDateList() {
-		return new ArrayList<JDateTime>(singleEntryList.keySet());
+		if (columnarList != null) {
+			ArrayList<JDateTime> dateList = new ArrayList<JDateTime>();
+			for (int tmpDay : columnarList.getDays()) {
+				dateList.add(EpochDay.toDate(tmpDay));
+			}
+			return dateList;
+		}
+		ArrayList<JDateTime> dateList = new ArrayList<JDateTime>(singleEntryList.size());
+		for (int i = 0; i < singleEntryList.size(); i++) {
+			// skip the days whose entries have all been removed
+			if (singleEntryList.liveSizeAt(i) > 0) {
+				dateList.add(EpochDay.toDate(singleEntryList.dayAt(i)));
+			}
+		}
+		return dateList;
 	};
 
 	/**
@@ -446,11 +1158,128 @@ public class EntryList {
 	 * @return the number of entries in this month
 	 */
 	public int singleEntrySize() {
-		int totalSize = 0;
-		//keySet returns a set of all the keys in the TreeMap
-		for(JDateTime tmpDate : singleEntryList.keySet()){
-			totalSize = totalSize + singleEntryList.get(tmpDate).size();
+		return singleEntryCount;
+	}
+
+	/**
+	 * This returns the number of SingleEntries in a month
+	 * 
+	 * @param searchMonth - a date in the month we are looking for
+	 * @return the number of entries in that month
+	 */
+	public int singleEntrySize(JDateTime searchMonth) {
+		Integer monthCount = monthEntryCountList.get(EpochDay.toMonthIndex(searchMonth));
+		return (monthCount == null) ? 0 : monthCount;
+	}
+
+	/**
+	 * This returns the number of SingleEntries in an account
+	 * 
+	 * @param searchAccount - the account we are looking for
+	 * @return the number of entries in that account
+	 */
+	public int singleEntrySize(Account searchAccount) {
+		Integer accountCount = accountEntryCountList.get(searchAccount);
+		return (accountCount == null) ? 0 : accountCount;
+	}
+
+	/**
+	 * This returns the date of the earliest SingleEntry
+	 * 
+	 * @return the date of the first entry or null if the list has no single entries
+	 */
+	public JDateTime getFirstSingleEntryDate() {
+		if (columnarList != null) {
+			return (columnarList.size() == 0) ? null : EpochDay.toDate(columnarList.dayAt(0));
+		}
+		for (int i = 0; i < singleEntryList.size(); i++) {
+			if (singleEntryList.liveSizeAt(i) > 0) {
+				return EpochDay.toDate(singleEntryList.dayAt(i));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This returns the date of the latest SingleEntry
+	 * 
+	 * @return the date of the last entry or null if the list has no single entries
+	 */
+	public JDateTime getLastSingleEntryDate() {
+		if (columnarList != null) {
+			return (columnarList.size() == 0) ? null : EpochDay.toDate(columnarList.dayAt(columnarList.size() - 1));
+		}
+		for (int i = singleEntryList.size() - 1; i >= 0; i--) {
+			if (singleEntryList.liveSizeAt(i) > 0) {
+				return EpochDay.toDate(singleEntryList.dayAt(i));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This builds a report over the single entries in a date range
+	 * 
+	 * @param reportEngine - the engine to build the report with
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return a LedgerReport with the statistics for each account and month
+	 */
+	LedgerReport getLedgerReport(LedgerReportEngine reportEngine, JDateTime startDate, JDateTime endDate) {
+		if (columnarList != null) {
+			return reportEngine.run(columnarList, startDate, endDate);
+		}
+		return reportEngine.run(singleEntryList, startDate, endDate);
+	}
+
+	/**
+	 * This returns the totals of the single, repeating and installment entries for each month and account
+	 * (kept up to date as entries are added and removed, so it shouldn't be changed by the caller)
+	 * 
+	 * @return the BudgetActuals object for this list
+	 */
+	BudgetActuals getBudgetActuals() {
+		return budgetActuals;
+	}
+
+	/**
+	 * This returns a snapshot of the number of entries in the list
+	 * 
+	 * @return a LedgerStats object with the current counts
+	 */
+	public LedgerStats getLedgerStats() {
+		TreeMap<JDateTime, Integer> monthCountList = new TreeMap<JDateTime, Integer>();
+		for (Map.Entry<Integer, Integer> monthCount : monthEntryCountList.entrySet()) {
+			monthCountList.put(EpochDay.fromMonthIndex(monthCount.getKey()), monthCount.getValue());
+		}
+		return new LedgerStats(singleEntryCount, repeatingEntryList.size(), installmentEntryList.size(), getFirstSingleEntryDate(),
+				getLastSingleEntryDate(), monthCountList, new HashMap<Account, Integer>(accountEntryCountList));
+	}
+
+	/**
+	 * This class is where a single entry is stored: its day and its position in the list for that day,
+	 * in both singleEntryList and the DayIndex for its account
+	 */
+	private static class EntryLocation {
+		// the entry and its epoch day
+		SingleEntry entry;
+		int day;
+		// position of the entry in the day's list in singleEntryList and in the day's list in its account's DayIndex
+		int position;
+		int accountPosition;
+
+		/**
+		 * This is a constructor for the location of an entry in singleEntryList (the account position is filled in later)
+		 *
+		 * @param newEntry - the entry
+		 * @param newDay - the epoch day of the entry
+		 * @param newPosition - the position of the entry in the list for its day
+		 */
+		EntryLocation(SingleEntry newEntry, int newDay, int newPosition) {
+			entry = newEntry;
+			day = newDay;
+			position = newPosition;
+			accountPosition = -1;
 		}
-		return totalSize;
 	}
 }
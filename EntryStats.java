@@ -0,0 +1,99 @@
+package budget_program;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the number of single entries in a group (such as an account or a month) and the total,
+ * smallest and largest of their amounts. It is filled in by the report engine, which keeps a separate
+ * EntryStats for each part of the ledger it works on and then merges them, so it doesn't need to be thread safe.
+ *
+ * @author Asa Swain
+ */
+
+public class EntryStats {
+	// number of entries
+	private long count;
+	// total, smallest and largest amount in cents
+	private long sumCents;
+	private long minCents;
+	private long maxCents;
+
+	/**
+	 * This is a constructor for an empty group (only the report engine should call this)
+	 */
+	EntryStats() {
+		count = 0;
+		sumCents = 0;
+		minCents = Long.MAX_VALUE;
+		maxCents = Long.MIN_VALUE;
+	}
+
+	/**
+	 * This adds an entry's amount to the group
+	 *
+	 * @param amount - the amount of the entry
+	 */
+	void add(Money amount) {
+		add(amount.getCents());
+	}
+
+	/**
+	 * This adds an entry's amount in cents to the group
+	 *
+	 * @param cents - the amount of the entry in cents
+	 */
+	void add(long cents) {
+		count++;
+		sumCents = Math.addExact(sumCents, cents);
+		minCents = Math.min(minCents, cents);
+		maxCents = Math.max(maxCents, cents);
+	}
+
+	/**
+	 * This adds the entries counted in another group to this group
+	 *
+	 * @param otherStats - the group to add
+	 */
+	void merge(EntryStats otherStats) {
+		count += otherStats.count;
+		sumCents = Math.addExact(sumCents, otherStats.sumCents);
+		minCents = Math.min(minCents, otherStats.minCents);
+		maxCents = Math.max(maxCents, otherStats.maxCents);
+	}
+
+	/**
+	 * This returns the number of entries in the group
+	 *
+	 * @return the number of entries
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * This returns the total of the amounts in the group
+	 *
+	 * @return the total (negative for money spent)
+	 */
+	public BigDecimal getSum() {
+		return Money.ofCents(sumCents).toBigDecimal();
+	}
+
+	/**
+	 * This returns the smallest amount in the group
+	 *
+	 * @return the smallest amount, or null if the group has no entries
+	 */
+	public BigDecimal getMin() {
+		return (count == 0) ? null : Money.ofCents(minCents).toBigDecimal();
+	}
+
+	/**
+	 * This returns the largest amount in the group
+	 *
+	 * @return the largest amount, or null if the group has no entries
+	 */
+	public BigDecimal getMax() {
+		return (count == 0) ? null : Money.ofCents(maxCents).toBigDecimal();
+	}
+}
@@ -0,0 +1,116 @@
+package budget_program;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class converts dates to and from epoch day numbers (the number of days since 1/1/1970),
+ * so the ledger can index entries by a primitive int instead of comparing JDateTime objects
+ *
+ * @author Asa Swain
+ */
+
+final class EpochDay {
+	// number of days between 3/1/0000 and 1/1/1970
+	private static final int DAYS_TO_1970 = 719468;
+	// number of days in a 400 year cycle of the Gregorian calendar
+	private static final int DAYS_IN_ERA = 146097;
+
+	/**
+	 * This class only has static methods
+	 */
+	private EpochDay() {
+	}
+
+	/**
+	 * This converts a year, month and day into an epoch day number
+	 *
+	 * @param year - the year of the date
+	 * @param month - the month of the date (1 - 12)
+	 * @param day - the day of the month
+	 * @return the number of days between 1/1/1970 and this date
+	 */
+	static int fromDate(int year, int month, int day) {
+		// count years from March so the leap day falls at the end of the year
+		if (month <= 2) {
+			year--;
+		}
+		int era = (year >= 0 ? year : year - 399) / 400;
+		int yearOfEra = year - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * DAYS_IN_ERA + dayOfEra - DAYS_TO_1970;
+	}
+
+	/**
+	 * This converts a JDateTime object into an epoch day number (the time of day is ignored)
+	 *
+	 * @param date - the date to convert
+	 * @return the number of days between 1/1/1970 and this date
+	 */
+	static int fromDate(JDateTime date) {
+		return fromDate(date.getYear(), date.getMonth(), date.getDay());
+	}
+
+	/**
+	 * This converts an epoch day number back into a JDateTime object
+	 *
+	 * @param epochDay - the number of days since 1/1/1970
+	 * @return a JDateTime object set to midnight on that date
+	 */
+	static JDateTime toDate(int epochDay) {
+		int[] yearMonthDay = toYearMonthDay(epochDay);
+		return new JDateTime(yearMonthDay[0], yearMonthDay[1], yearMonthDay[2]);
+	}
+
+	/**
+	 * This converts an epoch day into the number of months since January of year 0
+	 * (without creating a JDateTime object)
+	 *
+	 * @param epochDay - the number of days since 1/1/1970
+	 * @return the month number
+	 */
+	static int toMonthIndex(int epochDay) {
+		int[] yearMonthDay = toYearMonthDay(epochDay);
+		return yearMonthDay[0] * 12 + yearMonthDay[1] - 1;
+	}
+
+	/**
+	 * This converts an epoch day into a year, month and day
+	 *
+	 * @param epochDay - the number of days since 1/1/1970
+	 * @return an array holding the year, month (1-12) and day of the month
+	 */
+	private static int[] toYearMonthDay(int epochDay) {
+		int shiftedDay = epochDay + DAYS_TO_1970;
+		int era = (shiftedDay >= 0 ? shiftedDay : shiftedDay - DAYS_IN_ERA + 1) / DAYS_IN_ERA;
+		int dayOfEra = shiftedDay - era * DAYS_IN_ERA;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return new int[] { year, month, day };
+	}
+
+	/**
+	 * This converts a date into a month number (the number of months since January of year 0),
+	 * so a month can be used as an int key
+	 *
+	 * @param date - the date to convert (the day of the month is ignored)
+	 * @return the month number of the month this date is in
+	 */
+	static int toMonthIndex(JDateTime date) {
+		return date.getYear() * 12 + date.getMonth() - 1;
+	}
+
+	/**
+	 * This converts a month number back into a JDateTime object
+	 *
+	 * @param monthIndex - the number of months since January of year 0
+	 * @return a JDateTime object set to the first day of that month
+	 */
+	static JDateTime fromMonthIndex(int monthIndex) {
+		return new JDateTime(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1, 1);
+	}
+}
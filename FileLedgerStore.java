@@ -0,0 +1,1283 @@
+package budget_program;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class stores a general ledger in a single file, so the program can run without a database server.
+ *
+ * Each save adds its changes to the end of a change log next to the ledger file (the ledger file name with ".log"
+ * added), so a save only writes the changes and not the whole ledger. When a save would make the log too big (half the
+ * size of the ledger file, but at least MIN_COMPACT_LOG_SIZE and at most MAX_COMPACT_LOG_SIZE) the whole ledger is
+ * written to a temporary file which then replaces the old file instead, and the log is emptied. The ledger file always
+ * holds either the old ledger or the new one, and since the ledger file grows by half between rewrites while it is small,
+ * saving often or importing a large file in batches doesn't rewrite the whole ledger file on every save.
+ *
+ * Each record in the log is one save (the changes in it are stored the same way as the LedgerJournal stores them)
+ * with a CRC32 checksum, so a save that was only partly written when the program stopped is dropped when the store
+ * is opened. Replaying a save that is already in the ledger file leaves the ledger as it was, so if the program stops
+ * after the ledger file is replaced but before the log is emptied, the log can still be replayed.
+ *
+ * Accounts, budgets, repeating entries and installment entries are read when the store is opened, but single entries
+ * are stored in one block per month (with a directory of the blocks at the end of the file) and a month is only read
+ * when it is needed, so opening a large ledger doesn't have to read every entry. Each block stores its entries a column
+ * at a time (ids, days, amounts, accounts and then descriptions). A block is memory mapped when it is read, and loading
+ * a month into a ledger decodes its block straight into the ledger, so the store only keeps the months that saved changes
+ * have been made to in memory (until the ledger file is next rewritten). Blocks that haven't been changed are copied to the
+ * new file as they are when the ledger file is rewritten. No mapping is kept after a block has been read, and the channel
+ * is closed before the file is replaced, since Windows can't replace a file that is open or mapped.
+ *
+ * exportSnapshot writes the whole ledger (including the changes in the log) to another file in the same format, so a
+ * snapshot is a complete ledger file on its own that can be kept as a backup and opened with another FileLedgerStore.
+ *
+ * The file can't be bigger than 2GB, because blocks are stored at int positions.
+ *
+ * @author Asa Swain
+ */
+
+public class FileLedgerStore extends InMemoryLedgerStore {
+	// marks the start of a ledger file ("BDGT")
+	private static final int FILE_MAGIC = 0x42444754;
+	// version of the file layout (version 1 files, which store the single entries in one list, can still be read)
+	private static final int FILE_VERSION = 2;
+	// marks the start of a change log file ("BDLG")
+	private static final int LOG_MAGIC = 0x42444C47;
+	// version of the change log layout
+	private static final int LOG_VERSION = 1;
+	// size of the magic number and version at the start of the change log
+	private static final int LOG_HEADER_SIZE = 8;
+	// smallest and largest size of the change log (in bytes) that makes the ledger file be rewritten
+	// (changes in the log are kept in memory until the ledger file is rewritten, so the log isn't allowed to get too big)
+	static final long MIN_COMPACT_LOG_SIZE = 1L << 20;
+	static final long MAX_COMPACT_LOG_SIZE = 32L << 20;
+
+	// the ledger file and its change log
+	private File ledgerFile;
+	private File logFile;
+	// the open ledger file (null if no blocks are left to read)
+	private FileChannel ledgerChannel;
+	// size of the change log up to the end of the last good record (0 if there is no log)
+	private long logSize;
+	// blocks of single entries in the file that haven't been read yet, by month index
+	private TreeMap<Integer, MonthBlock> unreadMonthList;
+
+	/**
+	 * This class holds the directory information for one month's block of single entries in the ledger file
+	 */
+	private static class MonthBlock {
+		// position and length of the block in the file
+		final int position;
+		final int length;
+		// number of entries in the block, and the highest entry id in the block
+		final int entryCnt;
+		final long maxEntryId;
+
+		/**
+		 * This is a constructor for a block
+		 *
+		 * @param newPosition - the position of the block in the file
+		 * @param newLength - the length of the block in bytes
+		 * @param newEntryCnt - the number of entries in the block
+		 * @param newMaxEntryId - the highest entry id in the block
+		 */
+		MonthBlock(int newPosition, int newLength, int newEntryCnt, long newMaxEntryId) {
+			position = newPosition;
+			length = newLength;
+			entryCnt = newEntryCnt;
+			maxEntryId = newMaxEntryId;
+		}
+	}
+
+	/**
+	 * This class reads part of the ledger file that was mapped into a buffer as a stream, so it can be read with a DataInputStream
+	 */
+	private static class BufferInputStream extends InputStream {
+		// a copy of the buffer, with its own position
+		private ByteBuffer buffer;
+
+		/**
+		 * This is a constructor for a stream that starts at a position in a buffer
+		 *
+		 * @param sourceBuffer - the part of the file that was mapped
+		 * @param startPosition - the position to start reading at
+		 */
+		BufferInputStream(ByteBuffer sourceBuffer, int startPosition) {
+			buffer = sourceBuffer.duplicate();
+			buffer.position(startPosition);
+		}
+
+		/**
+		 * This reads one byte
+		 *
+		 * @return the byte, or -1 at the end of the file
+		 */
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+		}
+
+		/**
+		 * This reads a number of bytes
+		 *
+		 * @param byteList - where to put the bytes
+		 * @param offset - the first index in byteList to fill
+		 * @param length - the number of bytes wanted
+		 * @return the number of bytes read, or -1 at the end of the file
+		 */
+		public int read(byte[] byteList, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int readCnt = Math.min(length, buffer.remaining());
+			buffer.get(byteList, offset, readCnt);
+			return readCnt;
+		}
+
+		/**
+		 * This returns the position of the next byte to read
+		 *
+		 * @return the position in the buffer
+		 */
+		int getPosition() {
+			return buffer.position();
+		}
+	}
+
+	/**
+	 * This is a constructor for a ledger file (the file is created the first time the ledger is saved)
+	 *
+	 * @param newLedgerFile - the file to store the ledger in
+	 */
+	public FileLedgerStore(File newLedgerFile) {
+		super();
+		ledgerFile = newLedgerFile;
+		logFile = new File(ledgerFile.getAbsoluteFile().getParentFile(), ledgerFile.getName() + ".log");
+	}
+
+	/**
+	 * This removes all the data from the store
+	 */
+	protected void clear() {
+		super.clear();
+		closeLedgerChannel();
+		unreadMonthList = new TreeMap<Integer, MonthBlock>();
+		logSize = 0;
+	}
+
+	/**
+	 * This opens the ledger file (if it exists) and reads everything except the single entries,
+	 * and then replays the changes in the change log
+	 *
+	 * @exception LedgerStoreException if the file can't be read
+	 */
+	public void open() throws LedgerStoreException {
+		clear();
+		if (!ledgerFile.exists()) {
+			return;
+		}
+		try {
+			readFile();
+		} catch (IOException e) {
+			clear();
+			throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+		}
+		try {
+			replayLog();
+		} catch (IOException | LedgerStoreException e) {
+			clear();
+			throw new LedgerStoreException("Unable to read change log " + logFile, e);
+		}
+	}
+
+	/**
+	 * This closes the ledger file (the data read so far stays in memory, and the file is opened again if more is needed)
+	 */
+	public void close() {
+		closeLedgerChannel();
+	}
+
+	/**
+	 * This loads the single entries in a range of months into a ledger, in date order
+	 * (months that haven't been read are decoded from their blocks straight into the ledger, without keeping them in the store)
+	 *
+	 * @param targetLedger - the ledger to load the entries into
+	 * @param startMonth - the first day of the first month to load (if null load every month)
+	 * @param endMonth - the first day of the month after the last month to load
+	 * @param skipMonthList - month indexes of the months already in memory, which aren't loaded again
+	 * @exception LedgerStoreException if the entries can't be loaded
+	 */
+	public void loadSingleEntries(GeneralLedger targetLedger, JDateTime startMonth, JDateTime endMonth, Set<Integer> skipMonthList) throws LedgerStoreException {
+		SortedMap<Integer, TreeMap<Long, StoredEntry>> dayRange = singleEntryDayList;
+		SortedMap<Integer, MonthBlock> blockRange = unreadMonthList;
+		if (startMonth != null) {
+			dayRange = dayRange.subMap(EpochDay.fromDate(startMonth), EpochDay.fromDate(endMonth));
+			blockRange = blockRange.subMap(EpochDay.toMonthIndex(startMonth), EpochDay.toMonthIndex(endMonth));
+		}
+		// a month is either in memory or in a block that hasn't been read, so the entries are added a month at a time to keep them in date order
+		TreeSet<Integer> monthIndexList = new TreeSet<Integer>(blockRange.keySet());
+		for (int entryDay : dayRange.keySet()) {
+			monthIndexList.add(EpochDay.toMonthIndex(entryDay));
+		}
+		monthIndexList.removeAll(skipMonthList);
+
+		ArrayList<SingleEntry> loadedEntryList = new ArrayList<SingleEntry>();
+		for (int monthIndex : monthIndexList) {
+			MonthBlock block = blockRange.get(monthIndex);
+			if (block == null) {
+				int firstDay = EpochDay.fromDate(EpochDay.fromMonthIndex(monthIndex));
+				int nextFirstDay = EpochDay.fromDate(EpochDay.fromMonthIndex(monthIndex + 1));
+				for (TreeMap<Long, StoredEntry> dayList : singleEntryDayList.subMap(firstDay, nextFirstDay).values()) {
+					for (StoredEntry tmpEntry : dayList.values()) {
+						loadedEntryList.add(tmpEntry.toSingleEntry(getLedgerAccount(targetLedger, tmpEntry.getAccountName())));
+					}
+				}
+				continue;
+			}
+			try {
+				for (StoredEntry tmpEntry : readBlockEntries(block)) {
+					loadedEntryList.add(tmpEntry.toSingleEntry(getLedgerAccount(targetLedger, tmpEntry.getAccountName())));
+				}
+			} catch (IOException | RuntimeException e) {
+				throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+			}
+		}
+		targetLedger.addLoadedSingleEntries(loadedEntryList);
+	}
+
+	/**
+	 * This gets the highest id of a stored single entry
+	 *
+	 * @return the highest id (or 0 if there are no single entries)
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public long getMaxSingleEntryId() throws LedgerStoreException {
+		return Math.max(super.getMaxSingleEntryId(), getMaxUnreadEntryId());
+	}
+
+	/**
+	 * This looks up the date of a stored single entry (searching the id columns of the months that haven't been read)
+	 *
+	 * @param entryId - the id of the entry
+	 * @return the date of the entry or null if there isn't an entry with that id
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public JDateTime getSingleEntryDate(long entryId) throws LedgerStoreException {
+		JDateTime entryDate = super.getSingleEntryDate(entryId);
+		if (entryDate == null) {
+			int entryDay = findUnreadEntryDay(entryId);
+			if (entryDay != StoredEntry.NO_DAY) {
+				entryDate = EpochDay.toDate(entryDay);
+			}
+		}
+		return entryDate;
+	}
+
+	/**
+	 * This adds up the stored single entries for each month and account without loading them into a ledger
+	 * (months that haven't been read are added up from their amount and account columns)
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param totalList - the totals to add to, by the first day of each month and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public void addMonthlyAccountTotals(GeneralLedger targetLedger, JDateTime startDate, JDateTime endDate, Set<Integer> skipMonthList,
+			TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList) throws LedgerStoreException {
+		super.addMonthlyAccountTotals(targetLedger, startDate, endDate, skipMonthList, totalList);
+
+		int startDay = (startDate == null) ? Integer.MIN_VALUE : EpochDay.fromDate(startDate);
+		int endDay = (endDate == null) ? Integer.MAX_VALUE : EpochDay.fromDate(endDate);
+		SortedMap<Integer, MonthBlock> blockRange = unreadMonthList;
+		if (startDate != null) {
+			blockRange = blockRange.tailMap(EpochDay.toMonthIndex(startDate));
+		}
+		if (endDate != null) {
+			blockRange = blockRange.headMap(EpochDay.toMonthIndex(endDate) + 1);
+		}
+		for (Map.Entry<Integer, MonthBlock> tmpBlock : blockRange.entrySet()) {
+			if (skipMonthList.contains(tmpBlock.getKey())) {
+				continue;
+			}
+			JDateTime blockMonth = EpochDay.fromMonthIndex(tmpBlock.getKey());
+			MonthBlock block = tmpBlock.getValue();
+			try {
+				ByteBuffer blockBuffer = readBlock(block);
+				BufferInputStream blockStream = new BufferInputStream(blockBuffer, 0);
+				String[] accountNameList = readBlockAccounts(new DataInputStream(blockStream));
+				int columnPosition = blockStream.getPosition();
+				for (int i = 0; i < block.entryCnt; i++) {
+					int entryDay = blockBuffer.getInt(getDayPosition(columnPosition, block, i));
+					if (entryDay < startDay || entryDay > endDay) {
+						continue;
+					}
+					long amountCents = blockBuffer.getLong(getAmountPosition(columnPosition, block, i));
+					String accountName = accountNameList[blockBuffer.getInt(getAccountPosition(columnPosition, block, i))];
+					Account tmpAccount = targetLedger.getAccount(accountName);
+					if (tmpAccount == null) {
+						throw new LedgerStoreException("Account " + accountName + " isn't in the account list.");
+					}
+					GeneralLedger.addToTotal(totalList, blockMonth, tmpAccount, BigDecimal.valueOf(amountCents, 2));
+				}
+			} catch (IOException e) {
+				throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+			}
+		}
+	}
+
+	/**
+	 * This counts the stored single entries for each day and account without loading them into a ledger
+	 * (months that haven't been read are counted from their day and account columns)
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param countList - the counts to add to, by epoch day and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public void addDailyAccountCounts(GeneralLedger targetLedger, Set<Integer> skipMonthList, TreeMap<Integer, HashMap<Account, Integer>> countList)
+			throws LedgerStoreException {
+		super.addDailyAccountCounts(targetLedger, skipMonthList, countList);
+
+		for (Map.Entry<Integer, MonthBlock> tmpBlock : unreadMonthList.entrySet()) {
+			if (skipMonthList.contains(tmpBlock.getKey())) {
+				continue;
+			}
+			MonthBlock block = tmpBlock.getValue();
+			try {
+				ByteBuffer blockBuffer = readBlock(block);
+				BufferInputStream blockStream = new BufferInputStream(blockBuffer, 0);
+				String[] accountNameList = readBlockAccounts(new DataInputStream(blockStream));
+				int columnPosition = blockStream.getPosition();
+				for (int i = 0; i < block.entryCnt; i++) {
+					int entryDay = blockBuffer.getInt(getDayPosition(columnPosition, block, i));
+					String accountName = accountNameList[blockBuffer.getInt(getAccountPosition(columnPosition, block, i))];
+					Account tmpAccount = targetLedger.getAccount(accountName);
+					if (tmpAccount == null) {
+						throw new LedgerStoreException("Account " + accountName + " isn't in the account list.");
+					}
+					GeneralLedger.addToCount(countList, entryDay, tmpAccount, 1);
+				}
+			} catch (IOException e) {
+				throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+			}
+		}
+	}
+
+	/**
+	 * This saves a list of changes by adding them to the change log (appendSingleEntries saves its entries through here too).
+	 * If the changes would make the log too big, or there isn't a ledger file yet, the ledger file is rewritten instead.
+	 *
+	 * @param changeList - the changes to save, in the order they were made
+	 * @exception LedgerStoreException if the changes couldn't be written (the files and the store are left as they were)
+	 */
+	public void saveChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+		checkChanges(changeList);
+		ByteBuffer recordBuffer;
+		try {
+			recordBuffer = encodeLogRecord(changeList);
+		} catch (IOException e) {
+			throw new LedgerStoreException("Unable to write change log " + logFile, e);
+		}
+		if (!ledgerFile.exists() || logSize + recordBuffer.remaining() > getCompactLogSize()) {
+			for (LedgerChange tmpChange : changeList) {
+				applyChange(tmpChange);
+			}
+			writeFileOrUndo();
+			return;
+		}
+		try {
+			appendToLog(recordBuffer);
+		} catch (IOException e) {
+			throw new LedgerStoreException("Unable to write change log " + logFile, e);
+		}
+		for (LedgerChange tmpChange : changeList) {
+			applyChange(tmpChange);
+		}
+	}
+
+	/**
+	 * This checks a list of changes and reads the months of the single entries they change,
+	 * so the changes can all be made without having to read the file partway through the list
+	 *
+	 * @param changeList - the changes to check
+	 * @exception LedgerStoreException if a change is missing the data it needs or the file can't be read
+	 */
+	protected void checkChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+		super.checkChanges(changeList);
+		for (LedgerChange tmpChange : changeList) {
+			if (tmpChange.getTable() == LedgerChange.Table.SINGLE_ENTRY) {
+				readEntryMonth(tmpChange.getEntry().getEntryId());
+				if (tmpChange.getOperation() != LedgerChange.Operation.DELETE) {
+					readMonth(EpochDay.toMonthIndex(((SingleEntry) tmpChange.getEntry()).getDate()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * This adds a single entry to the store, replacing any entry with the same id
+	 * (the entry's month is read first, so the month's block is written again when the ledger is saved)
+	 *
+	 * @param newEntry - the entry to add
+	 * @exception IllegalStateException if the entry's month can't be read
+	 */
+	protected void putSingleEntry(StoredEntry newEntry) {
+		readMonthOrFail(EpochDay.toMonthIndex(newEntry.getStartDay()));
+		super.putSingleEntry(newEntry);
+	}
+
+	/**
+	 * This removes a single entry from the store (reading the entry's month first if it hasn't been read)
+	 *
+	 * @param entryId - the id of the entry to remove (nothing happens if it isn't in the store)
+	 * @exception IllegalStateException if the entry's month can't be read
+	 */
+	protected void removeSingleEntry(long entryId) {
+		try {
+			readEntryMonth(entryId);
+		} catch (LedgerStoreException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		super.removeSingleEntry(entryId);
+	}
+
+	/**
+	 * This reads the month a stored single entry is in (if the entry is in a month that hasn't been read)
+	 *
+	 * @param entryId - the id of the entry (nothing is read if it isn't in the file)
+	 * @exception LedgerStoreException if the file can't be read
+	 */
+	private void readEntryMonth(long entryId) throws LedgerStoreException {
+		if (!singleEntryList.containsKey(entryId) && entryId <= getMaxUnreadEntryId()) {
+			int entryDay = findUnreadEntryDay(entryId);
+			if (entryDay != StoredEntry.NO_DAY) {
+				readMonth(EpochDay.toMonthIndex(entryDay));
+			}
+		}
+	}
+
+	/**
+	 * This writes the ledger file, and if it can't be written reads the old file (and change log) back in
+	 * so the store matches the files again
+	 *
+	 * @exception LedgerStoreException if the file couldn't be written
+	 */
+	private void writeFileOrUndo() throws LedgerStoreException {
+		try {
+			writeFile();
+		} catch (IOException e) {
+			LedgerStoreException saveError = new LedgerStoreException("Unable to write ledger file " + ledgerFile, e);
+			try {
+				open();
+			} catch (LedgerStoreException reopenError) {
+				saveError.addSuppressed(reopenError);
+			}
+			throw saveError;
+		}
+	}
+
+	/**
+	 * This opens the ledger file and reads everything except the blocks of single entries
+	 *
+	 * @exception IOException if the file can't be read or isn't a ledger file
+	 */
+	private void readFile() throws IOException {
+		ledgerChannel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ);
+		long fileSize = ledgerChannel.size();
+		// the stream isn't closed, because that would close the channel
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ledgerChannel.position(0))));
+		if (input.readInt() != FILE_MAGIC) {
+			throw new IOException(ledgerFile + " isn't a ledger file");
+		}
+		int fileVersion = input.readInt();
+		if (fileVersion != 1 && fileVersion != FILE_VERSION) {
+			throw new IOException(ledgerFile + " has unknown version " + fileVersion);
+		}
+
+		int accountCnt = input.readInt();
+		for (int i = 0; i < accountCnt; i++) {
+			String accountName = readString(input);
+			String accountDesc = readString(input);
+			boolean isAnExpense = input.readBoolean();
+			boolean isInBudget = input.readBoolean();
+			accountList.put(accountName, new Account(accountName, accountDesc, isAnExpense, isInBudget));
+		}
+
+		if (fileVersion == 1) {
+			// version 1 files store every single entry here (the file is written as version 2 the next time it is saved)
+			int singleEntryCnt = input.readInt();
+			for (int i = 0; i < singleEntryCnt; i++) {
+				super.putSingleEntry(readEntry(input));
+			}
+		}
+		int repeatingEntryCnt = input.readInt();
+		for (int i = 0; i < repeatingEntryCnt; i++) {
+			StoredEntry tmpEntry = readEntry(input);
+			repeatingEntryList.put(tmpEntry.getEntryId(), tmpEntry);
+		}
+		int installmentEntryCnt = input.readInt();
+		for (int i = 0; i < installmentEntryCnt; i++) {
+			StoredEntry tmpEntry = readEntry(input);
+			installmentEntryList.put(tmpEntry.getEntryId(), tmpEntry);
+		}
+
+		int budgetCnt = input.readInt();
+		for (int i = 0; i < budgetCnt; i++) {
+			int monthIndex = input.readInt();
+			monthlyBudgetList.put(monthIndex, readBudgetLines(input));
+		}
+		defaultBudgetList = readBudgetLines(input);
+
+		if (fileVersion == 1) {
+			closeLedgerChannel();
+			return;
+		}
+		// the position of the block directory is stored in the last 4 bytes of the file
+		int directoryPosition = readBytes(fileSize - 4, 4).getInt(0);
+		input = new DataInputStream(new BufferInputStream(readBytes(directoryPosition, (int) (fileSize - directoryPosition)), 0));
+		int blockCnt = input.readInt();
+		for (int i = 0; i < blockCnt; i++) {
+			int monthIndex = input.readInt();
+			int position = input.readInt();
+			int length = input.readInt();
+			int entryCnt = input.readInt();
+			long maxEntryId = input.readLong();
+			unreadMonthList.put(monthIndex, new MonthBlock(position, length, entryCnt, maxEntryId));
+		}
+		if (unreadMonthList.isEmpty()) {
+			closeLedgerChannel();
+		}
+	}
+
+	/**
+	 * This maps part of the ledger file into a buffer (the mapping is dropped once the buffer isn't used any more,
+	 * so a buffer mustn't be kept after the block has been read)
+	 *
+	 * @param position - the position in the file to start at
+	 * @param length - the number of bytes to map
+	 * @return a buffer holding the bytes (position 0 in the buffer is the start position in the file)
+	 * @exception IOException if the file can't be mapped or ends too soon
+	 */
+	private ByteBuffer readBytes(long position, int length) throws IOException {
+		if (ledgerChannel == null) {
+			// the store was closed, so the file is opened again
+			ledgerChannel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ);
+		}
+		if (position < 0 || length < 0 || position + length > ledgerChannel.size()) {
+			throw new EOFException(ledgerFile + " ends in the middle of a block");
+		}
+		return ledgerChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+
+	/**
+	 * This maps a month's block of single entries into a buffer
+	 *
+	 * @param block - the block to read
+	 * @return a buffer holding the block (the column positions are counted from the start of the block)
+	 * @exception IOException if the file can't be read
+	 */
+	private ByteBuffer readBlock(MonthBlock block) throws IOException {
+		return readBytes(block.position, block.length);
+	}
+
+	/**
+	 * This decodes the single entries in a month's block
+	 *
+	 * @param block - the block to read
+	 * @return the block's entries in date order (and in id order on the same date)
+	 * @exception IOException if the file can't be read
+	 */
+	private ArrayList<StoredEntry> readBlockEntries(MonthBlock block) throws IOException {
+		ArrayList<StoredEntry> entryList = new ArrayList<StoredEntry>(block.entryCnt);
+		ByteBuffer blockBuffer = readBlock(block);
+		BufferInputStream blockStream = new BufferInputStream(blockBuffer, 0);
+		String[] accountNameList = readBlockAccounts(new DataInputStream(blockStream));
+		int columnPosition = blockStream.getPosition();
+		// the descriptions follow the columns
+		DataInputStream descInput = new DataInputStream(new BufferInputStream(blockBuffer, getAccountPosition(columnPosition, block, block.entryCnt)));
+		for (int i = 0; i < block.entryCnt; i++) {
+			long entryId = blockBuffer.getLong(getIdPosition(columnPosition, i));
+			int entryDay = blockBuffer.getInt(getDayPosition(columnPosition, block, i));
+			long amountCents = blockBuffer.getLong(getAmountPosition(columnPosition, block, i));
+			String accountName = accountNameList[blockBuffer.getInt(getAccountPosition(columnPosition, block, i))];
+			entryList.add(new StoredEntry(entryId, entryDay, StoredEntry.NO_DAY, readString(descInput), accountName, amountCents));
+		}
+		return entryList;
+	}
+
+	/**
+	 * This closes the ledger file if it is open (errors are ignored, since nothing was written to it)
+	 */
+	private void closeLedgerChannel() {
+		if (ledgerChannel != null) {
+			try {
+				ledgerChannel.close();
+			} catch (IOException e) {
+				// the file was only read, so there is nothing to lose
+			}
+			ledgerChannel = null;
+		}
+	}
+
+	/**
+	 * This reads a month's block of single entries into the store (if it hasn't been read already),
+	 * so changes can be made to the month (the month is kept in memory until the ledger file is next rewritten)
+	 *
+	 * @param monthIndex - the month index of the block
+	 * @exception LedgerStoreException if the file can't be read
+	 */
+	private void readMonth(int monthIndex) throws LedgerStoreException {
+		MonthBlock block = unreadMonthList.get(monthIndex);
+		if (block == null) {
+			return;
+		}
+		ArrayList<StoredEntry> entryList;
+		try {
+			entryList = readBlockEntries(block);
+		} catch (IOException | RuntimeException e) {
+			// the block is left to be read again
+			throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+		}
+		unreadMonthList.remove(monthIndex);
+		for (StoredEntry tmpEntry : entryList) {
+			super.putSingleEntry(tmpEntry);
+		}
+		if (unreadMonthList.isEmpty()) {
+			// everything is in memory, so the file doesn't need to be kept open
+			closeLedgerChannel();
+		}
+	}
+
+	/**
+	 * This reads a month's block of single entries for a method that can't throw LedgerStoreException
+	 *
+	 * @param monthIndex - the month index of the block
+	 * @exception IllegalStateException if the file can't be read
+	 */
+	private void readMonthOrFail(int monthIndex) {
+		try {
+			readMonth(monthIndex);
+		} catch (LedgerStoreException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * This gets the highest entry id in the blocks that haven't been read
+	 *
+	 * @return the highest id (or 0 if every block has been read)
+	 */
+	private long getMaxUnreadEntryId() {
+		long maxId = 0;
+		for (MonthBlock block : unreadMonthList.values()) {
+			maxId = Math.max(maxId, block.maxEntryId);
+		}
+		return maxId;
+	}
+
+	/**
+	 * This searches the id columns of the blocks that haven't been read for an entry
+	 *
+	 * @param entryId - the id of the entry
+	 * @return the epoch day of the entry, or NO_DAY if it isn't in a block that hasn't been read
+	 * @exception LedgerStoreException if the file can't be read
+	 */
+	private int findUnreadEntryDay(long entryId) throws LedgerStoreException {
+		try {
+			for (MonthBlock block : unreadMonthList.values()) {
+				if (block.maxEntryId < entryId) {
+					continue;
+				}
+				ByteBuffer blockBuffer = readBlock(block);
+				BufferInputStream blockStream = new BufferInputStream(blockBuffer, 0);
+				readBlockAccounts(new DataInputStream(blockStream));
+				int columnPosition = blockStream.getPosition();
+				for (int i = 0; i < block.entryCnt; i++) {
+					if (blockBuffer.getLong(getIdPosition(columnPosition, i)) == entryId) {
+						return blockBuffer.getInt(getDayPosition(columnPosition, block, i));
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new LedgerStoreException("Unable to read ledger file " + ledgerFile, e);
+		}
+		return StoredEntry.NO_DAY;
+	}
+
+	/**
+	 * This reads the list of account names at the start of a block
+	 *
+	 * @param input - the block being read
+	 * @return the account names (the account column holds indexes into this list)
+	 * @exception IOException if the file can't be read
+	 */
+	private static String[] readBlockAccounts(DataInputStream input) throws IOException {
+		String[] accountNameList = new String[input.readInt()];
+		for (int i = 0; i < accountNameList.length; i++) {
+			accountNameList[i] = readString(input);
+		}
+		return accountNameList;
+	}
+
+	/**
+	 * This returns the position of an entry's id in a block (ids are the first column, 8 bytes each)
+	 *
+	 * @param columnPosition - the position of the first column
+	 * @param row - the entry's row in the block
+	 * @return the position in the file
+	 */
+	private static int getIdPosition(int columnPosition, int row) {
+		return columnPosition + 8 * row;
+	}
+
+	/**
+	 * This returns the position of an entry's epoch day in a block (days follow the ids, 4 bytes each)
+	 *
+	 * @param columnPosition - the position of the first column
+	 * @param block - the block
+	 * @param row - the entry's row in the block
+	 * @return the position in the file
+	 */
+	private static int getDayPosition(int columnPosition, MonthBlock block, int row) {
+		return columnPosition + 8 * block.entryCnt + 4 * row;
+	}
+
+	/**
+	 * This returns the position of an entry's amount in cents in a block (amounts follow the days, 8 bytes each)
+	 *
+	 * @param columnPosition - the position of the first column
+	 * @param block - the block
+	 * @param row - the entry's row in the block
+	 * @return the position in the file
+	 */
+	private static int getAmountPosition(int columnPosition, MonthBlock block, int row) {
+		return columnPosition + 12 * block.entryCnt + 8 * row;
+	}
+
+	/**
+	 * This returns the position of an entry's account index in a block (account indexes follow the amounts, 4 bytes each)
+	 *
+	 * @param columnPosition - the position of the first column
+	 * @param block - the block
+	 * @param row - the entry's row in the block
+	 * @return the position in the file
+	 */
+	private static int getAccountPosition(int columnPosition, MonthBlock block, int row) {
+		return columnPosition + 20 * block.entryCnt + 4 * row;
+	}
+
+	/**
+	 * This writes a snapshot of the whole ledger (including the changes in the change log) to a file, without changing the store.
+	 * The snapshot is a ledger file without a change log, so it can be kept as a backup and opened with another FileLedgerStore
+	 * (the snapshot is written to a temporary file first, so an old snapshot with the same name is only replaced by a complete one).
+	 *
+	 * @param snapshotFile - the file to write the snapshot to (it mustn't be the ledger file)
+	 * @exception LedgerStoreException if the snapshot can't be written
+	 */
+	public void exportSnapshot(File snapshotFile) throws LedgerStoreException {
+		if (snapshotFile.getAbsoluteFile().equals(ledgerFile.getAbsoluteFile())) {
+			throw new LedgerStoreException("A snapshot can't be written over the ledger file " + ledgerFile);
+		}
+		File tmpFile = new File(snapshotFile.getAbsoluteFile().getParentFile(), snapshotFile.getName() + ".tmp");
+		try {
+			writeTmpFile(tmpFile);
+			moveFile(tmpFile, snapshotFile);
+		} catch (IOException | RuntimeException e) {
+			if (tmpFile.exists() && !tmpFile.delete()) {
+				e.addSuppressed(new IOException("Unable to delete " + tmpFile));
+			}
+			throw new LedgerStoreException("Unable to write snapshot " + snapshotFile, e);
+		}
+	}
+
+	/**
+	 * This writes the ledger to a temporary file, moves it over the ledger file and then empties the change log
+	 * (if anything goes wrong the temporary file is deleted, and the ledger file and the log are left as they were)
+	 *
+	 * @exception IOException if the file can't be written
+	 */
+	private void writeFile() throws IOException {
+		File tmpFile = new File(ledgerFile.getAbsoluteFile().getParentFile(), ledgerFile.getName() + ".tmp");
+		TreeMap<Integer, MonthBlock> blockList;
+		try {
+			blockList = writeTmpFile(tmpFile);
+			// Windows can't replace a file that is still open
+			closeLedgerChannel();
+			moveFile(tmpFile, ledgerFile);
+		} catch (IOException | RuntimeException e) {
+			if (tmpFile.exists() && !tmpFile.delete()) {
+				e.addSuppressed(new IOException("Unable to delete " + tmpFile));
+			}
+			if (ledgerChannel == null && !unreadMonthList.isEmpty()) {
+				// the old file is still the ledger file, so keep reading blocks from it
+				try {
+					ledgerChannel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ);
+				} catch (IOException reopenError) {
+					e.addSuppressed(reopenError);
+				}
+			}
+			throw e;
+		}
+
+		// every month is in the new file now, so the single entries don't have to be kept in memory
+		// (a month is read again the next time it is needed, so importing or saving a large ledger doesn't fill memory)
+		unreadMonthList = blockList;
+		singleEntryList = new HashMap<Long, StoredEntry>();
+		singleEntryDayList = new TreeMap<Integer, TreeMap<Long, StoredEntry>>();
+		if (!unreadMonthList.isEmpty()) {
+			ledgerChannel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ);
+		}
+		// the changes in the log are in the new file, so the log can be emptied
+		resetLog();
+	}
+
+	/**
+	 * This moves a temporary file over a file (as an atomic move if the file system supports it). If the move fails it is
+	 * tried once more after a garbage collection, since Windows can't replace a file while a mapping of it is still waiting
+	 * to be collected.
+	 *
+	 * @param tmpFile - the temporary file holding the new ledger
+	 * @param targetFile - the file to replace
+	 * @exception IOException if the file can't be moved
+	 */
+	private static void moveFile(File tmpFile, File targetFile) throws IOException {
+		try {
+			moveFileOnce(tmpFile, targetFile);
+		} catch (FileSystemException e) {
+			System.gc();
+			System.runFinalization();
+			try {
+				moveFileOnce(tmpFile, targetFile);
+			} catch (IOException retryError) {
+				retryError.addSuppressed(e);
+				throw retryError;
+			}
+		}
+	}
+
+	/**
+	 * This moves a temporary file over a file once (as an atomic move if the file system supports it)
+	 *
+	 * @param tmpFile - the temporary file holding the new ledger
+	 * @param targetFile - the file to replace
+	 * @exception IOException if the file can't be moved
+	 */
+	private static void moveFileOnce(File tmpFile, File targetFile) throws IOException {
+		try {
+			Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * This writes a mapped part of the ledger file to a file being written (such as a block that hasn't been changed)
+	 *
+	 * @param output - the file being written
+	 * @param sourceBuffer - the part of the ledger file to copy
+	 * @exception IOException if the file can't be written
+	 */
+	private static void writeBuffer(DataOutputStream output, ByteBuffer sourceBuffer) throws IOException {
+		byte[] copyBuffer = new byte[Math.min(sourceBuffer.remaining(), 64 << 10)];
+		while (sourceBuffer.hasRemaining()) {
+			int copyCnt = Math.min(copyBuffer.length, sourceBuffer.remaining());
+			sourceBuffer.get(copyBuffer, 0, copyCnt);
+			output.write(copyBuffer, 0, copyCnt);
+		}
+	}
+
+	/**
+	 * This writes the ledger to a temporary file and syncs it to disk
+	 *
+	 * @param tmpFile - the file to write
+	 * @return the directory of the month blocks in the new file, by month index
+	 * @exception IOException if the file can't be written
+	 */
+	private TreeMap<Integer, MonthBlock> writeTmpFile(File tmpFile) throws IOException {
+		TreeMap<Integer, MonthBlock> blockList = new TreeMap<Integer, MonthBlock>();
+		FileOutputStream fileOutput = new FileOutputStream(tmpFile);
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+			output.writeInt(FILE_MAGIC);
+			output.writeInt(FILE_VERSION);
+
+			output.writeInt(accountList.size());
+			for (Account tmpAccount : accountList.values()) {
+				writeString(output, tmpAccount.getAccountName());
+				writeString(output, tmpAccount.getAccountDesc());
+				output.writeBoolean(tmpAccount.getIsAnExpense());
+				output.writeBoolean(tmpAccount.getIsIncludedInBudget());
+			}
+
+			output.writeInt(repeatingEntryList.size());
+			for (StoredEntry tmpEntry : repeatingEntryList.values()) {
+				writeEntry(output, tmpEntry);
+			}
+			output.writeInt(installmentEntryList.size());
+			for (StoredEntry tmpEntry : installmentEntryList.values()) {
+				writeEntry(output, tmpEntry);
+			}
+
+			output.writeInt(monthlyBudgetList.size());
+			for (Map.Entry<Integer, LinkedHashMap<String, BigDecimal>> tmpBudget : monthlyBudgetList.entrySet()) {
+				output.writeInt(tmpBudget.getKey());
+				writeBudgetLines(output, tmpBudget.getValue());
+			}
+			writeBudgetLines(output, defaultBudgetList);
+
+			// one block for each month, in date order (blocks that haven't been read are copied from the old file)
+			TreeMap<Integer, ArrayList<StoredEntry>> monthEntryList = getSingleEntriesByMonth();
+			TreeSet<Integer> monthIndexList = new TreeSet<Integer>(monthEntryList.keySet());
+			monthIndexList.addAll(unreadMonthList.keySet());
+			for (int monthIndex : monthIndexList) {
+				int position = output.size();
+				MonthBlock oldBlock = unreadMonthList.get(monthIndex);
+				if (oldBlock != null) {
+					writeBuffer(output, readBlock(oldBlock));
+					blockList.put(monthIndex, new MonthBlock(position, oldBlock.length, oldBlock.entryCnt, oldBlock.maxEntryId));
+				} else {
+					ArrayList<StoredEntry> entryList = monthEntryList.get(monthIndex);
+					long maxEntryId = writeMonthBlock(output, entryList);
+					blockList.put(monthIndex, new MonthBlock(position, output.size() - position, entryList.size(), maxEntryId));
+				}
+			}
+
+			int directoryPosition = output.size();
+			output.writeInt(blockList.size());
+			for (Map.Entry<Integer, MonthBlock> tmpBlock : blockList.entrySet()) {
+				MonthBlock block = tmpBlock.getValue();
+				output.writeInt(tmpBlock.getKey());
+				output.writeInt(block.position);
+				output.writeInt(block.length);
+				output.writeInt(block.entryCnt);
+				output.writeLong(block.maxEntryId);
+			}
+			output.writeInt(directoryPosition);
+
+			output.flush();
+			// make sure the new file is on disk before it replaces the old one
+			fileOutput.getFD().sync();
+		} finally {
+			fileOutput.close();
+		}
+		return blockList;
+	}
+
+	/**
+	 * This gets the size the change log can grow to before the ledger file is rewritten
+	 * (half the size of the ledger file, so the ledger file at least doubles in size between rewrites while it is small)
+	 *
+	 * @return the size in bytes
+	 */
+	private long getCompactLogSize() {
+		return Math.min(MAX_COMPACT_LOG_SIZE, Math.max(MIN_COMPACT_LOG_SIZE, ledgerFile.length() / 2));
+	}
+
+	/**
+	 * This converts a list of changes to a change log record (the length of the changes, the changes and a CRC32 checksum)
+	 *
+	 * @param changeList - the changes
+	 * @return a buffer holding the record, ready to be written
+	 * @exception IOException if the changes can't be converted
+	 */
+	private static ByteBuffer encodeLogRecord(List<LedgerChange> changeList) throws IOException {
+		ByteArrayOutputStream recordOutput = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(recordOutput);
+		output.writeInt(changeList.size());
+		for (LedgerChange tmpChange : changeList) {
+			byte[] changeData = LedgerJournal.encodeChange(tmpChange);
+			output.writeInt(changeData.length);
+			output.write(changeData);
+		}
+		output.flush();
+		byte[] recordData = recordOutput.toByteArray();
+		CRC32 checksum = new CRC32();
+		checksum.update(recordData);
+		ByteBuffer recordBuffer = ByteBuffer.allocate(recordData.length + 8);
+		recordBuffer.putInt(recordData.length);
+		recordBuffer.put(recordData);
+		recordBuffer.putInt((int) checksum.getValue());
+		recordBuffer.flip();
+		return recordBuffer;
+	}
+
+	/**
+	 * This adds a record to the end of the change log and syncs it to disk
+	 * (if the record can't be written, the log is cut back to where it was)
+	 *
+	 * @param recordBuffer - the record to add
+	 * @exception IOException if the log can't be written
+	 */
+	private void appendToLog(ByteBuffer recordBuffer) throws IOException {
+		FileChannel logChannel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			if (logSize < LOG_HEADER_SIZE) {
+				ByteBuffer headerBuffer = ByteBuffer.allocate(LOG_HEADER_SIZE);
+				headerBuffer.putInt(LOG_MAGIC);
+				headerBuffer.putInt(LOG_VERSION);
+				headerBuffer.flip();
+				logChannel.truncate(0);
+				while (headerBuffer.hasRemaining()) {
+					logChannel.write(headerBuffer, headerBuffer.position());
+				}
+				logSize = LOG_HEADER_SIZE;
+			}
+			try {
+				while (recordBuffer.hasRemaining()) {
+					logChannel.write(recordBuffer, logSize + recordBuffer.position());
+				}
+				logChannel.force(false);
+			} catch (IOException e) {
+				try {
+					logChannel.truncate(logSize);
+				} catch (IOException truncateError) {
+					// the record's checksum is wrong, so it is dropped when the log is replayed
+					e.addSuppressed(truncateError);
+				}
+				throw e;
+			}
+			logSize += recordBuffer.limit();
+		} finally {
+			logChannel.close();
+		}
+	}
+
+	/**
+	 * This replays the records in the change log into the store (called after the ledger file is read)
+	 * and cuts off a record at the end that was only partly written
+	 *
+	 * @exception IOException if the log can't be read or isn't a change log
+	 * @exception LedgerStoreException if a month of the ledger file that a change needs can't be read
+	 */
+	private void replayLog() throws IOException, LedgerStoreException {
+		logSize = 0;
+		if (!logFile.exists()) {
+			return;
+		}
+		FileChannel logChannel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long fileSize = logChannel.size();
+			if (fileSize < LOG_HEADER_SIZE) {
+				return;
+			}
+			// the stream isn't closed, because the channel is closed below
+			DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(logChannel.position(0))));
+			if (input.readInt() != LOG_MAGIC) {
+				throw new IOException(logFile + " isn't a change log");
+			}
+			int logVersion = input.readInt();
+			if (logVersion != LOG_VERSION) {
+				throw new IOException(logFile + " has unknown version " + logVersion);
+			}
+
+			long goodSize = LOG_HEADER_SIZE;
+			while (goodSize + 8 <= fileSize) {
+				int recordLength = input.readInt();
+				if (recordLength < 0 || goodSize + 8 + recordLength > fileSize) {
+					break;
+				}
+				byte[] recordData = new byte[recordLength];
+				input.readFully(recordData);
+				CRC32 checksum = new CRC32();
+				checksum.update(recordData);
+				if (input.readInt() != (int) checksum.getValue()) {
+					break;
+				}
+				ArrayList<LedgerChange> changeList = new ArrayList<LedgerChange>();
+				DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(recordData));
+				int changeCnt = recordInput.readInt();
+				for (int i = 0; i < changeCnt; i++) {
+					byte[] changeData = new byte[recordInput.readInt()];
+					recordInput.readFully(changeData);
+					changeList.add(LedgerJournal.decodeChange(changeData));
+				}
+				checkChanges(changeList);
+				for (LedgerChange tmpChange : changeList) {
+					applyChange(tmpChange);
+				}
+				goodSize += 8 + recordLength;
+			}
+			if (goodSize < fileSize) {
+				// drop a record that was only partly written
+				logChannel.truncate(goodSize);
+				logChannel.force(false);
+			}
+			logSize = goodSize;
+		} finally {
+			logChannel.close();
+		}
+	}
+
+	/**
+	 * This empties the change log (called after the changes in it have been written to the ledger file)
+	 *
+	 * @exception IOException if the log can't be deleted
+	 */
+	private void resetLog() throws IOException {
+		Files.deleteIfExists(logFile.toPath());
+		logSize = 0;
+	}
+
+	/**
+	 * This groups the single entries in memory by month
+	 *
+	 * @return lists of entries in date order, by month index
+	 */
+	private TreeMap<Integer, ArrayList<StoredEntry>> getSingleEntriesByMonth() {
+		TreeMap<Integer, ArrayList<StoredEntry>> monthEntryList = new TreeMap<Integer, ArrayList<StoredEntry>>();
+		int lastMonthIndex = 0;
+		ArrayList<StoredEntry> entryList = null;
+		for (Map.Entry<Integer, TreeMap<Long, StoredEntry>> dayList : singleEntryDayList.entrySet()) {
+			int monthIndex = EpochDay.toMonthIndex(dayList.getKey());
+			if (entryList == null || monthIndex != lastMonthIndex) {
+				entryList = new ArrayList<StoredEntry>();
+				monthEntryList.put(monthIndex, entryList);
+				lastMonthIndex = monthIndex;
+			}
+			entryList.addAll(dayList.getValue().values());
+		}
+		return monthEntryList;
+	}
+
+	/**
+	 * This writes a month's block of single entries
+	 *
+	 * @param output - the file being written
+	 * @param entryList - the month's entries in date order
+	 * @return the highest entry id in the block
+	 * @exception IOException if the file can't be written
+	 */
+	private static long writeMonthBlock(DataOutputStream output, ArrayList<StoredEntry> entryList) throws IOException {
+		// each account used in the month is written once, and the account column holds indexes into this list
+		LinkedHashMap<String, Integer> accountIndexList = new LinkedHashMap<String, Integer>();
+		for (StoredEntry tmpEntry : entryList) {
+			if (!accountIndexList.containsKey(tmpEntry.getAccountName())) {
+				accountIndexList.put(tmpEntry.getAccountName(), accountIndexList.size());
+			}
+		}
+		output.writeInt(accountIndexList.size());
+		for (String accountName : accountIndexList.keySet()) {
+			writeString(output, accountName);
+		}
+
+		long maxEntryId = 0;
+		for (StoredEntry tmpEntry : entryList) {
+			output.writeLong(tmpEntry.getEntryId());
+			maxEntryId = Math.max(maxEntryId, tmpEntry.getEntryId());
+		}
+		for (StoredEntry tmpEntry : entryList) {
+			output.writeInt(tmpEntry.getStartDay());
+		}
+		for (StoredEntry tmpEntry : entryList) {
+			output.writeLong(tmpEntry.getAmountCents());
+		}
+		for (StoredEntry tmpEntry : entryList) {
+			output.writeInt(accountIndexList.get(tmpEntry.getAccountName()));
+		}
+		for (StoredEntry tmpEntry : entryList) {
+			writeString(output, tmpEntry.getDesc());
+		}
+		return maxEntryId;
+	}
+
+	/**
+	 * This reads an entry from the ledger file
+	 *
+	 * @param input - the file being read
+	 * @return the entry
+	 * @exception IOException if the file can't be read
+	 */
+	static StoredEntry readEntry(DataInputStream input) throws IOException {
+		long entryId = input.readLong();
+		int startDay = input.readInt();
+		int endDay = input.readInt();
+		String desc = readString(input);
+		String accountName = readString(input);
+		long amountCents = input.readLong();
+		return new StoredEntry(entryId, startDay, endDay, desc, accountName, amountCents);
+	}
+
+	/**
+	 * This writes an entry to the ledger file
+	 *
+	 * @param output - the file being written
+	 * @param tmpEntry - the entry to write
+	 * @exception IOException if the file can't be written
+	 */
+	static void writeEntry(DataOutputStream output, StoredEntry tmpEntry) throws IOException {
+		output.writeLong(tmpEntry.getEntryId());
+		output.writeInt(tmpEntry.getStartDay());
+		output.writeInt(tmpEntry.getEndDay());
+		writeString(output, tmpEntry.getDesc());
+		writeString(output, tmpEntry.getAccountName());
+		output.writeLong(tmpEntry.getAmountCents());
+	}
+
+	/**
+	 * This reads the lines of a budget from the ledger file
+	 *
+	 * @param input - the file being read
+	 * @return the budget amounts by account name
+	 * @exception IOException if the file can't be read
+	 */
+	private static LinkedHashMap<String, BigDecimal> readBudgetLines(DataInputStream input) throws IOException {
+		LinkedHashMap<String, BigDecimal> budgetLineList = new LinkedHashMap<String, BigDecimal>();
+		int lineCnt = input.readInt();
+		for (int i = 0; i < lineCnt; i++) {
+			String accountName = readString(input);
+			budgetLineList.put(accountName, BigDecimal.valueOf(input.readLong(), 2));
+		}
+		return budgetLineList;
+	}
+
+	/**
+	 * This writes the lines of a budget to the ledger file
+	 *
+	 * @param output - the file being written
+	 * @param budgetLineList - the budget amounts by account name
+	 * @exception IOException if the file can't be written
+	 */
+	private static void writeBudgetLines(DataOutputStream output, LinkedHashMap<String, BigDecimal> budgetLineList) throws IOException {
+		output.writeInt(budgetLineList.size());
+		for (Map.Entry<String, BigDecimal> tmpLine : budgetLineList.entrySet()) {
+			writeString(output, tmpLine.getKey());
+			output.writeLong(Money.valueOf(tmpLine.getValue()).getCents());
+		}
+	}
+
+	/**
+	 * This reads a string that may be null from the ledger file
+	 *
+	 * @param input - the file being read
+	 * @return the string or null
+	 * @exception IOException if the file can't be read
+	 */
+	static String readString(DataInputStream input) throws IOException {
+		return input.readBoolean() ? input.readUTF() : null;
+	}
+
+	/**
+	 * This writes a string that may be null to the ledger file
+	 *
+	 * @param output - the file being written
+	 * @param tmpString - the string or null
+	 * @exception IOException if the file can't be written
+	 */
+	static void writeString(DataOutputStream output, String tmpString) throws IOException {
+		output.writeBoolean(tmpString != null);
+		if (tmpString != null) {
+			output.writeUTF(tmpString);
+		}
+	}
+}
@@ -1,8 +1,9 @@
 package budget_program;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
-import java.sql.*;
+import java.util.concurrent.ForkJoinPool;
 
 import jodd.datetime.*;
 
@@ -26,11 +27,12 @@ import jodd.datetime.*;
 //   3. add installment entries methods
 //   ...
 //   87. work on making all get methods in GeneralLedger class immutable
-//   98. finish writing getTotalAmountDonatedToCharity method
-//   99. in SQLDatabaseConnection check for failed connection and throw error if unable to make connection
 //   
 
 public class GeneralLedger {
+	// name of the account donations to charity are entered in
+	public static final String CHARITY_ACCOUNT_NAME = "Charity";
+
 	// list of income and expenses
 	private EntryList entryData;
 	// TODO: implement installment and repeating entries methods
@@ -38,46 +40,304 @@ public class GeneralLedger {
 	// list of budgets for each month
 	private TreeMap<JDateTime,Budget> monthlyBudgetList;
 	// list of all general ledger accounts
-	private ArrayList<Account> accountList;
+	private AccountRegistry accountList;
 	// HashMap of default account list and amounts for each monthly budget
 	private Budget defaultBudget;
 	// name of general ledger object
 	private String ledgerName;
 
-	private SQLDatabaseConnection mySQLDatabase;
-
-	private final BigDecimal NEGATIVE = new BigDecimal("-1");
+	// where the ledger is loaded from and saved to (locked while it is used, since a WriteBehindQueue saves to it from another thread)
+	private LedgerStore ledgerStore;
+	// changes that haven't been saved to the ledger store yet
+	private ChangeSet changeSet;
+	// months of single entries loaded from the ledger store when loading lazily (null if everything was loaded up front)
+	private MonthWindow monthWindow;
+	// journal of the changes that haven't been saved to the ledger store yet (or null)
+	private LedgerJournal journal;
+	// saves changes to the ledger store in the background as they are made (or null to save them in saveData)
+	private WriteBehindQueue writeBehindQueue;
+	// builds reports over the single entries in parallel
+	private LedgerReportEngine reportEngine;
+	// results of recent sum queries (see getTotalAmount)
+	private SumQueryCache sumCache;
 
 	/**
-	 * This is a blank constructor
+	 * This is a blank constructor (the ledger is stored in the javabudget SQL database on a local XAMPP server)
 	 */
 	public GeneralLedger() {
+		this(new JdbcLedgerStore());
+	}
+
+	/**
+	 * This is a constructor for a ledger kept in a ledger store
+	 * 
+	 * @param newLedgerStore - where the ledger is loaded from and saved to
+	 */
+	public GeneralLedger(LedgerStore newLedgerStore) {
 		entryData = new EntryList();
 		monthlyBudgetList = new TreeMap<JDateTime,Budget>();
-		accountList = new ArrayList<Account>();
+		accountList = new AccountRegistry();
 		defaultBudget = new Budget();
 		ledgerName = "";
-		mySQLDatabase = new SQLDatabaseConnection();
+		changeSet = new ChangeSet();
+		ledgerStore = newLedgerStore;
+		reportEngine = new LedgerReportEngine(ForkJoinPool.commonPool());
+		sumCache = new SumQueryCache();
+	}
+
+	/**
+	 * This sets a journal to keep the changes that haven't been saved in, so they aren't lost if the program stops
+	 * before they are saved. The journal is opened (and any changes left in it are saved to the ledger store)
+	 * when the data is loaded.
+	 * 
+	 * @param newJournal - the journal (or null for no journal)
+	 */
+	public void setJournal(LedgerJournal newJournal) {
+		journal = newJournal;
+	}
+
+	/**
+	 * This sets the fork/join pool reports are built on (by default the common pool, which uses every core)
+	 * 
+	 * @param newReportPool - the pool to build reports on
+	 */
+	public void setReportPool(ForkJoinPool newReportPool) {
+		reportEngine = new LedgerReportEngine(newReportPool);
+	}
+
+	/**
+	 * This chooses how the single entries are kept in memory: as SingleEntry objects (the default), or in primitive columns
+	 * (see ColumnarEntryList), which takes a fraction of the memory for very large ledgers. With columnar storage the
+	 * single entries the ledger returns are copies, so changing one doesn't change the ledger. Choose before the data is loaded.
+	 * 
+	 * @param useColumnarStorage - true to keep the single entries in columns
+	 * @exception IllegalStateException if the ledger already has entries
+	 */
+	public void setColumnarStorage(boolean useColumnarStorage) {
+		LedgerStats residentStats = entryData.getLedgerStats();
+		if (residentStats.getSingleEntryCount() > 0 || residentStats.getRepeatingEntryCount() > 0 || residentStats.getInstallmentEntryCount() > 0) {
+			throw new IllegalStateException("The storage for single entries must be chosen before the data is loaded.");
+		}
+		entryData = new EntryList(useColumnarStorage);
+	}
+
+	/**
+	 * This starts saving changes to the ledger store in the background as they are made, instead of waiting for saveData
+	 * (see WriteBehindQueue). Changes to the same row are combined, and are saved in batches once maxBatchSize rows
+	 * have changed or the oldest change has waited maxDelay milliseconds. Start it after the data is loaded.
+	 * 
+	 * @param maxBatchSize - the number of changed rows that starts a save straight away
+	 * @param maxDelay - the longest a change can wait before it is saved (in milliseconds)
+	 * @exception IllegalArgumentException if the batch size is less than 1 or the delay is negative
+	 * @exception IllegalStateException if changes are already being saved in the background
+	 */
+	public void startWriteBehind(int maxBatchSize, long maxDelay) {
+		if (writeBehindQueue != null) {
+			throw new IllegalStateException("Changes are already being saved in the background.");
+		}
+		writeBehindQueue = new WriteBehindQueue(ledgerStore, changeSet, maxBatchSize, maxDelay);
+		changeSet.setWriteBehindQueue(writeBehindQueue);
+	}
+
+	/**
+	 * This saves the changes waiting to be saved in the background and stops saving in the background
+	 * (changes are saved by saveData again afterwards)
+	 * 
+	 * @exception LedgerStoreException if the changes couldn't be saved (they are kept, so they can be saved with saveData)
+	 */
+	public void stopWriteBehind() throws LedgerStoreException {
+		if (writeBehindQueue == null) {
+			return;
+		}
+		changeSet.setWriteBehindQueue(null);
+		try {
+			writeBehindQueue.close();
+		} finally {
+			writeBehindQueue = null;
+		}
+	}
+
+	/**
+	 * This loads data from the ledger store
+	 * 
+	 * @exception LedgerStoreException if the ledger store or journal can't be opened or read
+	 */
+	public void loadData() throws LedgerStoreException {
+		ledgerStore.open();
+		replayJournal();
+		sumCache.clear();
+		monthWindow = null;
+		// the rows being loaded are already in the ledger store, so don't record them as changes
+		changeSet.setRecording(false);
+		try {
+			ledgerStore.loadLedger(this, true);
+		} finally {
+			changeSet.setRecording(true);
+		}
+	}
+
+	/**
+	 * This loads data from the ledger store lazily. Accounts, budgets, repeating entries and installment entries
+	 * are loaded now, but the single entries for a month are only loaded the first time that month is used.
+	 * Once more than maxResidentMonths months are loaded the least recently used months are removed from memory
+	 * (months with unsaved changes are kept until they are saved). Methods that need the whole history never load every month:
+	 * getBalanceAsOf, getLedgerStats and getSingleEntryDates get the months that aren't in memory from the ledger store,
+	 * and getSingleEntries and getLedgerReport load a group of months at a time.
+	 * 
+	 * @param maxResidentMonths - the number of months of single entries to keep in memory
+	 * @exception IllegalArgumentException - if maxResidentMonths is less than 1
+	 * @exception LedgerStoreException if the ledger store or journal can't be opened or read
+	 */
+	public void loadData(int maxResidentMonths) throws LedgerStoreException {
+		if (maxResidentMonths < 1) {
+			throw new IllegalArgumentException("Number of months to keep in memory must be at least 1");
+		}
+		ledgerStore.open();
+		replayJournal();
+		sumCache.clear();
+		monthWindow = new MonthWindow(maxResidentMonths);
+		changeSet.setRecording(false);
+		try {
+			ledgerStore.loadLedger(this, false);
+		} finally {
+			changeSet.setRecording(true);
+		}
+		// new entries must not reuse the id of a row that hasn't been loaded yet
+		entryData.reserveEntryIds(ledgerStore.getMaxSingleEntryId());
+	}
+
+	/**
+	 * This saves the changes made since the last save to the ledger store
+	 * (only the rows that were added, changed or deleted are written).
+	 * Either all of the changes are saved or none of them are.
+	 * If the ledger has a journal it is emptied once the changes are saved.
+	 * If changes are being saved in the background this waits for every change made so far to be saved.
+	 * 
+	 * @exception LedgerStoreException if the changes couldn't be saved (the ledger store is left as it was and the changes are kept)
+	 */
+	public void saveData() throws LedgerStoreException {
+		if (writeBehindQueue != null) {
+			// the queue empties the journal itself once everything in it is saved
+			writeBehindQueue.flush();
+			if (monthWindow != null) {
+				monthWindow.unpinAll();
+			}
+			return;
+		}
+		if (!changeSet.isEmpty()) {
+			ledgerStore.saveChanges(changeSet.getChangeList());
+			changeSet.clear();
+			if (monthWindow != null) {
+				// the changed months are in the ledger store now, so they can be removed from memory again
+				monthWindow.unpinAll();
+			}
+		}
+		if (journal != null) {
+			try {
+				journal.reset();
+			} catch (IOException e) {
+				// the changes are saved, and saving them again when the journal is replayed doesn't change anything
+				throw new LedgerStoreException("The changes were saved, but the journal couldn't be emptied", e);
+			}
+		}
+	}
+
+	/**
+	 * This closes the journal and the ledger store (call saveData first to save any changes).
+	 * If changes are being saved in the background, the changes waiting to be saved are saved first.
+	 * 
+	 * @exception LedgerStoreException if the changes waiting to be saved in the background couldn't be saved
+	 *		(nothing is closed, and the changes are kept so they can be saved with saveData, or dropped by calling close again),
+	 *		or if the journal couldn't be synced or closed (the ledger store is still closed)
+	 */
+	public void close() throws LedgerStoreException {
+		stopWriteBehind();
+		IOException journalError = null;
+		if (journal != null) {
+			changeSet.setJournal(null);
+			try {
+				journal.close();
+			} catch (IOException e) {
+				journalError = e;
+			}
+		}
+		ledgerStore.close();
+		if (journalError != null) {
+			throw new LedgerStoreException("Unable to close the journal", journalError);
+		}
 	}
 
 	/**
-	 * This loads data from the SQL database
+	 * This opens the journal (if there is one) and saves any changes left in it to the ledger store,
+	 * so they are loaded with the rest of the data. Changes made after this are added to the journal.
+	 * 
+	 * @exception LedgerStoreException if the journal can't be read or the changes can't be saved
 	 */
-	public void loadSQLData() {
-		mySQLDatabase.createSQLtable();
-		mySQLDatabase.loadDatabasesFromSQL();
+	private void replayJournal() throws LedgerStoreException {
+		if (journal == null) {
+			return;
+		}
+		changeSet.setJournal(null);
+		try {
+			journal.close();
+		} catch (IOException e) {
+			throw new LedgerStoreException("Unable to close the journal", e);
+		}
+		ArrayList<LedgerChange> journalChangeList = journal.open();
+		if (!journalChangeList.isEmpty()) {
+			ledgerStore.saveChanges(journalChangeList);
+			try {
+				journal.reset();
+			} catch (IOException e) {
+				throw new LedgerStoreException("Unable to empty the journal", e);
+			}
+		}
+		changeSet.setJournal(journal);
 	}
 
 	/**
-	 * This saves data to SQL database
+	 * This adds single entries to the ledger and writes them straight to the ledger store
+	 * (without waiting for saveData), which is faster for adding a large number of entries.
+	 * Each entry is given a new entry id.
+	 * 
+	 * @param entryList - the entries to add
+	 * @exception LedgerStoreException if the entries couldn't be written (none of them are added to the ledger)
 	 */
-	public void saveSQLData() {
-		// erase all old databases
-		mySQLDatabase.eraseSQLDatabases();
-		// write out contents of objects to databases
-		mySQLDatabase.saveDatabasesToSQL();
+	public void appendSingleEntries(List<SingleEntry> entryList) throws LedgerStoreException {
+		for (SingleEntry newEntry : entryList) {
+			newEntry.setEntryId(entryData.createEntryId());
+		}
+		synchronized (ledgerStore) {
+			ledgerStore.appendSingleEntries(entryList);
+		}
+		for (SingleEntry newEntry : entryList) {
+			invalidateSums(newEntry);
+		}
+		// when loading lazily, entries in months that aren't loaded are read from the ledger store when the month is used
+		ArrayList<SingleEntry> residentEntryList = new ArrayList<SingleEntry>(entryList.size());
+		for (SingleEntry newEntry : entryList) {
+			if (monthWindow == null || monthWindow.isResident(EpochDay.toMonthIndex(newEntry.getDate()))) {
+				residentEntryList.add(newEntry);
+			}
+		}
+		changeSet.setRecording(false);
+		try {
+			entryData.addSingleEntries(residentEntryList);
+		} finally {
+			changeSet.setRecording(true);
+		}
+	}
 
-		// (later try to only save changes)
+	/**
+	 * This checks if the ledger has changes that haven't been saved to the ledger store
+	 * 
+	 * @return true if there are unsaved changes, else false
+	 */
+	public boolean hasUnsavedChanges() {
+		if (writeBehindQueue != null) {
+			return writeBehindQueue.hasPendingChanges();
+		}
+		return !changeSet.isEmpty();
 	}
 
 	/**
@@ -93,14 +353,16 @@ public class GeneralLedger {
 	 * 								allocated for this amount
 	 */
 	public void addAccount(String inputName, String inputDesc, boolean isAnExpense, boolean isIncludedInBudget, boolean isInDefaultAcctList, BigDecimal defaultBudgetAmount) {
-		// TODO: make sure no other account in list has the same name, names should be unique
+		// account names are unique, so the registry looks them up by name
 		Account inputAccount = new Account(inputName, inputDesc, isAnExpense, isIncludedInBudget);
-		if (accountList.contains(inputAccount) == false) {
-			accountList.add(inputAccount);
+		if (accountList.isAccountInList(inputAccount) == false) {
+			accountList.addAccount(inputAccount);
+			changeSet.record(LedgerChange.forAccount(LedgerChange.Operation.INSERT, inputAccount));
 			// check if we should also add the account to the default budget account list
 			if (isInDefaultAcctList == true) {
 				if (defaultBudget.isAccountInList(inputAccount) == false) {
 					defaultBudget.addAccount(inputAccount, defaultBudgetAmount);
+					changeSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.INSERT, inputAccount, defaultBudget.getBudgetAmount(inputAccount)));
 				} else {
 					// account already exists in default budget account list
 				}
@@ -117,9 +379,11 @@ public class GeneralLedger {
 	 * @param deleteAccount - the account to delete
 	 */
 	public void removeAccount(Account deleteAccount) {
-		accountList.remove(deleteAccount);
+		accountList.removeAccount(deleteAccount);
+		changeSet.record(LedgerChange.forAccount(LedgerChange.Operation.DELETE, deleteAccount));
 		if (defaultBudget.isAccountInList(deleteAccount) == true) {
 			defaultBudget.deleteAccount(deleteAccount);
+			changeSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.DELETE, deleteAccount, null));
 		}
 	}
 
@@ -129,8 +393,7 @@ public class GeneralLedger {
 	 * @return ArrayList<Type> accountList object
 	 */
 	public ArrayList<Account> getAccountList() {
-		ArrayList<Account> tmpList = new ArrayList<Account>(accountList);
-		return tmpList;
+		return accountList.getAccountList();
 	}
 
 	/**
@@ -142,8 +405,18 @@ public class GeneralLedger {
 	public void addBudget(int month, int year) {
 		try {
 			JDateTime monthYearId = new JDateTime(year, month, 1);
-			Budget newBudget = defaultBudget;
-			monthlyBudgetList.put(monthYearId, newBudget);
+			// copy the default budget, so later changes to the default budget don't change this month
+			Budget newBudget = new Budget(defaultBudget);
+			Budget oldBudget = monthlyBudgetList.put(monthYearId, newBudget);
+			if (oldBudget != null) {
+				for (Account oldAccount : oldBudget.getAccountList()) {
+					changeSet.record(LedgerChange.forMonthlyBudget(LedgerChange.Operation.DELETE, month, year, oldAccount, null));
+				}
+			}
+			for (Account newAccount : newBudget.getAccountList()) {
+				changeSet.record(LedgerChange.forMonthlyBudget(LedgerChange.Operation.INSERT, month, year, newAccount,
+						newBudget.getBudgetAmount(newAccount)));
+			}
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -167,14 +440,19 @@ public class GeneralLedger {
 	 * @param inputDesc - description of single entry
 	 * @param inputAcct - account number for single entry
 	 * @param inputAmt - BigDecimal amount for single entry
+	 * @return the id of the new entry
 	 */
-	public void addSingleEntry(JDateTime inputDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
+	public long addSingleEntry(JDateTime inputDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
 		SingleEntry inputEntry = new SingleEntry(inputDate, inputAcct, inputDesc, inputAmt);
+		loadMonthForChange(inputDate);
 		try {
 			entryData.addSingleEntry(inputEntry);
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
+		invalidateSums(inputEntry);
+		changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, inputEntry));
+		return inputEntry.getEntryId();
 	}
 
 	/**
@@ -185,8 +463,12 @@ public class GeneralLedger {
 	 * @exception - if there is an error from the deleteSingleEntry method
 	 */
 	public void deleteSingleEntry(JDateTime targetDate, int targetIndex) {
+		loadMonthForChange(targetDate);
 		try {
+			SingleEntry delEntry = entryData.getSingleEntry(targetDate, targetIndex);
 			entryData.deleteSingleEntry(targetDate, targetIndex);
+			invalidateSums(delEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, delEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -204,14 +486,113 @@ public class GeneralLedger {
 	 * @exception - if there is an error from the updateEntry method
 	 */
 	public void updateSingleEntry(JDateTime targetDate, int targetIndex, JDateTime inputDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
+		loadMonthForChange(targetDate);
+		loadMonthForChange(inputDate);
 		try {
+			SingleEntry oldEntry = entryData.getSingleEntry(targetDate, targetIndex);
 			SingleEntry inputEntry = new SingleEntry(inputDate, inputAcct, inputDesc, inputAmt);
 			entryData.updateSingleEntry(targetDate, targetIndex, inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, inputEntry));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * This deletes a single entry using its entry id
+	 * 
+	 * @param targetId - the id of the entry to delete
+	 * @exception - if there is an error from the deleteSingleEntry method
+	 */
+	public void deleteSingleEntry(long targetId) {
+		loadMonthForChange(loadSingleEntry(targetId));
+		try {
+			SingleEntry delEntry = entryData.getSingleEntry(targetId);
+			entryData.deleteSingleEntry(targetId);
+			invalidateSums(delEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, delEntry));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * This updates a single entry using its entry id (the entry keeps its id and its place in the list for its date)
+	 * 
+	 * @param targetId - the id of the entry to update
+	 * @param inputDate - the new date
+	 * @param inputDesc - the new description
+	 * @param inputAcct - the new type
+	 * @param inputAmt - the new amount
+	 * @exception - if there is an error from the updateEntry method
+	 */
+	public void updateSingleEntry(long targetId, JDateTime inputDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
+		loadMonthForChange(loadSingleEntry(targetId));
+		loadMonthForChange(inputDate);
+		try {
+			SingleEntry oldEntry = entryData.getSingleEntry(targetId);
+			SingleEntry inputEntry = new SingleEntry(inputDate, inputAcct, inputDesc, inputAmt);
+			entryData.updateSingleEntry(targetId, inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, inputEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
 	}
 
+	/**
+	 * This returns a snapshot of the number of entries in the ledger
+	 * 
+	 * @return a LedgerStats object with the number of entries in the ledger, in each month and in each account
+	 */
+	public LedgerStats getLedgerStats() {
+		LedgerStats residentStats = entryData.getLedgerStats();
+		if (monthWindow == null) {
+			return residentStats;
+		}
+		// the months that aren't in memory are counted by the ledger store instead of being loaded
+		TreeMap<Integer, HashMap<Account, Integer>> countList = getStoredDailyCounts();
+		int singleEntryCount = residentStats.getSingleEntryCount();
+		TreeMap<JDateTime, Integer> monthCountList = new TreeMap<JDateTime, Integer>(residentStats.getMonthCountList());
+		HashMap<Account, Integer> accountCountList = new HashMap<Account, Integer>(residentStats.getAccountCountList());
+		for (Map.Entry<Integer, HashMap<Account, Integer>> dayCount : countList.entrySet()) {
+			JDateTime month = EpochDay.fromMonthIndex(EpochDay.toMonthIndex(dayCount.getKey()));
+			for (Map.Entry<Account, Integer> accountCount : dayCount.getValue().entrySet()) {
+				singleEntryCount += accountCount.getValue();
+				Integer oldMonthCount = monthCountList.get(month);
+				monthCountList.put(month, (oldMonthCount == null ? 0 : oldMonthCount) + accountCount.getValue());
+				Integer oldAccountCount = accountCountList.get(accountCount.getKey());
+				accountCountList.put(accountCount.getKey(), (oldAccountCount == null ? 0 : oldAccountCount) + accountCount.getValue());
+			}
+		}
+		JDateTime firstEntryDate = residentStats.getFirstEntryDate();
+		JDateTime lastEntryDate = residentStats.getLastEntryDate();
+		if (!countList.isEmpty()) {
+			if (firstEntryDate == null || countList.firstKey() < EpochDay.fromDate(firstEntryDate)) {
+				firstEntryDate = EpochDay.toDate(countList.firstKey());
+			}
+			if (lastEntryDate == null || countList.lastKey() > EpochDay.fromDate(lastEntryDate)) {
+				lastEntryDate = EpochDay.toDate(countList.lastKey());
+			}
+		}
+		return new LedgerStats(singleEntryCount, residentStats.getRepeatingEntryCount(), residentStats.getInstallmentEntryCount(),
+				firstEntryDate, lastEntryDate, monthCountList, accountCountList);
+	}
+
+	/**
+	 * This returns the single entry with an entry id
+	 * 
+	 * @param targetId - the id of the entry
+	 * @return the SingleEntry with that id or null if there isn't one
+	 */
+	public SingleEntry getSingleEntry(long targetId) {
+		loadSingleEntry(targetId);
+		return entryData.getSingleEntry(targetId);
+	}
+
 	/**
 	 * This adds a new repeating entry
 	 * 
@@ -224,7 +605,13 @@ public class GeneralLedger {
 	public void addRepeatingEntry(JDateTime startDate, JDateTime endDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
 		RepeatingEntry inputEntry = new RepeatingEntry(startDate, endDate, inputAcct, inputDesc, inputAmt);
 		try {
+			// an entry with the same description replaces the old one
+			RepeatingEntry oldEntry = entryData.getRepeatingEntry(inputDesc);
+			boolean isReplacement = (oldEntry != null);
 			entryData.addRepeatingEntry(inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(isReplacement ? LedgerChange.Operation.UPDATE : LedgerChange.Operation.INSERT, inputEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -238,7 +625,10 @@ public class GeneralLedger {
 	 */
 	public void deleteRepeatingEntry(String targetDesc) {
 		try {
+			RepeatingEntry delEntry = entryData.getRepeatingEntry(targetDesc);
 			entryData.deleteRepeatingEntry(targetDesc);
+			invalidateSums(delEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, delEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -268,8 +658,12 @@ public class GeneralLedger {
 		}
 
 		try {
+			RepeatingEntry oldEntry = entryData.getRepeatingEntry(targetDesc);
 			RepeatingEntry inputEntry = new RepeatingEntry(inputStartDate, inputEndDate, inputAcct, inputDesc, inputAmt);
 			entryData.updateRepeatingEntry(targetDesc, inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, inputEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -287,7 +681,13 @@ public class GeneralLedger {
 	public void addInstallmentEntry(JDateTime startDate, JDateTime endDate, String inputDesc, Account inputAcct, BigDecimal inputAmt) {
 		InstallmentEntry inputEntry = new InstallmentEntry(startDate, endDate, inputAcct, inputDesc, inputAmt);
 		try {
+			// an entry with the same description replaces the old one
+			InstallmentEntry oldEntry = entryData.getInstallmentEntry(inputDesc);
+			boolean isReplacement = (oldEntry != null);
 			entryData.addInstallmentEntry(inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(isReplacement ? LedgerChange.Operation.UPDATE : LedgerChange.Operation.INSERT, inputEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -301,7 +701,10 @@ public class GeneralLedger {
 	 */
 	public void deleteInstallmentEntry(String targetDesc) {
 		try {
+			InstallmentEntry delEntry = entryData.getInstallmentEntry(targetDesc);
 			entryData.deleteInstallmentEntry(targetDesc);
+			invalidateSums(delEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, delEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -331,8 +734,12 @@ public class GeneralLedger {
 		}
 
 		try {
+			InstallmentEntry oldEntry = entryData.getInstallmentEntry(targetDesc);
 			InstallmentEntry inputEntry = new InstallmentEntry(inputStartDate, inputEndDate, inputAcct, inputDesc, inputAmt);
 			entryData.updateInstallmentEntry(targetDesc, inputEntry);
+			invalidateSums(oldEntry);
+			invalidateSums(inputEntry);
+			changeSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, inputEntry));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -344,7 +751,18 @@ public class GeneralLedger {
 	 * @return - an ArrayList object of all the dates that have single entries in this ledger
 	 */
 	public ArrayList<JDateTime> getSingleEntryDates() {
-		ArrayList<JDateTime> dateList = new ArrayList<JDateTime>(entryData.getSingleEntryDateList());
+		if (monthWindow == null) {
+			return new ArrayList<JDateTime>(entryData.getSingleEntryDateList());
+		}
+		// the dates in the months that aren't in memory come from the ledger store instead of loading the months
+		TreeSet<Integer> dayList = new TreeSet<Integer>(getStoredDailyCounts().keySet());
+		for (JDateTime tmpDate : entryData.getSingleEntryDateList()) {
+			dayList.add(EpochDay.fromDate(tmpDate));
+		}
+		ArrayList<JDateTime> dateList = new ArrayList<JDateTime>(dayList.size());
+		for (int tmpDay : dayList) {
+			dateList.add(EpochDay.toDate(tmpDay));
+		}
 		return dateList;
 	}
 
@@ -355,9 +773,241 @@ public class GeneralLedger {
 	 * @return - an ArrayList object of Single Entries
 	 */
 	public ArrayList<SingleEntry> getSingleEntryListForDate(JDateTime targetDate) {
+		loadMonths(targetDate, targetDate);
 		return entryData.getSingleEntryList(targetDate);
 	}
 
+	/**
+	 * Get an ArrayList object of the Single Entries in a date range
+	 * 
+	 * @param startDate - the first date to search (if null start with the earliest entry)
+	 * @param endDate - the last date to search (if null end with the latest entry)
+	 * @return - an ArrayList object of Single Entries sorted by date
+	 */
+	public ArrayList<SingleEntry> getSingleEntries(JDateTime startDate, JDateTime endDate) {
+		if (monthWindow == null) {
+			return entryData.getSingleEntries(startDate, endDate);
+		}
+		ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>();
+		for (JDateTime[] monthGroup : getMonthGroups(startDate, endDate)) {
+			loadMonths(monthGroup[0], monthGroup[1]);
+			returnList.addAll(entryData.getSingleEntries(monthGroup[0], monthGroup[1]));
+		}
+		return returnList;
+	}
+
+	/**
+	 * Get an ArrayList object of the Single Entries for an account in a date range
+	 * 
+	 * @param targetAccount - the account to search for
+	 * @param startDate - the first date to search (if null start with the earliest entry)
+	 * @param endDate - the last date to search (if null end with the latest entry)
+	 * @return - an ArrayList object of Single Entries sorted by date
+	 */
+	public ArrayList<SingleEntry> getSingleEntries(Account targetAccount, JDateTime startDate, JDateTime endDate) {
+		if (monthWindow == null) {
+			return entryData.getSingleEntries(targetAccount, startDate, endDate);
+		}
+		ArrayList<SingleEntry> returnList = new ArrayList<SingleEntry>();
+		for (JDateTime[] monthGroup : getMonthGroups(startDate, endDate)) {
+			loadMonths(monthGroup[0], monthGroup[1]);
+			returnList.addAll(entryData.getSingleEntries(targetAccount, monthGroup[0], monthGroup[1]));
+		}
+		return returnList;
+	}
+
+	/**
+	 * Get the balance of an account (or of the entire ledger) as of a date
+	 * 
+	 * @param targetAccount - the account to get the balance of (if null get the balance of the entire ledger)
+	 * @param balanceDate - the last date to include in the balance
+	 * @return - the total of all the single entries on or before balanceDate
+	 */
+	public BigDecimal getBalanceAsOf(Account targetAccount, JDateTime balanceDate) {
+		BigDecimal balance = entryData.getBalanceAsOf(targetAccount, balanceDate);
+		if (monthWindow != null) {
+			// the balance includes every entry before balanceDate, so total the months that aren't in memory in the ledger store
+			for (HashMap<Account, BigDecimal> monthTotalList : getStoredMonthlyTotals(null, balanceDate).values()) {
+				for (Map.Entry<Account, BigDecimal> monthTotal : monthTotalList.entrySet()) {
+					if (targetAccount == null || targetAccount.equals(monthTotal.getKey())) {
+						balance = balance.add(monthTotal.getValue());
+					}
+				}
+			}
+		}
+		return balance;
+	}
+
+	/**
+	 * Get the net change in the balance of an account (or of the entire ledger) between two dates
+	 * 
+	 * @param targetAccount - the account to get the net change of (if null get the net change of the entire ledger)
+	 * @param startDate - the first date to include
+	 * @param endDate - the last date to include
+	 * @return - the total of all the single entries from startDate to endDate
+	 */
+	public BigDecimal getNetChange(Account targetAccount, JDateTime startDate, JDateTime endDate) {
+		if (monthWindow == null) {
+			return entryData.getNetChange(targetAccount, startDate, endDate);
+		}
+		// a long date range would go over the month window if it was loaded at once
+		Money netChange = Money.ZERO;
+		for (JDateTime[] monthGroup : getMonthGroups(startDate, endDate)) {
+			loadMonths(monthGroup[0], monthGroup[1]);
+			netChange = netChange.add(Money.valueOf(entryData.getNetChange(targetAccount, monthGroup[0], monthGroup[1])));
+		}
+		return netChange.toBigDecimal();
+	}
+
+	/**
+	 * Get the total of the single entries for each account in each month of a date range.
+	 * Months that are in memory are totalled from memory (they may have unsaved changes), and when loading lazily
+	 * the months that aren't loaded are totalled by the ledger store (with SUM/GROUP BY for an SQL database) instead of being loaded.
+	 * 
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return - a TreeMap with the totals for each account, by the first day of each month
+	 */
+	public TreeMap<JDateTime, HashMap<Account, BigDecimal>> getMonthlyAccountTotals(JDateTime startDate, JDateTime endDate) {
+		TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList;
+		if (monthWindow != null) {
+			totalList = getStoredMonthlyTotals(startDate, endDate);
+		} else {
+			totalList = new TreeMap<JDateTime, HashMap<Account, BigDecimal>>();
+		}
+		for (SingleEntry tmpEntry : entryData.getSingleEntries(startDate, endDate)) {
+			addToTotal(totalList, EpochDay.fromMonthIndex(EpochDay.toMonthIndex(tmpEntry.getDate())), tmpEntry.getAccount(), tmpEntry.getMonthlyAmount());
+		}
+		return totalList;
+	}
+
+	/**
+	 * Get the total of the single entries for each account in a date range
+	 * 
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return - a HashMap with the total for each account that has entries
+	 */
+	public HashMap<Account, BigDecimal> getAccountTotals(JDateTime startDate, JDateTime endDate) {
+		HashMap<Account, BigDecimal> totalList = new HashMap<Account, BigDecimal>();
+		for (HashMap<Account, BigDecimal> monthTotalList : getMonthlyAccountTotals(startDate, endDate).values()) {
+			for (Map.Entry<Account, BigDecimal> tmpTotal : monthTotalList.entrySet()) {
+				BigDecimal oldTotal = totalList.get(tmpTotal.getKey());
+				totalList.put(tmpTotal.getKey(), oldTotal == null ? tmpTotal.getValue() : oldTotal.add(tmpTotal.getValue()));
+			}
+		}
+		return totalList;
+	}
+
+	/**
+	 * Get the total of a set of accounts over a date range: the single entries from startDate to endDate, plus the monthly
+	 * amount of each repeating and installment entry for every month that starts in the range and that the entry is active in.
+	 * Results are cached, and a cached result is only dropped when an entry in one of its accounts and months is added,
+	 * changed or deleted, so a query that is run again (such as a tax report) doesn't add up the entries again.
+	 * When loading lazily, the single entries in months that aren't loaded are totalled by the ledger store.
+	 * 
+	 * @param targetAccounts - the accounts to total
+	 * @param startDate - the first date to include
+	 * @param endDate - the last date to include
+	 * @return - the total (negative for money spent)
+	 * @exception IllegalArgumentException - if either date is missing
+	 */
+	public BigDecimal getTotalAmount(Collection<Account> targetAccounts, JDateTime startDate, JDateTime endDate) {
+		if (startDate == null || endDate == null) {
+			throw new IllegalArgumentException("The start and end dates are needed to total the accounts.");
+		}
+		SumQueryCache.SumQuery sumQuery = new SumQueryCache.SumQuery(targetAccounts, startDate, endDate);
+		Money total = sumCache.get(sumQuery);
+		if (total != null) {
+			return total.toBigDecimal();
+		}
+
+		total = Money.ZERO;
+		if (!startDate.isAfter(endDate)) {
+			if (monthWindow == null) {
+				for (Account tmpAccount : sumQuery.getAccounts()) {
+					total = total.add(Money.valueOf(entryData.getNetChange(tmpAccount, startDate, endDate)));
+				}
+			} else {
+				for (HashMap<Account, BigDecimal> monthTotalList : getMonthlyAccountTotals(startDate, endDate).values()) {
+					for (Map.Entry<Account, BigDecimal> monthTotal : monthTotalList.entrySet()) {
+						if (sumQuery.hasAccount(monthTotal.getKey())) {
+							total = total.add(Money.valueOf(monthTotal.getValue()));
+						}
+					}
+				}
+			}
+			// repeating and installment entries count on the first day of each month
+			int firstMonth = EpochDay.toMonthIndex(startDate) + ((startDate.getDay() == 1) ? 0 : 1);
+			int lastMonth = EpochDay.toMonthIndex(endDate);
+			for (Account tmpAccount : sumQuery.getAccounts()) {
+				total = total.add(entryData.getBudgetActuals().getMultipleEntryTotal(tmpAccount, firstMonth, lastMonth));
+			}
+		}
+		sumCache.put(sumQuery, total);
+		return total.toBigDecimal();
+	}
+
+	/**
+	 * Get a report on the single entries in a date range: the number of entries and the total, smallest and largest amount
+	 * for each account, for each month and for the whole range. The months are split between the threads of the report pool,
+	 * so a report over many years of entries uses every core.
+	 * 
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return - a LedgerReport with the statistics for the date range
+	 */
+	public LedgerReport getLedgerReport(JDateTime startDate, JDateTime endDate) {
+		if (monthWindow == null) {
+			return entryData.getLedgerReport(reportEngine, startDate, endDate);
+		}
+		LedgerReport returnReport = new LedgerReport();
+		for (JDateTime[] monthGroup : getMonthGroups(startDate, endDate)) {
+			loadMonths(monthGroup[0], monthGroup[1]);
+			returnReport.merge(entryData.getLedgerReport(reportEngine, monthGroup[0], monthGroup[1]));
+		}
+		return returnReport;
+	}
+
+	/**
+	 * Get a budget variance report for a month: the amount budgeted for each account, the actual totals of its single,
+	 * repeating and installment entries, and the difference between them. The actual totals are kept up to date as entries
+	 * are added, updated and deleted, so the report doesn't have to go through the entries. If the month doesn't have a
+	 * budget the default budget is used.
+	 * 
+	 * @param month - month of the report
+	 * @param year - year of the report
+	 * @return - an ArrayList with a line for each account that is in the budget or has entries in the month, sorted by account name
+	 */
+	public ArrayList<BudgetVariance> getBudgetVariance(int month, int year) {
+		JDateTime startDate = new JDateTime(year, month, 1);
+		loadMonths(startDate, startDate);
+		Budget monthlyBudget = monthlyBudgetList.get(startDate);
+		if (monthlyBudget == null) {
+			monthlyBudget = defaultBudget;
+		}
+		int monthIndex = EpochDay.toMonthIndex(startDate);
+		BudgetActuals budgetActuals = entryData.getBudgetActuals();
+		TreeMap<String, Account> reportAccountList = new TreeMap<String, Account>();
+		for (Account tmpAccount : monthlyBudget.getAccountList()) {
+			if (tmpAccount.getIsIncludedInBudget()) {
+				reportAccountList.put(tmpAccount.getAccountName(), tmpAccount);
+			}
+		}
+		for (Account tmpAccount : budgetActuals.getAccounts(monthIndex)) {
+			reportAccountList.put(tmpAccount.getAccountName(), tmpAccount);
+		}
+
+		ArrayList<BudgetVariance> returnList = new ArrayList<BudgetVariance>(reportAccountList.size());
+		for (Account tmpAccount : reportAccountList.values()) {
+			boolean isBudgeted = tmpAccount.getIsIncludedInBudget() && monthlyBudget.isAccountInList(tmpAccount);
+			returnList.add(new BudgetVariance(tmpAccount, isBudgeted, isBudgeted ? monthlyBudget.getBudgetMoney(tmpAccount) : Money.ZERO,
+					budgetActuals.getSingleTotal(monthIndex, tmpAccount), budgetActuals.getRepeatingTotal(monthIndex, tmpAccount),
+					budgetActuals.getInstallmentTotal(monthIndex, tmpAccount)));
+		}
+		return returnList;
+	}
+
 	/**
 	 * Get an ArrayList object of all the Repeating Entries for the target month or all months
 	 * 
@@ -453,6 +1103,7 @@ public class GeneralLedger {
 	public void addDefaultBudgetAccount(Account newAccount, BigDecimal newBudgetAmount){
 		try {
 			defaultBudget.addAccount(newAccount, newBudgetAmount);
+			changeSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.INSERT, newAccount, defaultBudget.getBudgetAmount(newAccount)));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -466,6 +1117,7 @@ public class GeneralLedger {
 	public void removeDefaultBudgetAccount(Account deleteAccount){
 		try {
 			defaultBudget.deleteAccount(deleteAccount);
+			changeSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.DELETE, deleteAccount, null));
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -483,6 +1135,7 @@ public class GeneralLedger {
 		if (defaultBudget.isAccountInList(updateAccount) == true) {
 			try {
 				defaultBudget.updateBudgetAmount(updateAccount, newAmount);
+				changeSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.UPDATE, updateAccount, defaultBudget.getBudgetAmount(updateAccount)));
 			} catch (IllegalArgumentException e) {
 				throw new IllegalArgumentException(e);
 			}
@@ -507,6 +1160,7 @@ public class GeneralLedger {
 		} 
 		tmpBudget.addAccount(newAccount, newBudgetAmount);
 		monthlyBudgetList.put(monthYearId, tmpBudget);
+		changeSet.record(LedgerChange.forMonthlyBudget(LedgerChange.Operation.INSERT, month, year, newAccount, tmpBudget.getBudgetAmount(newAccount)));
 	}
 
 	/**
@@ -521,6 +1175,7 @@ public class GeneralLedger {
 		Budget tmpList = monthlyBudgetList.get(monthYearId);
 		if (tmpList.isAccountInList(deleteAccount)) {
 			tmpList.deleteAccount(deleteAccount);
+			changeSet.record(LedgerChange.forMonthlyBudget(LedgerChange.Operation.DELETE, month, year, deleteAccount, null));
 		} else {
 			throw new IllegalArgumentException("The list of entries for this month doesn't have the account you are trying to delete");
 		}
@@ -542,619 +1197,303 @@ public class GeneralLedger {
 		Budget tmpList = monthlyBudgetList.get(monthYearId);
 		if (tmpList.isAccountInList(updateAccount) == true) {
 			tmpList.updateBudgetAmount(updateAccount, newAmount);
+			changeSet.record(LedgerChange.forMonthlyBudget(LedgerChange.Operation.UPDATE, month, year, updateAccount, tmpList.getBudgetAmount(updateAccount)));
 		} else {
 			throw new IllegalArgumentException("Account " + updateAccount + " isn't in this month's budget.");
 		}
 	}
 
 	/**
-	 * Get an account object from the list of accounts by searching using the account name
-	 * @param accountName - name of account to search for
+	 * This makes sure the single entries in a date range are loaded from the ledger store when loading lazily,
+	 * and removes the least recently used months from memory if too many months are loaded
 	 * 
-	 * @return account object or null if not found
+	 * @param startDate - the first date that will be used
+	 * @param endDate - the last date that will be used
 	 */
-	private Account getAccount(String accountName) {
-		for (int i = 0; i < accountList.size(); i++) {
-			Account tempAccount = accountList.get(i);
-			//System.out.println(tempAccount.getAccountName());
-			if (tempAccount.getAccountName().equals(accountName)) {
-				return tempAccount;	
+	private void loadMonths(JDateTime startDate, JDateTime endDate) {
+		if (monthWindow == null) {
+			return;
+		}
+		changeSet.setRecording(false);
+		try {
+			int startMonth = EpochDay.toMonthIndex(startDate);
+			int endMonth = EpochDay.toMonthIndex(endDate);
+			HashSet<Integer> neededMonthList = new HashSet<Integer>();
+			int missingMonthCnt = 0;
+			for (int i = startMonth; i <= endMonth; i++) {
+				neededMonthList.add(i);
+				if (monthWindow.isResident(i)) {
+					monthWindow.touch(i);
+				} else {
+					missingMonthCnt++;
+				}
+			}
+			if (writeBehindQueue != null && !writeBehindQueue.hasPendingChanges()) {
+				// every change has been saved in the background, so the changed months can be removed from memory again
+				monthWindow.unpinAll();
+			}
+			// make room before loading, but don't remove any of the months this request needs
+			for (int oldMonth : monthWindow.removeLeastRecentMonths(neededMonthList, missingMonthCnt)) {
+				entryData.removeMonth(EpochDay.fromMonthIndex(oldMonth));
+			}
+			if (missingMonthCnt > 0) {
+				synchronized (ledgerStore) {
+					ledgerStore.loadSingleEntries(this, EpochDay.fromMonthIndex(startMonth), EpochDay.fromMonthIndex(endMonth + 1),
+							monthWindow.getResidentMonths());
+				}
+				for (int i = startMonth; i <= endMonth; i++) {
+					monthWindow.addMonth(i);
+				}
 			}
+		} catch (LedgerStoreException e) {
+			// the read methods that call this can't throw a checked exception
+			throw new IllegalStateException(e);
+		} finally {
+			changeSet.setRecording(true);
 		}
-		return null;
 	}
 
-	// TODO: finish writing getTotalAmountDonatedToCharity method
-	//public BigDecimal getTotalAmountDonatedToCharity(JDateTime startDate, JDateTime endDate) {
-	//	...
-	//}
-
 	/**
-	 * This class handles the connection with the SQL database (creating SQL tables, loading data, saving data)
+	 * This splits a date range into groups of months that each fit in the month window, leaving out the months that have
+	 * no single entries, so a query over a long date range (or the whole history) can load one group at a time and
+	 * the months loaded for one group can be removed from memory to make room for the next
 	 * 
-	 * @author Asa Swain
-	 *
+	 * @param startDate - the first date of the range (if null start with the earliest entry)
+	 * @param endDate - the last date of the range (if null end with the latest entry)
+	 * @return a list of the first and last date of each group, in date order
 	 */
-	private class SQLDatabaseConnection {
-		// SQL database connection object 
-		private Connection connection;
-
-		// variable to keep track of it SQL Tables exist
-		private boolean SQLTablesExist[];
-
-		final int NBR_SQL_DATABASES = 6;
-
-		/**
-		 * This is a blank constructor
-		 */
-		public SQLDatabaseConnection() {
-			// initialize connection with SQL database
-			initSQLConnection();
-			//TODO check for failed connection and throw error if unable to make connection
-			//if (connection == null) return;
-
-			SQLTablesExist = new boolean[NBR_SQL_DATABASES];
-			for (int i = 0; i < NBR_SQL_DATABASES; i++) {
-				SQLTablesExist[i] = false;
-			}
+	private ArrayList<JDateTime[]> getMonthGroups(JDateTime startDate, JDateTime endDate) {
+		TreeSet<Integer> monthList = new TreeSet<Integer>();
+		for (JDateTime tmpMonth : getStoredMonthlyTotals(startDate, endDate).keySet()) {
+			monthList.add(EpochDay.toMonthIndex(tmpMonth));
 		}
-
-		/**
-		 * This verifies that the SQL table exists and creates an SQL table from scratch if none exists before
-		 */
-		public void createSQLtable() {
-			executeSQLCommand("VerifySQLTables");
-			for (int i = 0; i < NBR_SQL_DATABASES; i++) {
-				if (SQLTablesExist[i] == false) {
-					executeSQLCommand("CreateSQLTable" + i);
-					SQLTablesExist[i] = true;
-				}
+		for (int monthIndex : monthWindow.getResidentMonths()) {
+			if ((startDate == null || monthIndex >= EpochDay.toMonthIndex(startDate)) && (endDate == null || monthIndex <= EpochDay.toMonthIndex(endDate))
+					&& entryData.singleEntrySize(EpochDay.fromMonthIndex(monthIndex)) > 0) {
+				monthList.add(monthIndex);
 			}
 		}
-
-		/**
-		 * This loads a list of accounts from the SQL database into the accountList object
-		 * This loads single entries from the SQL database into the monthlyData object
-		 * This loads the monthly budget from the SQL database into the monthlyData object
-		 * This loads the default budget from the SQL database into the defaultBudget object
-		 */
-		public void loadDatabasesFromSQL() {
-			// be sure to load accounts before loading monthly ledger
-			executeSQLCommand("LoadAccountList"); 
-			executeSQLCommand("LoadSingleEntry");
-			executeSQLCommand("LoadRepeatEntry");
-			executeSQLCommand("LoadInstallmentEntry");
-			executeSQLCommand("LoadMonthlyBudgets");
-			executeSQLCommand("LoadDefaultBudget");
-		}
-
-		/**
-		 * This saves a list of accounts from the accountList object into the SQL database,
-		 * saves single entries from the monthlyData object into the SQL database,
-		 * saves the monthly budget from the monthlyData object into the SQL database,
-		 * and saves the default budget from the defaultBudget object into the SQL database
-		 */
-		public void saveDatabasesToSQL() {
-			mySQLDatabase.executeSQLCommand("SaveAccountList");
-			mySQLDatabase.executeSQLCommand("SaveSingleEntry");
-			mySQLDatabase.executeSQLCommand("SaveRepeatEntry");
-			mySQLDatabase.executeSQLCommand("SaveInstallmentEntry");
-			mySQLDatabase.executeSQLCommand("SaveMonthlyBudgets");
-			mySQLDatabase.executeSQLCommand("SaveDefaultBudget");
-		}
-
-		/**
-		 * This erases the contents of all the SQL databases
-		 */
-		public void eraseSQLDatabases() {
-			executeSQLCommand("EraseDatabase");
-		}
-
-		/**
-		 * Send commands to SQL database to load data, save date, or create tables 
-		 * 
-		 * @param commandName - SQL command to execute
-		 * 
-		 * @exception SQLException if an error occurs when interacting with the SQL database
-		 */
-		private void executeSQLCommand(String commandName) {
-			// get list of SQL statements based on commandName
-			ArrayList<String> statementList = new ArrayList<String>();
-			// build list of SQL statements for this command
-			statementList = getSQLStatementList(commandName);
-			int statementCnt = statementList.size();
-			String commandType = getSQLCommandType(commandName);
-
-			if (commandType.equals("ReadTables")) {
-				if (commandName.length() > 14 && commandName.substring(0,14).equals("VerifySQLTable")){
-					try {
-						// verify that each of the SQL tables exist
-						DatabaseMetaData md = connection.getMetaData();
-						ResultSet rs = md.getTables(null, null, "%", null);
-
-						while (rs.next()) {
-							System.out.println(rs.getString(3));
-							if (rs.getString(3).equals("account_list"))     { SQLTablesExist[0] = true; }
-							if (rs.getString(3).equals("general_ledger"))   { SQLTablesExist[1] = true; }
-							if (rs.getString(3).equals("monthly_budget"))   { SQLTablesExist[2] = true; }
-							if (rs.getString(3).equals("default_budget"))   { SQLTablesExist[3] = true; }
-							if (rs.getString(3).equals("repeat_entry"))     { SQLTablesExist[4] = true; }
-							if (rs.getString(3).equals("installment_entry")){ SQLTablesExist[5] = true; }
-						}	
-					} catch (SQLException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-				}
-			} else {
-				for (int i = 0; i < statementCnt; i++) {
-					Statement statement = null;
-					try {
-						statement = connection.createStatement();
-
-						// get SQL command to execute
-						String command = statementList.get(i);
-
-						if (command != "") {
-							//System.out.println("SQL command = " + command);
-							if (commandType.equals("ExecuteUpdate")) {
-								statement.executeUpdate(command);
-							} else { 
-								ResultSet resultSet = statement.executeQuery(command);
-
-								while(resultSet.next()){	
-									// parse contents of resultSet to handle data returned from SQL database
-									parseSQLResults(commandName, resultSet);
-								}
-							}
-						}
-					} catch (SQLException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-				}
+		ArrayList<JDateTime[]> groupList = new ArrayList<JDateTime[]>();
+		Integer groupStartMonth = null;
+		int groupEndMonth = 0;
+		for (int monthIndex : monthList) {
+			if (groupStartMonth != null && monthIndex - groupStartMonth >= monthWindow.getMaxResidentMonths()) {
+				groupList.add(getMonthGroup(groupStartMonth, groupEndMonth, startDate, endDate));
+				groupStartMonth = null;
 			}
-		}
-
-		/**
-		 * This initializes the connection with the SQL database
-		 * 
-		 * @exception SQLException if an error occurs when interacting with the SQL database
-		 */
-		private void initSQLConnection(){
-			try {
-				Class.forName("com.mysql.jdbc.Driver");
-			} catch (ClassNotFoundException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-
-			// We can set a custom username and password in phpMyadmin (in localhost for XAMPP) 
-			// but for now just use default host login with no password
-
-			connection = null;
-
-			String user = "root";
-			String password = "";
-			try {
-				connection = DriverManager.getConnection("jdbc:mysql://localhost:3306/javabudget", user, password);
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+			if (groupStartMonth == null) {
+				groupStartMonth = monthIndex;
 			}
+			groupEndMonth = monthIndex;
 		}
+		if (groupStartMonth != null) {
+			groupList.add(getMonthGroup(groupStartMonth, groupEndMonth, startDate, endDate));
+		}
+		return groupList;
+	}
 
-		/**
-		 * This generates a list of SQL commands to pass to the SQL database based on the commandName
-		 * 
-		 * @parameter commandName - the type of command we are trying to execute
-		 */
-		private ArrayList<String> getSQLStatementList(String commandName) {
-			ArrayList<String> statementList = new ArrayList<String>();
-
-			if (commandName.equals("LoadAccountList")) {
-				statementList.add("SELECT * FROM `account_list`");
-			}
-			if (commandName.equals("LoadSingleEntry")) {
-				statementList.add("SELECT * FROM `general_ledger`");
-			}
-			if (commandName.equals("LoadRepeatEntry")) {
-				statementList.add("SELECT * FROM `repeat_entry`");
-			}
-			if (commandName.equals("LoadInstallmentEntry")) {
-				statementList.add("SELECT * FROM `installment_entry`");
-			}
-			if (commandName.equals("LoadMonthlyBudgets")) {
-				statementList.add("SELECT * FROM `monthly_budget`");
-			}
-			if (commandName.equals("LoadDefaultBudget")) {
-				statementList.add("SELECT * FROM `default_budget`");
-			}
-
-			if (commandName.equals("EraseDatabase")) {
-				statementList.add("TRUNCATE `account_list`");
-				statementList.add("TRUNCATE `general_ledger`");
-				statementList.add("TRUNCATE `repeat_entry`");
-				statementList.add("TRUNCATE `installment_entry`");
-				statementList.add("TRUNCATE `monthly_budget`");
-				statementList.add("TRUNCATE `default_budget`");
-			}
-
-			if (commandName.equals("SaveAccountList")) {
-				// number of statements = number of accounts
-				for (Account tmpAccount : accountList){
-					// extract data from accountList object		
-					String tmpName = tmpAccount.getAccountName();
-					tmpName = tmpName.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					String tmpDesc = tmpAccount.getAccountDesc();
-					tmpDesc = tmpDesc.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					char tmpIsAnExpense;
-					if (tmpAccount.getIsAnExpense() == true) {
-						tmpIsAnExpense = 'Y';
-					} else {
-						tmpIsAnExpense = 'N';
-					}
-					char tmpIsInBudget;
-					if (tmpAccount.getIsIncludedInBudget() == true) {
-						tmpIsInBudget = 'Y';
-					} else {
-						tmpIsInBudget = 'N';
-					}
-					String tmpStatement = "INSERT INTO account_list (NAME, DESCRIPTION, IS_AN_EXPENSE, IS_IN_BUDGET) ";
-					tmpStatement += "VALUES ('"+tmpName+"', '"+tmpDesc+"', '"+tmpIsAnExpense+"', '"+tmpIsInBudget+"')";
-					statementList.add(tmpStatement);
-				}
-			}
-
-			// no list required, just need a dummy list so we can count the number of iterations
-			if (commandName.equals("SaveSingleEntry")) {
-				// number of statements = number of single entries in ledger so make a giant list of all the SingleEntry data from all months in the general ledger
-				ArrayList<SingleEntry> rawEntryList = entryData.getSingleEntryList();
-				for (SingleEntry tmpEntry : rawEntryList){
-					// extract data from SingleEntry object
-					JDateTime entryDate = tmpEntry.getDate();
-					int day = entryDate.getDay();
-					int month = entryDate.getMonth();
-					int year = entryDate.getYear();
-					String tmpDate = (year  + "-" + month + "-" + day);
-					String tmpDesc = tmpEntry.getDesc();
-					tmpDesc = tmpDesc.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					String tmpAccount = tmpEntry.getAccount().getAccountName();
-					tmpAccount = tmpAccount.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					BigDecimal tmpAmount = tmpEntry.getMonthlyAmount();
-					// intentionally ignore AUTONUM column which auto-generates an ID for this row
-					String tmpStatement = "INSERT INTO general_ledger (DATE, DESCRIPTION, ACCOUNT, AMOUNT) ";
-					tmpStatement += "VALUES ('"+tmpDate+"', '"+tmpDesc+"', '"+tmpAccount+"', '"+tmpAmount+"')";
-					statementList.add(tmpStatement);
-				}
-			}
+	/**
+	 * This gets the first and last date of a group of months, cut down to a date range
+	 * 
+	 * @param startMonth - the first month of the group
+	 * @param endMonth - the last month of the group
+	 * @param startDate - the first date of the range (if null the group starts on the first day of startMonth)
+	 * @param endDate - the last date of the range (if null the group ends on the last day of endMonth)
+	 * @return an array with the first and last date of the group
+	 */
+	private static JDateTime[] getMonthGroup(int startMonth, int endMonth, JDateTime startDate, JDateTime endDate) {
+		JDateTime groupStartDate = EpochDay.fromMonthIndex(startMonth);
+		if (startDate != null && startDate.isAfter(groupStartDate)) {
+			groupStartDate = startDate;
+		}
+		JDateTime groupEndDate = EpochDay.toDate(EpochDay.fromDate(EpochDay.fromMonthIndex(endMonth + 1)) - 1);
+		if (endDate != null && endDate.isBefore(groupEndDate)) {
+			groupEndDate = endDate;
+		}
+		return new JDateTime[] {groupStartDate, groupEndDate};
+	}
 
-			// no list required, just need a dummy list so we can count the number of iterations
-			if (commandName.equals("SaveRepeatEntry")) {
-				// number of statements = number of single entries in ledger so make a giant list of all the SingleEntry data from all months in the general ledger
-				ArrayList<RepeatingEntry> rawEntryList = entryData.getRepeatingEntryList(null);
-				for (RepeatingEntry tmpEntry : rawEntryList){
-					// extract data from RepeatingEntry object
-					JDateTime startDate = tmpEntry.getStartDate();
-					int day = startDate.getDay();
-					int month = startDate.getMonth();
-					int year = startDate.getYear();
-					String tmpStartDate = (year  + "-" + month + "-" + day);
-					JDateTime endDate = tmpEntry.getEndDate();
-					day = endDate.getDay();
-					month = endDate.getMonth();
-					year = endDate.getYear();
-					String tmpEndDate = (year  + "-" + month + "-" + day);
-					String tmpDesc = tmpEntry.getDesc();
-					tmpDesc = tmpDesc.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					String tmpAccount = tmpEntry.getAccount().getAccountName();
-					tmpAccount = tmpAccount.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					BigDecimal tmpAmount = tmpEntry.getMonthlyAmount();
-					// intentionally ignore AUTONUM column which auto-generates an ID for this row
-					String tmpStatement = "INSERT INTO repeat_entry (STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT) ";
-					tmpStatement += "VALUES ('"+tmpStartDate+"', '"+tmpEndDate+"', '"+tmpDesc+"', '"+tmpAccount+"', '"+tmpAmount+"')";
-					statementList.add(tmpStatement);
-				}
+	/**
+	 * This totals the single entries in the months that aren't in memory for each month and account, using the ledger store
+	 * 
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return - a TreeMap with the totals for each account, by the first day of each month
+	 */
+	private TreeMap<JDateTime, HashMap<Account, BigDecimal>> getStoredMonthlyTotals(JDateTime startDate, JDateTime endDate) {
+		TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList = new TreeMap<JDateTime, HashMap<Account, BigDecimal>>();
+		try {
+			synchronized (ledgerStore) {
+				ledgerStore.addMonthlyAccountTotals(this, startDate, endDate, monthWindow.getResidentMonths(), totalList);
 			}
+		} catch (LedgerStoreException e) {
+			// the read methods that call this can't throw a checked exception
+			throw new IllegalStateException(e);
+		}
+		return totalList;
+	}
 
-			// no list required, just need a dummy list so we can count the number of iterations
-			if (commandName.equals("SaveInstallmentEntry")) {
-				// number of statements = number of single entries in ledger so make a giant list of all the SingleEntry data from all months in the general ledger
-				ArrayList<InstallmentEntry> rawEntryList = entryData.getInstallmentEntryList(null);
-				for (InstallmentEntry tmpEntry : rawEntryList){
-					// extract data from InstallmentEntry object
-					JDateTime startDate = tmpEntry.getStartDate();
-					int day = startDate.getDay();
-					int month = startDate.getMonth();
-					int year = startDate.getYear();
-					String tmpStartDate = (year  + "-" + month + "-" + day);
-					JDateTime endDate = tmpEntry.getEndDate();
-					day = endDate.getDay();
-					month = endDate.getMonth();
-					year = endDate.getYear();
-					String tmpEndDate = (year  + "-" + month + "-" + day);
-					String tmpDesc = tmpEntry.getDesc();
-					tmpDesc = tmpDesc.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					String tmpAccount = tmpEntry.getAccount().getAccountName();
-					tmpAccount = tmpAccount.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					BigDecimal tmpAmount = tmpEntry.getMonthlyAmount();
-					// intentionally ignore AUTONUM column which auto-generates an ID for this row
-					String tmpStatement = "INSERT INTO installment_entry (STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT) ";
-					tmpStatement += "VALUES ('"+tmpStartDate+"', '"+tmpEndDate+"', '"+tmpDesc+"', '"+tmpAccount+"', '"+tmpAmount+"')";
-					statementList.add(tmpStatement);
-				}
+	/**
+	 * This counts the single entries in the months that aren't in memory for each day and account, using the ledger store
+	 * 
+	 * @return - a TreeMap with the counts for each account, by epoch day
+	 */
+	private TreeMap<Integer, HashMap<Account, Integer>> getStoredDailyCounts() {
+		TreeMap<Integer, HashMap<Account, Integer>> countList = new TreeMap<Integer, HashMap<Account, Integer>>();
+		try {
+			synchronized (ledgerStore) {
+				ledgerStore.addDailyAccountCounts(this, monthWindow.getResidentMonths(), countList);
 			}
+		} catch (LedgerStoreException e) {
+			// the read methods that call this can't throw a checked exception
+			throw new IllegalStateException(e);
+		}
+		return countList;
+	}
 
-			if (commandName.equals("SaveDefaultBudget")) {
-				// extract account list from the DefaultBudget object - keySet returns a set of all the keys in the HashMap
-				for(Account setAccount : defaultBudget.getAccountList()){
-					String tmpAccount = setAccount.getAccountName();
-					tmpAccount = tmpAccount.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-					BigDecimal tmpAmount = defaultBudget.getBudgetAmount(setAccount);
+	/**
+	 * This makes sure the month of a date is loaded before it is changed, and keeps it in memory until it is saved
+	 * 
+	 * @param changeDate - a date in the month being changed (if null nothing is done)
+	 */
+	private void loadMonthForChange(JDateTime changeDate) {
+		if (monthWindow == null || changeDate == null) {
+			return;
+		}
+		loadMonths(changeDate, changeDate);
+		monthWindow.pin(EpochDay.toMonthIndex(changeDate));
+	}
 
-					String tmpStatement = "INSERT INTO default_budget (ACCOUNT, AMOUNT) ";
-					tmpStatement += "VALUES ('"+tmpAccount+"', '"+tmpAmount+"')";
-					statementList.add(tmpStatement);
+	/**
+	 * This makes sure the month of a single entry is loaded, looking up its date in the ledger store if needed
+	 * 
+	 * @param targetId - the id of the entry
+	 * @return the date of the entry or null if there isn't an entry with that id
+	 */
+	private JDateTime loadSingleEntry(long targetId) {
+		SingleEntry tmpEntry = entryData.getSingleEntry(targetId);
+		if (tmpEntry == null && monthWindow != null) {
+			JDateTime entryDate;
+			try {
+				synchronized (ledgerStore) {
+					entryDate = ledgerStore.getSingleEntryDate(targetId);
 				}
+			} catch (LedgerStoreException e) {
+				throw new IllegalStateException(e);
 			}
-
-			if (commandName.equals("SaveMonthlyBudgets")){
-				// extract monthly budget dates from the monthlyData object - keySet returns a set of all the keys in the HashMap
-				for(JDateTime tmpDate : monthlyBudgetList.keySet()){
-					int tmpMonth = tmpDate.getMonth();
-					int tmpYear = tmpDate.getYear();
-					Budget tmpBudget = monthlyBudgetList.get(tmpDate);
-					// extract account list from the tmpBudget object - keySet returns a set of all the keys in the HashMap
-					for (Account setAccount : tmpBudget.getAccountList()){
-						String tmpAccount = setAccount.getAccountName();
-						tmpAccount = tmpAccount.replace("'", "''"); // replace single quotes with '' to make it compatible with SQL database
-						BigDecimal tmpAmount = tmpBudget.getBudgetAmount(setAccount);
-						// intentionally ignore AUTONUM column which auto-generates an ID for this row
-						String tmpStatement = "INSERT INTO monthly_budget (MONTH, YEAR, ACCOUNT, AMOUNT) ";
-						tmpStatement += "VALUES ('"+tmpMonth+"','"+tmpYear+"','"+tmpAccount+"', '"+tmpAmount+"')";
-						statementList.add(tmpStatement);
-					}
-				}
+			if (entryDate != null) {
+				loadMonths(entryDate, entryDate);
+				tmpEntry = entryData.getSingleEntry(targetId);
 			}
+		}
+		return tmpEntry == null ? null : tmpEntry.getDate();
+	}
 
-			if(commandName.length() > 14 && commandName.substring(0,14).equals("CreateSQLTable")){
-				String tableNbr = commandName.substring(14, 15);
-
-				String tmpStatement = "";
-				if (tableNbr.equals("0")) {
-					tmpStatement = "CREATE TABLE account_list (";
-					tmpStatement += " name VARCHAR(25) DEFAULT NULL, ";
-					tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
-					tmpStatement += " is_an_expense VARCHAR(1) DEFAULT NULL,";
-					tmpStatement += " is_in_budget VARCHAR(1) DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (name)";
-					tmpStatement += ");";
-				}
+	/**
+	 * This adds single entries loaded from the ledger store (the entries keep the ids they were stored with)
+	 * 
+	 * @param entryList - the entries to add, in date order
+	 */
+	void addLoadedSingleEntries(List<SingleEntry> entryList) {
+		entryData.addSingleEntries(entryList);
+	}
 
-				if (tableNbr.equals("1")) {
-					tmpStatement = "CREATE TABLE general_ledger (";
-					tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT,";
-					tmpStatement += " date date DEFAULT NULL, ";
-					tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
-					tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
-					tmpStatement += " amount float DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (autonum)";
-					tmpStatement += ");";
-				}
+	/**
+	 * This adds a repeating or installment entry loaded from the ledger store (the entry keeps the id it was stored with)
+	 * 
+	 * @param loadedEntry - the entry to add
+	 */
+	void addLoadedEntry(MultipleEntry loadedEntry) {
+		if (loadedEntry instanceof InstallmentEntry) {
+			entryData.addInstallmentEntry((InstallmentEntry) loadedEntry);
+		} else {
+			entryData.addRepeatingEntry((RepeatingEntry) loadedEntry);
+		}
+	}
 
-				if (tableNbr.equals("2")) {
-					tmpStatement = "CREATE TABLE monthly_budget (";
-					tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
-					tmpStatement += " month INT(10) NOT NULL,";
-					tmpStatement += " year INT(10) NOT NULL,";
-					tmpStatement += " account VARCHAR(25) DEFAULT NULL, ";
-					tmpStatement += " amount float DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (autonum)";
-					tmpStatement += ");";
-				}
+	/**
+	 * This adds an amount to the total for a month and account
+	 * 
+	 * @param totalList - the totals by month and then by account
+	 * @param month - the first day of the month
+	 * @param totalAccount - the account
+	 * @param amount - the amount to add
+	 */
+	static void addToTotal(TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList, JDateTime month, Account totalAccount, BigDecimal amount) {
+		HashMap<Account, BigDecimal> monthTotalList = totalList.get(month);
+		if (monthTotalList == null) {
+			monthTotalList = new HashMap<Account, BigDecimal>();
+			totalList.put(month, monthTotalList);
+		}
+		BigDecimal oldTotal = monthTotalList.get(totalAccount);
+		monthTotalList.put(totalAccount, oldTotal == null ? amount : oldTotal.add(amount));
+	}
 
-				if (tableNbr.equals("3")) {
-					tmpStatement = "CREATE TABLE default_budget (";
-					tmpStatement += " account VARCHAR(25) DEFAULT NULL, ";
-					tmpStatement += " amount float DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (account)";
-					tmpStatement += ");";
-				}	
-
-				if (tableNbr.equals("4")) {
-					tmpStatement = "CREATE TABLE repeat_entry (";
-					tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
-					tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
-					tmpStatement += " startdate date DEFAULT NULL, ";
-					tmpStatement += " enddate date DEFAULT NULL, ";
-					tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
-					tmpStatement += " amount float DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (autonum)";
-					tmpStatement += ");";
-				}
+	/**
+	 * This adds to the count for a day and account
+	 * 
+	 * @param countList - the counts by epoch day and then by account
+	 * @param epochDay - the day
+	 * @param countAccount - the account
+	 * @param count - the number to add
+	 */
+	static void addToCount(TreeMap<Integer, HashMap<Account, Integer>> countList, int epochDay, Account countAccount, int count) {
+		HashMap<Account, Integer> dayCountList = countList.get(epochDay);
+		if (dayCountList == null) {
+			dayCountList = new HashMap<Account, Integer>();
+			countList.put(epochDay, dayCountList);
+		}
+		Integer oldCount = dayCountList.get(countAccount);
+		dayCountList.put(countAccount, oldCount == null ? count : oldCount + count);
+	}
 
-				if (tableNbr.equals("5")) {
-					tmpStatement = "CREATE TABLE installment_entry (";
-					tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
-					tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
-					tmpStatement += " startdate date DEFAULT NULL, ";
-					tmpStatement += " enddate date DEFAULT NULL, ";
-					tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
-					tmpStatement += " amount float DEFAULT NULL,";
-					tmpStatement += " PRIMARY KEY (autonum)";
-					tmpStatement += ");";
-				}
+	/**
+	 * Get an account object from the list of accounts by searching using the account name
+	 * @param accountName - name of account to search for
+	 * 
+	 * @return account object or null if not found
+	 */
+	Account getAccount(String accountName) {
+		return accountList.getAccount(accountName);
+	}
 
-				if (!tmpStatement.equals("")) {
-					statementList.add(tmpStatement);	
-				}
-			}
+	/**
+	 * Get the total amount donated to charity in a date range (the total spent in the account named CHARITY_ACCOUNT_NAME)
+	 * 
+	 * @param startDate - the first date to include
+	 * @param endDate - the last date to include
+	 * @return - the amount donated (positive for money given)
+	 * @exception IllegalArgumentException - if there is no charity account or either date is missing
+	 */
+	public BigDecimal getTotalAmountDonatedToCharity(JDateTime startDate, JDateTime endDate) {
+		Account charityAccount = getAccount(CHARITY_ACCOUNT_NAME);
+		if (charityAccount == null) {
+			throw new IllegalArgumentException("There is no " + CHARITY_ACCOUNT_NAME + " account.");
+		}
+		return getTotalAmount(Collections.singletonList(charityAccount), startDate, endDate).negate();
+	}
 
-			return statementList;
+	/**
+	 * This drops the cached sums that include a single entry's account and month (call after the entry is added or removed)
+	 * 
+	 * @param changedEntry - the entry that was added or removed (if null nothing is done)
+	 */
+	private void invalidateSums(SingleEntry changedEntry) {
+		if (changedEntry != null) {
+			sumCache.invalidateMonth(changedEntry.getAccount(), EpochDay.toMonthIndex(changedEntry.getDate()));
 		}
+	}
 
-		/**
-		 * This gets the command type based on the type of the command we are sending to the SQL Database
-		 * 
-		 * @param commandName - the type of command we are executing
-		 * @return a string containing the type of command (ReadTables/ExecuteUpdate/ExecuteQuery)
-		 */
-		private String getSQLCommandType(String commandName) {
-			String commandType = "";
-			if ((commandName.equals("VerifySQLTables"))) {
-				commandType = "ReadTables";
-			} else {
-				if ((commandName.equals("EraseDatabase")) || (commandName.equals("SaveAccountList") )
-						|| (commandName.equals("SaveDefaultBudget")) || (commandName.equals("SaveSingleEntry")) || (commandName.equals("SaveInstallmentEntry")) || (commandName.equals("SaveRepeatEntry"))
-						|| (commandName.equals("SaveMonthlyBudgets"))  || (commandName.length() > 14 && commandName.substring(0,14).equals("CreateSQLTable"))) {
-					commandType = "ExecuteUpdate";
-				} else {
-					// commandName == "LoadAccountList" or "LoadRepeatEntry" or "LoadMonthlyBudgets" or "LoadDefaultBudget" {
-					commandType = "ExecuteQuery";	
-				}
-			}
-			return commandType;
-		}
-
-		/**
-		 * Parse the results of the command we sent to the SQL Database
-		 * 
-		 * @param commandName - the type of command we are executing
-		 * @param resultSet - the results from the SQL database 
-		 * 
-		 * @exception SQLException if an error occurs when interacting with the SQL database
-		 */
-		private void parseSQLResults(String commandName, ResultSet resultSet) {
-			try {
-				if (commandName.equals("LoadAccountList")) {
-					String accountName = resultSet.getString("NAME");		
-					accountName = accountName.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					String accountDesc = resultSet.getString("DESCRIPTION");	
-					accountDesc = accountDesc.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					String tmpIsAnExpense = resultSet.getString("IS_AN_EXPENSE");	
-					boolean isAnExpense = (tmpIsAnExpense.equals("Y"));
-					String tmpIsInBudget  = resultSet.getString("IS_IN_BUDGET");	
-					boolean isInBudget = (tmpIsInBudget.equals("Y"));
-					addAccount(accountName, accountDesc, isAnExpense, isInBudget, false, BigDecimal.ZERO);
-				}
-				
-				if (commandName.equals("LoadMonthlyBudgets")) {
-					// ignore AUTONUM column at beginning of MONTHLY_BUDGET table
-					String stringMonth = resultSet.getString("MONTH");
-					int budgetMonth = Integer.parseInt(stringMonth);
-					String stringYear = resultSet.getString("YEAR");
-					int budgetYear = Integer.parseInt(stringYear);
-					String stringAccount = resultSet.getString("ACCOUNT");
-					stringAccount = stringAccount.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					// get the Type object for this account name
-					Account budgetAccount = getAccount(stringAccount);
-					String stringAmount = resultSet.getString("AMOUNT");
-					BigDecimal budgetAmount = new BigDecimal(stringAmount);
-					budgetAmount = budgetAmount.setScale(2, BigDecimal.ROUND_CEILING);
-					addMonthlyBudgetAccount(budgetMonth, budgetYear, budgetAccount, budgetAmount);
-				}
-				
-				if (commandName.equals("LoadDefaultBudget")) {
-					String stringAccount = resultSet.getString("ACCOUNT");
-					stringAccount = stringAccount.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					// get the Type object for this account name
-					Account budgetAccount = getAccount(stringAccount);
-					String stringAmount = resultSet.getString("AMOUNT");
-					BigDecimal budgetAmount = new BigDecimal(stringAmount);
-					budgetAmount = budgetAmount.setScale(2, BigDecimal.ROUND_CEILING);
-					addDefaultBudgetAccount(budgetAccount, budgetAmount);
-				}
-				
-				if (commandName.equals("LoadSingleEntry")) {
-					// ignore AUTONUM column at beginning of GENERAL_LEDGER table
-					String stringDate = resultSet.getString("DATE");
-					// convert date from YYYY-MM-DD string into a JDateTime object
-					String parts[] = stringDate.split("-");
-					int year = Integer.parseInt(parts[0]);
-					int month = Integer.parseInt(parts[1]);
-					int day = Integer.parseInt(parts[2]);
-					JDateTime entryDate = new JDateTime(year, month, day);
-					String entryDesc = resultSet.getString("DESCRIPTION");	
-					entryDesc = entryDesc.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					String stringAccount = resultSet.getString("ACCOUNT");	
-					stringAccount = stringAccount.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					Account entryAccount = getAccount(stringAccount);
-					String stringAmount  = resultSet.getString("AMOUNT");
-					BigDecimal entryAmount = new BigDecimal(stringAmount);
-					entryAmount = entryAmount.setScale(2, BigDecimal.ROUND_CEILING);
-					// if this is an expense, multiple amount by -1 before entering into database
-					if (entryAccount.getIsAnExpense()) {
-						entryAmount = entryAmount.multiply(NEGATIVE);
-					}
-					addSingleEntry(entryDate, entryDesc, entryAccount, entryAmount);
-				}
-				
-				if (commandName.equals("LoadRepeatEntry")) {
-					// ignore AUTONUM column at beginning of REPEAT_ENTRY table
-					String stringDate = resultSet.getString("STARTDATE");
-					// convert date from YYYY-MM-DD string into a JDateTime object
-					String parts[] = stringDate.split("-");
-					int year = Integer.parseInt(parts[0]);
-					int month = Integer.parseInt(parts[1]);
-					int day = Integer.parseInt(parts[2]);
-					JDateTime startDate = new JDateTime(year, month, day);
-					stringDate = resultSet.getString("ENDDATE");
-					// convert date from YYYY-MM-DD string into a JDateTime object
-					parts = stringDate.split("-");
-					year = Integer.parseInt(parts[0]);
-					month = Integer.parseInt(parts[1]);
-					day = Integer.parseInt(parts[2]);
-					JDateTime endDate = new JDateTime(year, month, day);
-					String entryDesc = resultSet.getString("DESCRIPTION");	
-					entryDesc = entryDesc.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					String stringAccount = resultSet.getString("ACCOUNT");	
-					stringAccount = stringAccount.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					Account entryAccount = getAccount(stringAccount);
-					String stringAmount  = resultSet.getString("AMOUNT");
-					BigDecimal entryAmount = new BigDecimal(stringAmount);
-					entryAmount = entryAmount.setScale(2, BigDecimal.ROUND_CEILING);
-					// if this is an expense, multiple amount by -1 before entering into database
-					if (entryAccount.getIsAnExpense()) {
-						entryAmount = entryAmount.multiply(NEGATIVE);
-					}
-					addRepeatingEntry(startDate, endDate, entryDesc, entryAccount, entryAmount);
-				}
-				
-				if (commandName.equals("LoadInstallmentEntry")) {
-					// ignore AUTONUM column at beginning of INSTALLMENT_ENTRY table
-					String stringDate = resultSet.getString("STARTDATE");
-					// convert date from YYYY-MM-DD string into a JDateTime object
-					String parts[] = stringDate.split("-");
-					int year = Integer.parseInt(parts[0]);
-					int month = Integer.parseInt(parts[1]);
-					int day = Integer.parseInt(parts[2]);
-					JDateTime startDate = new JDateTime(year, month, day);
-					stringDate = resultSet.getString("ENDDATE");
-					// convert date from YYYY-MM-DD string into a JDateTime object
-					parts = stringDate.split("-");
-					year = Integer.parseInt(parts[0]);
-					month = Integer.parseInt(parts[1]);
-					day = Integer.parseInt(parts[2]);
-					JDateTime endDate = new JDateTime(year, month, day);
-					String entryDesc = resultSet.getString("DESCRIPTION");	
-					entryDesc = entryDesc.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					String stringAccount = resultSet.getString("ACCOUNT");	
-					stringAccount = stringAccount.replace("''", "'"); // replace single quotes with '' to make it compatible with SQL database
-					Account entryAccount = getAccount(stringAccount);
-					String stringAmount  = resultSet.getString("AMOUNT");
-					BigDecimal entryAmount = new BigDecimal(stringAmount);
-					entryAmount = entryAmount.setScale(2, BigDecimal.ROUND_CEILING);
-					// if this is an expense, multiple amount by -1 before entering into database
-					if (entryAccount.getIsAnExpense()) {
-						entryAmount = entryAmount.multiply(NEGATIVE);
-					}
-					addInstallmentEntry(startDate, endDate, entryDesc, entryAccount, entryAmount);
-				}
-				
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
+	/**
+	 * This drops the cached sums that include a repeating or installment entry's account and any month it is active in
+	 * (call after the entry is added or removed)
+	 * 
+	 * @param changedEntry - the entry that was added or removed (if null nothing is done)
+	 */
+	private void invalidateSums(MultipleEntry changedEntry) {
+		if (changedEntry != null) {
+			sumCache.invalidateMonths(changedEntry.getAccount(), BudgetActuals.getFirstActiveMonth(changedEntry),
+					BudgetActuals.getLastActiveMonth(changedEntry));
 		}
 	}
 }
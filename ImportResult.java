@@ -0,0 +1,97 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class holds the results of importing a file with LedgerImporter: the number of rows read,
+ * the number of entries imported, and the rows that couldn't be imported.
+ * Only the first MAX_LISTED_ERRORS errors are kept (so importing a file full of bad rows doesn't fill memory),
+ * but every error is counted.
+ *
+ * @author Asa Swain
+ */
+
+public class ImportResult {
+	// most error messages that are kept
+	public static final int MAX_LISTED_ERRORS = 1000;
+
+	// number of rows read from the file (not counting a header row)
+	private long rowCnt;
+	// number of entries added to the ledger
+	private long importedCnt;
+	// number of rows that couldn't be imported
+	private long errorCnt;
+	// messages for the first MAX_LISTED_ERRORS rows that couldn't be imported
+	private ArrayList<String> errorList;
+
+	/**
+	 * This is a constructor for an empty result (only the LedgerImporter should call this)
+	 */
+	ImportResult() {
+		errorList = new ArrayList<String>();
+	}
+
+	/**
+	 * This counts a row read from the file
+	 */
+	void addRow() {
+		rowCnt++;
+	}
+
+	/**
+	 * This counts entries added to the ledger
+	 *
+	 * @param newImportedCnt - the number of entries added
+	 */
+	void addImported(int newImportedCnt) {
+		importedCnt += newImportedCnt;
+	}
+
+	/**
+	 * This counts a row that couldn't be imported
+	 *
+	 * @param errorMessage - the line number of the row and why it couldn't be imported
+	 */
+	void addError(String errorMessage) {
+		errorCnt++;
+		if (errorList.size() < MAX_LISTED_ERRORS) {
+			errorList.add(errorMessage);
+		}
+	}
+
+	/**
+	 * This returns the number of rows read from the file
+	 *
+	 * @return the number of rows (not counting a header row)
+	 */
+	public long getRowCnt() {
+		return rowCnt;
+	}
+
+	/**
+	 * This returns the number of entries added to the ledger
+	 *
+	 * @return the number of entries
+	 */
+	public long getImportedCnt() {
+		return importedCnt;
+	}
+
+	/**
+	 * This returns the number of rows that couldn't be imported
+	 *
+	 * @return the number of rows
+	 */
+	public long getErrorCnt() {
+		return errorCnt;
+	}
+
+	/**
+	 * This returns the error messages for the first MAX_LISTED_ERRORS rows that couldn't be imported
+	 *
+	 * @return an ArrayList of messages, each starting with the line number of the row
+	 */
+	public ArrayList<String> getErrorList() {
+		return new ArrayList<String>(errorList);
+	}
+}
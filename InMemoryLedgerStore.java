@@ -0,0 +1,391 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class stores a general ledger in memory, without a database server. The data is lost when the program
+ * ends, so it is meant for tests, benchmarks and trying out the program. FileLedgerStore extends this class
+ * to keep the data in a file.
+ *
+ * The store keeps its own copies of the accounts and entries (see StoredEntry), so changes to a ledger
+ * only reach the store when they are saved. Single entries are kept in date order (and in id order on the same date),
+ * which is the order an SQL database returns them in.
+ *
+ * @author Asa Swain
+ */
+
+public class InMemoryLedgerStore implements LedgerStore {
+	// copies of the accounts, by account name
+	protected LinkedHashMap<String, Account> accountList;
+	// single entries by entry id
+	protected HashMap<Long, StoredEntry> singleEntryList;
+	// single entries by epoch day and then by entry id
+	protected TreeMap<Integer, TreeMap<Long, StoredEntry>> singleEntryDayList;
+	// repeating and installment entries by entry id
+	protected TreeMap<Long, StoredEntry> repeatingEntryList;
+	protected TreeMap<Long, StoredEntry> installmentEntryList;
+	// monthly budget amounts by month index and then by account name
+	protected TreeMap<Integer, LinkedHashMap<String, BigDecimal>> monthlyBudgetList;
+	// default budget amounts by account name
+	protected LinkedHashMap<String, BigDecimal> defaultBudgetList;
+
+	/**
+	 * This is a constructor for an empty store
+	 */
+	public InMemoryLedgerStore() {
+		clear();
+	}
+
+	/**
+	 * This removes all the data from the store
+	 */
+	protected void clear() {
+		accountList = new LinkedHashMap<String, Account>();
+		singleEntryList = new HashMap<Long, StoredEntry>();
+		singleEntryDayList = new TreeMap<Integer, TreeMap<Long, StoredEntry>>();
+		repeatingEntryList = new TreeMap<Long, StoredEntry>();
+		installmentEntryList = new TreeMap<Long, StoredEntry>();
+		monthlyBudgetList = new TreeMap<Integer, LinkedHashMap<String, BigDecimal>>();
+		defaultBudgetList = new LinkedHashMap<String, BigDecimal>();
+	}
+
+	/**
+	 * This opens the store (there is nothing to do for a store in memory)
+	 *
+	 * @exception LedgerStoreException if the store can't be opened
+	 */
+	public void open() throws LedgerStoreException {
+	}
+
+	/**
+	 * This closes the store (the data stays in memory, so the store can be opened again)
+	 */
+	public void close() {
+	}
+
+	/**
+	 * This loads the accounts, budgets and entries into a ledger
+	 *
+	 * @param targetLedger - the ledger to load the data into
+	 * @param isLoadingSingleEntries - false to skip the single entries (so they can be loaded by month later)
+	 * @exception LedgerStoreException if the data can't be loaded
+	 */
+	public void loadLedger(GeneralLedger targetLedger, boolean isLoadingSingleEntries) throws LedgerStoreException {
+		// be sure to load accounts before anything that uses them
+		for (Account tmpAccount : accountList.values()) {
+			targetLedger.addAccount(tmpAccount.getAccountName(), tmpAccount.getAccountDesc(), tmpAccount.getIsAnExpense(),
+					tmpAccount.getIsIncludedInBudget(), false, BigDecimal.ZERO);
+		}
+		if (isLoadingSingleEntries) {
+			loadSingleEntries(targetLedger, null, null, Collections.<Integer>emptySet());
+		}
+		for (StoredEntry tmpEntry : repeatingEntryList.values()) {
+			targetLedger.addLoadedEntry(tmpEntry.toMultipleEntry(getLedgerAccount(targetLedger, tmpEntry.getAccountName()), false));
+		}
+		for (StoredEntry tmpEntry : installmentEntryList.values()) {
+			targetLedger.addLoadedEntry(tmpEntry.toMultipleEntry(getLedgerAccount(targetLedger, tmpEntry.getAccountName()), true));
+		}
+		for (Map.Entry<Integer, LinkedHashMap<String, BigDecimal>> tmpBudget : monthlyBudgetList.entrySet()) {
+			JDateTime budgetMonth = EpochDay.fromMonthIndex(tmpBudget.getKey());
+			for (Map.Entry<String, BigDecimal> tmpLine : tmpBudget.getValue().entrySet()) {
+				targetLedger.addMonthlyBudgetAccount(budgetMonth.getMonth(), budgetMonth.getYear(),
+						getLedgerAccount(targetLedger, tmpLine.getKey()), tmpLine.getValue());
+			}
+		}
+		for (Map.Entry<String, BigDecimal> tmpLine : defaultBudgetList.entrySet()) {
+			targetLedger.addDefaultBudgetAccount(getLedgerAccount(targetLedger, tmpLine.getKey()), tmpLine.getValue());
+		}
+	}
+
+	/**
+	 * This loads the single entries in a range of months into a ledger, in date order
+	 *
+	 * @param targetLedger - the ledger to load the entries into
+	 * @param startMonth - the first day of the first month to load (if null load every month)
+	 * @param endMonth - the first day of the month after the last month to load
+	 * @param skipMonthList - month indexes of the months already in memory, which aren't loaded again
+	 * @exception LedgerStoreException if the entries can't be loaded
+	 */
+	public void loadSingleEntries(GeneralLedger targetLedger, JDateTime startMonth, JDateTime endMonth, Set<Integer> skipMonthList) throws LedgerStoreException {
+		ArrayList<SingleEntry> loadedEntryList = new ArrayList<SingleEntry>();
+		for (TreeMap<Long, StoredEntry> dayList : getDayRange(startMonth, endMonth).values()) {
+			for (StoredEntry tmpEntry : dayList.values()) {
+				if (skipMonthList.contains(EpochDay.toMonthIndex(tmpEntry.getStartDay()))) {
+					// this month is already in memory (and may have unsaved changes)
+					break;
+				}
+				loadedEntryList.add(tmpEntry.toSingleEntry(getLedgerAccount(targetLedger, tmpEntry.getAccountName())));
+			}
+		}
+		targetLedger.addLoadedSingleEntries(loadedEntryList);
+	}
+
+	/**
+	 * This gets the highest id of a stored single entry
+	 *
+	 * @return the highest id (or 0 if there are no single entries)
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public long getMaxSingleEntryId() throws LedgerStoreException {
+		long maxId = 0;
+		for (long entryId : singleEntryList.keySet()) {
+			maxId = Math.max(maxId, entryId);
+		}
+		return maxId;
+	}
+
+	/**
+	 * This looks up the date of a stored single entry
+	 *
+	 * @param entryId - the id of the entry
+	 * @return the date of the entry or null if there isn't an entry with that id
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public JDateTime getSingleEntryDate(long entryId) throws LedgerStoreException {
+		StoredEntry tmpEntry = singleEntryList.get(entryId);
+		return tmpEntry == null ? null : EpochDay.toDate(tmpEntry.getStartDay());
+	}
+
+	/**
+	 * This adds up the stored single entries for each month and account without loading them into a ledger
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param totalList - the totals to add to, by the first day of each month and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public void addMonthlyAccountTotals(GeneralLedger targetLedger, JDateTime startDate, JDateTime endDate, Set<Integer> skipMonthList,
+			TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList) throws LedgerStoreException {
+		SortedMap<Integer, TreeMap<Long, StoredEntry>> dayRange = singleEntryDayList;
+		if (startDate != null) {
+			dayRange = dayRange.tailMap(EpochDay.fromDate(startDate));
+		}
+		if (endDate != null) {
+			dayRange = dayRange.headMap(EpochDay.fromDate(endDate) + 1);
+		}
+		for (TreeMap<Long, StoredEntry> dayList : dayRange.values()) {
+			for (StoredEntry tmpEntry : dayList.values()) {
+				int monthIndex = EpochDay.toMonthIndex(tmpEntry.getStartDay());
+				if (skipMonthList.contains(monthIndex)) {
+					break;
+				}
+				GeneralLedger.addToTotal(totalList, EpochDay.fromMonthIndex(monthIndex), getLedgerAccount(targetLedger, tmpEntry.getAccountName()),
+						BigDecimal.valueOf(tmpEntry.getAmountCents(), 2));
+			}
+		}
+	}
+
+	/**
+	 * This counts the stored single entries for each day and account without loading them into a ledger
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param countList - the counts to add to, by epoch day and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	public void addDailyAccountCounts(GeneralLedger targetLedger, Set<Integer> skipMonthList, TreeMap<Integer, HashMap<Account, Integer>> countList)
+			throws LedgerStoreException {
+		for (Map.Entry<Integer, TreeMap<Long, StoredEntry>> dayList : singleEntryDayList.entrySet()) {
+			if (skipMonthList.contains(EpochDay.toMonthIndex(dayList.getKey()))) {
+				continue;
+			}
+			for (StoredEntry tmpEntry : dayList.getValue().values()) {
+				GeneralLedger.addToCount(countList, dayList.getKey(), getLedgerAccount(targetLedger, tmpEntry.getAccountName()), 1);
+			}
+		}
+	}
+
+	/**
+	 * This saves a list of changes (either every change is saved, or none of them are)
+	 *
+	 * @param changeList - the changes to save, in the order they were made
+	 * @exception LedgerStoreException if the changes couldn't be saved (the store is left as it was)
+	 */
+	public void saveChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+		checkChanges(changeList);
+		for (LedgerChange tmpChange : changeList) {
+			applyChange(tmpChange);
+		}
+	}
+
+	/**
+	 * This adds new single entries to the store (the entries must already have ids)
+	 *
+	 * @param entryList - the entries to add
+	 * @exception LedgerStoreException if the entries couldn't be added (the store is left as it was)
+	 */
+	public void appendSingleEntries(List<SingleEntry> entryList) throws LedgerStoreException {
+		ArrayList<LedgerChange> changeList = new ArrayList<LedgerChange>();
+		for (SingleEntry newEntry : entryList) {
+			changeList.add(LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry));
+		}
+		saveChanges(changeList);
+	}
+
+	/**
+	 * This checks a list of changes before any of them are made, so saveChanges doesn't stop partway through the list
+	 * (a subclass that has to do something before a change can be made, like reading it from a file, does it here)
+	 *
+	 * @param changeList - the changes to check
+	 * @exception LedgerStoreException if a change is missing the data it needs
+	 */
+	protected void checkChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+		for (LedgerChange tmpChange : changeList) {
+			boolean isDelete = (tmpChange.getOperation() == LedgerChange.Operation.DELETE);
+			switch (tmpChange.getTable()) {
+			case SINGLE_ENTRY:
+			case REPEATING_ENTRY:
+			case INSTALLMENT_ENTRY:
+				if (tmpChange.getEntry() == null || tmpChange.getEntry().getAccount() == null) {
+					throw new LedgerStoreException("Change " + tmpChange.getChangeKey() + " doesn't have an entry with an account.");
+				}
+				if (tmpChange.getTable() == LedgerChange.Table.SINGLE_ENTRY && !isDelete && ((SingleEntry) tmpChange.getEntry()).getDate() == null) {
+					throw new LedgerStoreException("Change " + tmpChange.getChangeKey() + " doesn't have a date.");
+				}
+				break;
+			case MONTHLY_BUDGET:
+			case DEFAULT_BUDGET:
+			case ACCOUNT:
+				if (tmpChange.getAccount() == null) {
+					throw new LedgerStoreException("Change " + tmpChange.getChangeKey() + " doesn't have an account.");
+				}
+				if (tmpChange.getTable() == LedgerChange.Table.MONTHLY_BUDGET && tmpChange.getBudgetMonth() == null) {
+					throw new LedgerStoreException("Change " + tmpChange.getChangeKey() + " doesn't have a month.");
+				}
+				if (tmpChange.getTable() != LedgerChange.Table.ACCOUNT && !isDelete && tmpChange.getBudgetAmount() == null) {
+					throw new LedgerStoreException("Change " + tmpChange.getChangeKey() + " doesn't have a budget amount.");
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * This makes one change to the stored data
+	 *
+	 * @param tmpChange - the change to make
+	 */
+	protected void applyChange(LedgerChange tmpChange) {
+		boolean isDelete = (tmpChange.getOperation() == LedgerChange.Operation.DELETE);
+		switch (tmpChange.getTable()) {
+		case ACCOUNT:
+			Account tmpAccount = tmpChange.getAccount();
+			if (isDelete) {
+				accountList.remove(tmpAccount.getAccountName());
+			} else {
+				accountList.put(tmpAccount.getAccountName(), new Account(tmpAccount.getAccountName(), tmpAccount.getAccountDesc(),
+						tmpAccount.getIsAnExpense(), tmpAccount.getIsIncludedInBudget()));
+			}
+			break;
+		case SINGLE_ENTRY:
+			removeSingleEntry(tmpChange.getEntry().getEntryId());
+			if (!isDelete) {
+				putSingleEntry(StoredEntry.fromEntry(tmpChange.getEntry()));
+			}
+			break;
+		case REPEATING_ENTRY:
+		case INSTALLMENT_ENTRY:
+			TreeMap<Long, StoredEntry> entryList = (tmpChange.getTable() == LedgerChange.Table.REPEATING_ENTRY) ? repeatingEntryList : installmentEntryList;
+			if (isDelete) {
+				entryList.remove(tmpChange.getEntry().getEntryId());
+			} else {
+				entryList.put(tmpChange.getEntry().getEntryId(), StoredEntry.fromEntry(tmpChange.getEntry()));
+			}
+			break;
+		case MONTHLY_BUDGET:
+			int monthIndex = EpochDay.toMonthIndex(tmpChange.getBudgetMonth());
+			LinkedHashMap<String, BigDecimal> budgetLineList = monthlyBudgetList.get(monthIndex);
+			if (isDelete) {
+				if (budgetLineList != null) {
+					budgetLineList.remove(tmpChange.getAccount().getAccountName());
+					if (budgetLineList.isEmpty()) {
+						monthlyBudgetList.remove(monthIndex);
+					}
+				}
+			} else {
+				if (budgetLineList == null) {
+					budgetLineList = new LinkedHashMap<String, BigDecimal>();
+					monthlyBudgetList.put(monthIndex, budgetLineList);
+				}
+				budgetLineList.put(tmpChange.getAccount().getAccountName(), tmpChange.getBudgetAmount());
+			}
+			break;
+		case DEFAULT_BUDGET:
+			if (isDelete) {
+				defaultBudgetList.remove(tmpChange.getAccount().getAccountName());
+			} else {
+				defaultBudgetList.put(tmpChange.getAccount().getAccountName(), tmpChange.getBudgetAmount());
+			}
+			break;
+		}
+	}
+
+	/**
+	 * This adds a single entry to the store, replacing any entry with the same id
+	 *
+	 * @param newEntry - the entry to add
+	 */
+	protected void putSingleEntry(StoredEntry newEntry) {
+		if (singleEntryList.containsKey(newEntry.getEntryId())) {
+			removeSingleEntry(newEntry.getEntryId());
+		}
+		singleEntryList.put(newEntry.getEntryId(), newEntry);
+		TreeMap<Long, StoredEntry> dayList = singleEntryDayList.get(newEntry.getStartDay());
+		if (dayList == null) {
+			dayList = new TreeMap<Long, StoredEntry>();
+			singleEntryDayList.put(newEntry.getStartDay(), dayList);
+		}
+		dayList.put(newEntry.getEntryId(), newEntry);
+	}
+
+	/**
+	 * This removes a single entry from the store
+	 *
+	 * @param entryId - the id of the entry to remove (nothing happens if it isn't in the store)
+	 */
+	protected void removeSingleEntry(long entryId) {
+		StoredEntry oldEntry = singleEntryList.remove(entryId);
+		if (oldEntry != null) {
+			TreeMap<Long, StoredEntry> dayList = singleEntryDayList.get(oldEntry.getStartDay());
+			dayList.remove(entryId);
+			if (dayList.isEmpty()) {
+				singleEntryDayList.remove(oldEntry.getStartDay());
+			}
+		}
+	}
+
+	/**
+	 * This gets the single entries in a range of months
+	 *
+	 * @param startMonth - the first day of the first month (if null return every day)
+	 * @param endMonth - the first day of the month after the last month
+	 * @return the single entries by epoch day
+	 */
+	private SortedMap<Integer, TreeMap<Long, StoredEntry>> getDayRange(JDateTime startMonth, JDateTime endMonth) {
+		if (startMonth == null) {
+			return singleEntryDayList;
+		}
+		return singleEntryDayList.subMap(EpochDay.fromDate(startMonth), EpochDay.fromDate(endMonth));
+	}
+
+	/**
+	 * This looks up an account in a ledger
+	 *
+	 * @param targetLedger - the ledger
+	 * @param accountName - the name of the account
+	 * @return the ledger's account object
+	 * @exception LedgerStoreException if the ledger doesn't have an account with that name
+	 */
+	protected Account getLedgerAccount(GeneralLedger targetLedger, String accountName) throws LedgerStoreException {
+		Account tmpAccount = targetLedger.getAccount(accountName);
+		if (tmpAccount == null) {
+			throw new LedgerStoreException("Account " + accountName + " isn't in the account list.");
+		}
+		return tmpAccount;
+	}
+}
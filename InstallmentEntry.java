@@ -1,6 +1,7 @@
 package budget_program;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import jodd.datetime.JDateTime;
 
@@ -13,9 +14,10 @@ import jodd.datetime.JDateTime;
  */
 public class InstallmentEntry extends MultipleEntry implements Comparable<InstallmentEntry>{
 	// dollar amount of the income/expense
-	private BigDecimal totalAmount;
-
-	private final BigDecimal NEGATIVE = new BigDecimal("-1");
+	private Money totalAmount;
+	// cached amount for each month, and the number of months it was calculated for
+	private Money installmentAmount;
+	private int installmentMonths;
 
 	// used to store type of MultipleEntry this is
 	private static final String TYPE = new String("Installment");
@@ -28,8 +30,7 @@ public class InstallmentEntry extends MultipleEntry implements Comparable<Instal
 		endDate = new JDateTime(); // current date and time
 		entryAccount = new Account();
 		desc = "";
-		totalAmount = new BigDecimal("0");
-		totalAmount = totalAmount.setScale(2, BigDecimal.ROUND_CEILING);
+		totalAmount = Money.ZERO;
 	}
 
 	/**
@@ -50,10 +51,10 @@ public class InstallmentEntry extends MultipleEntry implements Comparable<Instal
 		this.endDate = new JDateTime(endYear,endMonth,endDay);
 		this.entryAccount = newType;
 		this.desc = newDesc;
-		this.totalAmount = newAmount;
+		this.totalAmount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (entryAccount.getIsAnExpense() == true) {
-			this.totalAmount = this.totalAmount.multiply(NEGATIVE);
+			this.totalAmount = this.totalAmount.negate();
 		}
 	}
 
@@ -71,14 +72,29 @@ public class InstallmentEntry extends MultipleEntry implements Comparable<Instal
 		this.endDate = endDate;
 		this.entryAccount = newAccount;
 		this.desc = newDesc;
-		this.totalAmount = newAmount;
+		this.totalAmount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (entryAccount.getIsAnExpense() == true) {
-			this.totalAmount = this.totalAmount.multiply(NEGATIVE);
+			this.totalAmount = this.totalAmount.negate();
 		}
 	}
 
+	/**
+	 * This gets the amount of the entry for a single month (the total amount divided by the number of months)
+	 * 
+	 * @return the amount for each month as a BigDecimal
+	 */
 	public BigDecimal getMonthlyAmount() {
+		return getMonthlyMoney().toBigDecimal();
+	}
+
+	/**
+	 * This gets the amount of the entry for a single month (the total amount divided by the number of months,
+	 * rounded to the nearest cent)
+	 * 
+	 * @return the amount for each month as a Money object
+	 */
+	public Money getMonthlyMoney() {
 		// return the amount for a single months which equals totalAmount / number of months
 		int startMonth = startDate.getMonth();
 		int startYear = startDate.getYear();
@@ -88,18 +104,30 @@ public class InstallmentEntry extends MultipleEntry implements Comparable<Instal
 		int numberOfMonths = (endMonth - startMonth) + ((endYear - startYear) * monthsInAYear);
 		// I assume the end date isn't before the start date
 		assert numberOfMonths >= 0;
-		BigDecimal installmentAmount;
-		if (numberOfMonths > 0 && totalAmount.compareTo(BigDecimal.ZERO) != 0) {
-			installmentAmount = totalAmount.divide(new BigDecimal(numberOfMonths));
-		} else {
-			installmentAmount = new BigDecimal("0");
-			installmentAmount = totalAmount.setScale(2, BigDecimal.ROUND_CEILING);
+		// only recalculate the monthly amount if the dates or amount have changed since it was last calculated
+		if (installmentAmount == null || installmentMonths != numberOfMonths) {
+			if (numberOfMonths > 0) {
+				installmentAmount = totalAmount.divide(numberOfMonths, RoundingMode.HALF_EVEN);
+			} else {
+				installmentAmount = totalAmount;
+			}
+			installmentMonths = numberOfMonths;
 		}
-
 		return installmentAmount;
 	}
+
+	/**
+	 * This gets the total amount of the entry for all the months
+	 * 
+	 * @return the total amount as a BigDecimal
+	 */
+	public BigDecimal getTotalAmount() {
+		return totalAmount.toBigDecimal();
+	}
+
 	public void setTotalAmount(BigDecimal newAmount) {
-		totalAmount = newAmount;
+		totalAmount = Money.valueOf(newAmount);
+		installmentAmount = null;
 	}
 
 	public void printEntry() {
@@ -0,0 +1,181 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class indexes repeating or installment entries by the range of dates they cover,
+ * so the entries that are active on a date can be found without checking every entry.
+ *
+ * The entries are sorted by start date into an array that is treated as a balanced binary tree
+ * (the middle of each range is the root of that range), and each node stores the latest end date
+ * in its subtree. A search can then skip any subtree that ends before the target date and any
+ * right subtree that starts after it, which costs O(log n + k) for k matching entries.
+ * The sorted array is rebuilt the next time it is searched after an entry is added or removed.
+ *
+ * @author Asa Swain
+ */
+
+class IntervalIndex<T extends MultipleEntry> {
+	// all the entries in the index
+	private HashSet<T> entrySet;
+	// true if entries have been added or removed since the sorted arrays were built
+	private boolean needsRebuild;
+
+	// entries sorted by start day
+	private ArrayList<T> sortedEntries;
+	// start day of each entry in sortedEntries
+	private int[] startDays;
+	// end day of each entry in sortedEntries
+	private int[] endDays;
+	// latest end day in the subtree rooted at each position of sortedEntries
+	private int[] maxEndDays;
+
+	/**
+	 * This is a blank constructor
+	 */
+	IntervalIndex() {
+		entrySet = new HashSet<T>();
+		sortedEntries = new ArrayList<T>();
+		startDays = new int[0];
+		endDays = new int[0];
+		maxEndDays = new int[0];
+		needsRebuild = false;
+	}
+
+	/**
+	 * This adds an entry to the index
+	 *
+	 * @param newEntry - the entry to add
+	 */
+	void add(T newEntry) {
+		if (entrySet.add(newEntry)) {
+			needsRebuild = true;
+		}
+	}
+
+	/**
+	 * This removes an entry from the index
+	 *
+	 * @param delEntry - the entry to remove
+	 */
+	void remove(T delEntry) {
+		if (entrySet.remove(delEntry)) {
+			needsRebuild = true;
+		}
+	}
+
+	/**
+	 * This returns all the entries whose start and end dates include a date
+	 *
+	 * @param targetDay - the epoch day to search for
+	 * @return an ArrayList of the entries that are active on that day (in no particular order)
+	 */
+	ArrayList<T> getActiveEntries(int targetDay) {
+		if (needsRebuild) {
+			rebuild();
+		}
+		ArrayList<T> returnList = new ArrayList<T>();
+		searchSubtree(0, sortedEntries.size(), targetDay, returnList);
+		return returnList;
+	}
+
+	/**
+	 * This searches a subtree of the sorted array for entries that are active on a day
+	 *
+	 * @param low - first position of the subtree
+	 * @param high - position after the last position of the subtree
+	 * @param targetDay - the epoch day to search for
+	 * @param returnList - the list to add matching entries onto
+	 */
+	private void searchSubtree(int low, int high, int targetDay, ArrayList<T> returnList) {
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			// nothing in this subtree ends on or after the target day
+			if (maxEndDays[mid] < targetDay) {
+				return;
+			}
+			searchSubtree(low, mid, targetDay, returnList);
+			// everything from here to the right starts after the target day
+			if (startDays[mid] > targetDay) {
+				return;
+			}
+			if (endDays[mid] >= targetDay) {
+				returnList.add(sortedEntries.get(mid));
+			}
+			// continue with the right subtree
+			low = mid + 1;
+		}
+	}
+
+	/**
+	 * This rebuilds the sorted arrays from the current set of entries
+	 */
+	private void rebuild() {
+		ArrayList<T> unsortedEntries = new ArrayList<T>(entrySet);
+		int entryCnt = unsortedEntries.size();
+		// sort by packing each start day with the entry's position into a long (start day in the high bits)
+		long[] sortKeys = new long[entryCnt];
+		for (int i = 0; i < entryCnt; i++) {
+			sortKeys[i] = ((long) getStartDay(unsortedEntries.get(i)) << 32) | i;
+		}
+		Arrays.sort(sortKeys);
+
+		sortedEntries = new ArrayList<T>(entryCnt);
+		startDays = new int[entryCnt];
+		endDays = new int[entryCnt];
+		maxEndDays = new int[entryCnt];
+		for (int i = 0; i < entryCnt; i++) {
+			T tmpEntry = unsortedEntries.get((int) sortKeys[i]);
+			sortedEntries.add(tmpEntry);
+			startDays[i] = (int) (sortKeys[i] >> 32);
+			endDays[i] = getEndDay(tmpEntry);
+		}
+		buildMaxEndDays(0, entryCnt);
+		needsRebuild = false;
+	}
+
+	/**
+	 * This fills in the latest end day for each node of a subtree
+	 *
+	 * @param low - first position of the subtree
+	 * @param high - position after the last position of the subtree
+	 * @return the latest end day in the subtree
+	 */
+	private int buildMaxEndDays(int low, int high) {
+		if (low >= high) {
+			return Integer.MIN_VALUE;
+		}
+		int mid = (low + high) >>> 1;
+		int maxEnd = Math.max(endDays[mid], Math.max(buildMaxEndDays(low, mid), buildMaxEndDays(mid + 1, high)));
+		maxEndDays[mid] = maxEnd;
+		return maxEnd;
+	}
+
+	/**
+	 * This gets the start day of an entry (an entry with no start date starts at the beginning of time)
+	 *
+	 * @param tmpEntry - the entry to get the start day of
+	 * @return the epoch day the entry starts on
+	 */
+	private static int getStartDay(MultipleEntry tmpEntry) {
+		if (tmpEntry.getStartDate() == null) {
+			return Integer.MIN_VALUE;
+		} else {
+			return EpochDay.fromDate(tmpEntry.getStartDate());
+		}
+	}
+
+	/**
+	 * This gets the end day of an entry (an entry with no end date never ends)
+	 *
+	 * @param tmpEntry - the entry to get the end day of
+	 * @return the epoch day the entry ends on
+	 */
+	private static int getEndDay(MultipleEntry tmpEntry) {
+		if (tmpEntry.getEndDate() == null) {
+			return Integer.MAX_VALUE;
+		} else {
+			return EpochDay.fromDate(tmpEntry.getEndDate());
+		}
+	}
+}
@@ -0,0 +1,1420 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jodd.datetime.*;
+
+/**
+ * This class stores a general ledger in a MySQL database (creating SQL tables, loading data, saving data).
+ * The database URL, user and password are set in the constructor; the blank constructor uses the
+ * javabudget database on a local XAMPP server.
+ * 
+ * @author Asa Swain
+ *
+ */
+public class JdbcLedgerStore implements LedgerStore {
+	// default connection settings for a local XAMPP server
+	// (rewriteBatchedStatements lets the driver send each batch of INSERTs as one multi-row INSERT)
+	public static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/javabudget?rewriteBatchedStatements=true";
+	public static final String DEFAULT_USER = "root";
+	public static final String DEFAULT_PASSWORD = "";
+
+	// default number of rows to send to the SQL database in each batch when saving
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	// default number of extra connections used to load tables at the same time
+	public static final int DEFAULT_LOAD_CONNECTION_CNT = 4;
+	// number of batches of loaded single entries that can wait to be added to the ledger
+	private static final int LOADED_BATCH_QUEUE_SIZE = 4;
+
+	// SQL database connection object 
+	private Connection connection;
+	// connection settings
+	private String url;
+	private String user;
+	private String password;
+
+	// variable to keep track of it SQL Tables exist
+	private boolean SQLTablesExist[];
+
+	final int NBR_SQL_DATABASES = 7;
+
+	// version of the table layout this program uses
+	// (1 = the original tables with float amounts and no indexes, 2 = DECIMAL(12,2) amounts and date/account indexes)
+	final int CURRENT_SCHEMA_VERSION = 2;
+	// version of the table layout in the database (read from the schema_version table)
+	private int schemaVersion;
+
+	// number of rows to send to the SQL database in each batch when saving (and to add to the ledger at a time when loading)
+	private int batchSize;
+	// ledger the rows being loaded are added to
+	private GeneralLedger loadLedger;
+	// single entries that have been loaded but not added to the ledger yet
+	private ArrayList<SingleEntry> loadedEntryList;
+	// month indexes of months already in memory, whose rows are skipped when loading single entries (null to load every row)
+	private Set<Integer> loadSkipMonthList;
+	// number of extra connections used to load tables at the same time (0 to load every table on the main connection)
+	private int loadConnectionCnt;
+	// extra connections that aren't being used, kept open for the next load
+	private ArrayList<Connection> idleConnectionList;
+
+	/**
+	 * This is a constructor for the javabudget database on a local XAMPP server
+	 */
+	public JdbcLedgerStore() {
+		this(DEFAULT_URL, DEFAULT_USER, DEFAULT_PASSWORD);
+	}
+
+	/**
+	 * This is a constructor for any database (the connection is made when the store is opened)
+	 * 
+	 * @param newUrl - the JDBC URL of the database
+	 * @param newUser - the user to log in as
+	 * @param newPassword - the password of the user
+	 */
+	public JdbcLedgerStore(String newUrl, String newUser, String newPassword) {
+		url = newUrl;
+		user = newUser;
+		password = newPassword;
+		batchSize = DEFAULT_BATCH_SIZE;
+		loadConnectionCnt = DEFAULT_LOAD_CONNECTION_CNT;
+		loadedEntryList = new ArrayList<SingleEntry>();
+		idleConnectionList = new ArrayList<Connection>();
+		connection = null;
+
+		SQLTablesExist = new boolean[NBR_SQL_DATABASES];
+		for (int i = 0; i < NBR_SQL_DATABASES; i++) {
+			SQLTablesExist[i] = false;
+		}
+	}
+
+	/**
+	 * This sets the number of rows sent to the SQL database in each batch when saving
+	 * 
+	 * @param newBatchSize - the number of rows in each batch
+	 * @exception IllegalArgumentException - if newBatchSize is less than 1
+	 */
+	public void setBatchSize(int newBatchSize) {
+		if (newBatchSize < 1) {
+			throw new IllegalArgumentException("SQL batch size must be at least 1");
+		}
+		batchSize = newBatchSize;
+	}
+
+	/**
+	 * This sets the number of extra connections used to load tables at the same time
+	 * 
+	 * @param newLoadConnectionCnt - the number of connections (0 to load every table on the main connection, one after another)
+	 * @exception IllegalArgumentException - if newLoadConnectionCnt is negative
+	 */
+	public void setLoadConnectionCnt(int newLoadConnectionCnt) {
+		if (newLoadConnectionCnt < 0) {
+			throw new IllegalArgumentException("Number of load connections can't be negative");
+		}
+		loadConnectionCnt = newLoadConnectionCnt;
+	}
+
+	/**
+	 * This connects to the SQL database, creates any SQL tables that don't exist and upgrades the tables
+	 * to the current schema version
+	 * 
+	 * @exception LedgerStoreException if the database can't be reached or the tables can't be created
+	 */
+	public void open() throws LedgerStoreException {
+		try {
+			if (connection == null) {
+				initSQLConnection();
+			}
+			executeSQLCommand("VerifySQLTables");
+			for (int i = 0; i < NBR_SQL_DATABASES; i++) {
+				if (SQLTablesExist[i] == false) {
+					executeSQLCommand("CreateSQLTable" + i);
+					SQLTablesExist[i] = true;
+				}
+			}
+			upgradeSQLSchema();
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to open SQL database " + url, e);
+		}
+	}
+
+	/**
+	 * This closes the connections with the SQL database
+	 */
+	public void close() {
+		for (Connection idleConnection : idleConnectionList) {
+			closeConnection(idleConnection);
+		}
+		idleConnectionList.clear();
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+			connection = null;
+		}
+	}
+
+	/**
+	 * This upgrades the SQL tables one version at a time until they match CURRENT_SCHEMA_VERSION.
+	 * A database without a version number is treated as version 1 (new tables are created as version 1
+	 * too, so they get their indexes from the same upgrade steps as an existing database).
+	 * 
+	 * MySQL commits each ALTER TABLE and CREATE INDEX straight away, so an upgrade can't be rolled back if it stops partway.
+	 * Instead every step can be run again: the column changes leave a column that was already changed as it is,
+	 * each index is only created if it isn't there yet, and the new version number is written last,
+	 * so an upgrade that stopped partway is finished the next time the database is opened.
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void upgradeSQLSchema() throws SQLException {
+		schemaVersion = 0;
+		executeSQLCommand("ReadSchemaVersion");
+		if (schemaVersion == 0) {
+			schemaVersion = 1;
+		}
+		for (int version = schemaVersion; version < CURRENT_SCHEMA_VERSION; version++) {
+			executeSQLCommand("UpgradeSQLSchema" + version);
+			if (version == 1) {
+				// date range queries and per account queries can use an index instead of scanning the whole ledger
+				createIndexIfMissing("general_ledger", "date_account", "date, account");
+				createIndexIfMissing("general_ledger", "account_date", "account, date");
+				createIndexIfMissing("monthly_budget", "year_month_account", "year, month, account");
+			}
+			executeSQLCommand("SetSchemaVersion" + (version + 1));
+		}
+		schemaVersion = Math.max(schemaVersion, CURRENT_SCHEMA_VERSION);
+	}
+
+	/**
+	 * This creates an index on a table unless the table already has an index with that name
+	 * (MySQL doesn't support CREATE INDEX IF NOT EXISTS, so the index is looked up in information_schema first)
+	 * 
+	 * @param tableName - the table to add the index to
+	 * @param indexName - the name of the index
+	 * @param columnList - the columns to index, separated by commas
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void createIndexIfMissing(String tableName, String indexName, String columnList) throws SQLException {
+		boolean isIndexFound;
+		PreparedStatement findStatement = null;
+		try {
+			findStatement = connection.prepareStatement("SELECT COUNT(*) FROM information_schema.statistics "
+					+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?");
+			findStatement.setString(1, tableName);
+			findStatement.setString(2, indexName);
+			ResultSet resultSet = findStatement.executeQuery();
+			isIndexFound = resultSet.next() && resultSet.getInt(1) > 0;
+			resultSet.close();
+		} finally {
+			closeStatement(findStatement);
+		}
+		if (!isIndexFound) {
+			Statement createStatement = null;
+			try {
+				createStatement = connection.createStatement();
+				createStatement.executeUpdate("CREATE INDEX " + indexName + " ON " + tableName + " (" + columnList + ")");
+			} finally {
+				closeStatement(createStatement);
+			}
+		}
+	}
+
+	/**
+	 * This loads a list of accounts from the SQL database into the ledger
+	 * This loads single entries from the SQL database into the ledger
+	 * This loads the monthly budget from the SQL database into the ledger
+	 * This loads the default budget from the SQL database into the ledger
+	 * 
+	 * The account list is loaded first, and then the other tables are read at the same time on separate connections
+	 * (see loadTablesInParallel), so loading takes about as long as reading the biggest table.
+	 * 
+	 * @param targetLedger - the ledger to load the data into
+	 * @param isLoadingSingleEntries - false to skip the single entries (so they can be loaded by month later)
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public void loadLedger(GeneralLedger targetLedger, boolean isLoadingSingleEntries) throws LedgerStoreException {
+		loadLedger = targetLedger;
+		try {
+			// be sure to load accounts before loading monthly ledger
+			executeSQLCommand("LoadAccountList"); 
+			if (loadConnectionCnt > 0) {
+				loadTablesInParallel(targetLedger, isLoadingSingleEntries);
+			} else {
+				if (isLoadingSingleEntries) {
+					executeSQLCommand("LoadSingleEntry");
+				}
+				executeSQLCommand("LoadRepeatEntry");
+				executeSQLCommand("LoadInstallmentEntry");
+				executeSQLCommand("LoadMonthlyBudgets");
+				executeSQLCommand("LoadDefaultBudget");
+			}
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to load ledger from SQL database", e);
+		} finally {
+			loadLedger = null;
+			loadedEntryList.clear();
+		}
+	}
+
+	/**
+	 * This reads the tables that are loaded after the account list at the same time, each on its own connection,
+	 * and adds the rows to the ledger on this thread (the ledger isn't thread safe, so the other threads only read
+	 * the database and build entries). Single entries are passed to this thread in batches while they are read,
+	 * so the general ledger doesn't have to be held in memory twice.
+	 * 
+	 * @param targetLedger - the ledger to load the data into (its accounts must already be loaded)
+	 * @param isLoadingSingleEntries - false to skip the single entries
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void loadTablesInParallel(GeneralLedger targetLedger, boolean isLoadingSingleEntries) throws SQLException {
+		// the other threads look up accounts in their own copy of the account list
+		final HashMap<String, Account> accountLookupList = new HashMap<String, Account>();
+		for (Account tmpAccount : targetLedger.getAccountList()) {
+			accountLookupList.put(tmpAccount.getAccountName(), tmpAccount);
+		}
+		final ArrayBlockingQueue<ArrayList<SingleEntry>> entryBatchQueue = new ArrayBlockingQueue<ArrayList<SingleEntry>>(LOADED_BATCH_QUEUE_SIZE);
+		String[] commandNameList = { "LoadRepeatEntry", "LoadInstallmentEntry", "LoadMonthlyBudgets", "LoadDefaultBudget" };
+
+		ExecutorService loadExecutor = Executors.newFixedThreadPool(loadConnectionCnt);
+		try {
+			// start with the general ledger, since it is usually the biggest table
+			Future<Object> singleEntryFuture = null;
+			if (isLoadingSingleEntries) {
+				singleEntryFuture = loadExecutor.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						readSingleEntries(accountLookupList, entryBatchQueue);
+						return null;
+					}
+				});
+			}
+			ArrayList<Future<ArrayList<Object>>> rowFutureList = new ArrayList<Future<ArrayList<Object>>>();
+			for (final String commandName : commandNameList) {
+				rowFutureList.add(loadExecutor.submit(new Callable<ArrayList<Object>>() {
+					public ArrayList<Object> call() throws Exception {
+						return readRows(commandName, accountLookupList);
+					}
+				}));
+			}
+
+			if (singleEntryFuture != null) {
+				// an empty batch means the general ledger has been read
+				ArrayList<SingleEntry> entryBatch = takeEntryBatch(entryBatchQueue);
+				while (!entryBatch.isEmpty()) {
+					targetLedger.addLoadedSingleEntries(entryBatch);
+					entryBatch = takeEntryBatch(entryBatchQueue);
+				}
+				getLoadResult(singleEntryFuture);
+			}
+			for (int i = 0; i < commandNameList.length; i++) {
+				addLoadedRows(targetLedger, commandNameList[i], getLoadResult(rowFutureList.get(i)));
+			}
+		} finally {
+			// stop any threads that are still reading (if this thread stopped because of an error)
+			loadExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * This reads the general_ledger table on a connection of its own, passing the entries to the loading thread in batches
+	 * 
+	 * @param accountLookupList - the accounts by name
+	 * @param entryBatchQueue - the queue to pass the batches through (an empty batch is added at the end, even if reading fails,
+	 *            unless loading is stopped)
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 * @exception InterruptedException if loading is stopped
+	 */
+	private void readSingleEntries(HashMap<String, Account> accountLookupList, BlockingQueue<ArrayList<SingleEntry>> entryBatchQueue)
+			throws SQLException, InterruptedException {
+		boolean isStopped = false;
+		try {
+			Connection loadConnection = takeLoadConnection();
+			Statement statement = null;
+			boolean isReadComplete = false;
+			try {
+				statement = createStreamingStatement(loadConnection);
+				ResultSet resultSet = statement.executeQuery(getSQLStatementList("LoadSingleEntry").get(0));
+				ArrayList<SingleEntry> entryBatch = new ArrayList<SingleEntry>(batchSize);
+				while (resultSet.next()) {
+					entryBatch.add(readSingleEntryRow(resultSet, accountLookupList.get(resultSet.getString(4))));
+					if (entryBatch.size() >= batchSize) {
+						entryBatchQueue.put(entryBatch);
+						entryBatch = new ArrayList<SingleEntry>(batchSize);
+					}
+				}
+				resultSet.close();
+				if (!entryBatch.isEmpty()) {
+					entryBatchQueue.put(entryBatch);
+				}
+				isReadComplete = true;
+			} finally {
+				closeStatement(statement);
+				returnLoadConnection(loadConnection, isReadComplete);
+			}
+		} catch (InterruptedException e) {
+			isStopped = true;
+			throw e;
+		} finally {
+			// when loading is stopped nothing is taking batches off the queue any more, so waiting for room
+			// for the end marker could block this thread forever
+			if (!isStopped && !Thread.currentThread().isInterrupted()) {
+				entryBatchQueue.put(new ArrayList<SingleEntry>());
+			}
+		}
+	}
+
+	/**
+	 * This reads the repeat_entry, installment_entry, monthly_budget or default_budget table on a connection of its own
+	 * 
+	 * @param commandName - the load command for the table (such as "LoadRepeatEntry")
+	 * @param accountLookupList - the accounts by name
+	 * @return the entries (for entry tables) or LoadedBudgetLine objects (for budget tables) read from the table
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private ArrayList<Object> readRows(String commandName, HashMap<String, Account> accountLookupList) throws SQLException {
+		ArrayList<Object> rowList = new ArrayList<Object>();
+		Connection loadConnection = takeLoadConnection();
+		Statement statement = null;
+		boolean isReadComplete = false;
+		try {
+			statement = createStreamingStatement(loadConnection);
+			ResultSet resultSet = statement.executeQuery(getSQLStatementList(commandName).get(0));
+			while (resultSet.next()) {
+				if (commandName.equals("LoadRepeatEntry")) {
+					rowList.add(readMultipleEntryRow(resultSet, accountLookupList.get(resultSet.getString(5)), false));
+				}
+				if (commandName.equals("LoadInstallmentEntry")) {
+					rowList.add(readMultipleEntryRow(resultSet, accountLookupList.get(resultSet.getString(5)), true));
+				}
+				if (commandName.equals("LoadMonthlyBudgets")) {
+					rowList.add(new LoadedBudgetLine(resultSet.getInt(1), resultSet.getInt(2), accountLookupList.get(resultSet.getString(3)),
+							resultSet.getBigDecimal(4)));
+				}
+				if (commandName.equals("LoadDefaultBudget")) {
+					rowList.add(new LoadedBudgetLine(0, 0, accountLookupList.get(resultSet.getString(1)), resultSet.getBigDecimal(2)));
+				}
+			}
+			resultSet.close();
+			isReadComplete = true;
+		} finally {
+			closeStatement(statement);
+			returnLoadConnection(loadConnection, isReadComplete);
+		}
+		return rowList;
+	}
+
+	/**
+	 * This adds the rows read by readRows to the ledger
+	 * 
+	 * @param targetLedger - the ledger to add the rows to
+	 * @param commandName - the load command the rows were read by
+	 * @param rowList - the rows
+	 */
+	private void addLoadedRows(GeneralLedger targetLedger, String commandName, ArrayList<Object> rowList) {
+		for (Object tmpRow : rowList) {
+			if (tmpRow instanceof MultipleEntry) {
+				targetLedger.addLoadedEntry((MultipleEntry) tmpRow);
+			} else if (commandName.equals("LoadMonthlyBudgets")) {
+				LoadedBudgetLine budgetLine = (LoadedBudgetLine) tmpRow;
+				targetLedger.addMonthlyBudgetAccount(budgetLine.month, budgetLine.year, budgetLine.account, budgetLine.amount);
+			} else {
+				LoadedBudgetLine budgetLine = (LoadedBudgetLine) tmpRow;
+				targetLedger.addDefaultBudgetAccount(budgetLine.account, budgetLine.amount);
+			}
+		}
+	}
+
+	/**
+	 * This waits for the next batch of single entries from the thread reading the general ledger
+	 * 
+	 * @param entryBatchQueue - the queue the batches are passed through
+	 * @return the batch (empty when every entry has been read)
+	 * @exception SQLException if loading is interrupted
+	 */
+	private ArrayList<SingleEntry> takeEntryBatch(BlockingQueue<ArrayList<SingleEntry>> entryBatchQueue) throws SQLException {
+		try {
+			return entryBatchQueue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Loading from the SQL database was interrupted", e);
+		}
+	}
+
+	/**
+	 * This waits for a table to be read by another thread
+	 * 
+	 * @param loadFuture - the result of the thread
+	 * @return the rows the thread read
+	 * @exception SQLException if the thread couldn't read the table or loading is interrupted
+	 */
+	private <T> T getLoadResult(Future<T> loadFuture) throws SQLException {
+		try {
+			return loadFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Loading from the SQL database was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SQLException(e.getCause());
+		}
+	}
+
+	/**
+	 * This gets an extra connection for loading a table (reusing an idle connection if there is one)
+	 * 
+	 * @return the connection
+	 * @exception SQLException if a connection can't be made
+	 */
+	private Connection takeLoadConnection() throws SQLException {
+		synchronized (idleConnectionList) {
+			if (!idleConnectionList.isEmpty()) {
+				return idleConnectionList.remove(idleConnectionList.size() - 1);
+			}
+		}
+		return DriverManager.getConnection(url, user, password);
+	}
+
+	/**
+	 * This gives back a connection from takeLoadConnection
+	 * 
+	 * @param loadConnection - the connection
+	 * @param isReusable - true to keep the connection for the next load, false to close it (such as after an error)
+	 */
+	private void returnLoadConnection(Connection loadConnection, boolean isReusable) {
+		if (isReusable) {
+			synchronized (idleConnectionList) {
+				idleConnectionList.add(loadConnection);
+			}
+		} else {
+			closeConnection(loadConnection);
+		}
+	}
+
+	/**
+	 * This closes a connection, printing any error
+	 * 
+	 * @param oldConnection - the connection to close
+	 */
+	private void closeConnection(Connection oldConnection) {
+		try {
+			oldConnection.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This creates a statement that streams its rows one at a time
+	 * (a forward only statement with a fetch size of Integer.MIN_VALUE tells Connector/J to stream
+	 * the rows instead of reading the whole table into memory first)
+	 * 
+	 * @param sourceConnection - the connection to create the statement on
+	 * @return the statement
+	 * @exception SQLException if the statement can't be created
+	 */
+	private Statement createStreamingStatement(Connection sourceConnection) throws SQLException {
+		Statement statement = sourceConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		statement.setFetchSize(Integer.MIN_VALUE);
+		return statement;
+	}
+
+	/**
+	 * This loads the single entries in a range of months from the SQL database
+	 * 
+	 * @param targetLedger - the ledger to load the entries into
+	 * @param startMonth - the first day of the first month to load (if null load every month)
+	 * @param endMonth - the first day of the month after the last month to load
+	 * @param skipMonthList - month indexes of the months already in memory, which aren't loaded again
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public void loadSingleEntries(GeneralLedger targetLedger, JDateTime startMonth, JDateTime endMonth, Set<Integer> skipMonthList) throws LedgerStoreException {
+		String command = "SELECT AUTONUM, DATE, DESCRIPTION, ACCOUNT, AMOUNT FROM `general_ledger`";
+		if (startMonth != null) {
+			command = command + " WHERE DATE >= ? AND DATE < ?";
+		}
+		command = command + " ORDER BY DATE, AUTONUM";
+
+		PreparedStatement statement = null;
+		loadLedger = targetLedger;
+		loadSkipMonthList = skipMonthList;
+		try {
+			// stream the rows like executeSQLCommand does
+			statement = connection.prepareStatement(command, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(Integer.MIN_VALUE);
+			if (startMonth != null) {
+				setSQLDate(statement, 1, startMonth);
+				setSQLDate(statement, 2, endMonth);
+			}
+			ResultSet resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				parseSQLResults("LoadSingleEntry", resultSet);
+			}
+			resultSet.close();
+			flushLoadedEntries();
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to load single entries from SQL database", e);
+		} finally {
+			loadLedger = null;
+			loadSkipMonthList = null;
+			loadedEntryList.clear();
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * This gets the highest id used in the general_ledger table
+	 * 
+	 * @return the highest AUTONUM in general_ledger (or 0 if the table is empty)
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public long getMaxSingleEntryId() throws LedgerStoreException {
+		Statement statement = null;
+		try {
+			statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT MAX(AUTONUM) FROM `general_ledger`");
+			long maxId = 0;
+			if (resultSet.next()) {
+				maxId = resultSet.getLong(1);
+			}
+			resultSet.close();
+			return maxId;
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to read general_ledger from SQL database", e);
+		} finally {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * This adds up the single entries for each month and account in the database
+	 * (the SUM is done by the SQL database, so the rows don't have to be loaded)
+	 * 
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param totalList - the totals to add to, by the first day of each month and then by account
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public void addMonthlyAccountTotals(GeneralLedger targetLedger, JDateTime startDate, JDateTime endDate, Set<Integer> skipMonthList,
+			TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList) throws LedgerStoreException {
+		String command = "SELECT YEAR(DATE), MONTH(DATE), ACCOUNT, SUM(AMOUNT) FROM `general_ledger` WHERE DATE IS NOT NULL";
+		if (startDate != null) {
+			command = command + " AND DATE >= ?";
+		}
+		if (endDate != null) {
+			command = command + " AND DATE <= ?";
+		}
+		command = command + " GROUP BY YEAR(DATE), MONTH(DATE), ACCOUNT";
+
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement(command);
+			int parameterIndex = 1;
+			if (startDate != null) {
+				setSQLDate(statement, parameterIndex++, startDate);
+			}
+			if (endDate != null) {
+				setSQLDate(statement, parameterIndex++, endDate);
+			}
+			ResultSet resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				int year = resultSet.getInt(1);
+				int month = resultSet.getInt(2);
+				int monthIndex = year * 12 + month - 1;
+				if (skipMonthList.contains(monthIndex)) {
+					continue;
+				}
+				Account totalAccount = targetLedger.getAccount(resultSet.getString(3));
+				GeneralLedger.addToTotal(totalList, EpochDay.fromMonthIndex(monthIndex), totalAccount, resultSet.getBigDecimal(4));
+			}
+			resultSet.close();
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to total general_ledger in SQL database", e);
+		} finally {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * This counts the single entries in the general_ledger table for each day and account (with COUNT/GROUP BY)
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param countList - the counts to add to, by epoch day and then by account
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public void addDailyAccountCounts(GeneralLedger targetLedger, Set<Integer> skipMonthList, TreeMap<Integer, HashMap<Account, Integer>> countList)
+			throws LedgerStoreException {
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement("SELECT DATE, ACCOUNT, COUNT(*) FROM `general_ledger` WHERE DATE IS NOT NULL GROUP BY DATE, ACCOUNT");
+			ResultSet resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				int entryDay = EpochDay.fromDate(convertSQLDate(resultSet.getDate(1)));
+				if (skipMonthList.contains(EpochDay.toMonthIndex(entryDay))) {
+					continue;
+				}
+				Account countAccount = targetLedger.getAccount(resultSet.getString(2));
+				GeneralLedger.addToCount(countList, entryDay, countAccount, resultSet.getInt(3));
+			}
+			resultSet.close();
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to count general_ledger in SQL database", e);
+		} finally {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * This looks up the date of a single entry in the general_ledger table
+	 * 
+	 * @param entryId - the AUTONUM of the entry
+	 * @return the date of the entry or null if there isn't a row with that AUTONUM
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database
+	 */
+	public JDateTime getSingleEntryDate(long entryId) throws LedgerStoreException {
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement("SELECT DATE FROM `general_ledger` WHERE AUTONUM = ?");
+			statement.setLong(1, entryId);
+			ResultSet resultSet = statement.executeQuery();
+			JDateTime entryDate = null;
+			if (resultSet.next()) {
+				entryDate = convertSQLDate(resultSet.getDate(1));
+			}
+			resultSet.close();
+			return entryDate;
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to read general_ledger from SQL database", e);
+		} finally {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * This adds new single entries to the general_ledger table in a single transaction
+	 * 
+	 * @param entryList - the entries to add (the entry ids are saved as the AUTONUM)
+	 * @exception LedgerStoreException if the entries couldn't be added (none of them are added)
+	 */
+	public void appendSingleEntries(List<SingleEntry> entryList) throws LedgerStoreException {
+		ArrayList<LedgerChange> changeList = new ArrayList<LedgerChange>(entryList.size());
+		for (SingleEntry newEntry : entryList) {
+			changeList.add(LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry));
+		}
+		saveChanges(changeList);
+	}
+
+	/**
+	 * Send commands to SQL database to load data, save date, or create tables 
+	 * 
+	 * @param commandName - SQL command to execute
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void executeSQLCommand(String commandName) throws SQLException {
+		// get list of SQL statements based on commandName
+		ArrayList<String> statementList = new ArrayList<String>();
+		// build list of SQL statements for this command
+		statementList = getSQLStatementList(commandName);
+		int statementCnt = statementList.size();
+		String commandType = getSQLCommandType(commandName);
+
+		if (commandType.equals("ReadTables")) {
+			if (commandName.length() > 14 && commandName.substring(0,14).equals("VerifySQLTable")){
+				// verify that each of the SQL tables exist
+				DatabaseMetaData md = connection.getMetaData();
+				ResultSet rs = md.getTables(null, null, "%", null);
+
+				while (rs.next()) {
+					System.out.println(rs.getString(3));
+					if (rs.getString(3).equals("account_list"))     { SQLTablesExist[0] = true; }
+					if (rs.getString(3).equals("general_ledger"))   { SQLTablesExist[1] = true; }
+					if (rs.getString(3).equals("monthly_budget"))   { SQLTablesExist[2] = true; }
+					if (rs.getString(3).equals("default_budget"))   { SQLTablesExist[3] = true; }
+					if (rs.getString(3).equals("repeat_entry"))     { SQLTablesExist[4] = true; }
+					if (rs.getString(3).equals("installment_entry")){ SQLTablesExist[5] = true; }
+					if (rs.getString(3).equals("schema_version"))   { SQLTablesExist[6] = true; }
+				}	
+				rs.close();
+			}
+		} else {
+			for (int i = 0; i < statementCnt; i++) {
+				Statement statement = null;
+				try {
+					// get SQL command to execute
+					String command = statementList.get(i);
+
+					if (command != "") {
+						//System.out.println("SQL command = " + command);
+						if (commandType.equals("ExecuteUpdate")) {
+							statement = connection.createStatement();
+							statement.executeUpdate(command);
+						} else { 
+							statement = createStreamingStatement(connection);
+							ResultSet resultSet = statement.executeQuery(command);
+
+							while(resultSet.next()){	
+								// parse contents of resultSet to handle data returned from SQL database
+								parseSQLResults(commandName, resultSet);
+							}
+							resultSet.close();
+							// add any loaded entries that are still waiting to be added to the ledger
+							flushLoadedEntries();
+						}
+					}
+				} finally {
+					closeStatement(statement);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This closes a statement (if it was created)
+	 * 
+	 * @param statement - the statement to close or null
+	 */
+	private void closeStatement(Statement statement) {
+		if (statement != null) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * This initializes the connection with the SQL database
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void initSQLConnection() throws SQLException {
+		try {
+			Class.forName("com.mysql.jdbc.Driver");
+		} catch (ClassNotFoundException e) {
+			// the driver may still be found by DriverManager (JDBC 4 drivers register themselves)
+		}
+
+		// We can set a custom username and password in phpMyadmin (in localhost for XAMPP) 
+		// but for now just use default host login with no password
+		connection = DriverManager.getConnection(url, user, password);
+	}
+
+	/**
+	 * This generates a list of SQL commands to pass to the SQL database based on the commandName
+	 * 
+	 * @parameter commandName - the type of command we are trying to execute
+	 */
+	private ArrayList<String> getSQLStatementList(String commandName) {
+		ArrayList<String> statementList = new ArrayList<String>();
+
+		if (commandName.equals("LoadAccountList")) {
+			statementList.add("SELECT NAME, DESCRIPTION, IS_AN_EXPENSE, IS_IN_BUDGET FROM `account_list`");
+		}
+		if (commandName.equals("LoadSingleEntry")) {
+			// load in date order, so each entry is added to the end of the ledger
+			statementList.add("SELECT AUTONUM, DATE, DESCRIPTION, ACCOUNT, AMOUNT FROM `general_ledger` ORDER BY DATE, AUTONUM");
+		}
+		if (commandName.equals("LoadRepeatEntry")) {
+			statementList.add("SELECT AUTONUM, STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT FROM `repeat_entry`");
+		}
+		if (commandName.equals("LoadInstallmentEntry")) {
+			statementList.add("SELECT AUTONUM, STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT FROM `installment_entry`");
+		}
+		if (commandName.equals("LoadMonthlyBudgets")) {
+			statementList.add("SELECT MONTH, YEAR, ACCOUNT, AMOUNT FROM `monthly_budget`");
+		}
+		if (commandName.equals("LoadDefaultBudget")) {
+			statementList.add("SELECT ACCOUNT, AMOUNT FROM `default_budget`");
+		}
+		if (commandName.equals("ReadSchemaVersion")) {
+			statementList.add("SELECT MAX(VERSION) FROM `schema_version`");
+		}
+
+		if (commandName.equals("UpgradeSQLSchema1")) {
+			// store amounts as exact decimals instead of floats
+			statementList.add("ALTER TABLE general_ledger MODIFY amount DECIMAL(12,2) DEFAULT NULL");
+			statementList.add("ALTER TABLE monthly_budget MODIFY amount DECIMAL(12,2) DEFAULT NULL");
+			statementList.add("ALTER TABLE default_budget MODIFY amount DECIMAL(12,2) DEFAULT NULL");
+			statementList.add("ALTER TABLE repeat_entry MODIFY amount DECIMAL(12,2) DEFAULT NULL");
+			statementList.add("ALTER TABLE installment_entry MODIFY amount DECIMAL(12,2) DEFAULT NULL");
+			// the indexes are added by upgradeSQLSchema (see createIndexIfMissing)
+		}
+		if (commandName.startsWith("SetSchemaVersion")) {
+			statementList.add("DELETE FROM schema_version");
+			statementList.add("INSERT INTO schema_version (version) VALUES (" + Integer.parseInt(commandName.substring(16)) + ")");
+		}
+
+		if(commandName.length() > 14 && commandName.substring(0,14).equals("CreateSQLTable")){
+			String tableNbr = commandName.substring(14, 15);
+
+			String tmpStatement = "";
+			if (tableNbr.equals("0")) {
+				tmpStatement = "CREATE TABLE account_list (";
+				tmpStatement += " name VARCHAR(25) DEFAULT NULL, ";
+				tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
+				tmpStatement += " is_an_expense VARCHAR(1) DEFAULT NULL,";
+				tmpStatement += " is_in_budget VARCHAR(1) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (name)";
+				tmpStatement += ");";
+			}
+
+			if (tableNbr.equals("1")) {
+				tmpStatement = "CREATE TABLE general_ledger (";
+				tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT,";
+				tmpStatement += " date date DEFAULT NULL, ";
+				tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
+				tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
+				tmpStatement += " amount DECIMAL(12,2) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (autonum)";
+				tmpStatement += ");";
+			}
+
+			if (tableNbr.equals("2")) {
+				tmpStatement = "CREATE TABLE monthly_budget (";
+				tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
+				tmpStatement += " month INT(10) NOT NULL,";
+				tmpStatement += " year INT(10) NOT NULL,";
+				tmpStatement += " account VARCHAR(25) DEFAULT NULL, ";
+				tmpStatement += " amount DECIMAL(12,2) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (autonum)";
+				tmpStatement += ");";
+			}
+
+			if (tableNbr.equals("3")) {
+				tmpStatement = "CREATE TABLE default_budget (";
+				tmpStatement += " account VARCHAR(25) DEFAULT NULL, ";
+				tmpStatement += " amount DECIMAL(12,2) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (account)";
+				tmpStatement += ");";
+			}	
+
+			if (tableNbr.equals("4")) {
+				tmpStatement = "CREATE TABLE repeat_entry (";
+				tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
+				tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
+				tmpStatement += " startdate date DEFAULT NULL, ";
+				tmpStatement += " enddate date DEFAULT NULL, ";
+				tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
+				tmpStatement += " amount DECIMAL(12,2) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (autonum)";
+				tmpStatement += ");";
+			}
+
+			if (tableNbr.equals("5")) {
+				tmpStatement = "CREATE TABLE installment_entry (";
+				tmpStatement += " autonum INT(100) NOT NULL AUTO_INCREMENT, ";
+				tmpStatement += " description VARCHAR(100) DEFAULT NULL,";
+				tmpStatement += " startdate date DEFAULT NULL, ";
+				tmpStatement += " enddate date DEFAULT NULL, ";
+				tmpStatement += " account VARCHAR(25) DEFAULT NULL,";
+				tmpStatement += " amount DECIMAL(12,2) DEFAULT NULL,";
+				tmpStatement += " PRIMARY KEY (autonum)";
+				tmpStatement += ");";
+			}
+
+			if (tableNbr.equals("6")) {
+				tmpStatement = "CREATE TABLE schema_version (";
+				tmpStatement += " version INT(10) NOT NULL";
+				tmpStatement += ");";
+			}
+
+			if (!tmpStatement.equals("")) {
+				statementList.add(tmpStatement);	
+			}
+		}
+
+		return statementList;
+	}
+
+	/**
+	 * This saves a list of changes to the SQL database in a single transaction.
+	 * The changes are saved in three passes (deletes, then updates, then inserts), and each kind of statement
+	 * is prepared once and sent to the database in batches of batchSize rows.
+	 * Budget lines don't have a key the database can update by, so a changed budget line is deleted and inserted again.
+	 * If any statement fails the transaction is rolled back, so the database is left as it was.
+	 * 
+	 * @param changeList - the changes to save
+	 * 
+	 * @exception LedgerStoreException if an error occurs when interacting with the SQL database (the database is left as it was)
+	 */
+	public void saveChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+		if (connection == null) {
+			throw new LedgerStoreException("There is no connection to the SQL database");
+		}
+		try {
+			saveChangesToSQL(changeList);
+		} catch (SQLException e) {
+			throw new LedgerStoreException("Unable to save changes to SQL database", e);
+		}
+	}
+
+	/**
+	 * This saves a list of changes to the SQL database in a single transaction
+	 * 
+	 * @param changeList - the changes to save
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void saveChangesToSQL(List<LedgerChange> changeList) throws SQLException {
+		LedgerChange.Operation[] passList = { LedgerChange.Operation.DELETE, LedgerChange.Operation.UPDATE, LedgerChange.Operation.INSERT };
+		boolean oldAutoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			for (LedgerChange.Operation pass : passList) {
+				HashMap<String, BatchStatement> batchList = new HashMap<String, BatchStatement>();
+				try {
+					for (LedgerChange tmpChange : changeList) {
+						addChangeToBatch(tmpChange, pass, batchList);
+					}
+					for (BatchStatement tmpBatch : batchList.values()) {
+						tmpBatch.finish();
+					}
+				} finally {
+					for (BatchStatement tmpBatch : batchList.values()) {
+						tmpBatch.close();
+					}
+				}
+			}
+			connection.commit();
+		} catch (SQLException | RuntimeException e) {
+			try {
+				connection.rollback();
+			} catch (SQLException rollbackError) {
+				e.addSuppressed(rollbackError);
+			}
+			throw e;
+		} finally {
+			connection.setAutoCommit(oldAutoCommit);
+		}
+	}
+
+	/**
+	 * This adds the statement for a change to a batch, if the change has a statement in this pass
+	 * 
+	 * @param tmpChange - the change to save
+	 * @param pass - the kind of statement being sent in this pass
+	 * @param batchList - the batches for this pass, keyed by SQL command
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void addChangeToBatch(LedgerChange tmpChange, LedgerChange.Operation pass, HashMap<String, BatchStatement> batchList) throws SQLException {
+		LedgerChange.Table table = tmpChange.getTable();
+		LedgerChange.Operation operation = tmpChange.getOperation();
+		boolean isBudgetLine = (table == LedgerChange.Table.MONTHLY_BUDGET) || (table == LedgerChange.Table.DEFAULT_BUDGET);
+		BatchStatement batch;
+		// budget lines are updated by deleting and inserting them
+		if (isBudgetLine && operation == LedgerChange.Operation.UPDATE) {
+			if (pass == LedgerChange.Operation.UPDATE) {
+				return;
+			}
+		} else if (operation != pass) {
+			return;
+		}
+
+		if (table == LedgerChange.Table.ACCOUNT) {
+			Account tmpAccount = tmpChange.getAccount();
+			if (pass == LedgerChange.Operation.DELETE) {
+				batch = getBatch(batchList, "DELETE FROM account_list WHERE NAME = ?");
+				batch.statement.setString(1, tmpAccount.getAccountName());
+			} else if (pass == LedgerChange.Operation.UPDATE) {
+				batch = getBatch(batchList, "UPDATE account_list SET DESCRIPTION = ?, IS_AN_EXPENSE = ?, IS_IN_BUDGET = ? WHERE NAME = ?");
+				batch.statement.setString(1, tmpAccount.getAccountDesc());
+				batch.statement.setString(2, tmpAccount.getIsAnExpense() ? "Y" : "N");
+				batch.statement.setString(3, tmpAccount.getIsIncludedInBudget() ? "Y" : "N");
+				batch.statement.setString(4, tmpAccount.getAccountName());
+			} else {
+				batch = getBatch(batchList, "INSERT INTO account_list (NAME, DESCRIPTION, IS_AN_EXPENSE, IS_IN_BUDGET) VALUES (?, ?, ?, ?)");
+				batch.statement.setString(1, tmpAccount.getAccountName());
+				batch.statement.setString(2, tmpAccount.getAccountDesc());
+				batch.statement.setString(3, tmpAccount.getIsAnExpense() ? "Y" : "N");
+				batch.statement.setString(4, tmpAccount.getIsIncludedInBudget() ? "Y" : "N");
+			}
+			batch.addRow();
+		}
+
+		if (table == LedgerChange.Table.SINGLE_ENTRY) {
+			SingleEntry tmpEntry = (SingleEntry) tmpChange.getEntry();
+			if (pass == LedgerChange.Operation.DELETE) {
+				batch = getBatch(batchList, "DELETE FROM general_ledger WHERE AUTONUM = ?");
+				batch.statement.setLong(1, tmpEntry.getEntryId());
+			} else if (pass == LedgerChange.Operation.UPDATE) {
+				batch = getBatch(batchList, "UPDATE general_ledger SET DATE = ?, DESCRIPTION = ?, ACCOUNT = ?, AMOUNT = ? WHERE AUTONUM = ?");
+				setSQLDate(batch.statement, 1, tmpEntry.getDate());
+				batch.statement.setString(2, tmpEntry.getDesc());
+				batch.statement.setString(3, tmpEntry.getAccount().getAccountName());
+				batch.statement.setBigDecimal(4, tmpEntry.getMonthlyAmount());
+				batch.statement.setLong(5, tmpEntry.getEntryId());
+			} else {
+				// the entry id is saved as the AUTONUM, so later changes can find the row
+				batch = getBatch(batchList, "INSERT INTO general_ledger (AUTONUM, DATE, DESCRIPTION, ACCOUNT, AMOUNT) VALUES (?, ?, ?, ?, ?)");
+				batch.statement.setLong(1, tmpEntry.getEntryId());
+				setSQLDate(batch.statement, 2, tmpEntry.getDate());
+				batch.statement.setString(3, tmpEntry.getDesc());
+				batch.statement.setString(4, tmpEntry.getAccount().getAccountName());
+				batch.statement.setBigDecimal(5, tmpEntry.getMonthlyAmount());
+			}
+			batch.addRow();
+		}
+
+		if ((table == LedgerChange.Table.REPEATING_ENTRY) || (table == LedgerChange.Table.INSTALLMENT_ENTRY)) {
+			MultipleEntry tmpEntry = (MultipleEntry) tmpChange.getEntry();
+			String tableName = (table == LedgerChange.Table.REPEATING_ENTRY) ? "repeat_entry" : "installment_entry";
+			// installment entries are saved with their total amount, repeating entries with their monthly amount
+			BigDecimal tmpAmount;
+			if (tmpEntry instanceof InstallmentEntry) {
+				tmpAmount = ((InstallmentEntry) tmpEntry).getTotalAmount();
+			} else {
+				tmpAmount = tmpEntry.getMonthlyAmount();
+			}
+			if (pass == LedgerChange.Operation.DELETE) {
+				batch = getBatch(batchList, "DELETE FROM " + tableName + " WHERE AUTONUM = ?");
+				batch.statement.setLong(1, tmpEntry.getEntryId());
+			} else if (pass == LedgerChange.Operation.UPDATE) {
+				batch = getBatch(batchList, "UPDATE " + tableName + " SET STARTDATE = ?, ENDDATE = ?, DESCRIPTION = ?, ACCOUNT = ?, AMOUNT = ? WHERE AUTONUM = ?");
+				setSQLDate(batch.statement, 1, tmpEntry.getStartDate());
+				setSQLDate(batch.statement, 2, tmpEntry.getEndDate());
+				batch.statement.setString(3, tmpEntry.getDesc());
+				batch.statement.setString(4, tmpEntry.getAccount().getAccountName());
+				batch.statement.setBigDecimal(5, tmpAmount);
+				batch.statement.setLong(6, tmpEntry.getEntryId());
+			} else {
+				batch = getBatch(batchList, "INSERT INTO " + tableName + " (AUTONUM, STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT) VALUES (?, ?, ?, ?, ?, ?)");
+				batch.statement.setLong(1, tmpEntry.getEntryId());
+				setSQLDate(batch.statement, 2, tmpEntry.getStartDate());
+				setSQLDate(batch.statement, 3, tmpEntry.getEndDate());
+				batch.statement.setString(4, tmpEntry.getDesc());
+				batch.statement.setString(5, tmpEntry.getAccount().getAccountName());
+				batch.statement.setBigDecimal(6, tmpAmount);
+			}
+			batch.addRow();
+		}
+
+		if (table == LedgerChange.Table.DEFAULT_BUDGET) {
+			Account tmpAccount = tmpChange.getAccount();
+			if (pass == LedgerChange.Operation.DELETE) {
+				batch = getBatch(batchList, "DELETE FROM default_budget WHERE ACCOUNT = ?");
+				batch.statement.setString(1, tmpAccount.getAccountName());
+				batch.addRow();
+			} else {
+				batch = getBatch(batchList, "INSERT INTO default_budget (ACCOUNT, AMOUNT) VALUES (?, ?)");
+				batch.statement.setString(1, tmpAccount.getAccountName());
+				batch.statement.setBigDecimal(2, tmpChange.getBudgetAmount());
+				batch.addRow();
+			}
+		}
+
+		if (table == LedgerChange.Table.MONTHLY_BUDGET) {
+			Account tmpAccount = tmpChange.getAccount();
+			JDateTime tmpMonth = tmpChange.getBudgetMonth();
+			if (pass == LedgerChange.Operation.DELETE) {
+				batch = getBatch(batchList, "DELETE FROM monthly_budget WHERE MONTH = ? AND YEAR = ? AND ACCOUNT = ?");
+				batch.statement.setInt(1, tmpMonth.getMonth());
+				batch.statement.setInt(2, tmpMonth.getYear());
+				batch.statement.setString(3, tmpAccount.getAccountName());
+				batch.addRow();
+			} else {
+				batch = getBatch(batchList, "INSERT INTO monthly_budget (MONTH, YEAR, ACCOUNT, AMOUNT) VALUES (?, ?, ?, ?)");
+				batch.statement.setInt(1, tmpMonth.getMonth());
+				batch.statement.setInt(2, tmpMonth.getYear());
+				batch.statement.setString(3, tmpAccount.getAccountName());
+				batch.statement.setBigDecimal(4, tmpChange.getBudgetAmount());
+				batch.addRow();
+			}
+		}
+	}
+
+	/**
+	 * This gets the batch for an SQL command, preparing the statement the first time the command is used
+	 * 
+	 * @param batchList - the batches for this pass, keyed by SQL command
+	 * @param command - the SQL command with a ? for each value
+	 * @return the batch for the command
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private BatchStatement getBatch(HashMap<String, BatchStatement> batchList, String command) throws SQLException {
+		BatchStatement batch = batchList.get(command);
+		if (batch == null) {
+			batch = new BatchStatement(connection.prepareStatement(command));
+			batchList.put(command, batch);
+		}
+		return batch;
+	}
+
+	/**
+	 * This fills in a date value in a PreparedStatement
+	 * 
+	 * @param statement - the PreparedStatement to fill in
+	 * @param parameterIndex - the position of the value (1 is the first value)
+	 * @param date - the date to use (or null to save an empty date)
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void setSQLDate(PreparedStatement statement, int parameterIndex, JDateTime date) throws SQLException {
+		if (date == null) {
+			statement.setNull(parameterIndex, Types.DATE);
+		} else {
+			statement.setDate(parameterIndex, date.convertToSqlDate());
+		}
+	}
+
+	/**
+	 * This gets the command type based on the type of the command we are sending to the SQL Database
+	 * 
+	 * @param commandName - the type of command we are executing
+	 * @return a string containing the type of command (ReadTables/ExecuteUpdate/ExecuteQuery)
+	 */
+	private String getSQLCommandType(String commandName) {
+		String commandType = "";
+		if ((commandName.equals("VerifySQLTables"))) {
+			commandType = "ReadTables";
+		} else {
+			if ((commandName.length() > 14 && commandName.substring(0,14).equals("CreateSQLTable"))
+					|| commandName.startsWith("UpgradeSQLSchema") || commandName.startsWith("SetSchemaVersion")) {
+				commandType = "ExecuteUpdate";
+			} else {
+				// commandName == "LoadAccountList" or "LoadRepeatEntry" or "LoadMonthlyBudgets" or "LoadDefaultBudget" {
+				commandType = "ExecuteQuery";	
+			}
+		}
+		return commandType;
+	}
+
+	/**
+	 * Parse the results of the command we sent to the SQL Database
+	 * (the columns are read by position in the order they are listed in the SELECT command)
+	 * 
+	 * @param commandName - the type of command we are executing
+	 * @param resultSet - the results from the SQL database 
+	 * 
+	 * @exception SQLException if an error occurs when interacting with the SQL database
+	 */
+	private void parseSQLResults(String commandName, ResultSet resultSet) throws SQLException {
+		if (commandName.equals("LoadAccountList")) {
+			String accountName = resultSet.getString(1);
+			String accountDesc = resultSet.getString(2);
+			boolean isAnExpense = "Y".equals(resultSet.getString(3));
+			boolean isInBudget = "Y".equals(resultSet.getString(4));
+			loadLedger.addAccount(accountName, accountDesc, isAnExpense, isInBudget, false, BigDecimal.ZERO);
+		}
+
+		if (commandName.equals("LoadMonthlyBudgets")) {
+			int budgetMonth = resultSet.getInt(1);
+			int budgetYear = resultSet.getInt(2);
+			// get the Type object for this account name
+			Account budgetAccount = loadLedger.getAccount(resultSet.getString(3));
+			BigDecimal budgetAmount = resultSet.getBigDecimal(4);
+			loadLedger.addMonthlyBudgetAccount(budgetMonth, budgetYear, budgetAccount, budgetAmount);
+		}
+
+		if (commandName.equals("LoadDefaultBudget")) {
+			// get the Type object for this account name
+			Account budgetAccount = loadLedger.getAccount(resultSet.getString(1));
+			BigDecimal budgetAmount = resultSet.getBigDecimal(2);
+			loadLedger.addDefaultBudgetAccount(budgetAccount, budgetAmount);
+		}
+
+		if (commandName.equals("ReadSchemaVersion")) {
+			schemaVersion = resultSet.getInt(1);
+		}
+
+		if (commandName.equals("LoadSingleEntry")) {
+			JDateTime entryDate = convertSQLDate(resultSet.getDate(2));
+			if (loadSkipMonthList != null && loadSkipMonthList.contains(EpochDay.toMonthIndex(entryDate))) {
+				// this month is already in memory (and may have unsaved changes)
+				return;
+			}
+			loadedEntryList.add(readSingleEntryRow(resultSet, loadLedger.getAccount(resultSet.getString(4))));
+			if (loadedEntryList.size() >= batchSize) {
+				flushLoadedEntries();
+			}
+		}
+
+		if (commandName.equals("LoadRepeatEntry")) {
+			loadLedger.addLoadedEntry(readMultipleEntryRow(resultSet, loadLedger.getAccount(resultSet.getString(5)), false));
+		}
+
+		if (commandName.equals("LoadInstallmentEntry")) {
+			loadLedger.addLoadedEntry(readMultipleEntryRow(resultSet, loadLedger.getAccount(resultSet.getString(5)), true));
+		}
+	}
+
+	/**
+	 * This builds a single entry from a row of the general_ledger table
+	 * (AUTONUM, DATE, DESCRIPTION, ACCOUNT, AMOUNT)
+	 * 
+	 * @param resultSet - the result set, on the row to read
+	 * @param entryAccount - the account named in the row
+	 * @return the entry
+	 * @exception SQLException if the row can't be read
+	 */
+	private SingleEntry readSingleEntryRow(ResultSet resultSet, Account entryAccount) throws SQLException {
+		long entryId = resultSet.getLong(1);
+		JDateTime entryDate = convertSQLDate(resultSet.getDate(2));
+		String entryDesc = resultSet.getString(3);
+		// amounts are saved with their sign (negative for expenses)
+		Money entryAmount = Money.valueOf(resultSet.getBigDecimal(5));
+		SingleEntry loadedEntry = SingleEntry.fromSignedAmount(entryDate, entryAccount, entryDesc, entryAmount);
+		// use the AUTONUM column as the entry id, so saved changes update the same row
+		loadedEntry.setEntryId(entryId);
+		return loadedEntry;
+	}
+
+	/**
+	 * This builds a repeating or installment entry from a row of the repeat_entry or installment_entry table
+	 * (AUTONUM, STARTDATE, ENDDATE, DESCRIPTION, ACCOUNT, AMOUNT)
+	 * 
+	 * @param resultSet - the result set, on the row to read
+	 * @param entryAccount - the account named in the row
+	 * @param isInstallment - true for an installment entry, false for a repeating entry
+	 * @return the entry
+	 * @exception SQLException if the row can't be read
+	 */
+	private MultipleEntry readMultipleEntryRow(ResultSet resultSet, Account entryAccount, boolean isInstallment) throws SQLException {
+		long entryId = resultSet.getLong(1);
+		JDateTime startDate = convertSQLDate(resultSet.getDate(2));
+		JDateTime endDate = convertSQLDate(resultSet.getDate(3));
+		String entryDesc = resultSet.getString(4);
+		BigDecimal entryAmount = resultSet.getBigDecimal(6);
+		// amounts are saved with their sign, but the constructor makes expenses negative itself
+		if (entryAccount.getIsAnExpense()) {
+			entryAmount = entryAmount.negate();
+		}
+		MultipleEntry loadedEntry;
+		if (isInstallment) {
+			loadedEntry = new InstallmentEntry(startDate, endDate, entryAccount, entryDesc, entryAmount);
+		} else {
+			loadedEntry = new RepeatingEntry(startDate, endDate, entryAccount, entryDesc, entryAmount);
+		}
+		// use the AUTONUM column as the entry id, so saved changes update the same row
+		loadedEntry.setEntryId(entryId);
+		return loadedEntry;
+	}
+
+	/**
+	 * This adds the single entries that have been loaded to the ledger
+	 */
+	private void flushLoadedEntries() {
+		if (!loadedEntryList.isEmpty()) {
+			loadLedger.addLoadedSingleEntries(loadedEntryList);
+			loadedEntryList.clear();
+		}
+	}
+
+	/**
+	 * This converts a date from the SQL database into a JDateTime object
+	 * 
+	 * @param sqlDate - the date read from the database
+	 * @return a JDateTime object set to midnight on that date (or null if the date was empty)
+	 */
+	private JDateTime convertSQLDate(java.sql.Date sqlDate) {
+		if (sqlDate == null) {
+			return null;
+		}
+		java.time.LocalDate localDate = sqlDate.toLocalDate();
+		return new JDateTime(localDate.getYear(), localDate.getMonthValue(), localDate.getDayOfMonth());
+	}
+
+	/**
+	 * This class holds a budget line read by readRows until it is added to the ledger
+	 * 
+	 * @author Asa Swain
+	 *
+	 */
+	private static class LoadedBudgetLine {
+		// month and year of a monthly budget line (0 for a default budget line)
+		private final int month;
+		private final int year;
+		private final Account account;
+		private final BigDecimal amount;
+
+		/**
+		 * This is a constructor for a budget line
+		 * 
+		 * @param newMonth - the month (0 for a default budget line)
+		 * @param newYear - the year (0 for a default budget line)
+		 * @param newAccount - the account
+		 * @param newAmount - the budgeted amount
+		 */
+		private LoadedBudgetLine(int newMonth, int newYear, Account newAccount, BigDecimal newAmount) {
+			month = newMonth;
+			year = newYear;
+			account = newAccount;
+			amount = newAmount;
+		}
+	}
+
+	/**
+	 * This class holds a PreparedStatement and the number of rows added to it that haven't been sent yet,
+	 * so rows are sent to the database batchSize rows at a time
+	 * 
+	 * @author Asa Swain
+	 *
+	 */
+	private class BatchStatement {
+		// the statement the rows are added to
+		private PreparedStatement statement;
+		// number of rows in the current batch
+		private int rowCnt;
+
+		/**
+		 * This is a constructor for a prepared statement
+		 * 
+		 * @param newStatement - the statement to add rows to
+		 */
+		public BatchStatement(PreparedStatement newStatement) {
+			statement = newStatement;
+			rowCnt = 0;
+		}
+
+		/**
+		 * This adds the values that have been filled in to the batch, and sends the batch once it has batchSize rows
+		 * 
+		 * @exception SQLException if an error occurs when interacting with the SQL database
+		 */
+		public void addRow() throws SQLException {
+			statement.addBatch();
+			rowCnt++;
+			if (rowCnt >= batchSize) {
+				statement.executeBatch();
+				rowCnt = 0;
+			}
+		}
+
+		/**
+		 * This sends the last partial batch
+		 * 
+		 * @exception SQLException if an error occurs when interacting with the SQL database
+		 */
+		public void finish() throws SQLException {
+			if (rowCnt > 0) {
+				statement.executeBatch();
+				rowCnt = 0;
+			}
+		}
+
+		/**
+		 * This closes the statement
+		 */
+		public void close() {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
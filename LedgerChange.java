@@ -0,0 +1,227 @@
+package budget_program;
+
+import java.math.BigDecimal;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class records one change to the general ledger that hasn't been saved to the database yet:
+ * the table the change belongs to, whether a row was inserted, updated or deleted, and the key of the row.
+ *
+ * Entries are keyed by their entry id (the AUTONUM column), accounts and default budget lines by account name,
+ * and monthly budget lines by month, year and account name. Changes to entries and accounts keep a reference
+ * to the new data, and changes to budget lines keep the new budget amount.
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerChange {
+	/**
+	 * The tables a change can belong to
+	 */
+	public enum Table { ACCOUNT, SINGLE_ENTRY, REPEATING_ENTRY, INSTALLMENT_ENTRY, MONTHLY_BUDGET, DEFAULT_BUDGET }
+
+	/**
+	 * The kinds of change that can be made to a row
+	 */
+	public enum Operation { INSERT, UPDATE, DELETE }
+
+	// table the changed row is in
+	private final Table table;
+	// kind of change
+	private Operation operation;
+	// text key that identifies the row (unique across all tables)
+	private final String changeKey;
+	// the new entry data (for entry tables)
+	private Entry entry;
+	// the account (for accounts and budget lines)
+	private final Account account;
+	// first day of the month (for monthly budget lines)
+	private final JDateTime budgetMonth;
+	// the new budget amount (for budget lines that were inserted or updated)
+	private BigDecimal budgetAmount;
+
+	/**
+	 * This is a constructor for a change
+	 *
+	 * @param newTable - the table the changed row is in
+	 * @param newOperation - the kind of change
+	 * @param newChangeKey - the text key that identifies the row
+	 * @param newEntry - the new entry data (or null if this isn't an entry)
+	 * @param newAccount - the account (or null if this is an entry)
+	 * @param newBudgetMonth - the month (or null if this isn't a monthly budget line)
+	 * @param newBudgetAmount - the budget amount (or null if this isn't a budget line or the line was deleted)
+	 */
+	private LedgerChange(Table newTable, Operation newOperation, String newChangeKey, Entry newEntry, Account newAccount, JDateTime newBudgetMonth,
+			BigDecimal newBudgetAmount) {
+		table = newTable;
+		operation = newOperation;
+		changeKey = newChangeKey;
+		entry = newEntry;
+		account = newAccount;
+		budgetMonth = newBudgetMonth;
+		budgetAmount = newBudgetAmount;
+	}
+
+	/**
+	 * This creates a change to a single, repeating or installment entry
+	 *
+	 * @param newOperation - the kind of change
+	 * @param newEntry - the entry that was changed (the new data for an insert or update)
+	 * @return a LedgerChange object
+	 */
+	public static LedgerChange forEntry(Operation newOperation, Entry newEntry) {
+		Table entryTable;
+		if (newEntry instanceof SingleEntry) {
+			entryTable = Table.SINGLE_ENTRY;
+		} else if (newEntry instanceof RepeatingEntry) {
+			entryTable = Table.REPEATING_ENTRY;
+		} else {
+			entryTable = Table.INSTALLMENT_ENTRY;
+		}
+		return new LedgerChange(entryTable, newOperation, entryTable + ":" + newEntry.getEntryId(), newEntry, null, null, null);
+	}
+
+	/**
+	 * This creates a change to an account
+	 *
+	 * @param newOperation - the kind of change
+	 * @param newAccount - the account that was changed
+	 * @return a LedgerChange object
+	 */
+	public static LedgerChange forAccount(Operation newOperation, Account newAccount) {
+		return new LedgerChange(Table.ACCOUNT, newOperation, Table.ACCOUNT + ":" + newAccount.getAccountName(), null, newAccount, null, null);
+	}
+
+	/**
+	 * This creates a change to a line of the default budget
+	 *
+	 * @param newOperation - the kind of change
+	 * @param newAccount - the account of the budget line
+	 * @param newBudgetAmount - the new budget amount (or null if the line was deleted)
+	 * @return a LedgerChange object
+	 */
+	public static LedgerChange forDefaultBudget(Operation newOperation, Account newAccount, BigDecimal newBudgetAmount) {
+		return new LedgerChange(Table.DEFAULT_BUDGET, newOperation, Table.DEFAULT_BUDGET + ":" + newAccount.getAccountName(), null, newAccount, null,
+				newBudgetAmount);
+	}
+
+	/**
+	 * This creates a change to a line of a monthly budget
+	 *
+	 * @param newOperation - the kind of change
+	 * @param month - the month of the budget
+	 * @param year - the year of the budget
+	 * @param newAccount - the account of the budget line
+	 * @param newBudgetAmount - the new budget amount (or null if the line was deleted)
+	 * @return a LedgerChange object
+	 */
+	public static LedgerChange forMonthlyBudget(Operation newOperation, int month, int year, Account newAccount, BigDecimal newBudgetAmount) {
+		return new LedgerChange(Table.MONTHLY_BUDGET, newOperation, Table.MONTHLY_BUDGET + ":" + year + "-" + month + ":" + newAccount.getAccountName(),
+				null, newAccount, new JDateTime(year, month, 1), newBudgetAmount);
+	}
+
+	/**
+	 * This combines a later change to the same row into this change, so only one statement is needed for the row
+	 *
+	 * @param laterChange - a change to the same row that was made after this one
+	 * @return the combined change, or null if the changes cancel out (a row that was inserted and then deleted)
+	 */
+	LedgerChange combine(LedgerChange laterChange) {
+		if (operation == Operation.INSERT) {
+			if (laterChange.operation == Operation.DELETE) {
+				return null;
+			}
+			// the row still has to be inserted, but with the latest data
+			entry = laterChange.entry;
+			budgetAmount = laterChange.budgetAmount;
+			return this;
+		}
+		if (operation == Operation.DELETE && laterChange.operation == Operation.INSERT) {
+			// the row is still in the database, so it only needs to be updated
+			laterChange.operation = Operation.UPDATE;
+		}
+		return laterChange;
+	}
+
+	/**
+	 * This creates a change that deletes the row this change is for
+	 *
+	 * @return a LedgerChange object
+	 */
+	LedgerChange toDelete() {
+		return new LedgerChange(table, Operation.DELETE, changeKey, entry, account, budgetMonth, null);
+	}
+
+	/**
+	 * This creates a change that inserts the row this change is for, with this change's data
+	 *
+	 * @return a LedgerChange object
+	 */
+	LedgerChange toInsert() {
+		return new LedgerChange(table, Operation.INSERT, changeKey, entry, account, budgetMonth, budgetAmount);
+	}
+
+	/**
+	 * This returns the table the changed row is in
+	 *
+	 * @return the table
+	 */
+	public Table getTable() {
+		return table;
+	}
+
+	/**
+	 * This returns the kind of change
+	 *
+	 * @return INSERT, UPDATE or DELETE
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * This returns the text key that identifies the changed row
+	 *
+	 * @return the key of the row
+	 */
+	public String getChangeKey() {
+		return changeKey;
+	}
+
+	/**
+	 * This returns the entry that was changed
+	 *
+	 * @return the entry (or null if this isn't a change to an entry)
+	 */
+	public Entry getEntry() {
+		return entry;
+	}
+
+	/**
+	 * This returns the account that was changed (or the account of the budget line that was changed)
+	 *
+	 * @return the account (or null if this is a change to an entry)
+	 */
+	public Account getAccount() {
+		return account;
+	}
+
+	/**
+	 * This returns the month of the monthly budget line that was changed
+	 *
+	 * @return the first day of the month (or null if this isn't a change to a monthly budget line)
+	 */
+	public JDateTime getBudgetMonth() {
+		return budgetMonth;
+	}
+
+	/**
+	 * This returns the new budget amount of a budget line
+	 *
+	 * @return the budget amount (or null if this isn't a budget line or the line was deleted)
+	 */
+	public BigDecimal getBudgetAmount() {
+		return budgetAmount;
+	}
+}
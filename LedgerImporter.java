@@ -0,0 +1,777 @@
+package budget_program;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class imports single entries into a general ledger from bank statement files: CSV files, and the transactions
+ * in OFX files. The file is read a row at a time, and the entries are added to the ledger and written to its ledger store
+ * in batches (with GeneralLedger.appendSingleEntries), so only one batch is held in memory and files with millions of
+ * rows can be imported. (When the ledger is loaded lazily, only entries in months that are in memory are kept in the ledger.)
+ * Each batch only adds its own entries to the store: the SQL store inserts them, and the file store adds them to its
+ * change log and only rewrites the ledger file when the log has grown by about half the size of the file, so importing
+ * a large file takes time in proportion to the number of rows and not the number of batches times the size of the ledger.
+ *
+ * setColumns maps the columns of a CSV file to the date, description, account and amount of the entries.
+ * Account names are looked up in the ledger's account list, and rows without an account name (and every row of an
+ * OFX file, since OFX files don't have accounts) use the default account. Amounts are signed the way bank statements
+ * sign them (negative for money going out), unless setAmountSigned(false) is used to let the account decide the sign.
+ *
+ * Rows that can't be imported are skipped and reported in the ImportResult (and to the error output if there is one).
+ * If a progress output is set, a line is printed to it every so many rows.
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerImporter {
+	// default number of entries added to the ledger at a time
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+	// default number of rows between progress lines
+	public static final int DEFAULT_PROGRESS_INTERVAL = 100000;
+	// longest field that is read (a longer field usually means a quote was never closed)
+	private static final int MAX_FIELD_LENGTH = 10000;
+	// format of the dates in an OFX file (only the date part of the date and time is used)
+	private static final String OFX_DATE_FORMAT = "YYYYMMDD";
+
+	// the ledger the entries are added to
+	private GeneralLedger targetLedger;
+	// CSV column numbers (counting from 0) of each entry field (the account column is -1 if there isn't one)
+	private int dateColumn;
+	private int descColumn;
+	private int accountColumn;
+	private int amountColumn;
+	// format of the dates in a CSV file (in JDateTime format, such as "YYYY-MM-DD" or "MM/DD/YYYY")
+	private String dateFormat;
+	// character between the fields of a CSV file
+	private char separator;
+	// true if the first row of a CSV file has the column names
+	private boolean hasHeaderRow;
+	// true if amounts are negative for money going out, false if the account decides the sign
+	private boolean isAmountSigned;
+	// account for rows without an account name (or null)
+	private Account defaultAccount;
+	// number of entries added to the ledger at a time
+	private int batchSize;
+	// where progress lines are printed (or null)
+	private PrintStream progressOutput;
+	// number of rows between progress lines
+	private int progressInterval;
+	// where each error is printed (or null)
+	private PrintStream errorOutput;
+
+	/**
+	 * This is a constructor for an importer that adds entries to a ledger. It starts out reading CSV files with a header row
+	 * and the columns date (YYYY-MM-DD), description, account and amount.
+	 *
+	 * @param newTargetLedger - the ledger to add the entries to
+	 */
+	public LedgerImporter(GeneralLedger newTargetLedger) {
+		targetLedger = newTargetLedger;
+		dateColumn = 0;
+		descColumn = 1;
+		accountColumn = 2;
+		amountColumn = 3;
+		dateFormat = "YYYY-MM-DD";
+		separator = ',';
+		hasHeaderRow = true;
+		isAmountSigned = true;
+		batchSize = DEFAULT_BATCH_SIZE;
+		progressInterval = DEFAULT_PROGRESS_INTERVAL;
+	}
+
+	/**
+	 * This sets which CSV columns hold the fields of the entries
+	 *
+	 * @param newDateColumn - the column number of the date (counting from 0)
+	 * @param newDescColumn - the column number of the description
+	 * @param newAccountColumn - the column number of the account name (or -1 to use the default account for every row)
+	 * @param newAmountColumn - the column number of the amount
+	 * @exception IllegalArgumentException if a column number is negative (other than an account column of -1)
+	 */
+	public void setColumns(int newDateColumn, int newDescColumn, int newAccountColumn, int newAmountColumn) {
+		if (newDateColumn < 0 || newDescColumn < 0 || newAmountColumn < 0 || newAccountColumn < -1) {
+			throw new IllegalArgumentException("Column numbers can't be negative.");
+		}
+		dateColumn = newDateColumn;
+		descColumn = newDescColumn;
+		accountColumn = newAccountColumn;
+		amountColumn = newAmountColumn;
+	}
+
+	/**
+	 * This sets the format of the dates in a CSV file
+	 *
+	 * @param newDateFormat - the format in JDateTime format (such as "YYYY-MM-DD" or "MM/DD/YYYY")
+	 */
+	public void setDateFormat(String newDateFormat) {
+		dateFormat = newDateFormat;
+	}
+
+	/**
+	 * This sets the character between the fields of a CSV file
+	 *
+	 * @param newSeparator - the separator (such as ',', ';' or a tab)
+	 * @exception IllegalArgumentException if the separator is a quote or a line break
+	 */
+	public void setSeparator(char newSeparator) {
+		if (newSeparator == '"' || newSeparator == '\r' || newSeparator == '\n') {
+			throw new IllegalArgumentException("The separator can't be a quote or a line break.");
+		}
+		separator = newSeparator;
+	}
+
+	/**
+	 * This sets if the first row of a CSV file has the column names (and should be skipped)
+	 *
+	 * @param newHasHeaderRow - true if there is a header row, else false
+	 */
+	public void setHasHeaderRow(boolean newHasHeaderRow) {
+		hasHeaderRow = newHasHeaderRow;
+	}
+
+	/**
+	 * This sets how the amounts are signed
+	 *
+	 * @param newIsAmountSigned - true if amounts are negative for money going out (as in bank statements),
+	 *                            false if amounts are positive and expense accounts make them negative (as when entering an entry)
+	 */
+	public void setAmountSigned(boolean newIsAmountSigned) {
+		isAmountSigned = newIsAmountSigned;
+	}
+
+	/**
+	 * This sets the account used for rows without an account name
+	 *
+	 * @param newDefaultAccount - the account (or null to report rows without an account name as errors)
+	 */
+	public void setDefaultAccount(Account newDefaultAccount) {
+		defaultAccount = newDefaultAccount;
+	}
+
+	/**
+	 * This sets the number of entries added to the ledger at a time (bigger batches are faster,
+	 * since each batch is written to the ledger store on its own)
+	 *
+	 * @param newBatchSize - the number of entries
+	 * @exception IllegalArgumentException if the batch size is less than 1
+	 */
+	public void setBatchSize(int newBatchSize) {
+		if (newBatchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1.");
+		}
+		batchSize = newBatchSize;
+	}
+
+	/**
+	 * This sets where progress lines are printed
+	 *
+	 * @param newProgressOutput - where to print the lines (or null for no progress lines)
+	 * @param newProgressInterval - the number of rows between progress lines
+	 * @exception IllegalArgumentException if the interval is less than 1
+	 */
+	public void setProgressOutput(PrintStream newProgressOutput, int newProgressInterval) {
+		if (newProgressInterval < 1) {
+			throw new IllegalArgumentException("The progress interval must be at least 1.");
+		}
+		progressOutput = newProgressOutput;
+		progressInterval = newProgressInterval;
+	}
+
+	/**
+	 * This sets where each row that can't be imported is reported (the ImportResult only keeps the first errors)
+	 *
+	 * @param newErrorOutput - where to print the errors (or null)
+	 */
+	public void setErrorOutput(PrintStream newErrorOutput) {
+		errorOutput = newErrorOutput;
+	}
+
+	/**
+	 * This imports the rows of a CSV file
+	 *
+	 * @param source - the file to read (closed when the import is done)
+	 * @return the number of rows read and imported, and the rows that couldn't be imported
+	 * @exception IOException if the file can't be read (the entries in earlier batches stay imported)
+	 * @exception LedgerStoreException if a batch of entries can't be written to the ledger store (the entries in earlier batches stay imported)
+	 */
+	public ImportResult importCsv(Reader source) throws IOException, LedgerStoreException {
+		try {
+			CsvRecordReader csvReader = new CsvRecordReader(source, separator);
+			if (hasHeaderRow) {
+				csvReader.readRecord(new ArrayList<String>());
+			}
+			return importRecords(csvReader, dateColumn, descColumn, accountColumn, amountColumn, dateFormat);
+		} finally {
+			source.close();
+		}
+	}
+
+	/**
+	 * This imports the transactions (STMTTRN elements) of an OFX file, using the date posted, the amount,
+	 * and the name (or the memo if there isn't a name). Every transaction uses the default account.
+	 *
+	 * @param source - the file to read (closed when the import is done)
+	 * @return the number of transactions read and imported, and the transactions that couldn't be imported
+	 * @exception IOException if the file can't be read (the entries in earlier batches stay imported)
+	 * @exception LedgerStoreException if a batch of entries can't be written to the ledger store (the entries in earlier batches stay imported)
+	 */
+	public ImportResult importOfx(Reader source) throws IOException, LedgerStoreException {
+		try {
+			// the OFX reader returns the date, description and amount of each transaction
+			return importRecords(new OfxRecordReader(source), 0, 1, -1, 2, OFX_DATE_FORMAT);
+		} finally {
+			source.close();
+		}
+	}
+
+	/**
+	 * This imports a file (as an OFX file if the name ends in .ofx or .qfx, else as a CSV file)
+	 *
+	 * @param sourceFile - the file to import
+	 * @return the number of rows read and imported, and the rows that couldn't be imported
+	 * @exception IOException if the file can't be read
+	 * @exception LedgerStoreException if a batch of entries can't be written to the ledger store
+	 */
+	public ImportResult importFile(File sourceFile) throws IOException, LedgerStoreException {
+		Reader source = new InputStreamReader(new FileInputStream(sourceFile), "UTF-8");
+		String fileName = sourceFile.getName().toLowerCase();
+		if (fileName.endsWith(".ofx") || fileName.endsWith(".qfx")) {
+			return importOfx(source);
+		}
+		return importCsv(source);
+	}
+
+	/**
+	 * This reads each row of a file, turns it into an entry, and adds the entries to the ledger in batches
+	 *
+	 * @param recordReader - the reader for the file
+	 * @param recordDateColumn - the field number of the date
+	 * @param recordDescColumn - the field number of the description
+	 * @param recordAccountColumn - the field number of the account name (or -1)
+	 * @param recordAmountColumn - the field number of the amount
+	 * @param recordDateFormat - the format of the dates
+	 * @return the number of rows read and imported, and the rows that couldn't be imported
+	 * @exception IOException if the file can't be read
+	 * @exception LedgerStoreException if a batch of entries can't be written to the ledger store
+	 */
+	private ImportResult importRecords(RecordReader recordReader, int recordDateColumn, int recordDescColumn, int recordAccountColumn,
+			int recordAmountColumn, String recordDateFormat) throws IOException, LedgerStoreException {
+		ImportResult result = new ImportResult();
+		ArrayList<String> fieldList = new ArrayList<String>();
+		ArrayList<SingleEntry> entryBatch = new ArrayList<SingleEntry>();
+		// reused to check each date, since JDateTime rolls a date like 2020-13-45 over instead of rejecting it
+		JDateTime dateChecker = new JDateTime();
+
+		while (recordReader.readRecord(fieldList)) {
+			result.addRow();
+			try {
+				JDateTime entryDate = parseDate(getField(fieldList, recordDateColumn, "date"), recordDateFormat, dateChecker);
+				String entryDesc = getField(fieldList, recordDescColumn, "description").trim();
+				Account entryAccount = findAccount(recordAccountColumn < 0 ? "" : getField(fieldList, recordAccountColumn, "account").trim());
+				BigDecimal entryAmount = parseAmount(getField(fieldList, recordAmountColumn, "amount"));
+				if (isAmountSigned) {
+					entryBatch.add(SingleEntry.fromSignedAmount(entryDate, entryAccount, entryDesc, Money.valueOf(entryAmount)));
+				} else {
+					entryBatch.add(new SingleEntry(entryDate, entryAccount, entryDesc, entryAmount));
+				}
+			} catch (IllegalArgumentException e) {
+				reportError(result, recordReader.getRecordLine(), e.getMessage());
+			} catch (ArithmeticException e) {
+				reportError(result, recordReader.getRecordLine(), "the amount is too large");
+			}
+
+			if (entryBatch.size() >= batchSize) {
+				addBatch(entryBatch, result, recordReader.getRecordLine());
+				entryBatch = new ArrayList<SingleEntry>();
+			}
+			if (progressOutput != null && result.getRowCnt() % progressInterval == 0) {
+				printProgress(result);
+			}
+		}
+		addBatch(entryBatch, result, recordReader.getRecordLine());
+		if (progressOutput != null && result.getRowCnt() % progressInterval != 0) {
+			printProgress(result);
+		}
+		return result;
+	}
+
+	/**
+	 * This adds a batch of entries to the ledger
+	 *
+	 * @param entryBatch - the entries to add
+	 * @param result - the result to count the entries in
+	 * @param lineNumber - the line number of the last row read (for the error message)
+	 * @exception LedgerStoreException if the entries can't be written to the ledger store
+	 */
+	private void addBatch(ArrayList<SingleEntry> entryBatch, ImportResult result, long lineNumber) throws LedgerStoreException {
+		if (entryBatch.isEmpty()) {
+			return;
+		}
+		try {
+			targetLedger.appendSingleEntries(entryBatch);
+		} catch (LedgerStoreException e) {
+			throw new LedgerStoreException("Unable to import the rows up to line " + lineNumber + " (" + result.getImportedCnt()
+					+ " entries were imported before them): " + e.getMessage(), e);
+		}
+		result.addImported(entryBatch.size());
+	}
+
+	/**
+	 * This gets a field from a row
+	 *
+	 * @param fieldList - the fields of the row
+	 * @param column - the field number
+	 * @param fieldName - the name of the field (for the error message)
+	 * @return the field
+	 * @exception IllegalArgumentException if the row doesn't have the field
+	 */
+	private String getField(ArrayList<String> fieldList, int column, String fieldName) {
+		if (column >= fieldList.size()) {
+			throw new IllegalArgumentException("the row doesn't have a column for the " + fieldName);
+		}
+		return fieldList.get(column);
+	}
+
+	/**
+	 * This reads a date
+	 *
+	 * @param dateText - the date
+	 * @param textDateFormat - the format of the date
+	 * @param dateChecker - a JDateTime object to check the date with
+	 * @return the date
+	 * @exception IllegalArgumentException if the text isn't a valid date in the format
+	 */
+	private JDateTime parseDate(String dateText, String textDateFormat, JDateTime dateChecker) {
+		String trimmedText = dateText.trim();
+		boolean isValidDate;
+		try {
+			isValidDate = trimmedText.length() > 0 && dateChecker.isValid(trimmedText, textDateFormat);
+			if (isValidDate && isWithoutSeparators(textDateFormat)) {
+				// JDateTime reads a short date like 2021 as 2021-01-01 when the format has no separators
+				isValidDate = trimmedText.length() == textDateFormat.length();
+			}
+		} catch (RuntimeException e) {
+			// JDateTime throws an exception for text that doesn't have numbers where the format does
+			isValidDate = false;
+		}
+		if (!isValidDate) {
+			throw new IllegalArgumentException("\"" + trimmedText + "\" isn't a date in the format " + textDateFormat);
+		}
+		return new JDateTime(trimmedText, textDateFormat);
+	}
+
+	/**
+	 * This checks if a date format is only letters (such as YYYYMMDD)
+	 *
+	 * @param textDateFormat - the format
+	 * @return true if the format doesn't have any separators, else false
+	 */
+	private boolean isWithoutSeparators(String textDateFormat) {
+		for (int i = 0; i < textDateFormat.length(); i++) {
+			if (!Character.isLetter(textDateFormat.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This looks up an account by name
+	 *
+	 * @param accountName - the name of the account (blank to use the default account)
+	 * @return the account
+	 * @exception IllegalArgumentException if there isn't an account with the name (or no default account for a blank name)
+	 */
+	private Account findAccount(String accountName) {
+		if (accountName.length() == 0) {
+			if (defaultAccount == null) {
+				throw new IllegalArgumentException("the row doesn't have an account and there is no default account");
+			}
+			return defaultAccount;
+		}
+		Account foundAccount = targetLedger.getAccount(accountName);
+		if (foundAccount == null) {
+			throw new IllegalArgumentException("there isn't an account named \"" + accountName + "\"");
+		}
+		return foundAccount;
+	}
+
+	/**
+	 * This reads an amount, ignoring currency signs, thousands separators and spaces, and treating an amount in
+	 * parentheses as negative (as some bank statements show money going out)
+	 *
+	 * @param amountText - the amount
+	 * @return the amount
+	 * @exception IllegalArgumentException if the text isn't a number
+	 */
+	private BigDecimal parseAmount(String amountText) {
+		StringBuilder cleanText = new StringBuilder(amountText.length());
+		boolean isInParentheses = false;
+		for (int i = 0; i < amountText.length(); i++) {
+			char tmpChar = amountText.charAt(i);
+			if (tmpChar == '(' || tmpChar == ')') {
+				isInParentheses = true;
+			} else if (tmpChar != '$' && tmpChar != ',' && !Character.isWhitespace(tmpChar)) {
+				cleanText.append(tmpChar);
+			}
+		}
+		try {
+			BigDecimal parsedAmount = new BigDecimal(cleanText.toString());
+			return isInParentheses ? parsedAmount.negate() : parsedAmount;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("\"" + amountText.trim() + "\" isn't an amount");
+		}
+	}
+
+	/**
+	 * This reports a row that couldn't be imported
+	 *
+	 * @param result - the result to add the error to
+	 * @param lineNumber - the line number of the row
+	 * @param message - why the row couldn't be imported
+	 */
+	private void reportError(ImportResult result, long lineNumber, String message) {
+		String errorMessage = "Line " + lineNumber + ": " + message;
+		result.addError(errorMessage);
+		if (errorOutput != null) {
+			errorOutput.println(errorMessage);
+		}
+	}
+
+	/**
+	 * This prints a progress line
+	 *
+	 * @param result - the results so far
+	 */
+	private void printProgress(ImportResult result) {
+		progressOutput.println("Read " + result.getRowCnt() + " rows: " + result.getImportedCnt() + " entries imported, "
+				+ result.getErrorCnt() + " rows with errors");
+	}
+
+	/**
+	 * This class reads the rows of a file one at a time
+	 *
+	 * @author Asa Swain
+	 *
+	 */
+	private static abstract class RecordReader {
+		// the file
+		private Reader source;
+		// characters read from the file that haven't been used yet
+		private char[] buffer;
+		private int bufferPos;
+		private int bufferEnd;
+		// a character that was read and put back (or -1)
+		private int pushedChar;
+		// line number of the next character
+		protected long lineNumber;
+		// line number of the start of the last row read
+		protected long recordLine;
+
+		/**
+		 * This is a constructor for a reader
+		 *
+		 * @param newSource - the file to read
+		 */
+		protected RecordReader(Reader newSource) {
+			source = newSource;
+			buffer = new char[65536];
+			pushedChar = -1;
+			lineNumber = 1;
+		}
+
+		/**
+		 * This reads the next row
+		 *
+		 * @param fieldList - the list to put the fields of the row in (it is cleared first)
+		 * @return true if a row was read, or false at the end of the file
+		 * @exception IOException if the file can't be read or a field is too long
+		 */
+		abstract boolean readRecord(ArrayList<String> fieldList) throws IOException;
+
+		/**
+		 * This gets the line number of the start of the last row read
+		 *
+		 * @return the line number (counting from 1)
+		 */
+		long getRecordLine() {
+			return recordLine;
+		}
+
+		/**
+		 * This reads the next character
+		 *
+		 * @return the character, or -1 at the end of the file
+		 * @exception IOException if the file can't be read
+		 */
+		protected int nextChar() throws IOException {
+			if (pushedChar >= 0) {
+				int tmpChar = pushedChar;
+				pushedChar = -1;
+				return tmpChar;
+			}
+			if (bufferPos == bufferEnd) {
+				bufferEnd = source.read(buffer, 0, buffer.length);
+				bufferPos = 0;
+				if (bufferEnd <= 0) {
+					bufferEnd = 0;
+					return -1;
+				}
+			}
+			return buffer[bufferPos++];
+		}
+
+		/**
+		 * This puts back a character, so it is returned by the next nextChar
+		 *
+		 * @param oldChar - the character (or -1 for the end of the file)
+		 */
+		protected void pushBack(int oldChar) {
+			pushedChar = oldChar;
+		}
+
+		/**
+		 * This counts a line break (treating \r\n as one line break)
+		 *
+		 * @param breakChar - the \r or \n that was read
+		 * @exception IOException if the file can't be read
+		 */
+		protected void readLineBreak(int breakChar) throws IOException {
+			if (breakChar == '\r') {
+				int tmpChar = nextChar();
+				if (tmpChar != '\n') {
+					pushBack(tmpChar);
+				}
+			}
+			lineNumber++;
+		}
+
+		/**
+		 * This checks that a field isn't too long
+		 *
+		 * @param field - the field being read
+		 * @exception IOException if the field is longer than MAX_FIELD_LENGTH
+		 */
+		protected void checkFieldLength(StringBuilder field) throws IOException {
+			if (field.length() > MAX_FIELD_LENGTH) {
+				throw new IOException("Line " + recordLine + ": a field is longer than " + MAX_FIELD_LENGTH + " characters (is a quote missing?)");
+			}
+		}
+	}
+
+	/**
+	 * This class reads the rows of a CSV file. Fields can be quoted (with "" for a quote inside a quoted field),
+	 * and quoted fields can have separators and line breaks in them. Blank lines are skipped.
+	 *
+	 * @author Asa Swain
+	 *
+	 */
+	private static class CsvRecordReader extends RecordReader {
+		// character between the fields
+		private char separator;
+		// the field being read
+		private StringBuilder field;
+
+		/**
+		 * This is a constructor for a CSV reader
+		 *
+		 * @param newSource - the file to read
+		 * @param newSeparator - the character between the fields
+		 */
+		CsvRecordReader(Reader newSource, char newSeparator) {
+			super(newSource);
+			separator = newSeparator;
+			field = new StringBuilder();
+		}
+
+		/**
+		 * This reads the next row
+		 *
+		 * @param fieldList - the list to put the fields of the row in (it is cleared first)
+		 * @return true if a row was read, or false at the end of the file
+		 * @exception IOException if the file can't be read, a field is too long or a quoted field isn't closed
+		 */
+		boolean readRecord(ArrayList<String> fieldList) throws IOException {
+			fieldList.clear();
+			int tmpChar = nextChar();
+			while (tmpChar == '\r' || tmpChar == '\n') {
+				readLineBreak(tmpChar);
+				tmpChar = nextChar();
+			}
+			if (tmpChar == -1) {
+				return false;
+			}
+			recordLine = lineNumber;
+			field.setLength(0);
+			boolean isQuoted = false;
+			boolean isFieldStarted = false;
+
+			while (true) {
+				if (isQuoted) {
+					if (tmpChar == -1) {
+						throw new IOException("Line " + recordLine + ": a quoted field isn't closed");
+					}
+					if (tmpChar == '"') {
+						tmpChar = nextChar();
+						if (tmpChar != '"') {
+							// the closing quote (the character after it is handled as an unquoted character)
+							isQuoted = false;
+							continue;
+						}
+						field.append('"');
+					} else {
+						if (tmpChar == '\n') {
+							lineNumber++;
+						}
+						field.append((char) tmpChar);
+					}
+				} else if (tmpChar == separator) {
+					fieldList.add(field.toString());
+					field.setLength(0);
+					isFieldStarted = false;
+				} else if (tmpChar == '\r' || tmpChar == '\n' || tmpChar == -1) {
+					if (tmpChar != -1) {
+						readLineBreak(tmpChar);
+					}
+					fieldList.add(field.toString());
+					return true;
+				} else if (tmpChar == '"' && !isFieldStarted) {
+					isQuoted = true;
+					isFieldStarted = true;
+				} else {
+					field.append((char) tmpChar);
+					isFieldStarted = true;
+				}
+				checkFieldLength(field);
+				tmpChar = nextChar();
+			}
+		}
+	}
+
+	/**
+	 * This class reads the transactions of an OFX file (both the SGML files of OFX 1, where tags don't have to be closed,
+	 * and the XML files of OFX 2). Each row is the date posted (YYYYMMDD), the name (or memo) and the amount of
+	 * one STMTTRN element, with a blank field for anything the transaction doesn't have.
+	 *
+	 * @author Asa Swain
+	 *
+	 */
+	private static class OfxRecordReader extends RecordReader {
+		// the tag or text being read
+		private StringBuilder field;
+
+		/**
+		 * This is a constructor for an OFX reader
+		 *
+		 * @param newSource - the file to read
+		 */
+		OfxRecordReader(Reader newSource) {
+			super(newSource);
+			field = new StringBuilder();
+		}
+
+		/**
+		 * This reads the next transaction
+		 *
+		 * @param fieldList - the list to put the date, description and amount of the transaction in (it is cleared first)
+		 * @return true if a transaction was read, or false at the end of the file
+		 * @exception IOException if the file can't be read or a tag or value is too long
+		 */
+		boolean readRecord(ArrayList<String> fieldList) throws IOException {
+			fieldList.clear();
+			boolean isInTransaction = false;
+			String datePosted = "";
+			String amount = "";
+			String name = "";
+			String memo = "";
+
+			String tagName = readTag();
+			while (tagName != null) {
+				String value = readValue();
+				if (tagName.equals("STMTTRN")) {
+					isInTransaction = true;
+					recordLine = lineNumber;
+					datePosted = "";
+					amount = "";
+					name = "";
+					memo = "";
+				} else if (isInTransaction && tagName.equals("/STMTTRN")) {
+					// only the date part of the date and time (such as 20200105120000[-5:EST]) is used
+					fieldList.add(datePosted.length() > 8 ? datePosted.substring(0, 8) : datePosted);
+					fieldList.add(name.length() > 0 ? name : memo);
+					fieldList.add(amount);
+					return true;
+				} else if (isInTransaction) {
+					if (tagName.equals("DTPOSTED")) {
+						datePosted = value;
+					} else if (tagName.equals("TRNAMT")) {
+						amount = value;
+					} else if (tagName.equals("NAME")) {
+						name = value;
+					} else if (tagName.equals("MEMO")) {
+						memo = value;
+					}
+				}
+				tagName = readTag();
+			}
+			return false;
+		}
+
+		/**
+		 * This reads up to and including the next tag
+		 *
+		 * @return the name of the tag in upper case (starting with / for a closing tag), or null at the end of the file
+		 * @exception IOException if the file can't be read or the tag is too long
+		 */
+		private String readTag() throws IOException {
+			int tmpChar = nextChar();
+			while (tmpChar != '<') {
+				if (tmpChar == -1) {
+					return null;
+				}
+				if (tmpChar == '\r' || tmpChar == '\n') {
+					readLineBreak(tmpChar);
+				}
+				tmpChar = nextChar();
+			}
+			field.setLength(0);
+			tmpChar = nextChar();
+			while (tmpChar != '>' && tmpChar != -1) {
+				field.append((char) tmpChar);
+				checkFieldLength(field);
+				tmpChar = nextChar();
+			}
+			return field.toString().trim().toUpperCase();
+		}
+
+		/**
+		 * This reads the text after a tag, up to the next tag
+		 *
+		 * @return the text with spaces trimmed and &amp;, &lt; and &gt; turned back into characters
+		 * @exception IOException if the file can't be read or the text is too long
+		 */
+		private String readValue() throws IOException {
+			field.setLength(0);
+			int tmpChar = nextChar();
+			while (tmpChar != '<' && tmpChar != -1) {
+				if (tmpChar == '\r' || tmpChar == '\n') {
+					readLineBreak(tmpChar);
+					field.append(' ');
+				} else {
+					field.append((char) tmpChar);
+				}
+				checkFieldLength(field);
+				tmpChar = nextChar();
+			}
+			pushBack(tmpChar);
+			String value = field.toString().trim();
+			if (value.indexOf('&') >= 0) {
+				value = value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+			}
+			return value;
+		}
+	}
+}
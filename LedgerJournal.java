@@ -0,0 +1,556 @@
+package budget_program;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class keeps a journal of the changes made to a general ledger since it was last saved. Each change is added
+ * to the end of the journal file as soon as it is made, so changes that haven't been saved to the store aren't lost
+ * if the program stops. When the ledger is loaded the journal is replayed into the store, and when the ledger is saved
+ * the journal is emptied (so the journal never holds more than the changes since the last save). When changes are saved
+ * in the background, the records of each batch that was saved are dropped from the front of the journal (see dropBefore).
+ *
+ * append doesn't return until the change has been synced to disk. It is write followed by awaitDurable, and a caller that
+ * writes changes under its own lock (such as ChangeSet) calls the two separately, so it doesn't hold the lock during the sync.
+ * The syncs are shared: each change gets a record number, and if another thread is already syncing, awaitDurable waits for
+ * that sync to finish and then either returns (if the sync covered its record) or runs the next sync itself, which covers
+ * every change written while the first sync ran. So a burst of changes from several threads costs a few syncs instead of
+ * one sync per change. The thread that runs a sync can also
+ * wait for the sync delay first, so more changes are written before the sync (the default is not to wait).
+ *
+ * Each record in the file is the length of the change, the change, and a CRC32 checksum of the change. A record that
+ * was only partly written when the program stopped fails the checksum, and it and anything after it are dropped.
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerJournal {
+	// marks the start of a journal file ("BDJL")
+	private static final int JOURNAL_MAGIC = 0x42444A4C;
+	// version of the record layout (records store the ordinals of LedgerChange.Table and LedgerChange.Operation,
+	// so new values have to be added at the end of those enums)
+	private static final int JOURNAL_VERSION = 1;
+	// size of the magic number and version at the start of the file
+	private static final int HEADER_SIZE = 8;
+	// how long the thread that syncs waits for more changes before syncing (in milliseconds)
+	public static final long DEFAULT_SYNC_DELAY = 0;
+
+	// the journal file
+	private File journalFile;
+	// the open journal file (null until the journal is opened)
+	private FileChannel journalChannel;
+	// size of the journal file (the position the next record is written at)
+	private long journalSize;
+	// how long the thread that syncs waits for more changes before syncing (in milliseconds)
+	private long syncDelay;
+	// number of records written since the journal was opened (the record number of the last record),
+	// how many of them have been synced, and how many of them were covered by a sync that failed
+	private long writtenCnt;
+	private long syncedCnt;
+	private long failedCnt;
+	// true while a thread is syncing the file
+	private boolean isSyncRunning;
+	// number of syncs run since the journal was opened
+	private long syncRunCnt;
+	// error from the last sync that failed
+	private IOException syncError;
+
+	/**
+	 * This is a constructor for a journal (the file is created when the journal is opened)
+	 *
+	 * @param newJournalFile - the file to keep the journal in
+	 */
+	public LedgerJournal(File newJournalFile) {
+		journalFile = newJournalFile;
+		syncDelay = DEFAULT_SYNC_DELAY;
+	}
+
+	/**
+	 * This sets how long the thread that syncs waits for more changes to be written before it syncs
+	 * (every append waits this long for its sync, so it is only worth setting when several threads add changes)
+	 *
+	 * @param newSyncDelay - the delay in milliseconds (0 to sync straight away)
+	 * @exception IllegalArgumentException if the delay is negative
+	 */
+	public void setSyncDelay(long newSyncDelay) {
+		if (newSyncDelay < 0) {
+			throw new IllegalArgumentException("The sync delay can't be negative.");
+		}
+		syncDelay = newSyncDelay;
+	}
+
+	/**
+	 * This opens the journal file (creating it if needed) and reads the changes in it
+	 *
+	 * Changes to the same row are combined, and each row that was inserted or updated is returned as a delete followed
+	 * by an insert, so the changes can be saved to a store that already has some of them (if the program stopped after
+	 * saving the ledger but before the journal was emptied).
+	 *
+	 * @return the changes to save to the store, or an empty list if the journal is empty
+	 * @exception LedgerStoreException if the file can't be opened or isn't a journal file
+	 */
+	public ArrayList<LedgerChange> open() throws LedgerStoreException {
+		ChangeSet journalChangeSet = new ChangeSet();
+		writtenCnt = 0;
+		syncedCnt = 0;
+		failedCnt = 0;
+		syncRunCnt = 0;
+		syncError = null;
+		try {
+			journalChannel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			long goodSize = HEADER_SIZE;
+			if (journalChannel.size() < HEADER_SIZE) {
+				writeHeader();
+			} else {
+				goodSize = readRecords(journalChangeSet);
+			}
+			if (goodSize < journalChannel.size()) {
+				// drop a record that was only partly written
+				journalChannel.truncate(goodSize);
+				journalChannel.force(false);
+			}
+			journalChannel.position(goodSize);
+			journalSize = goodSize;
+		} catch (IOException e) {
+			try {
+				close();
+			} catch (IOException closeError) {
+				e.addSuppressed(closeError);
+			}
+			throw new LedgerStoreException("Unable to open journal file " + journalFile, e);
+		}
+
+		ArrayList<LedgerChange> replayList = new ArrayList<LedgerChange>();
+		for (LedgerChange tmpChange : journalChangeSet.getChangeList()) {
+			replayList.add(tmpChange.toDelete());
+			if (tmpChange.getOperation() != LedgerChange.Operation.DELETE) {
+				replayList.add(tmpChange.toInsert());
+			}
+		}
+		return replayList;
+	}
+
+	/**
+	 * This adds a change to the end of the journal and waits until it has been synced to disk
+	 *
+	 * @param newChange - the change to add
+	 * @exception IOException if the change can't be written or synced
+	 *		(InterruptedIOException if the thread is interrupted while it waits for another thread's sync)
+	 */
+	public void append(LedgerChange newChange) throws IOException {
+		awaitDurable(write(newChange));
+	}
+
+	/**
+	 * This adds a change to the end of the journal without waiting for it to be synced. A caller that writes changes
+	 * while holding a lock should release the lock before it calls awaitDurable, so other threads can write their changes
+	 * and share the sync.
+	 *
+	 * @param newChange - the change to add
+	 * @return the record number of the change (pass it to awaitDurable)
+	 * @exception IOException if the change can't be written
+	 */
+	public long write(LedgerChange newChange) throws IOException {
+		byte[] changeData = encodeChange(newChange);
+		CRC32 checksum = new CRC32();
+		checksum.update(changeData);
+		ByteBuffer recordBuffer = ByteBuffer.allocate(changeData.length + 8);
+		recordBuffer.putInt(changeData.length);
+		recordBuffer.put(changeData);
+		recordBuffer.putInt((int) checksum.getValue());
+		recordBuffer.flip();
+		long recordNbr;
+		synchronized (this) {
+			while (recordBuffer.hasRemaining()) {
+				journalChannel.write(recordBuffer);
+			}
+			journalSize += recordBuffer.limit();
+			writtenCnt++;
+			recordNbr = writtenCnt;
+		}
+		return recordNbr;
+	}
+
+	/**
+	 * This waits until a change written by write has been synced to disk
+	 *
+	 * @param recordNbr - the record number write returned
+	 * @exception IOException if the sync that covered the change failed
+	 *		(InterruptedIOException if the thread is interrupted while it waits for another thread's sync)
+	 */
+	public void awaitDurable(long recordNbr) throws IOException {
+		waitForSync(recordNbr);
+	}
+
+	/**
+	 * This returns the size of the journal file, which marks the end of the records written so far
+	 * (pass it to dropBefore once the changes written so far have been saved)
+	 *
+	 * @return the size in bytes
+	 */
+	public synchronized long getSize() {
+		return journalSize;
+	}
+
+	/**
+	 * This returns the number of syncs run since the journal was opened (each covers every change written before it started)
+	 *
+	 * @return the number of syncs
+	 */
+	synchronized long getSyncCount() {
+		return syncRunCnt;
+	}
+
+	/**
+	 * This syncs every change written so far to disk
+	 *
+	 * @exception IOException if the file can't be synced
+	 */
+	public void sync() throws IOException {
+		long recordNbr;
+		synchronized (this) {
+			recordNbr = writtenCnt;
+		}
+		waitForSync(recordNbr);
+	}
+
+	/**
+	 * This empties the journal (call after the changes in it have been saved to the store)
+	 *
+	 * @exception IOException if the file can't be emptied
+	 */
+	public synchronized void reset() throws IOException {
+		journalChannel.truncate(HEADER_SIZE);
+		journalChannel.position(HEADER_SIZE);
+		journalChannel.force(false);
+		journalSize = HEADER_SIZE;
+		syncedCnt = writtenCnt;
+		notifyAll();
+	}
+
+	/**
+	 * This drops the records before a position in the journal (call after the changes in them have been saved to the store),
+	 * keeping the records written after it. The records that are kept are copied to a new file which then replaces the journal,
+	 * so this takes time in proportion to the changes that haven't been saved, not to the size of the journal.
+	 *
+	 * @param position - the size of the journal (from getSize) when the saved changes were taken
+	 * @exception IOException if the journal can't be rewritten (it is left as it was)
+	 */
+	public synchronized void dropBefore(long position) throws IOException {
+		if (position >= journalSize) {
+			reset();
+			return;
+		}
+		if (position <= HEADER_SIZE) {
+			return;
+		}
+		// wait for a sync that is running, since the channel it is syncing is about to be closed
+		while (isSyncRunning) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for journal file " + journalFile + " to be synced");
+			}
+		}
+
+		File tmpFile = new File(journalFile.getAbsoluteFile().getParentFile(), journalFile.getName() + ".tmp");
+		try {
+			FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE);
+			try {
+				ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE);
+				headerBuffer.putInt(JOURNAL_MAGIC);
+				headerBuffer.putInt(JOURNAL_VERSION);
+				headerBuffer.flip();
+				while (headerBuffer.hasRemaining()) {
+					tmpChannel.write(headerBuffer);
+				}
+				long copyPosition = position;
+				while (copyPosition < journalSize) {
+					copyPosition += journalChannel.transferTo(copyPosition, journalSize - copyPosition, tmpChannel);
+				}
+				tmpChannel.force(false);
+			} finally {
+				tmpChannel.close();
+			}
+			// Windows can't replace a file that is still open, so the journal is opened again afterwards
+			journalChannel.close();
+			try {
+				Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				journalChannel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+				journalSize = journalChannel.size();
+				journalChannel.position(journalSize);
+			}
+		} catch (IOException e) {
+			if (tmpFile.exists() && !tmpFile.delete()) {
+				e.addSuppressed(new IOException("Unable to delete " + tmpFile));
+			}
+			throw e;
+		}
+		// the records that were kept were synced when they were copied
+		syncedCnt = writtenCnt;
+		notifyAll();
+	}
+
+	/**
+	 * This syncs the journal and closes the file (the file is closed even if it can't be synced)
+	 *
+	 * @exception IOException if the file can't be synced or closed
+	 */
+	public void close() throws IOException {
+		if (journalChannel == null) {
+			return;
+		}
+		IOException closeError = null;
+		try {
+			sync();
+		} catch (IOException e) {
+			closeError = e;
+		}
+		try {
+			journalChannel.close();
+		} catch (IOException e) {
+			if (closeError == null) {
+				closeError = e;
+			} else {
+				closeError.addSuppressed(e);
+			}
+		}
+		journalChannel = null;
+		if (closeError != null) {
+			throw closeError;
+		}
+	}
+
+	/**
+	 * This waits until a sync that covers a record has finished. If no other thread is syncing, this thread
+	 * runs the sync, which covers every record written so far (records written while it runs are covered by the next sync).
+	 *
+	 * @param recordNbr - the record number to wait for
+	 * @exception IOException if the sync that covered the record failed
+	 *		(InterruptedIOException if the thread is interrupted while it waits for another thread's sync)
+	 */
+	private void waitForSync(long recordNbr) throws IOException {
+		synchronized (this) {
+			while (syncedCnt < recordNbr && isSyncRunning) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for journal file " + journalFile + " to be synced");
+				}
+			}
+			if (syncedCnt >= recordNbr) {
+				return;
+			}
+			if (failedCnt >= recordNbr) {
+				throw new IOException("Unable to sync journal file " + journalFile, syncError);
+			}
+			isSyncRunning = true;
+		}
+
+		boolean isInterrupted = false;
+		if (syncDelay > 0) {
+			try {
+				Thread.sleep(syncDelay);
+			} catch (InterruptedException e) {
+				// sync anyway (interrupting a thread that is using the channel would close it), and then pass the interrupt on
+				isInterrupted = true;
+			}
+		}
+		long targetCnt;
+		synchronized (this) {
+			targetCnt = writtenCnt;
+		}
+		IOException forceError = null;
+		try {
+			journalChannel.force(false);
+		} catch (IOException e) {
+			forceError = e;
+		}
+		synchronized (this) {
+			isSyncRunning = false;
+			syncRunCnt++;
+			if (forceError == null) {
+				syncedCnt = Math.max(syncedCnt, targetCnt);
+			} else {
+				failedCnt = Math.max(failedCnt, targetCnt);
+				syncError = forceError;
+			}
+			notifyAll();
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (forceError != null) {
+			throw forceError;
+		}
+	}
+
+	/**
+	 * This writes the magic number and version at the start of an empty journal file
+	 *
+	 * @exception IOException if the file can't be written
+	 */
+	private void writeHeader() throws IOException {
+		ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE);
+		headerBuffer.putInt(JOURNAL_MAGIC);
+		headerBuffer.putInt(JOURNAL_VERSION);
+		headerBuffer.flip();
+		journalChannel.truncate(0);
+		journalChannel.position(0);
+		while (headerBuffer.hasRemaining()) {
+			journalChannel.write(headerBuffer);
+		}
+		journalChannel.force(false);
+	}
+
+	/**
+	 * This reads the records in the journal file, stopping at the first record that wasn't completely written
+	 *
+	 * @param journalChangeSet - the change set to add the changes to
+	 * @return the size of the file up to the end of the last good record
+	 * @exception IOException if the file can't be read or isn't a journal file
+	 */
+	private long readRecords(ChangeSet journalChangeSet) throws IOException {
+		journalChannel.position(0);
+		// the stream isn't closed, because that would close the channel
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journalChannel)));
+		if (input.readInt() != JOURNAL_MAGIC) {
+			throw new IOException(journalFile + " isn't a journal file");
+		}
+		int journalVersion = input.readInt();
+		if (journalVersion != JOURNAL_VERSION) {
+			throw new IOException(journalFile + " has unknown version " + journalVersion);
+		}
+
+		long goodSize = HEADER_SIZE;
+		long fileSize = journalChannel.size();
+		while (goodSize + 8 <= fileSize) {
+			int changeLength = input.readInt();
+			if (changeLength < 0 || goodSize + 8 + changeLength > fileSize) {
+				break;
+			}
+			byte[] changeData = new byte[changeLength];
+			input.readFully(changeData);
+			CRC32 checksum = new CRC32();
+			checksum.update(changeData);
+			if (input.readInt() != (int) checksum.getValue()) {
+				break;
+			}
+			journalChangeSet.record(decodeChange(changeData));
+			goodSize += 8 + changeLength;
+		}
+		return goodSize;
+	}
+
+	/**
+	 * This converts a change to the bytes stored in a journal record
+	 *
+	 * @param tmpChange - the change
+	 * @return the bytes of the change
+	 * @exception IOException if the change can't be converted
+	 */
+	static byte[] encodeChange(LedgerChange tmpChange) throws IOException {
+		ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(byteOutput);
+		output.writeByte(tmpChange.getTable().ordinal());
+		output.writeByte(tmpChange.getOperation().ordinal());
+		// every record has the whole account, so entries can be rebuilt without looking up the account
+		Account tmpAccount = (tmpChange.getEntry() == null) ? tmpChange.getAccount() : tmpChange.getEntry().getAccount();
+		FileLedgerStore.writeString(output, tmpAccount.getAccountName());
+		FileLedgerStore.writeString(output, tmpAccount.getAccountDesc());
+		output.writeBoolean(tmpAccount.getIsAnExpense());
+		output.writeBoolean(tmpAccount.getIsIncludedInBudget());
+
+		switch (tmpChange.getTable()) {
+		case SINGLE_ENTRY:
+		case REPEATING_ENTRY:
+		case INSTALLMENT_ENTRY:
+			FileLedgerStore.writeEntry(output, StoredEntry.fromEntry(tmpChange.getEntry()));
+			break;
+		case MONTHLY_BUDGET:
+			output.writeInt(EpochDay.toMonthIndex(tmpChange.getBudgetMonth()));
+			writeBudgetAmount(output, tmpChange.getBudgetAmount());
+			break;
+		case DEFAULT_BUDGET:
+			writeBudgetAmount(output, tmpChange.getBudgetAmount());
+			break;
+		case ACCOUNT:
+			break;
+		}
+		output.flush();
+		return byteOutput.toByteArray();
+	}
+
+	/**
+	 * This converts the bytes stored in a journal record back to a change
+	 *
+	 * @param changeData - the bytes of the change
+	 * @return the change
+	 * @exception IOException if the bytes aren't a change
+	 */
+	static LedgerChange decodeChange(byte[] changeData) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(changeData));
+		LedgerChange.Table table = LedgerChange.Table.values()[input.readByte()];
+		LedgerChange.Operation operation = LedgerChange.Operation.values()[input.readByte()];
+		String accountName = FileLedgerStore.readString(input);
+		String accountDesc = FileLedgerStore.readString(input);
+		boolean isAnExpense = input.readBoolean();
+		boolean isInBudget = input.readBoolean();
+		Account tmpAccount = new Account(accountName, accountDesc, isAnExpense, isInBudget);
+
+		switch (table) {
+		case SINGLE_ENTRY:
+			return LedgerChange.forEntry(operation, FileLedgerStore.readEntry(input).toSingleEntry(tmpAccount));
+		case REPEATING_ENTRY:
+			return LedgerChange.forEntry(operation, FileLedgerStore.readEntry(input).toMultipleEntry(tmpAccount, false));
+		case INSTALLMENT_ENTRY:
+			return LedgerChange.forEntry(operation, FileLedgerStore.readEntry(input).toMultipleEntry(tmpAccount, true));
+		case MONTHLY_BUDGET:
+			JDateTime budgetMonth = EpochDay.fromMonthIndex(input.readInt());
+			return LedgerChange.forMonthlyBudget(operation, budgetMonth.getMonth(), budgetMonth.getYear(), tmpAccount, readBudgetAmount(input));
+		case DEFAULT_BUDGET:
+			return LedgerChange.forDefaultBudget(operation, tmpAccount, readBudgetAmount(input));
+		default:
+			return LedgerChange.forAccount(operation, tmpAccount);
+		}
+	}
+
+	/**
+	 * This writes a budget amount that may be null
+	 *
+	 * @param output - the record being written
+	 * @param budgetAmount - the amount or null
+	 * @exception IOException if the record can't be written
+	 */
+	private static void writeBudgetAmount(DataOutputStream output, BigDecimal budgetAmount) throws IOException {
+		output.writeBoolean(budgetAmount != null);
+		if (budgetAmount != null) {
+			output.writeLong(Money.valueOf(budgetAmount).getCents());
+		}
+	}
+
+	/**
+	 * This reads a budget amount that may be null
+	 *
+	 * @param input - the record being read
+	 * @return the amount or null
+	 * @exception IOException if the record can't be read
+	 */
+	private static BigDecimal readBudgetAmount(DataInputStream input) throws IOException {
+		return input.readBoolean() ? BigDecimal.valueOf(input.readLong(), 2) : null;
+	}
+}
@@ -0,0 +1,123 @@
+package budget_program;
+
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class holds the results of a report over the single entries in a date range:
+ * the number of entries and the total, smallest and largest amount for each account, for each month and for the whole range.
+ * It is filled in by the report engine, which builds a separate report for each group of months and then merges them.
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerReport {
+	// statistics for each month (keyed by month index)
+	private HashMap<Integer, EntryStats> monthStatsList;
+	// statistics for each account
+	private HashMap<Account, EntryStats> accountStatsList;
+	// statistics for every entry in the report
+	private EntryStats totalStats;
+
+	/**
+	 * This is a constructor for an empty report (only the report engine should call this)
+	 */
+	LedgerReport() {
+		monthStatsList = new HashMap<Integer, EntryStats>();
+		accountStatsList = new HashMap<Account, EntryStats>();
+		totalStats = new EntryStats();
+	}
+
+	/**
+	 * This gets the statistics for a month, adding an empty group if the month isn't in the report yet
+	 *
+	 * @param monthIndex - the month to get the statistics for
+	 * @return the EntryStats object for the month
+	 */
+	EntryStats getOrCreateMonthStats(int monthIndex) {
+		EntryStats monthStats = monthStatsList.get(monthIndex);
+		if (monthStats == null) {
+			monthStats = new EntryStats();
+			monthStatsList.put(monthIndex, monthStats);
+		}
+		return monthStats;
+	}
+
+	/**
+	 * This adds an entry to the statistics for its account and the whole report
+	 * (the caller adds it to the statistics for its month, so the month is only looked up once for all the entries in it)
+	 *
+	 * @param newEntry - the entry to add
+	 */
+	void addToAccountAndTotal(SingleEntry newEntry) {
+		getOrCreateAccountStats(newEntry.getAccount()).add(newEntry.getMonthlyMoney());
+		totalStats.add(newEntry.getMonthlyMoney());
+	}
+
+	/**
+	 * This gets the statistics for an account, adding an empty group if the account isn't in the report yet
+	 *
+	 * @param targetAccount - the account to get the statistics for
+	 * @return the EntryStats object for the account
+	 */
+	EntryStats getOrCreateAccountStats(Account targetAccount) {
+		EntryStats accountStats = accountStatsList.get(targetAccount);
+		if (accountStats == null) {
+			accountStats = new EntryStats();
+			accountStatsList.put(targetAccount, accountStats);
+		}
+		return accountStats;
+	}
+
+	/**
+	 * This adds the statistics from another report to this report
+	 *
+	 * @param otherReport - the report to add
+	 */
+	void merge(LedgerReport otherReport) {
+		for (Map.Entry<Integer, EntryStats> monthStats : otherReport.monthStatsList.entrySet()) {
+			getOrCreateMonthStats(monthStats.getKey()).merge(monthStats.getValue());
+		}
+		for (Map.Entry<Account, EntryStats> accountStats : otherReport.accountStatsList.entrySet()) {
+			EntryStats oldStats = accountStatsList.get(accountStats.getKey());
+			if (oldStats == null) {
+				accountStatsList.put(accountStats.getKey(), accountStats.getValue());
+			} else {
+				oldStats.merge(accountStats.getValue());
+			}
+		}
+		totalStats.merge(otherReport.totalStats);
+	}
+
+	/**
+	 * This returns the statistics for each month that has entries
+	 *
+	 * @return a TreeMap of the statistics, by the first day of each month
+	 */
+	public TreeMap<JDateTime, EntryStats> getMonthStats() {
+		TreeMap<JDateTime, EntryStats> returnList = new TreeMap<JDateTime, EntryStats>();
+		for (Map.Entry<Integer, EntryStats> monthStats : monthStatsList.entrySet()) {
+			returnList.put(EpochDay.fromMonthIndex(monthStats.getKey()), monthStats.getValue());
+		}
+		return returnList;
+	}
+
+	/**
+	 * This returns the statistics for each account that has entries
+	 *
+	 * @return a HashMap of the statistics, by account
+	 */
+	public HashMap<Account, EntryStats> getAccountStats() {
+		return new HashMap<Account, EntryStats>(accountStatsList);
+	}
+
+	/**
+	 * This returns the statistics for every entry in the report
+	 *
+	 * @return the EntryStats object for the whole date range
+	 */
+	public EntryStats getTotalStats() {
+		return totalStats;
+	}
+}
@@ -0,0 +1,250 @@
+package budget_program;
+
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class builds a LedgerReport over the single entries in a date range using a fork/join pool,
+ * so a report over many years of entries uses every core of the machine.
+ *
+ * The date range is split into month partitions: a task covering a group of months splits it in half (on a month boundary)
+ * until a group has too few days with entries to be worth splitting further. Each task totals its months into its own
+ * LedgerReport, so the tasks don't share anything while they run, and the reports are merged as the tasks are joined.
+ *
+ * The entries must not be changed while a report is running (the GeneralLedger makes its changes on the calling thread,
+ * which waits for the report to finish).
+ *
+ * @author Asa Swain
+ */
+
+class LedgerReportEngine {
+	// fewest days with entries that are worth splitting between two tasks
+	private static final int MIN_SPLIT_DAYS = 64;
+
+	// runs the report tasks
+	private ForkJoinPool reportPool;
+
+	/**
+	 * This is a constructor for an engine that runs its tasks on a pool
+	 *
+	 * @param newReportPool - the pool to run the tasks on
+	 */
+	LedgerReportEngine(ForkJoinPool newReportPool) {
+		reportPool = newReportPool;
+	}
+
+	/**
+	 * This builds a report over the entries in a DayIndex that fall in a date range
+	 *
+	 * @param searchIndex - the entries to report on
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return a LedgerReport with the statistics for each account and month
+	 */
+	LedgerReport run(DayIndex searchIndex, JDateTime startDate, JDateTime endDate) {
+		if (searchIndex.size() == 0) {
+			return new LedgerReport();
+		}
+		int firstDay = (startDate == null) ? searchIndex.dayAt(0) : EpochDay.fromDate(startDate);
+		int lastDay = (endDate == null) ? searchIndex.dayAt(searchIndex.size() - 1) : EpochDay.fromDate(endDate);
+		if (firstDay > lastDay) {
+			return new LedgerReport();
+		}
+		return reportPool.invoke(new MonthRangeTask(searchIndex, EpochDay.toMonthIndex(firstDay), EpochDay.toMonthIndex(lastDay),
+				firstDay, lastDay));
+	}
+
+	/**
+	 * This builds a report over the entries in a ColumnarEntryList that fall in a date range
+	 *
+	 * @param searchList - the entries to report on
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return a LedgerReport with the statistics for each account and month
+	 */
+	LedgerReport run(ColumnarEntryList searchList, JDateTime startDate, JDateTime endDate) {
+		if (searchList.size() == 0) {
+			return new LedgerReport();
+		}
+		int firstDay = (startDate == null) ? searchList.dayAt(0) : EpochDay.fromDate(startDate);
+		int lastDay = (endDate == null) ? searchList.dayAt(searchList.size() - 1) : EpochDay.fromDate(endDate);
+		if (firstDay > lastDay) {
+			return new LedgerReport();
+		}
+		return reportPool.invoke(new ColumnarRangeTask(searchList, EpochDay.toMonthIndex(firstDay), EpochDay.toMonthIndex(lastDay),
+				firstDay, lastDay));
+	}
+
+	/**
+	 * This gets the epoch day of the first day of a month
+	 *
+	 * @param monthIndex - the number of months since January of year 0
+	 * @return the epoch day of the first day of the month
+	 */
+	private static int getFirstDayOfMonth(int monthIndex) {
+		return EpochDay.fromDate(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1, 1);
+	}
+
+	/**
+	 * This class is a task that builds a report over a group of months, splitting the group between two tasks if it is big enough
+	 */
+	private static class MonthRangeTask extends RecursiveTask<LedgerReport> {
+		private static final long serialVersionUID = 1L;
+
+		// the entries to report on
+		private DayIndex searchIndex;
+		// first and last month this task covers
+		private int startMonth;
+		private int endMonth;
+		// first and last day of the report (the first and last months may only be partly included)
+		private int firstDay;
+		private int lastDay;
+
+		/**
+		 * This is a constructor for a task covering a group of months
+		 *
+		 * @param newSearchIndex - the entries to report on
+		 * @param newStartMonth - the first month to cover
+		 * @param newEndMonth - the last month to cover
+		 * @param newFirstDay - the first day of the report
+		 * @param newLastDay - the last day of the report
+		 */
+		MonthRangeTask(DayIndex newSearchIndex, int newStartMonth, int newEndMonth, int newFirstDay, int newLastDay) {
+			searchIndex = newSearchIndex;
+			startMonth = newStartMonth;
+			endMonth = newEndMonth;
+			firstDay = newFirstDay;
+			lastDay = newLastDay;
+		}
+
+		/**
+		 * This builds the report for the months this task covers
+		 *
+		 * @return a LedgerReport for the months
+		 */
+		protected LedgerReport compute() {
+			int startSlot = searchIndex.ceilingSlot(Math.max(firstDay, getFirstDayOfMonth(startMonth)));
+			int endSlot = searchIndex.ceilingSlot(Math.min(lastDay + 1, getFirstDayOfMonth(endMonth + 1)));
+			if (startMonth < endMonth && endSlot - startSlot >= MIN_SPLIT_DAYS) {
+				int midMonth = (startMonth + endMonth) >>> 1;
+				MonthRangeTask firstHalf = new MonthRangeTask(searchIndex, startMonth, midMonth, firstDay, lastDay);
+				MonthRangeTask secondHalf = new MonthRangeTask(searchIndex, midMonth + 1, endMonth, firstDay, lastDay);
+				firstHalf.fork();
+				LedgerReport returnReport = secondHalf.compute();
+				returnReport.merge(firstHalf.join());
+				return returnReport;
+			}
+			LedgerReport returnReport = new LedgerReport();
+			int currentMonth = Integer.MIN_VALUE;
+			int nextMonthDay = Integer.MIN_VALUE;
+			EntryStats monthStats = null;
+			for (int i = startSlot; i < endSlot; i++) {
+				// skip the days whose entries have all been removed, so they don't add empty months to the report
+				if (searchIndex.liveSizeAt(i) == 0) {
+					continue;
+				}
+				int entryDay = searchIndex.dayAt(i);
+				if (entryDay >= nextMonthDay) {
+					currentMonth = EpochDay.toMonthIndex(entryDay);
+					nextMonthDay = getFirstDayOfMonth(currentMonth + 1);
+					monthStats = returnReport.getOrCreateMonthStats(currentMonth);
+				}
+				ArrayList<SingleEntry> dayList = searchIndex.listAt(i);
+				for (int j = 0; j < dayList.size(); j++) {
+					SingleEntry tmpEntry = dayList.get(j);
+					// skip the entries that have been removed
+					if (tmpEntry != null) {
+						monthStats.add(tmpEntry.getMonthlyMoney());
+						returnReport.addToAccountAndTotal(tmpEntry);
+					}
+				}
+			}
+			return returnReport;
+		}
+	}
+
+	/**
+	 * This class is a task that builds a report over a group of months of a ColumnarEntryList, splitting the group between
+	 * two tasks if it has enough entries. The statistics are added up from the columns, keeping a group for each account id
+	 * in an array, so no SingleEntry objects are created.
+	 */
+	private static class ColumnarRangeTask extends RecursiveTask<LedgerReport> {
+		private static final long serialVersionUID = 1L;
+
+		// the entries to report on
+		private ColumnarEntryList searchList;
+		// first and last month this task covers
+		private int startMonth;
+		private int endMonth;
+		// first and last day of the report (the first and last months may only be partly included)
+		private int firstDay;
+		private int lastDay;
+
+		/**
+		 * This is a constructor for a task covering a group of months
+		 *
+		 * @param newSearchList - the entries to report on
+		 * @param newStartMonth - the first month to cover
+		 * @param newEndMonth - the last month to cover
+		 * @param newFirstDay - the first day of the report
+		 * @param newLastDay - the last day of the report
+		 */
+		ColumnarRangeTask(ColumnarEntryList newSearchList, int newStartMonth, int newEndMonth, int newFirstDay, int newLastDay) {
+			searchList = newSearchList;
+			startMonth = newStartMonth;
+			endMonth = newEndMonth;
+			firstDay = newFirstDay;
+			lastDay = newLastDay;
+		}
+
+		/**
+		 * This builds the report for the months this task covers
+		 *
+		 * @return a LedgerReport for the months
+		 */
+		protected LedgerReport compute() {
+			int startSlot = searchList.ceilingSlot(Math.max(firstDay, getFirstDayOfMonth(startMonth)));
+			int endSlot = searchList.ceilingSlot(Math.min(lastDay + 1, getFirstDayOfMonth(endMonth + 1)));
+			// this compares a number of entries with MIN_SPLIT_DAYS, which is never less than the number of days they are on
+			if (startMonth < endMonth && endSlot - startSlot >= MIN_SPLIT_DAYS) {
+				int midMonth = (startMonth + endMonth) >>> 1;
+				ColumnarRangeTask firstHalf = new ColumnarRangeTask(searchList, startMonth, midMonth, firstDay, lastDay);
+				ColumnarRangeTask secondHalf = new ColumnarRangeTask(searchList, midMonth + 1, endMonth, firstDay, lastDay);
+				firstHalf.fork();
+				LedgerReport returnReport = secondHalf.compute();
+				returnReport.merge(firstHalf.join());
+				return returnReport;
+			}
+			LedgerReport returnReport = new LedgerReport();
+			EntryStats[] accountStatsList = new EntryStats[searchList.getAccountCount()];
+			EntryStats totalStats = new EntryStats();
+			int nextMonthDay = Integer.MIN_VALUE;
+			EntryStats monthStats = null;
+			for (int i = startSlot; i < endSlot; i++) {
+				int entryDay = searchList.dayAt(i);
+				if (entryDay >= nextMonthDay) {
+					int currentMonth = EpochDay.toMonthIndex(entryDay);
+					nextMonthDay = getFirstDayOfMonth(currentMonth + 1);
+					monthStats = returnReport.getOrCreateMonthStats(currentMonth);
+				}
+				long cents = searchList.centsAt(i);
+				int accountId = searchList.accountIdAt(i);
+				if (accountStatsList[accountId] == null) {
+					accountStatsList[accountId] = new EntryStats();
+				}
+				monthStats.add(cents);
+				accountStatsList[accountId].add(cents);
+				totalStats.add(cents);
+			}
+			for (int i = 0; i < accountStatsList.length; i++) {
+				if (accountStatsList[i] != null) {
+					returnReport.getOrCreateAccountStats(searchList.getAccount(i)).merge(accountStatsList[i]);
+				}
+			}
+			returnReport.getTotalStats().merge(totalStats);
+			return returnReport;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package budget_program;
+
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class is a snapshot of the number of entries in an EntryList:
+ * the total number of each kind of entry, the number of single entries in each month and in each account,
+ * and the dates of the first and last single entries.
+ * The snapshot doesn't change when entries are added to or removed from the list afterwards.
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerStats {
+	// number of entries of each kind
+	private int singleEntryCount;
+	private int repeatingEntryCount;
+	private int installmentEntryCount;
+	// dates of the first and last single entries (null if there are no single entries)
+	private JDateTime firstEntryDate;
+	private JDateTime lastEntryDate;
+	// number of single entries in each month (keyed by the first day of the month)
+	private TreeMap<JDateTime, Integer> monthCountList;
+	// number of single entries in each account
+	private HashMap<Account, Integer> accountCountList;
+
+	/**
+	 * This is a constructor for a snapshot (only the EntryList should call this)
+	 *
+	 * @param newSingleEntryCount - the number of single entries
+	 * @param newRepeatingEntryCount - the number of repeating entries
+	 * @param newInstallmentEntryCount - the number of installment entries
+	 * @param newFirstEntryDate - the date of the first single entry
+	 * @param newLastEntryDate - the date of the last single entry
+	 * @param newMonthCountList - the number of single entries in each month
+	 * @param newAccountCountList - the number of single entries in each account
+	 */
+	LedgerStats(int newSingleEntryCount, int newRepeatingEntryCount, int newInstallmentEntryCount, JDateTime newFirstEntryDate,
+			JDateTime newLastEntryDate, TreeMap<JDateTime, Integer> newMonthCountList, HashMap<Account, Integer> newAccountCountList) {
+		singleEntryCount = newSingleEntryCount;
+		repeatingEntryCount = newRepeatingEntryCount;
+		installmentEntryCount = newInstallmentEntryCount;
+		firstEntryDate = newFirstEntryDate;
+		lastEntryDate = newLastEntryDate;
+		monthCountList = newMonthCountList;
+		accountCountList = newAccountCountList;
+	}
+
+	/**
+	 * This returns the number of single entries
+	 *
+	 * @return the number of single entries
+	 */
+	public int getSingleEntryCount() {
+		return singleEntryCount;
+	}
+
+	/**
+	 * This returns the number of repeating entries
+	 *
+	 * @return the number of repeating entries
+	 */
+	public int getRepeatingEntryCount() {
+		return repeatingEntryCount;
+	}
+
+	/**
+	 * This returns the number of installment entries
+	 *
+	 * @return the number of installment entries
+	 */
+	public int getInstallmentEntryCount() {
+		return installmentEntryCount;
+	}
+
+	/**
+	 * This returns the date of the earliest single entry
+	 *
+	 * @return the date of the first single entry or null if there are no single entries
+	 */
+	public JDateTime getFirstEntryDate() {
+		return firstEntryDate;
+	}
+
+	/**
+	 * This returns the date of the latest single entry
+	 *
+	 * @return the date of the last single entry or null if there are no single entries
+	 */
+	public JDateTime getLastEntryDate() {
+		return lastEntryDate;
+	}
+
+	/**
+	 * This returns the number of single entries in a month
+	 *
+	 * @param month - the month to count
+	 * @param year - the year to count
+	 * @return the number of single entries in that month
+	 */
+	public int getSingleEntryCount(int month, int year) {
+		Integer monthCount = monthCountList.get(new JDateTime(year, month, 1));
+		return (monthCount == null) ? 0 : monthCount;
+	}
+
+	/**
+	 * This returns the number of single entries in an account
+	 *
+	 * @param searchAccount - the account to count
+	 * @return the number of single entries in that account
+	 */
+	public int getSingleEntryCount(Account searchAccount) {
+		Integer accountCount = accountCountList.get(searchAccount);
+		return (accountCount == null) ? 0 : accountCount;
+	}
+
+	/**
+	 * This returns the number of single entries in each month that has entries
+	 *
+	 * @return a TreeMap of the number of entries keyed by the first day of each month
+	 */
+	public TreeMap<JDateTime, Integer> getMonthCountList() {
+		return new TreeMap<JDateTime, Integer>(monthCountList);
+	}
+
+	/**
+	 * This returns the number of single entries in each account that has entries
+	 *
+	 * @return a HashMap of the number of entries for each account
+	 */
+	public HashMap<Account, Integer> getAccountCountList() {
+		return new HashMap<Account, Integer>(accountCountList);
+	}
+}
@@ -0,0 +1,112 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This interface is implemented by the classes that store a general ledger between runs of the program
+ * (JdbcLedgerStore for an SQL database, InMemoryLedgerStore for tests and benchmarks, and FileLedgerStore
+ * for a single file that doesn't need a database server).
+ *
+ * A store loads its data into a GeneralLedger, saves the list of changes made to the ledger since it was loaded,
+ * and can append new single entries straight to storage. Single entries can also be loaded a range of months
+ * at a time, so a ledger can be loaded lazily.
+ *
+ * @author Asa Swain
+ */
+
+public interface LedgerStore {
+
+	/**
+	 * This opens the store (connecting to the database or reading the file, and creating or upgrading tables if needed)
+	 *
+	 * @exception LedgerStoreException if the store can't be opened
+	 */
+	void open() throws LedgerStoreException;
+
+	/**
+	 * This loads the accounts, budgets and entries into a ledger
+	 *
+	 * @param targetLedger - the ledger to load the data into
+	 * @param isLoadingSingleEntries - false to skip the single entries (so they can be loaded by month later)
+	 * @exception LedgerStoreException if the data can't be loaded
+	 */
+	void loadLedger(GeneralLedger targetLedger, boolean isLoadingSingleEntries) throws LedgerStoreException;
+
+	/**
+	 * This loads the single entries in a range of months into a ledger, in date order
+	 *
+	 * @param targetLedger - the ledger to load the entries into
+	 * @param startMonth - the first day of the first month to load (if null load every month)
+	 * @param endMonth - the first day of the month after the last month to load
+	 * @param skipMonthList - month indexes of the months already in memory, which aren't loaded again
+	 * @exception LedgerStoreException if the entries can't be loaded
+	 */
+	void loadSingleEntries(GeneralLedger targetLedger, JDateTime startMonth, JDateTime endMonth, Set<Integer> skipMonthList) throws LedgerStoreException;
+
+	/**
+	 * This gets the highest id of a stored single entry
+	 *
+	 * @return the highest id (or 0 if there are no single entries)
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	long getMaxSingleEntryId() throws LedgerStoreException;
+
+	/**
+	 * This looks up the date of a stored single entry
+	 *
+	 * @param entryId - the id of the entry
+	 * @return the date of the entry or null if there isn't an entry with that id
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	JDateTime getSingleEntryDate(long entryId) throws LedgerStoreException;
+
+	/**
+	 * This adds up the stored single entries for each month and account without loading them into a ledger
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param totalList - the totals to add to, by the first day of each month and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	void addMonthlyAccountTotals(GeneralLedger targetLedger, JDateTime startDate, JDateTime endDate, Set<Integer> skipMonthList,
+			TreeMap<JDateTime, HashMap<Account, BigDecimal>> totalList) throws LedgerStoreException;
+
+	/**
+	 * This counts the stored single entries for each day and account without loading them into a ledger
+	 *
+	 * @param targetLedger - the ledger to look up accounts in
+	 * @param skipMonthList - month indexes of the months to leave out (such as months already in memory)
+	 * @param countList - the counts to add to, by epoch day and then by account
+	 * @exception LedgerStoreException if the store can't be read
+	 */
+	void addDailyAccountCounts(GeneralLedger targetLedger, Set<Integer> skipMonthList, TreeMap<Integer, HashMap<Account, Integer>> countList)
+			throws LedgerStoreException;
+
+	/**
+	 * This saves a list of changes. Either all of the changes are saved or none of them are.
+	 *
+	 * @param changeList - the changes to save, in the order they were made
+	 * @exception LedgerStoreException if the changes couldn't be saved
+	 */
+	void saveChanges(List<LedgerChange> changeList) throws LedgerStoreException;
+
+	/**
+	 * This adds new single entries to the store (the entries must already have ids). LedgerImporter calls this once for
+	 * every batch of a file, so it should take time in proportion to the number of entries added and not the number
+	 * already stored (the SQL store inserts the rows, and the file store adds them to its change log).
+	 *
+	 * @param entryList - the entries to add
+	 * @exception LedgerStoreException if the entries couldn't be added
+	 */
+	void appendSingleEntries(List<SingleEntry> entryList) throws LedgerStoreException;
+
+	/**
+	 * This closes the store
+	 */
+	void close();
+}
@@ -0,0 +1,31 @@
+package budget_program;
+
+/**
+ * This exception is thrown when a LedgerStore can't load or save data
+ * (the cause is the SQLException or IOException from the database or file).
+ *
+ * @author Asa Swain
+ */
+
+public class LedgerStoreException extends Exception {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * This is a constructor with a message
+	 *
+	 * @param message - a description of what couldn't be done
+	 */
+	public LedgerStoreException(String message) {
+		super(message);
+	}
+
+	/**
+	 * This is a constructor with a message and the exception that caused it
+	 *
+	 * @param message - a description of what couldn't be done
+	 * @param cause - the exception from the database or file
+	 */
+	public LedgerStoreException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
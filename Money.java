@@ -0,0 +1,214 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * This class stores an amount of money as a whole number of cents in a long.
+ * Money objects are immutable, and adding, subtracting and negating them throws an ArithmeticException
+ * instead of silently overflowing. Division always takes an explicit RoundingMode.
+ *
+ * A Money object remembers the BigDecimal it was created from (or the first BigDecimal it was converted to),
+ * so code that still needs a BigDecimal doesn't allocate a new one every time it asks. The BigDecimal always
+ * has two decimal places, however many the amount it was created from had.
+ *
+ * @author Asa Swain
+ */
+
+public final class Money implements Comparable<Money> {
+	// number of decimal places in an amount
+	private static final int CENT_SCALE = 2;
+
+	public static final Money ZERO = new Money(0, BigDecimal.ZERO.setScale(CENT_SCALE));
+
+	// amount in cents
+	private final long cents;
+	// BigDecimal version of the amount (created the first time it is needed)
+	private BigDecimal decimalAmount;
+
+	/**
+	 * This is a constructor for an amount in cents
+	 *
+	 * @param newCents - the amount in cents
+	 * @param newDecimalAmount - the same amount as a BigDecimal (or null to create it later)
+	 */
+	private Money(long newCents, BigDecimal newDecimalAmount) {
+		cents = newCents;
+		decimalAmount = newDecimalAmount;
+	}
+
+	/**
+	 * This creates a Money object from a number of cents
+	 *
+	 * @param newCents - the amount in cents
+	 * @return a Money object for that amount
+	 */
+	public static Money ofCents(long newCents) {
+		if (newCents == 0) {
+			return ZERO;
+		}
+		return new Money(newCents, null);
+	}
+
+	/**
+	 * This creates a Money object from a BigDecimal, rounding fractions of a cent up to the next cent
+	 * (the same ROUND_CEILING the entry and budget amounts have always been rounded with)
+	 *
+	 * @param amount - the amount to convert
+	 * @return a Money object for that amount
+	 * @exception ArithmeticException - if the amount is too large to store as a long number of cents
+	 */
+	public static Money valueOf(BigDecimal amount) {
+		return valueOf(amount, RoundingMode.CEILING);
+	}
+
+	/**
+	 * This creates a Money object from a BigDecimal, rounding to a whole cent
+	 *
+	 * @param amount - the amount to convert
+	 * @param roundingMode - how to round amounts that have fractions of a cent
+	 * @return a Money object for that amount
+	 * @exception ArithmeticException - if the amount is too large to store as a long number of cents
+	 */
+	public static Money valueOf(BigDecimal amount, RoundingMode roundingMode) {
+		BigDecimal roundedAmount = amount.setScale(CENT_SCALE, roundingMode);
+		long newCents = roundedAmount.unscaledValue().longValueExact();
+		// keep the original BigDecimal if it already has two decimal places, so getting it back doesn't allocate
+		if (amount.scale() == CENT_SCALE) {
+			return new Money(newCents, amount);
+		} else {
+			return new Money(newCents, roundedAmount);
+		}
+	}
+
+	/**
+	 * This returns the amount in cents
+	 *
+	 * @return the amount in cents
+	 */
+	public long getCents() {
+		return cents;
+	}
+
+	/**
+	 * This returns the amount as a BigDecimal
+	 *
+	 * @return the amount as a BigDecimal
+	 */
+	public BigDecimal toBigDecimal() {
+		if (decimalAmount == null) {
+			decimalAmount = BigDecimal.valueOf(cents, CENT_SCALE);
+		}
+		return decimalAmount;
+	}
+
+	/**
+	 * This adds another amount to this amount
+	 *
+	 * @param other - the amount to add
+	 * @return the total
+	 * @exception ArithmeticException - if the total is too large to store
+	 */
+	public Money add(Money other) {
+		if (other.cents == 0) {
+			return this;
+		}
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	/**
+	 * This subtracts another amount from this amount
+	 *
+	 * @param other - the amount to subtract
+	 * @return the difference
+	 * @exception ArithmeticException - if the difference is too large to store
+	 */
+	public Money subtract(Money other) {
+		if (other.cents == 0) {
+			return this;
+		}
+		return ofCents(Math.subtractExact(cents, other.cents));
+	}
+
+	/**
+	 * This returns the amount with the opposite sign
+	 *
+	 * @return the negated amount
+	 * @exception ArithmeticException - if the amount is the smallest possible amount (which has no positive equivalent)
+	 */
+	public Money negate() {
+		return ofCents(Math.negateExact(cents));
+	}
+
+	/**
+	 * This divides the amount into equal parts, rounding to a whole cent
+	 *
+	 * @param divisor - the number of parts to divide the amount into
+	 * @param roundingMode - how to round a result that has a fraction of a cent
+	 * @return the amount of each part
+	 * @exception ArithmeticException - if divisor is zero, or if the result needs rounding and roundingMode is UNNECESSARY
+	 */
+	public Money divide(long divisor, RoundingMode roundingMode) {
+		if (divisor == 0) {
+			throw new ArithmeticException("Can't divide an amount by zero");
+		}
+		if (cents % divisor == 0) {
+			return ofCents(cents / divisor);
+		}
+		BigDecimal quotient = BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(divisor), 0, roundingMode);
+		return ofCents(quotient.longValueExact());
+	}
+
+	/**
+	 * This returns the sign of the amount
+	 *
+	 * @return -1 if the amount is negative, 0 if it is zero, or 1 if it is positive
+	 */
+	public int signum() {
+		return Long.signum(cents);
+	}
+
+	/**
+	 * This adds up the monthly amounts of a list of entries
+	 *
+	 * @param entryList - the entries to add up
+	 * @return the total of the monthly amounts
+	 * @exception ArithmeticException - if the total is too large to store
+	 */
+	public static Money sumMonthlyAmounts(List<? extends Entry> entryList) {
+		long totalCents = 0;
+		for (int i = 0; i < entryList.size(); i++) {
+			totalCents = Math.addExact(totalCents, entryList.get(i).getMonthlyMoney().cents);
+		}
+		return ofCents(totalCents);
+	}
+
+	/**
+	 * This compares two Money objects by their amounts
+	 */
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	/**
+	 * Two Money objects are equal if they have the same number of cents
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return (other instanceof Money) && ((Money) other).cents == cents;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(cents);
+	}
+
+	/**
+	 * This returns the amount as text with two decimal places (such as "-12.50")
+	 */
+	@Override
+	public String toString() {
+		return BigDecimal.valueOf(cents, CENT_SCALE).toPlainString();
+	}
+}
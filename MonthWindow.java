@@ -0,0 +1,121 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class keeps track of which months of single entries are loaded into memory when the general ledger
+ * is loaded from the database lazily. Months are kept in least recently used order, and when more than
+ * maxResidentMonths months are loaded the least recently used ones can be removed from memory.
+ *
+ * A month with unsaved changes is pinned, so it can't be removed until the changes have been saved.
+ * Queries over the whole history don't load every month at once: they are answered by the ledger store
+ * or load a group of months at a time, so the window keeps its limit however long the history is.
+ *
+ * @author Asa Swain
+ */
+
+class MonthWindow {
+	// maximum number of months to keep in memory (pinned months can go over this)
+	private int maxResidentMonths;
+	// month indexes of the loaded months, in least recently used order
+	private LinkedHashMap<Integer, Boolean> residentMonthList;
+	// month indexes of the months with unsaved changes
+	private HashSet<Integer> pinnedMonthList;
+
+	/**
+	 * This is a constructor for an empty window
+	 *
+	 * @param newMaxResidentMonths - the maximum number of months to keep in memory
+	 */
+	MonthWindow(int newMaxResidentMonths) {
+		maxResidentMonths = newMaxResidentMonths;
+		// access order, so iterating starts with the least recently used month
+		residentMonthList = new LinkedHashMap<Integer, Boolean>(16, 0.75f, true);
+		pinnedMonthList = new HashSet<Integer>();
+	}
+
+	/**
+	 * This checks if a month is loaded
+	 *
+	 * @param monthIndex - the month to check
+	 * @return true if the month is in memory, else false
+	 */
+	boolean isResident(int monthIndex) {
+		return residentMonthList.containsKey(monthIndex);
+	}
+
+	/**
+	 * This returns the maximum number of months to keep in memory
+	 *
+	 * @return the maximum number of months (pinned months can go over this)
+	 */
+	int getMaxResidentMonths() {
+		return maxResidentMonths;
+	}
+
+	/**
+	 * This marks a loaded month as the most recently used month
+	 *
+	 * @param monthIndex - the month that was used
+	 */
+	void touch(int monthIndex) {
+		residentMonthList.get(monthIndex);
+	}
+
+	/**
+	 * This records that a month has been loaded
+	 *
+	 * @param monthIndex - the month that was loaded
+	 */
+	void addMonth(int monthIndex) {
+		residentMonthList.put(monthIndex, Boolean.TRUE);
+	}
+
+	/**
+	 * This removes the least recently used months from the window until there is room for the months about to be loaded
+	 * without going over maxResidentMonths months (pinned months and the months in keepList aren't removed)
+	 *
+	 * @param keepList - months that are about to be used and shouldn't be removed
+	 * @param newMonthCnt - the number of months about to be loaded
+	 * @return a list of the months that were removed (the caller removes their entries from memory)
+	 */
+	ArrayList<Integer> removeLeastRecentMonths(Set<Integer> keepList, int newMonthCnt) {
+		ArrayList<Integer> removedList = new ArrayList<Integer>();
+		int removeCnt = residentMonthList.size() + newMonthCnt - maxResidentMonths;
+		Iterator<Integer> monthIterator = residentMonthList.keySet().iterator();
+		while (removeCnt > 0 && monthIterator.hasNext()) {
+			Integer monthIndex = monthIterator.next();
+			if (!pinnedMonthList.contains(monthIndex) && !keepList.contains(monthIndex)) {
+				monthIterator.remove();
+				removedList.add(monthIndex);
+				removeCnt--;
+			}
+		}
+		return removedList;
+	}
+
+	/**
+	 * This pins a month so it isn't removed from memory
+	 *
+	 * @param monthIndex - the month with unsaved changes
+	 */
+	void pin(int monthIndex) {
+		pinnedMonthList.add(monthIndex);
+	}
+
+	/**
+	 * This unpins all the months (call after the changes have been saved)
+	 */
+	void unpinAll() {
+		pinnedMonthList.clear();
+	}
+
+	/**
+	 * This returns the months that are loaded
+	 *
+	 * @return a HashSet of the month indexes of the loaded months
+	 */
+	HashSet<Integer> getResidentMonths() {
+		return new HashSet<Integer>(residentMonthList.keySet());
+	}
+}
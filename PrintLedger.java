@@ -22,26 +22,32 @@ public class PrintLedger {
 		ArrayList<SingleEntry> entryList = ledgerData.getSingleEntryListForDate(printDate);
 		if (entryList != null) {
 			for (SingleEntry printEntry : entryList){
-				System.out.println("Date: " + printEntry.getDate().toString("MM/DD/YYYY") + " Desc: " + printEntry.getDesc() + " Type: " + printEntry.getAccount().getAccountName() + " Amount: " + printEntry.getMonthlyAmount());
+				printSingleEntry(printEntry);
 			}
 		}
 	}
 
+	/**
+	 * This prints a single entry
+	 * 
+	 * @param printEntry - the SingleEntry object to print
+	 */
+	private static void printSingleEntry(SingleEntry printEntry) {
+		System.out.println("Date: " + printEntry.getDate().toString("MM/DD/YYYY") + " Desc: " + printEntry.getDesc() + " Type: " + printEntry.getAccount().getAccountName() + " Amount: " + printEntry.getMonthlyAmount());
+	}
+
 	/**
 	 * This prints all the single entries in a given date range
 	 *
 	 * @param ledgerData - the GeneralLedger object to print entries from
-	 * @param startDate - start date to print entries for
-	 * @param endDate - last date to print entries for
+	 * @param startDate - start date to print entries for (if null start with the earliest entry)
+	 * @param endDate - last date to print entries for (if null end with the latest entry)
 	 */
 	public static void printSingleEntries(GeneralLedger ledgerData, JDateTime startDate, JDateTime endDate) {
-		JDateTime tmpCurrentDate = startDate;
-		JDateTime tmpEndDate = endDate;
-		tmpEndDate.add(0,0,1);
-		do {
-			printSingleEntriesForDate(ledgerData, tmpCurrentDate);
-			tmpCurrentDate.add(0,0,1);
-		} while (tmpCurrentDate.isBefore(tmpEndDate) == true);
+		// only the dates that have entries are returned, so empty days cost nothing
+		for (SingleEntry printEntry : ledgerData.getSingleEntries(startDate, endDate)) {
+			printSingleEntry(printEntry);
+		}
 	}
 
 	/**
@@ -50,12 +56,7 @@ public class PrintLedger {
 	 * @param ledgerData - the GeneralLedger object to print entries from
 	 */
 	public static void printSingleEntries(GeneralLedger ledgerData) {
-		ArrayList<JDateTime> dateList = ledgerData.getSingleEntryDates();
-		if (dateList != null) {
-			for (JDateTime tmpDate : dateList){
-				printSingleEntriesForDate(ledgerData, tmpDate);
-			}
-		}
+		printSingleEntries(ledgerData, null, null);
 	}
 	
 	/**
@@ -119,6 +120,8 @@ public class PrintLedger {
 		try {
 			System.out.println("");
 			printMonthlyBudget(ledgerData, printMonth, printYear);
+			System.out.println("");
+			printBudgetVariance(ledgerData, printMonth, printYear);
 		} catch (IllegalArgumentException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -150,6 +153,23 @@ public class PrintLedger {
 		}
 	}
 
+	/**
+	 * This prints the amount budgeted and the actual amount for each account for a given month
+	 * 
+	 * @param ledgerData - the GeneralLedger object to print the report from
+	 * @param printMonth - month to print the report for
+	 * @param printYear - year to print the report for
+	 */
+	public static void printBudgetVariance(GeneralLedger ledgerData, int printMonth, int printYear) {
+		System.out.println("Budget vs Actual for: " + printMonth + "/" + printYear);
+		// print the budget, the actual amounts and the variance for each account
+		for (BudgetVariance tmpLine : ledgerData.getBudgetVariance(printMonth, printYear)) {
+			System.out.println("Account: " + tmpLine.getAccount().getAccountName() + " Budgeted Amount: " + tmpLine.getBudgetAmount()
+					+ " Actual Amount: " + tmpLine.getActualAmount() + " (Single: " + tmpLine.getSingleAmount() + " Repeating: "
+					+ tmpLine.getRepeatingAmount() + " Installment: " + tmpLine.getInstallmentAmount() + ") Variance: " + tmpLine.getVariance());
+		}
+	}
+
 	/**
 	 * This prints the amounts budgeted for each account in the default budget
 	 * 
@@ -11,9 +11,7 @@ import jodd.datetime.JDateTime;
  */
 public class RepeatingEntry extends MultipleEntry implements Comparable<RepeatingEntry>{
 	// dollar amount of the income/expense
-	private BigDecimal monthlyAmount;
-
-	private final BigDecimal NEGATIVE = new BigDecimal("-1");
+	private Money monthlyAmount;
 	
 	// used to store type of MultipleEntry this is
 	private static final String TYPE = new String("Repeating");
@@ -26,8 +24,7 @@ public class RepeatingEntry extends MultipleEntry implements Comparable<Repeatin
 		endDate = new JDateTime(); // current date and time
 		entryAccount = new Account();
 		desc = "";
-		monthlyAmount = new BigDecimal("0");
-		monthlyAmount = monthlyAmount.setScale(2, BigDecimal.ROUND_CEILING);
+		monthlyAmount = Money.ZERO;
 	}
 
 	/**
@@ -48,10 +45,10 @@ public class RepeatingEntry extends MultipleEntry implements Comparable<Repeatin
 		this.endDate = new JDateTime(endYear,endMonth,endDay);
 		this.entryAccount = newAccount;
 		this.desc = newDesc;
-		this.monthlyAmount = newAmount;
+		this.monthlyAmount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (entryAccount.getIsAnExpense() == true) { 			
-			this.monthlyAmount = this.monthlyAmount.multiply(NEGATIVE);
+			this.monthlyAmount = this.monthlyAmount.negate();
 		}		
 	}
 	
@@ -69,10 +66,10 @@ public class RepeatingEntry extends MultipleEntry implements Comparable<Repeatin
 		this.endDate = endDate;
 		this.entryAccount = newAccount;
 		this.desc = newDesc;
-		this.monthlyAmount = newAmount;
+		this.monthlyAmount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (entryAccount.getIsAnExpense() == true) {
-			this.monthlyAmount = this.monthlyAmount.multiply(NEGATIVE);
+			this.monthlyAmount = this.monthlyAmount.negate();
 		}
 	}
 	
@@ -82,16 +79,25 @@ public class RepeatingEntry extends MultipleEntry implements Comparable<Repeatin
 	 * @return the amount of the entry as a BigDecimal
 	 */
 	public BigDecimal getMonthlyAmount() {
+		return monthlyAmount.toBigDecimal();
+	}
+	
+	/**
+	 * This gets the amount of the entry (either expense or income depending on the Account)
+	 * 
+	 * @return the amount of the entry as a Money object
+	 */
+	public Money getMonthlyMoney() {
 		return monthlyAmount;
 	}
 	
 	/**
 	 * This sets the amount of the entry (either expense or income depending on the Account)
 	 * 
-	 * @param the amount of the entry as a BigDecimal
+	 * @param the amount of the entry as a BigDecimal (rounded to the nearest cent)
 	 */
 	public void setTotalAmount(BigDecimal newAmount) {
-		monthlyAmount = newAmount;
+		monthlyAmount = Money.valueOf(newAmount);
 	}
 	
 	/**
@@ -0,0 +1,143 @@
+package budget_program;
+
+/**
+ * This class keeps a running balance of amounts (in cents) by epoch day using a Fenwick tree (binary indexed tree),
+ * so adding an amount on a day and getting the balance as of a day both take O(log n) time
+ * where n is the number of days the tree covers.
+ *
+ * The tree covers a range of days starting at firstDay. When an amount is added outside that range
+ * the tree is rebuilt with twice the room, so a ledger covering many years only rebuilds a few times.
+ *
+ * @author Asa Swain
+ */
+
+class RunningBalance {
+	// number of days to make room for when the first amount is added
+	private static final int INITIAL_CAPACITY = 256;
+
+	// epoch day stored at position 0
+	private int firstDay;
+	// number of days the tree covers
+	private int capacity;
+	// total amount in cents for each day (position = day - firstDay)
+	private long[] dayTotals;
+	// Fenwick tree of partial sums (1-based, so tree[i] covers dayTotals[i - lowbit(i) .. i - 1])
+	private long[] tree;
+
+	/**
+	 * This is a blank constructor
+	 */
+	RunningBalance() {
+		capacity = 0;
+		firstDay = 0;
+		dayTotals = new long[0];
+		tree = new long[1];
+	}
+
+	/**
+	 * This adds an amount to the total for a day
+	 *
+	 * @param epochDay - the day to add the amount to
+	 * @param amount - the amount to add (use a negative amount to take an amount back out)
+	 */
+	void add(int epochDay, Money amount) {
+		if (capacity == 0) {
+			resize(epochDay - INITIAL_CAPACITY / 4, INITIAL_CAPACITY);
+		}
+		if (epochDay < firstDay || epochDay >= firstDay + capacity) {
+			growToInclude(epochDay);
+		}
+		long cents = amount.getCents();
+		int position = epochDay - firstDay;
+		dayTotals[position] = Math.addExact(dayTotals[position], cents);
+		for (int i = position + 1; i <= capacity; i += (i & -i)) {
+			tree[i] = Math.addExact(tree[i], cents);
+		}
+	}
+
+	/**
+	 * This returns the total of all the amounts on or before a day
+	 *
+	 * @param epochDay - the last day to include in the balance
+	 * @return the balance as of the end of that day
+	 */
+	Money getBalanceAsOf(int epochDay) {
+		return Money.ofCents(getCentsAsOf(epochDay));
+	}
+
+	/**
+	 * This returns the total in cents of all the amounts on or before a day
+	 *
+	 * @param epochDay - the last day to include in the balance
+	 * @return the balance in cents as of the end of that day
+	 */
+	private long getCentsAsOf(int epochDay) {
+		if (capacity == 0 || epochDay < firstDay) {
+			return 0;
+		}
+		int count = Math.min(epochDay - firstDay + 1, capacity);
+		long balance = 0;
+		for (int i = count; i > 0; i -= (i & -i)) {
+			balance = balance + tree[i];
+		}
+		return balance;
+	}
+
+	/**
+	 * This returns the total of all the amounts between two days
+	 *
+	 * @param startDay - the first day to include
+	 * @param endDay - the last day to include
+	 * @return the net change in the balance from the start of startDay to the end of endDay
+	 */
+	Money getNetChange(int startDay, int endDay) {
+		if (endDay < startDay) {
+			return Money.ZERO;
+		}
+		return Money.ofCents(getCentsAsOf(endDay) - getCentsAsOf(startDay - 1));
+	}
+
+	/**
+	 * This rebuilds the tree so it covers a day that is outside the current range
+	 *
+	 * @param epochDay - the day the tree has to cover
+	 */
+	private void growToInclude(int epochDay) {
+		int newFirstDay = firstDay;
+		int newCapacity = capacity;
+		while (epochDay < newFirstDay || epochDay >= newFirstDay + newCapacity) {
+			if (epochDay < newFirstDay) {
+				// add room before the current range
+				newFirstDay = newFirstDay - newCapacity;
+			}
+			newCapacity = newCapacity * 2;
+		}
+		resize(newFirstDay, newCapacity);
+	}
+
+	/**
+	 * This copies the day totals into a new range of days and rebuilds the Fenwick tree in O(n) time
+	 *
+	 * @param newFirstDay - the epoch day to store at position 0
+	 * @param newCapacity - the number of days to cover
+	 */
+	private void resize(int newFirstDay, int newCapacity) {
+		long[] newDayTotals = new long[newCapacity];
+		if (capacity > 0) {
+			System.arraycopy(dayTotals, 0, newDayTotals, firstDay - newFirstDay, capacity);
+		}
+		long[] newTree = new long[newCapacity + 1];
+		System.arraycopy(newDayTotals, 0, newTree, 1, newCapacity);
+		// push each partial sum up to its parent
+		for (int i = 1; i <= newCapacity; i++) {
+			int parent = i + (i & -i);
+			if (parent <= newCapacity) {
+				newTree[parent] = newTree[parent] + newTree[i];
+			}
+		}
+		firstDay = newFirstDay;
+		capacity = newCapacity;
+		dayTotals = newDayTotals;
+		tree = newTree;
+	}
+}
@@ -15,10 +15,8 @@ public class SingleEntry extends Entry implements Comparable<SingleEntry>{
 	// date of the income/expense
 	private JDateTime date;
 	// dollar amount of the income/expense
-	private BigDecimal amount;
+	private Money amount;
 
-	private final BigDecimal NEGATIVE = new BigDecimal("-1");
-	
 	/**
 	 * This is a blank constructor
 	 */
@@ -26,8 +24,7 @@ public class SingleEntry extends Entry implements Comparable<SingleEntry>{
 		this.date = new JDateTime(); // current date and time
 		this.entryAccount = new Account();
 		this.desc = "";
-		this.amount = new BigDecimal("0");
-		this.amount = this.amount.setScale(2, BigDecimal.ROUND_CEILING);
+		this.amount = Money.ZERO;
 	}
 
 	/**
@@ -42,10 +39,10 @@ public class SingleEntry extends Entry implements Comparable<SingleEntry>{
 		this.date = newDate;
 		this.entryAccount = newAccount;
 		this.desc = newDesc;
-		this.amount = newAmount;
+		this.amount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (newAccount.getIsAnExpense() == true) {
-			this.amount = this.amount.multiply(NEGATIVE);
+			this.amount = this.amount.negate();
 		}
 	}
 
@@ -63,13 +60,29 @@ public class SingleEntry extends Entry implements Comparable<SingleEntry>{
 		this.date = new JDateTime(newYear,newMonth,newDay);
 		this.entryAccount = newAccount;
 		this.desc = newDesc;
-		this.amount = newAmount;
+		this.amount = Money.valueOf(newAmount);
 		// if this is for an expense account, then store amount as a negative number
 		if (newAccount.getIsAnExpense() == true) { 
-			this.amount = this.amount.multiply(NEGATIVE);
+			this.amount = this.amount.negate();
 		}
 	}
 
+	/**
+	 * This creates a single entry from an amount that already has the right sign for its account
+	 * (used when rebuilding entries from stored data, where expenses are already negative)
+	 * 
+	 * @param newDate - a JDateTime object with the date of the entry
+	 * @param newAccount - an account object with the account the entry should be applied to
+	 * @param newDesc - the description of the entry
+	 * @param signedAmount - the amount of the entry (negative for expenses)
+	 * @return a new SingleEntry object
+	 */
+	static SingleEntry fromSignedAmount(JDateTime newDate, Account newAccount, String newDesc, Money signedAmount) {
+		SingleEntry newEntry = new SingleEntry(newDate, newAccount, newDesc, BigDecimal.ZERO);
+		newEntry.amount = signedAmount;
+		return newEntry;
+	}
+
 	/**
 	 * This gets the date for this entry
 	 * 
@@ -107,16 +120,25 @@ public class SingleEntry extends Entry implements Comparable<SingleEntry>{
 	 * @return the amount of the entry as a BigDecimal
 	 */
 	public BigDecimal getMonthlyAmount() {
+		return amount.toBigDecimal();
+	}
+
+	/**
+	 * This gets the amount of the entry (either expense or income depending on the Account)
+	 * 
+	 * @return the amount of the entry as a Money object
+	 */
+	public Money getMonthlyMoney() {
 		return amount;
 	}
 
 	/**
 	 * This sets the amount of the entry (either expense or income depending on the Account)
 	 * 
-	 * @param the amount of the entry as a BigDecimal
+	 * @param the amount of the entry as a BigDecimal (rounded to the nearest cent)
 	 */
 	public void setTotalAmount(BigDecimal newAmount) {
-		amount = newAmount;
+		amount = Money.valueOf(newAmount);
 	}
 
 	/**
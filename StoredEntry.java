@@ -0,0 +1,184 @@
+package budget_program;
+
+import java.math.BigDecimal;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class holds a copy of an entry the way it is stored by InMemoryLedgerStore and FileLedgerStore
+ * (one row of the general_ledger, repeat_entry or installment_entry table). The account is stored by name,
+ * so a stored entry doesn't hold on to any objects from a ledger.
+ *
+ * Amounts are stored in cents with their sign (negative for expenses). Installment entries are stored
+ * with their total amount and repeating entries with their monthly amount, like the SQL tables.
+ *
+ * @author Asa Swain
+ */
+
+class StoredEntry {
+	// day stored for a date that is empty
+	static final int NO_DAY = Integer.MIN_VALUE;
+
+	// entry id (the AUTONUM of the row)
+	private final long entryId;
+	// epoch day of the date of a single entry or the start date of a repeating or installment entry
+	private final int startDay;
+	// epoch day of the end date of a repeating or installment entry (NO_DAY for single entries)
+	private final int endDay;
+	private final String desc;
+	private final String accountName;
+	// amount in cents (negative for expenses)
+	private final long amountCents;
+
+	/**
+	 * This is a constructor for a stored entry
+	 *
+	 * @param newEntryId - the entry id
+	 * @param newStartDay - the epoch day of the date or start date
+	 * @param newEndDay - the epoch day of the end date (or NO_DAY)
+	 * @param newDesc - the description
+	 * @param newAccountName - the name of the account
+	 * @param newAmountCents - the amount in cents
+	 */
+	StoredEntry(long newEntryId, int newStartDay, int newEndDay, String newDesc, String newAccountName, long newAmountCents) {
+		entryId = newEntryId;
+		startDay = newStartDay;
+		endDay = newEndDay;
+		desc = newDesc;
+		accountName = newAccountName;
+		amountCents = newAmountCents;
+	}
+
+	/**
+	 * This copies an entry from a ledger
+	 *
+	 * @param sourceEntry - a single, repeating or installment entry
+	 * @return a new StoredEntry object
+	 */
+	static StoredEntry fromEntry(Entry sourceEntry) {
+		String accountName = sourceEntry.getAccount().getAccountName();
+		if (sourceEntry instanceof SingleEntry) {
+			SingleEntry tmpEntry = (SingleEntry) sourceEntry;
+			return new StoredEntry(tmpEntry.getEntryId(), toDay(tmpEntry.getDate()), NO_DAY, tmpEntry.getDesc(), accountName,
+					tmpEntry.getMonthlyMoney().getCents());
+		}
+		MultipleEntry tmpEntry = (MultipleEntry) sourceEntry;
+		BigDecimal tmpAmount;
+		if (tmpEntry instanceof InstallmentEntry) {
+			tmpAmount = ((InstallmentEntry) tmpEntry).getTotalAmount();
+		} else {
+			tmpAmount = tmpEntry.getMonthlyAmount();
+		}
+		return new StoredEntry(tmpEntry.getEntryId(), toDay(tmpEntry.getStartDate()), toDay(tmpEntry.getEndDate()), tmpEntry.getDesc(), accountName,
+				Money.valueOf(tmpAmount).getCents());
+	}
+
+	/**
+	 * This creates a single entry from this row
+	 *
+	 * @param entryAccount - the ledger's account with the name accountName
+	 * @return a new SingleEntry object with this row's entry id
+	 */
+	SingleEntry toSingleEntry(Account entryAccount) {
+		SingleEntry newEntry = SingleEntry.fromSignedAmount(toDate(startDay), entryAccount, desc, Money.ofCents(amountCents));
+		newEntry.setEntryId(entryId);
+		return newEntry;
+	}
+
+	/**
+	 * This creates a repeating or installment entry from this row
+	 *
+	 * @param entryAccount - the ledger's account with the name accountName
+	 * @param isInstallment - true to create an InstallmentEntry, false to create a RepeatingEntry
+	 * @return a new entry object with this row's entry id
+	 */
+	MultipleEntry toMultipleEntry(Account entryAccount, boolean isInstallment) {
+		BigDecimal entryAmount = BigDecimal.valueOf(amountCents, 2);
+		// amounts are stored with their sign, but the constructors make expenses negative themselves
+		if (entryAccount.getIsAnExpense()) {
+			entryAmount = entryAmount.negate();
+		}
+		MultipleEntry newEntry;
+		if (isInstallment) {
+			newEntry = new InstallmentEntry(toDate(startDay), toDate(endDay), entryAccount, desc, entryAmount);
+		} else {
+			newEntry = new RepeatingEntry(toDate(startDay), toDate(endDay), entryAccount, desc, entryAmount);
+		}
+		newEntry.setEntryId(entryId);
+		return newEntry;
+	}
+
+	/**
+	 * This converts a date to an epoch day
+	 *
+	 * @param date - the date (or null)
+	 * @return the epoch day (or NO_DAY if date is null)
+	 */
+	private static int toDay(JDateTime date) {
+		return date == null ? NO_DAY : EpochDay.fromDate(date);
+	}
+
+	/**
+	 * This converts an epoch day to a date
+	 *
+	 * @param epochDay - the epoch day (or NO_DAY)
+	 * @return the date (or null if epochDay is NO_DAY)
+	 */
+	private static JDateTime toDate(int epochDay) {
+		return epochDay == NO_DAY ? null : EpochDay.toDate(epochDay);
+	}
+
+	/**
+	 * This returns the entry id
+	 *
+	 * @return the entry id
+	 */
+	long getEntryId() {
+		return entryId;
+	}
+
+	/**
+	 * This returns the epoch day of the date or start date
+	 *
+	 * @return the epoch day of the date or start date
+	 */
+	int getStartDay() {
+		return startDay;
+	}
+
+	/**
+	 * This returns the epoch day of the end date (or NO_DAY)
+	 *
+	 * @return the epoch day of the end date (or NO_DAY)
+	 */
+	int getEndDay() {
+		return endDay;
+	}
+
+	/**
+	 * This returns the description
+	 *
+	 * @return the description
+	 */
+	String getDesc() {
+		return desc;
+	}
+
+	/**
+	 * This returns the name of the account
+	 *
+	 * @return the name of the account
+	 */
+	String getAccountName() {
+		return accountName;
+	}
+
+	/**
+	 * This returns the amount in cents (negative for expenses)
+	 *
+	 * @return the amount in cents (negative for expenses)
+	 */
+	long getAmountCents() {
+		return amountCents;
+	}
+}
@@ -0,0 +1,260 @@
+package budget_program;
+
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class keeps the results of recent sum queries (the total of a set of accounts over a date range), so a query that
+ * is run again returns straight away instead of adding up the entries again.
+ *
+ * Each result is indexed by the months its date range covers. When an entry is added, changed or deleted the general ledger
+ * tells the cache which account and months the entry touches, and only the results for that account that cover one of
+ * those months are dropped. The MAX_CACHED_QUERIES most recently used results are kept. Results for very long date ranges
+ * aren't indexed month by month (they are checked each time an entry changes instead).
+ *
+ * @author Asa Swain
+ */
+
+class SumQueryCache {
+	// most results that are kept
+	static final int MAX_CACHED_QUERIES = 256;
+	// longest date range (in months) whose result is indexed month by month
+	private static final int MAX_INDEXED_MONTHS = 1200;
+
+	// cached results, in least recently used order
+	private LinkedHashMap<SumQuery, Money> resultList;
+	// queries whose date range covers each month (keyed by month index)
+	private HashMap<Integer, HashSet<SumQuery>> monthQueryList;
+	// queries whose date range is too long to index month by month
+	private HashSet<SumQuery> longQueryList;
+
+	/**
+	 * This is a blank constructor
+	 */
+	SumQueryCache() {
+		resultList = new LinkedHashMap<SumQuery, Money>(16, 0.75f, true);
+		monthQueryList = new HashMap<Integer, HashSet<SumQuery>>();
+		longQueryList = new HashSet<SumQuery>();
+	}
+
+	/**
+	 * This gets the cached result of a query
+	 *
+	 * @param targetQuery - the query to look up
+	 * @return the total, or null if the result isn't cached
+	 */
+	Money get(SumQuery targetQuery) {
+		return resultList.get(targetQuery);
+	}
+
+	/**
+	 * This caches the result of a query, dropping the least recently used result if the cache is full
+	 *
+	 * @param newQuery - the query that was run
+	 * @param total - the result of the query
+	 */
+	void put(SumQuery newQuery, Money total) {
+		if (resultList.put(newQuery, total) != null) {
+			return;
+		}
+		if (newQuery.getMonthCount() > MAX_INDEXED_MONTHS) {
+			longQueryList.add(newQuery);
+		} else {
+			for (int i = newQuery.getStartMonth(); i <= newQuery.getEndMonth(); i++) {
+				HashSet<SumQuery> queryList = monthQueryList.get(i);
+				if (queryList == null) {
+					queryList = new HashSet<SumQuery>();
+					monthQueryList.put(i, queryList);
+				}
+				queryList.add(newQuery);
+			}
+		}
+		if (resultList.size() > MAX_CACHED_QUERIES) {
+			remove(resultList.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * This drops the cached results for an account that cover a month (called when an entry in that month changes)
+	 *
+	 * @param changedAccount - the account of the entry that changed
+	 * @param monthIndex - the month of the entry that changed
+	 */
+	void invalidateMonth(Account changedAccount, int monthIndex) {
+		ArrayList<SumQuery> staleQueryList = new ArrayList<SumQuery>();
+		HashSet<SumQuery> queryList = monthQueryList.get(monthIndex);
+		if (queryList != null) {
+			for (SumQuery tmpQuery : queryList) {
+				if (tmpQuery.hasAccount(changedAccount)) {
+					staleQueryList.add(tmpQuery);
+				}
+			}
+		}
+		for (SumQuery tmpQuery : longQueryList) {
+			if (tmpQuery.hasAccount(changedAccount) && tmpQuery.coversMonths(monthIndex, monthIndex)) {
+				staleQueryList.add(tmpQuery);
+			}
+		}
+		for (SumQuery tmpQuery : staleQueryList) {
+			remove(tmpQuery);
+		}
+	}
+
+	/**
+	 * This drops the cached results for an account that cover any month in a range
+	 * (called when a repeating or installment entry changes)
+	 *
+	 * @param changedAccount - the account of the entry that changed
+	 * @param firstMonth - the first month the entry counts in (null if it has no start)
+	 * @param lastMonth - the last month the entry counts in (null if it has no end)
+	 */
+	void invalidateMonths(Account changedAccount, Integer firstMonth, Integer lastMonth) {
+		int startMonth = (firstMonth == null) ? Integer.MIN_VALUE : firstMonth;
+		int endMonth = (lastMonth == null) ? Integer.MAX_VALUE : lastMonth;
+		ArrayList<SumQuery> staleQueryList = new ArrayList<SumQuery>();
+		for (SumQuery tmpQuery : resultList.keySet()) {
+			if (tmpQuery.hasAccount(changedAccount) && tmpQuery.coversMonths(startMonth, endMonth)) {
+				staleQueryList.add(tmpQuery);
+			}
+		}
+		for (SumQuery tmpQuery : staleQueryList) {
+			remove(tmpQuery);
+		}
+	}
+
+	/**
+	 * This drops every cached result (called when the ledger is loaded again)
+	 */
+	void clear() {
+		resultList.clear();
+		monthQueryList.clear();
+		longQueryList.clear();
+	}
+
+	/**
+	 * This drops a cached result and removes it from the month index
+	 *
+	 * @param oldQuery - the query to drop
+	 */
+	private void remove(SumQuery oldQuery) {
+		resultList.remove(oldQuery);
+		if (!longQueryList.remove(oldQuery)) {
+			for (int i = oldQuery.getStartMonth(); i <= oldQuery.getEndMonth(); i++) {
+				HashSet<SumQuery> queryList = monthQueryList.get(i);
+				if (queryList != null) {
+					queryList.remove(oldQuery);
+					if (queryList.isEmpty()) {
+						monthQueryList.remove(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * This class is a sum query (a set of accounts and a date range), used as the key of a cached result
+	 */
+	static class SumQuery {
+		// accounts to total
+		private HashSet<Account> accountSet;
+		// first and last epoch day of the date range
+		private int startDay;
+		private int endDay;
+
+		/**
+		 * This is a constructor for a query
+		 *
+		 * @param newAccountList - the accounts to total (copied, so later changes to the collection don't affect the query)
+		 * @param startDate - the first date of the range
+		 * @param endDate - the last date of the range
+		 */
+		SumQuery(Collection<Account> newAccountList, JDateTime startDate, JDateTime endDate) {
+			accountSet = new HashSet<Account>(newAccountList);
+			startDay = EpochDay.fromDate(startDate);
+			endDay = EpochDay.fromDate(endDate);
+		}
+
+		/**
+		 * This returns the accounts to total
+		 *
+		 * @return the set of accounts
+		 */
+		Set<Account> getAccounts() {
+			return accountSet;
+		}
+
+		/**
+		 * This returns the month the date range starts in
+		 *
+		 * @return the month index of the first date
+		 */
+		int getStartMonth() {
+			return EpochDay.toMonthIndex(startDay);
+		}
+
+		/**
+		 * This returns the month the date range ends in
+		 *
+		 * @return the month index of the last date
+		 */
+		int getEndMonth() {
+			return EpochDay.toMonthIndex(endDay);
+		}
+
+		/**
+		 * This returns the number of months the date range covers
+		 *
+		 * @return the number of months (zero if the range is empty)
+		 */
+		long getMonthCount() {
+			return Math.max(0L, (long) getEndMonth() - getStartMonth() + 1);
+		}
+
+		/**
+		 * This checks if an account is one of the accounts to total
+		 *
+		 * @param testAccount - the account to check
+		 * @return true if the account is in the query, else false
+		 */
+		boolean hasAccount(Account testAccount) {
+			return accountSet.contains(testAccount);
+		}
+
+		/**
+		 * This checks if the date range covers any month in a range of months
+		 *
+		 * @param firstMonth - the first month to check
+		 * @param lastMonth - the last month to check
+		 * @return true if the ranges overlap, else false
+		 */
+		boolean coversMonths(int firstMonth, int lastMonth) {
+			return getStartMonth() <= lastMonth && firstMonth <= getEndMonth();
+		}
+
+		/**
+		 * This checks if another query has the same accounts and date range
+		 *
+		 * @param other - the object to compare with
+		 * @return true if the queries are the same, else false
+		 */
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof SumQuery)) {
+				return false;
+			}
+			SumQuery otherQuery = (SumQuery) other;
+			return startDay == otherQuery.startDay && endDay == otherQuery.endDay && accountSet.equals(otherQuery.accountSet);
+		}
+
+		/**
+		 * This returns a hash code made from the accounts and date range
+		 *
+		 * @return the hash code
+		 */
+		@Override
+		public int hashCode() {
+			return (accountSet.hashCode() * 31 + startDay) * 31 + endDay;
+		}
+	}
+}
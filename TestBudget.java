@@ -3,6 +3,8 @@ package budget_program;
 import java.util.*;
 import jodd.datetime.JDateTime;
 import java.math.BigDecimal;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * This class provides a text-based user-interface to let the user create and maintain a monthly ledger 
@@ -19,18 +21,33 @@ public class TestBudget {
 	static final boolean PROHIBIT_BLANK_INPUT = false;
 	static final boolean ALLOW_BLANK_INPUT = true;
 
-	static GeneralLedger myGeneralLedger = new GeneralLedger();
+	// number of months of single entries to keep in memory (older months are loaded again from storage when viewed)
+	static final int RESIDENT_MONTHS = 24;
+
+	static GeneralLedger myGeneralLedger;
 
 	static Scanner myInputScanner = new Scanner(System.in);	
 
 	/**
 	 * This method controls the main UI of the budget_program class
 	 * 
-	 * @param args
+	 * @param args - where to store the ledger (see createLedgerStore)
 	 */
 	public static void main(String[] args) {
-		// load SQL database data into Java data structures
-		myGeneralLedger.loadSQLData();
+		myGeneralLedger = new GeneralLedger(createLedgerStore(args));
+		if (args.length >= 2 && args[0].equalsIgnoreCase("file")) {
+			// keep unsaved changes in a journal next to the ledger file, so they aren't lost if the program stops
+			myGeneralLedger.setJournal(new LedgerJournal(new File(args[1] + ".journal")));
+		}
+		// load the stored data into Java data structures (single entries are loaded by month as they are viewed)
+		try {
+			myGeneralLedger.loadData(RESIDENT_MONTHS);
+		} catch (LedgerStoreException e) {
+			System.out.println("Unable to load the ledger: " + e.getMessage());
+			return;
+		}
+		// save changes in the background as they are made, so the menu doesn't wait for the ledger store
+		myGeneralLedger.startWriteBehind(WriteBehindQueue.DEFAULT_MAX_BATCH_SIZE, WriteBehindQueue.DEFAULT_MAX_DELAY);
 
 		boolean quit = false;
 
@@ -44,6 +61,7 @@ public class TestBudget {
 			System.out.println("AE - add an entry to a specific month");
 			System.out.println("DE - delete an entry from a specific month"); 
 			System.out.println("UE - update an entry from a specific month"); 
+			System.out.println("IE - import entries from a CSV or OFX bank statement file");
 			System.out.println("");
 			System.out.println("Configure Budget:");
 			System.out.println("CD - configure default budget account/amount data");
@@ -111,6 +129,10 @@ public class TestBudget {
 				}
 			}
 
+			// import entries from a file
+			if (menuChoice.toUpperCase().equals("IE")) {
+				importEntries();
+			}
 
 			// update an entry
 			if (menuChoice.toUpperCase().equals("UE")) {
@@ -165,9 +187,27 @@ public class TestBudget {
 
 			// quit program
 			if (menuChoice.toUpperCase().equals("Q")) {
-				quit = true;
-				myGeneralLedger.saveSQLData();
-				System.out.println("Ending Program");
+				try {
+					myGeneralLedger.saveData();
+					myGeneralLedger.close();
+					quit = true;
+				} catch (LedgerStoreException e) {
+					System.out.println("Unable to save your changes: " + e.getMessage());
+					System.out.println("Quit without saving? (Y/N)");
+					String answer = myInputScanner.nextLine();
+					quit = answer.trim().toUpperCase().equals("Y");
+					if (quit == true) {
+						// closing again drops the changes that couldn't be saved (the journal still has them)
+						try {
+							myGeneralLedger.close();
+						} catch (LedgerStoreException closeError) {
+							System.out.println("Unable to close the ledger: " + closeError.getMessage());
+						}
+					}
+				}
+				if (quit == true) {
+					System.out.println("Ending Program");
+				}
 			}
 
 			if (quit == false) {
@@ -178,6 +218,31 @@ public class TestBudget {
 		} while (quit == false);
 	}
 
+	/**
+	 * This creates the ledger store named on the command line:
+	 * no arguments - the javabudget database on a local XAMPP server
+	 * "memory" - a ledger in memory that isn't saved
+	 * "file" path - a ledger file
+	 * "jdbc" url user password - any SQL database
+	 * 
+	 * @param args - the command line arguments
+	 * @return the ledger store
+	 */
+	private static LedgerStore createLedgerStore(String[] args) {
+		if (args.length >= 1 && args[0].equalsIgnoreCase("memory")) {
+			return new InMemoryLedgerStore();
+		}
+		if (args.length >= 2 && args[0].equalsIgnoreCase("file")) {
+			return new FileLedgerStore(new File(args[1]));
+		}
+		if (args.length >= 2 && args[0].equalsIgnoreCase("jdbc")) {
+			String user = (args.length >= 3) ? args[2] : JdbcLedgerStore.DEFAULT_USER;
+			String password = (args.length >= 4) ? args[3] : JdbcLedgerStore.DEFAULT_PASSWORD;
+			return new JdbcLedgerStore(args[1], user, password);
+		}
+		return new JdbcLedgerStore();
+	}
+
 
 
 	/**
@@ -234,6 +299,73 @@ public class TestBudget {
 		}
 	}
 
+	/**
+	 * This allows the user to import single entries from a CSV or OFX bank statement file
+	 */
+	private static void importEntries() {
+		System.out.println("Enter the file to import (files ending in .ofx or .qfx are read as OFX, anything else as CSV):");
+		String inputFile = myInputScanner.nextLine().trim();
+		if (inputFile.equals("")) return;
+
+		LedgerImporter importer = new LedgerImporter(myGeneralLedger);
+		String fileName = inputFile.toLowerCase();
+		if (!fileName.endsWith(".ofx") && !fileName.endsWith(".qfx")) {
+			System.out.println("Enter the column numbers of the date, description, account and amount, separated by commas");
+			System.out.println("(counting from 0, -1 if there is no account column, blank for 0,1,2,3):");
+			String inputColumns = myInputScanner.nextLine().trim();
+			if (!inputColumns.equals("")) {
+				String[] columnList = inputColumns.split(",");
+				try {
+					importer.setColumns(Integer.parseInt(columnList[0].trim()), Integer.parseInt(columnList[1].trim()),
+							Integer.parseInt(columnList[2].trim()), Integer.parseInt(columnList[3].trim()));
+				} catch (RuntimeException e) {
+					System.out.println("Error: enter four column numbers, such as 0,2,-1,3. Aborting import.");
+					return;
+				}
+			}
+			System.out.println("Enter the date format (such as MM/DD/YYYY, blank for YYYY-MM-DD):");
+			String inputDateFormat = myInputScanner.nextLine().trim();
+			if (!inputDateFormat.equals("")) {
+				importer.setDateFormat(inputDateFormat);
+			}
+			System.out.println("Does the file have a header row? (Y/N)");
+			importer.setHasHeaderRow(!myInputScanner.nextLine().trim().toUpperCase().equals("N"));
+		}
+
+		// bank statements don't usually have accounts, so rows without one go to the account chosen here
+		Account inputAcct = null;
+		try {
+			inputAcct = chooseAccount("Choose the account for rows without an account (blank for none):", ALLOW_BLANK_INPUT);
+		} catch (IllegalArgumentException e) {
+			System.out.println("Error: Database has no accounts to choose from. Aborting import.");
+			return;
+		}
+		importer.setDefaultAccount(inputAcct);
+		importer.setProgressOutput(System.out, LedgerImporter.DEFAULT_PROGRESS_INTERVAL);
+
+		ImportResult result;
+		try {
+			result = importer.importFile(new File(inputFile));
+		} catch (IOException e) {
+			System.out.println("Unable to read the file: " + e.getMessage());
+			return;
+		} catch (LedgerStoreException e) {
+			System.out.println("Unable to save the imported entries: " + e.getMessage());
+			return;
+		}
+		System.out.println("Imported " + result.getImportedCnt() + " of " + result.getRowCnt() + " rows.");
+		if (result.getErrorCnt() > 0) {
+			System.out.println(result.getErrorCnt() + " rows couldn't be imported:");
+			ArrayList<String> errorList = result.getErrorList();
+			for (int i = 0; i < errorList.size() && i < 20; i++) {
+				System.out.println(errorList.get(i));
+			}
+			if (result.getErrorCnt() > 20) {
+				System.out.println("...");
+			}
+		}
+	}
+
 	/**
 	 * This allows the user to add a new monthly budget to the database
 	 */
@@ -0,0 +1,269 @@
+package budget_program;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+/**
+ * This class saves the changes made to a general ledger in the background, so a change doesn't have to wait for the
+ * ledger store to be written. Changes are recorded in the ledger's change set as usual (where changes to the same row
+ * are combined), and a background thread saves everything in the change set as one batch once the change set holds
+ * maxBatchSize rows, or once the oldest change has waited maxDelay milliseconds, whichever comes first.
+ *
+ * flush saves every change recorded so far and waits for it to be saved, and close flushes the changes and stops the
+ * background thread. If a background save fails the changes are put back in the change set (combined with any changes
+ * made since) and saving is tried again after maxDelay. Whenever a batch has been saved, the records of its changes are
+ * dropped from the change set's journal (the changes made since stay in the journal), so the journal doesn't keep growing
+ * while changes keep being made.
+ *
+ * The background thread holds the ledger store's lock while it saves, so anything else that uses the store
+ * while the queue is running should hold the lock too.
+ *
+ * @author Asa Swain
+ */
+
+public class WriteBehindQueue {
+	// default number of changed rows that starts a save straight away
+	public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+	// default longest a change can wait before it is saved (in milliseconds)
+	public static final long DEFAULT_MAX_DELAY = 1000;
+
+	// where the changes are saved
+	private LedgerStore ledgerStore;
+	// the changes that haven't been saved yet
+	private ChangeSet changeSet;
+	// number of changed rows that starts a save straight away
+	private int maxBatchSize;
+	// longest a change can wait before it is saved (in milliseconds)
+	private long maxDelay;
+	// true while a save started by the batch size is waiting to run
+	private boolean isBatchQueued;
+	// true while a save started by the delay is waiting to run
+	private boolean isBatchScheduled;
+	// true while a batch is being saved (the batch has already been taken out of the change set)
+	private volatile boolean isSaving;
+	// error from the last save run in the background (null if it worked)
+	private LedgerStoreException saveError;
+	// runs the saves (null once the queue is closed)
+	private ScheduledThreadPoolExecutor saveExecutor;
+
+	/**
+	 * This is a constructor for a queue that saves the changes recorded in a change set
+	 * (the change set has to be told about the queue with ChangeSet.setWriteBehindQueue)
+	 *
+	 * @param newLedgerStore - where the changes are saved
+	 * @param newChangeSet - the change set the changes are recorded in
+	 * @param newMaxBatchSize - the number of changed rows that starts a save straight away
+	 * @param newMaxDelay - the longest a change can wait before it is saved (in milliseconds)
+	 * @exception IllegalArgumentException if the batch size is less than 1 or the delay is negative
+	 */
+	WriteBehindQueue(LedgerStore newLedgerStore, ChangeSet newChangeSet, int newMaxBatchSize, long newMaxDelay) {
+		if (newMaxBatchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1.");
+		}
+		if (newMaxDelay < 0) {
+			throw new IllegalArgumentException("The delay can't be negative.");
+		}
+		ledgerStore = newLedgerStore;
+		changeSet = newChangeSet;
+		maxBatchSize = newMaxBatchSize;
+		maxDelay = newMaxDelay;
+		saveExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable task) {
+				Thread saveThread = new Thread(task, "ledger write-behind");
+				// don't keep the program running if the queue isn't closed (the journal keeps any changes that weren't saved)
+				saveThread.setDaemon(true);
+				return saveThread;
+			}
+		});
+		// saves waiting for their delay aren't needed once the queue is closed, since close saves everything first
+		saveExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+
+	/**
+	 * This starts a save if the change set is big enough, or else makes sure a save is waiting to run after the delay
+	 * (called by the change set each time a change is recorded)
+	 *
+	 * @param changeCnt - the number of changed rows in the change set
+	 */
+	synchronized void changeRecorded(int changeCnt) {
+		if (saveExecutor == null) {
+			return;
+		}
+		if (changeCnt >= maxBatchSize) {
+			if (!isBatchQueued) {
+				isBatchQueued = true;
+				saveExecutor.execute(new Runnable() {
+					public void run() {
+						runBackgroundSave(true);
+					}
+				});
+			}
+		} else if (!isBatchScheduled) {
+			scheduleSave();
+		}
+	}
+
+	/**
+	 * This saves every change recorded so far and waits for them to be saved
+	 *
+	 * @exception LedgerStoreException if the changes couldn't be saved (they are kept in the change set)
+	 * @exception IllegalStateException if the queue has been closed
+	 */
+	public void flush() throws LedgerStoreException {
+		Future<Object> flushFuture;
+		synchronized (this) {
+			if (saveExecutor == null) {
+				throw new IllegalStateException("The write-behind queue has been closed.");
+			}
+			// the save thread runs one task at a time, so this runs after any save that has already started
+			flushFuture = saveExecutor.submit(new Callable<Object>() {
+				public Object call() throws Exception {
+					saveBatch();
+					return null;
+				}
+			});
+		}
+		try {
+			flushFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LedgerStoreException("Interrupted while waiting for the changes to be saved", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof LedgerStoreException) {
+				throw (LedgerStoreException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new LedgerStoreException("Unable to save the changes", e.getCause());
+		}
+		synchronized (this) {
+			saveError = null;
+		}
+	}
+
+	/**
+	 * This saves every change recorded so far and stops the background thread.
+	 * The thread is stopped even if the changes can't be saved (they are kept in the change set, so they can be saved with saveData).
+	 *
+	 * @exception LedgerStoreException if the changes couldn't be saved
+	 */
+	public void close() throws LedgerStoreException {
+		if (saveExecutor == null) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			ScheduledThreadPoolExecutor oldExecutor;
+			synchronized (this) {
+				oldExecutor = saveExecutor;
+				saveExecutor = null;
+			}
+			oldExecutor.shutdown();
+			try {
+				oldExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * This checks if there are changes that haven't been saved yet (including a batch that is being saved)
+	 *
+	 * @return true if there are changes that haven't been saved, else false
+	 */
+	public boolean hasPendingChanges() {
+		// check isSaving first, since a batch is only taken out of the change set after isSaving is set
+		return isSaving || !changeSet.isEmpty();
+	}
+
+	/**
+	 * This gets the error from the last save run in the background
+	 *
+	 * @return the error, or null if the last background save worked (or flush has worked since)
+	 */
+	public synchronized LedgerStoreException getSaveError() {
+		return saveError;
+	}
+
+	/**
+	 * This schedules a save to run after the delay
+	 */
+	private synchronized void scheduleSave() {
+		if (saveExecutor == null) {
+			return;
+		}
+		isBatchScheduled = true;
+		saveExecutor.schedule(new Runnable() {
+			public void run() {
+				runBackgroundSave(false);
+			}
+		}, maxDelay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * This runs a save started by the batch size or the delay, keeping any error and trying again after the delay
+	 *
+	 * @param isQueuedSave - true if the save was started by the batch size, false if it was started by the delay
+	 */
+	private void runBackgroundSave(boolean isQueuedSave) {
+		synchronized (this) {
+			if (isQueuedSave) {
+				isBatchQueued = false;
+			} else {
+				isBatchScheduled = false;
+			}
+		}
+		try {
+			saveBatch();
+			synchronized (this) {
+				saveError = null;
+			}
+		} catch (LedgerStoreException e) {
+			synchronized (this) {
+				saveError = e;
+				if (!isBatchScheduled) {
+					scheduleSave();
+				}
+			}
+		}
+	}
+
+	/**
+	 * This saves the changes in the change set as one batch (only run on the save thread)
+	 *
+	 * @exception LedgerStoreException if the changes couldn't be saved (they are put back in the change set)
+	 */
+	private void saveBatch() throws LedgerStoreException {
+		isSaving = true;
+		try {
+			ArrayList<LedgerChange> batchChangeList = changeSet.takeChangeList();
+			if (batchChangeList.isEmpty()) {
+				return;
+			}
+			boolean isSaved = false;
+			try {
+				synchronized (ledgerStore) {
+					ledgerStore.saveChanges(batchChangeList);
+				}
+				isSaved = true;
+			} finally {
+				if (!isSaved) {
+					// the store is left as it was, so the whole batch is saved again with the next batch
+					changeSet.restoreChangeList(batchChangeList);
+				}
+			}
+			try {
+				changeSet.trimJournal();
+			} catch (IOException e) {
+				// the changes are saved, and saving them again when the journal is replayed doesn't change anything
+				throw new LedgerStoreException("The changes were saved, but they couldn't be dropped from the journal", e);
+			}
+		} finally {
+			isSaving = false;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package budget_program;
+
+import java.math.BigDecimal;
+
+/**
+ * This class tests the account registry: ids are handed out in order and never reused, accounts are found by name
+ * and by id, and an account with a name that is already registered isn't added
+ *
+ * @author Asa Swain
+ */
+
+class AccountRegistryTest {
+	/**
+	 * This lists the names and ids of the accounts in a registry, in the order they were added
+	 *
+	 * @param testRegistry - the registry to list
+	 * @return the name and id of each account, separated by spaces
+	 */
+	private static String listAccounts(AccountRegistry testRegistry) {
+		StringBuilder accountText = new StringBuilder();
+		for (Account tmpAccount : testRegistry.getAccountList()) {
+			if (accountText.length() > 0) {
+				accountText.append(' ');
+			}
+			accountText.append(tmpAccount.getAccountName()).append('=').append(tmpAccount.getAccountId());
+		}
+		return accountText.toString();
+	}
+
+	/**
+	 * This checks that ids are handed out in order, stay the same when other accounts are removed, and aren't given out again
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testIdsAreStable(TestChecker checker) {
+		AccountRegistry testRegistry = new AccountRegistry();
+		Account foodAccount = new Account("Food", "Groceries", true, true);
+		Account rentAccount = new Account("Rent", "Apartment", true, true);
+		Account payAccount = new Account("Pay", "Paycheck", false, true);
+		testRegistry.addAccount(foodAccount);
+		testRegistry.addAccount(rentAccount);
+		testRegistry.addAccount(payAccount);
+		checker.checkEquals("Food=0 Rent=1 Pay=2", listAccounts(testRegistry), "ids are handed out in order");
+		checker.check(testRegistry.getAccount("Rent") == rentAccount, "an account is found by name");
+		checker.check(testRegistry.getAccount(2) == payAccount, "an account is found by id");
+		checker.check(testRegistry.getAccount("Gas") == null, "an account that isn't registered isn't found by name");
+		checker.check(testRegistry.getAccount(-1) == null && testRegistry.getAccount(3) == null, "an id that hasn't been handed out isn't found");
+
+		testRegistry.removeAccount(new Account("Rent", "Another description", true, true));
+		checker.checkEquals("Food=0 Pay=2", listAccounts(testRegistry), "removing an account leaves the other ids as they were");
+		checker.checkEquals(2, testRegistry.size(), "number of accounts after removing one");
+		checker.checkEquals(3, testRegistry.getIdCount(), "removing an account doesn't free its id");
+		checker.check(testRegistry.getAccount(1) == null && testRegistry.getAccount("Rent") == null, "a removed account isn't found");
+		testRegistry.removeAccount(rentAccount);
+		checker.checkEquals(2, testRegistry.size(), "removing an account that isn't registered does nothing");
+
+		Account gasAccount = new Account("Gas", "Car", true, true);
+		testRegistry.addAccount(gasAccount);
+		Account newRentAccount = new Account("Rent", "New apartment", true, true);
+		testRegistry.addAccount(newRentAccount);
+		checker.checkEquals("Food=0 Pay=2 Gas=3 Rent=4", listAccounts(testRegistry), "new accounts get new ids, even with a removed name");
+		checker.check(testRegistry.getAccount(4) == newRentAccount && testRegistry.getAccount("Rent") == newRentAccount,
+				"the account added again is found by its new id and by name");
+		checker.check(testRegistry.getAccount(1) == null, "the removed account's id isn't given out again");
+		checker.checkEquals(5, testRegistry.getIdCount(), "number of ids handed out");
+	}
+
+	/**
+	 * This checks that an account whose name is already registered is turned down, leaving the registered account as it was
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDuplicateNames(TestChecker checker) {
+		AccountRegistry testRegistry = new AccountRegistry();
+		Account foodAccount = new Account("Food", "Groceries", true, true);
+		testRegistry.addAccount(foodAccount);
+		testRegistry.addAccount(new Account("Pay", "Paycheck", false, true));
+		Account otherFoodAccount = new Account("Food", "Restaurants", true, false);
+		checker.check(testRegistry.isAccountInList(otherFoodAccount), "an account with a registered name is in the list");
+		try {
+			testRegistry.addAccount(otherFoodAccount);
+			checker.check(false, "adding an account with a registered name should fail");
+		} catch (IllegalArgumentException e) {
+			checker.check(true, "adding an account with a registered name fails");
+		}
+		checker.check(testRegistry.getAccount("Food") == foodAccount, "the registered account is still found by name");
+		checker.checkEquals(0, foodAccount.getAccountId(), "the registered account keeps its id");
+		checker.checkEquals("Food=0 Pay=1", listAccounts(testRegistry), "the accounts are as they were");
+		checker.checkEquals(2, testRegistry.getIdCount(), "no id is handed out for the account that was turned down");
+
+		GeneralLedger testLedger = new GeneralLedger(new InMemoryLedgerStore());
+		testLedger.addAccount("Food", "Groceries", true, true, true, new BigDecimal("250.00"));
+		try {
+			testLedger.addAccount("Food", "Restaurants", true, false, false, BigDecimal.ZERO);
+			checker.check(false, "adding an account to the ledger with a name it has should fail");
+		} catch (IllegalArgumentException e) {
+			checker.check(true, "adding an account to the ledger with a name it has fails");
+		}
+		checker.checkEquals(1, testLedger.getAccountList().size(), "the ledger has one account");
+		checker.checkEquals("Groceries", testLedger.getAccount("Food").getAccountDesc(), "the ledger keeps the first account");
+		checker.checkEquals(new BigDecimal("250.00"), testLedger.getDefaultBudgetAmount(testLedger.getAccount("Food")),
+				"the first account's default budget is kept");
+	}
+}
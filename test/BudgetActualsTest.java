@@ -0,0 +1,139 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests the monthly totals kept by BudgetActuals
+ *
+ * @author Asa Swain
+ */
+
+class BudgetActualsTest {
+	// accounts for the test entries
+	private static final Account FOOD_ACCOUNT = new Account("Food", "Groceries", true, true);
+	private static final Account RENT_ACCOUNT = new Account("Rent", "Apartment", true, true);
+
+	/**
+	 * This gets the month index of a month
+	 *
+	 * @param month - the month (1 - 12)
+	 * @param year - the year
+	 * @return the month index
+	 */
+	private static int getMonthIndex(int month, int year) {
+		return year * 12 + month - 1;
+	}
+
+	/**
+	 * This checks that single entries are added to the total for their month and account, and taken back out
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testSingleTotals(TestChecker checker) {
+		BudgetActuals testActuals = new BudgetActuals();
+		SingleEntry firstEntry = new SingleEntry(3, 4, 2019, FOOD_ACCOUNT, "Store", new BigDecimal("10.00"));
+		SingleEntry secondEntry = new SingleEntry(30, 4, 2019, FOOD_ACCOUNT, "Market", new BigDecimal("2.50"));
+		SingleEntry nextMonthEntry = new SingleEntry(1, 5, 2019, FOOD_ACCOUNT, "Store", new BigDecimal("1.00"));
+		testActuals.addSingleEntry(firstEntry);
+		testActuals.addSingleEntry(secondEntry);
+		testActuals.addSingleEntry(nextMonthEntry);
+		checker.checkEquals(Money.ofCents(-1250), testActuals.getSingleTotal(getMonthIndex(4, 2019), FOOD_ACCOUNT), "April total");
+		checker.checkEquals(Money.ofCents(-100), testActuals.getSingleTotal(getMonthIndex(5, 2019), FOOD_ACCOUNT), "May total");
+		checker.checkEquals(Money.ZERO, testActuals.getSingleTotal(getMonthIndex(4, 2019), RENT_ACCOUNT), "total of an account with no entries");
+
+		testActuals.removeSingleEntry(firstEntry);
+		testActuals.removeSingleEntry(secondEntry);
+		checker.checkEquals(Money.ZERO, testActuals.getSingleTotal(getMonthIndex(4, 2019), FOOD_ACCOUNT), "April total after removing its entries");
+		checker.check(testActuals.getAccounts(getMonthIndex(4, 2019)).isEmpty(), "no accounts are left in April");
+	}
+
+	/**
+	 * This checks the months a repeating entry counts in: from its start month (or the month after, if it doesn't start
+	 * on the first day of a month) to its end month
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRepeatingEntryMonths(TestChecker checker) {
+		BudgetActuals testActuals = new BudgetActuals();
+		RepeatingEntry rentEntry = new RepeatingEntry(1, 2, 2019, 15, 6, 2019, RENT_ACCOUNT, "Rent", new BigDecimal("800.00"));
+		RepeatingEntry lateStartEntry = new RepeatingEntry(10, 2, 2019, 1, 3, 2019, RENT_ACCOUNT, "Parking", new BigDecimal("50.00"));
+		testActuals.addRepeatingEntry(rentEntry);
+		testActuals.addRepeatingEntry(lateStartEntry);
+		checker.checkEquals(Money.ZERO, testActuals.getRepeatingTotal(getMonthIndex(1, 2019), RENT_ACCOUNT), "before the start month");
+		checker.checkEquals(Money.ofCents(-80000), testActuals.getRepeatingTotal(getMonthIndex(2, 2019), RENT_ACCOUNT),
+				"the start month counts when the entry starts on the first day");
+		checker.checkEquals(Money.ofCents(-85000), testActuals.getRepeatingTotal(getMonthIndex(3, 2019), RENT_ACCOUNT),
+				"an entry starting on the 10th counts from the next month");
+		checker.checkEquals(Money.ofCents(-80000), testActuals.getRepeatingTotal(getMonthIndex(6, 2019), RENT_ACCOUNT), "the end month counts");
+		checker.checkEquals(Money.ZERO, testActuals.getRepeatingTotal(getMonthIndex(7, 2019), RENT_ACCOUNT), "after the end month");
+		checker.checkEquals(Money.ofCents(-405000), testActuals.getMultipleEntryTotal(RENT_ACCOUNT, getMonthIndex(1, 2019), getMonthIndex(12, 2019)),
+				"total over the year (5 months of rent and 1 of parking)");
+		checker.checkEquals(new HashSet<Account>(Arrays.asList(RENT_ACCOUNT)), testActuals.getAccounts(getMonthIndex(3, 2019)), "accounts in March");
+
+		testActuals.removeRepeatingEntry(lateStartEntry);
+		checker.checkEquals(Money.ofCents(-80000), testActuals.getRepeatingTotal(getMonthIndex(3, 2019), RENT_ACCOUNT), "March after removing parking");
+	}
+
+	/**
+	 * This checks entries without a start or end date, and an installment entry's monthly amount
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testOpenRangesAndInstallments(TestChecker checker) {
+		BudgetActuals testActuals = new BudgetActuals();
+		testActuals.addRepeatingEntry(new RepeatingEntry(null, new JDateTime(2019, 3, 31), FOOD_ACCOUNT, "No start", new BigDecimal("5.00")));
+		testActuals.addRepeatingEntry(new RepeatingEntry(new JDateTime(2019, 3, 1), null, FOOD_ACCOUNT, "No end", new BigDecimal("7.00")));
+		checker.checkEquals(Money.ofCents(-500), testActuals.getRepeatingTotal(getMonthIndex(1, 1990), FOOD_ACCOUNT), "long before");
+		checker.checkEquals(Money.ofCents(-1200), testActuals.getRepeatingTotal(getMonthIndex(3, 2019), FOOD_ACCOUNT), "the month both count in");
+		checker.checkEquals(Money.ofCents(-700), testActuals.getRepeatingTotal(getMonthIndex(1, 2050), FOOD_ACCOUNT), "long after");
+
+		InstallmentEntry carEntry = new InstallmentEntry(1, 1, 2019, 1, 5, 2019, RENT_ACCOUNT, "Car", new BigDecimal("1000.00"));
+		testActuals.addInstallmentEntry(carEntry);
+		checker.checkEquals(Money.ofCents(-25000), testActuals.getInstallmentTotal(getMonthIndex(2, 2019), RENT_ACCOUNT), "installment per month");
+		checker.checkEquals(Money.ZERO, testActuals.getRepeatingTotal(getMonthIndex(2, 2019), RENT_ACCOUNT), "installments aren't repeating entries");
+		testActuals.removeInstallmentEntry(carEntry);
+		checker.checkEquals(Money.ZERO, testActuals.getInstallmentTotal(getMonthIndex(2, 2019), RENT_ACCOUNT), "after removing the installment");
+	}
+
+	/**
+	 * This checks that the budget variance report follows entries as they are added, moved and deleted
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the ledger can't be loaded
+	 */
+	static void testVarianceFollowsChanges(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = new GeneralLedger(new InMemoryLedgerStore());
+		testLedger.loadData();
+		testLedger.addAccount("Food", "Groceries", true, true, true, new BigDecimal("100.00"));
+		Account foodAccount = testLedger.getAccount("Food");
+		long entryId = testLedger.addSingleEntry(new JDateTime(2019, 6, 10), "Store", foodAccount, new BigDecimal("30.00"));
+		testLedger.addSingleEntry(new JDateTime(2019, 6, 12), "Market", foodAccount, new BigDecimal("20.00"));
+		checker.checkEquals(new BigDecimal("50.00"), getFoodVariance(testLedger, 6).getVariance(), "June variance (100 budgeted, 50 spent)");
+
+		testLedger.updateSingleEntry(entryId, new JDateTime(2019, 7, 1), "Store", foodAccount, new BigDecimal("30.00"));
+		checker.checkEquals(new BigDecimal("80.00"), getFoodVariance(testLedger, 6).getVariance(), "June variance after moving an entry to July");
+		checker.checkEquals(new BigDecimal("-30.00"), getFoodVariance(testLedger, 7).getSingleAmount(), "July actual after the move");
+
+		testLedger.deleteSingleEntry(entryId);
+		checker.checkEquals(new BigDecimal("0.00"), getFoodVariance(testLedger, 7).getSingleAmount().setScale(2), "July actual after deleting the entry");
+	}
+
+	/**
+	 * This gets the Food line of the budget variance report for a month of 2019
+	 *
+	 * @param testLedger - the ledger
+	 * @param month - the month
+	 * @return the line for the Food account
+	 */
+	private static BudgetVariance getFoodVariance(GeneralLedger testLedger, int month) {
+		for (BudgetVariance tmpVariance : testLedger.getBudgetVariance(month, 2019)) {
+			if (tmpVariance.getAccount().getAccountName().equals("Food")) {
+				return tmpVariance;
+			}
+		}
+		throw new IllegalStateException("The report for month " + month + " doesn't have a Food line.");
+	}
+}
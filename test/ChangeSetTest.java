@@ -0,0 +1,125 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * This class tests how ChangeSet combines changes to the same row
+ *
+ * @author Asa Swain
+ */
+
+class ChangeSetTest {
+	// account for the test entries
+	private static final Account FOOD_ACCOUNT = new Account("Food", "Groceries", true, true);
+
+	/**
+	 * This creates a single entry with an id
+	 *
+	 * @param entryId - the id of the entry
+	 * @param amount - the amount of the entry
+	 * @return a new SingleEntry
+	 */
+	private static SingleEntry createEntry(long entryId, String amount) {
+		SingleEntry newEntry = new SingleEntry(5, 3, 2015, FOOD_ACCOUNT, "Store", new BigDecimal(amount));
+		newEntry.setEntryId(entryId);
+		return newEntry;
+	}
+
+	/**
+	 * This checks that a row that is inserted and then deleted doesn't need any statements
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInsertThenDeleteCancels(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		SingleEntry newEntry = createEntry(1, "5.00");
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry));
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, newEntry));
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, newEntry));
+		checker.check(testSet.isEmpty(), "an inserted, updated and deleted entry leaves no changes");
+
+		testSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.INSERT, FOOD_ACCOUNT, BigDecimal.TEN));
+		testSet.record(LedgerChange.forDefaultBudget(LedgerChange.Operation.DELETE, FOOD_ACCOUNT, null));
+		checker.check(testSet.isEmpty(), "an inserted and deleted budget line leaves no changes");
+	}
+
+	/**
+	 * This checks that an insert followed by updates stays one insert with the latest data
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInsertThenUpdateStaysInsert(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, createEntry(1, "5.00")));
+		SingleEntry updatedEntry = createEntry(1, "7.00");
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, updatedEntry));
+		ArrayList<LedgerChange> changeList = testSet.getChangeList();
+		checker.checkEquals(1, changeList.size(), "changes to one row");
+		checker.checkEquals(LedgerChange.Operation.INSERT, changeList.get(0).getOperation(), "the row still has to be inserted");
+		checker.check(changeList.get(0).getEntry() == updatedEntry, "the insert has the updated data");
+	}
+
+	/**
+	 * This checks that a row that is deleted and then inserted again only needs an update
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDeleteThenInsertBecomesUpdate(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		testSet.record(LedgerChange.forAccount(LedgerChange.Operation.DELETE, FOOD_ACCOUNT));
+		testSet.record(LedgerChange.forAccount(LedgerChange.Operation.INSERT, FOOD_ACCOUNT));
+		ArrayList<LedgerChange> changeList = testSet.getChangeList();
+		checker.checkEquals(1, changeList.size(), "changes to one row");
+		checker.checkEquals(LedgerChange.Operation.UPDATE, changeList.get(0).getOperation(), "the row only has to be updated");
+	}
+
+	/**
+	 * This checks that changes to different rows are kept apart and in the order each row was first changed
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRowsKeepFirstChangeOrder(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, createEntry(2, "1.00")));
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, createEntry(1, "1.00")));
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.UPDATE, createEntry(2, "3.00")));
+		ArrayList<LedgerChange> changeList = testSet.getChangeList();
+		checker.checkEquals(2, changeList.size(), "changes to two rows");
+		checker.checkEquals(2L, changeList.get(0).getEntry().getEntryId(), "the row changed first comes first");
+		checker.checkEquals(new BigDecimal("-3.00"), changeList.get(0).getEntry().getMonthlyAmount(), "the later update replaces the earlier one");
+	}
+
+	/**
+	 * This checks that changes put back after a failed save are combined with the changes recorded since
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRestoreCombinesWithNewerChanges(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		SingleEntry newEntry = createEntry(1, "5.00");
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry));
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, createEntry(2, "6.00")));
+		ArrayList<LedgerChange> takenList = testSet.takeChangeList();
+		checker.check(testSet.isEmpty(), "taking the changes empties the set");
+
+		// while the taken changes were being saved, the first entry was deleted
+		testSet.record(LedgerChange.forEntry(LedgerChange.Operation.DELETE, newEntry));
+		testSet.restoreChangeList(takenList);
+		ArrayList<LedgerChange> changeList = testSet.getChangeList();
+		checker.checkEquals(1, changeList.size(), "the insert and the later delete cancel out");
+		checker.checkEquals(2L, changeList.get(0).getEntry().getEntryId(), "the other insert is kept");
+	}
+
+	/**
+	 * This checks that nothing is recorded while recording is turned off
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRecordingOff(TestChecker checker) {
+		ChangeSet testSet = new ChangeSet();
+		testSet.setRecording(false);
+		testSet.record(LedgerChange.forAccount(LedgerChange.Operation.INSERT, FOOD_ACCOUNT));
+		checker.check(testSet.isEmpty(), "changes aren't recorded while recording is off");
+	}
+}
@@ -0,0 +1,235 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests an EntryList with columnar storage by making the same changes to it and to an EntryList that stores
+ * SingleEntry objects, and checking that the two lists give the same entries, counts, balances and reports
+ *
+ * @author Asa Swain
+ */
+
+class ColumnarEntryListTest {
+	// accounts for the test entries
+	private static final Account[] ACCOUNT_LIST = { new Account("Food", "Groceries", true, true), new Account("Rent", "Apartment", true, true),
+			new Account("Pay", "Paycheck", false, true) };
+
+	/**
+	 * This lists single entries as text
+	 *
+	 * @param entryList - the entries to list
+	 * @return the id, date, account, description and amount of each entry, one entry per line
+	 */
+	private static String listEntries(List<SingleEntry> entryList) {
+		StringBuilder entryText = new StringBuilder();
+		for (SingleEntry tmpEntry : entryList) {
+			entryText.append(tmpEntry.getEntryId()).append(' ').append(tmpEntry.getDate().toString("YYYY-MM-DD")).append(' ')
+					.append(tmpEntry.getAccount().getAccountName()).append(' ').append(tmpEntry.getDesc()).append(' ')
+					.append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		return entryText.toString();
+	}
+
+	/**
+	 * This lists the statistics in a report as text
+	 *
+	 * @param testReport - the report to list
+	 * @return the count, sum, smallest and largest amount for each month and account and for the whole report
+	 */
+	private static String listReport(LedgerReport testReport) {
+		StringBuilder reportText = new StringBuilder();
+		for (Map.Entry<JDateTime, EntryStats> monthStats : testReport.getMonthStats().entrySet()) {
+			reportText.append(monthStats.getKey().toString("YYYY-MM")).append(' ').append(listStats(monthStats.getValue())).append('\n');
+		}
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			EntryStats accountStats = testReport.getAccountStats().get(tmpAccount);
+			if (accountStats != null) {
+				reportText.append(tmpAccount.getAccountName()).append(' ').append(listStats(accountStats)).append('\n');
+			}
+		}
+		return reportText.append(listStats(testReport.getTotalStats())).toString();
+	}
+
+	/**
+	 * This lists the statistics for a group as text
+	 *
+	 * @param testStats - the statistics to list
+	 * @return the count, sum, smallest and largest amount
+	 */
+	private static String listStats(EntryStats testStats) {
+		return testStats.getCount() + " " + testStats.getSum() + " " + testStats.getMin() + " " + testStats.getMax();
+	}
+
+	/**
+	 * This creates a test entry
+	 *
+	 * @param testRandom - where to get the date, account and amount from
+	 * @param entryNbr - a number to put in the description
+	 * @return the new entry
+	 */
+	private static SingleEntry createEntry(Random testRandom, int entryNbr) {
+		JDateTime entryDate = EpochDay.toDate(EpochDay.fromDate(2018, 1, 1) + testRandom.nextInt(90));
+		return new SingleEntry(entryDate, ACCOUNT_LIST[testRandom.nextInt(ACCOUNT_LIST.length)], "Entry " + entryNbr % 7,
+				BigDecimal.valueOf(testRandom.nextInt(100000), 2));
+	}
+
+	/**
+	 * This checks that two lists have the same entries, per-day positions, per-account lists, counts, balances and reports
+	 *
+	 * @param checker - the checker to report to
+	 * @param objectList - the list that stores SingleEntry objects
+	 * @param columnarList - the list with columnar storage
+	 * @param step - the change that was just made (for the check descriptions)
+	 */
+	private static void checkSame(TestChecker checker, EntryList objectList, EntryList columnarList, String step) {
+		checker.checkEquals(listEntries(objectList.getSingleEntryList()), listEntries(columnarList.getSingleEntryList()), "entries after " + step);
+		checker.checkEquals(objectList.singleEntrySize(), columnarList.singleEntrySize(), "count after " + step);
+		checker.checkEquals(objectList.getSingleEntryDateList(), columnarList.getSingleEntryDateList(), "dates after " + step);
+		JDateTime startDate = new JDateTime(2018, 1, 20);
+		JDateTime endDate = new JDateTime(2018, 2, 25);
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			checker.checkEquals(listEntries(objectList.getSingleEntries(tmpAccount, startDate, endDate)),
+					listEntries(columnarList.getSingleEntries(tmpAccount, startDate, endDate)), tmpAccount.getAccountName() + " entries after " + step);
+			checker.checkEquals(objectList.getBalanceAsOf(tmpAccount, endDate), columnarList.getBalanceAsOf(tmpAccount, endDate),
+					tmpAccount.getAccountName() + " balance after " + step);
+		}
+		boolean isSamePositions = true;
+		for (JDateTime tmpDate : objectList.getSingleEntryDateList()) {
+			for (int i = 0; i < objectList.getNumberOfSingleEntriesInDate(tmpDate); i++) {
+				isSamePositions = isSamePositions
+						&& objectList.getSingleEntry(tmpDate, i).getEntryId() == columnarList.getSingleEntry(tmpDate, i).getEntryId();
+			}
+			isSamePositions = isSamePositions && objectList.getNumberOfSingleEntriesInDate(tmpDate) == columnarList.getNumberOfSingleEntriesInDate(tmpDate);
+		}
+		checker.check(isSamePositions, "positions on each day after " + step);
+		LedgerReportEngine reportEngine = new LedgerReportEngine(ForkJoinPool.commonPool());
+		checker.checkEquals(listReport(objectList.getLedgerReport(reportEngine, null, null)),
+				listReport(columnarList.getLedgerReport(reportEngine, null, null)), "report after " + step);
+		checker.checkEquals(listReport(objectList.getLedgerReport(reportEngine, startDate, endDate)),
+				listReport(columnarList.getLedgerReport(reportEngine, startDate, endDate)), "report for part of the range after " + step);
+	}
+
+	/**
+	 * This makes the same random additions, updates and deletes (by id and by position) to both kinds of list
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testMatchesObjectStorage(TestChecker checker) {
+		EntryList objectList = new EntryList();
+		EntryList columnarList = new EntryList(true);
+		Random testRandom = new Random(6);
+		for (int i = 0; i < 3000; i++) {
+			SingleEntry newEntry = createEntry(testRandom, i);
+			objectList.addSingleEntry(newEntry);
+			columnarList.addSingleEntry(SingleEntry.fromSignedAmount(newEntry.getDate(), newEntry.getAccount(), newEntry.getDesc(),
+					newEntry.getMonthlyMoney()));
+		}
+		checkSame(checker, objectList, columnarList, "adding");
+
+		for (int i = 0; i < 2000; i++) {
+			ArrayList<SingleEntry> entryList = objectList.getSingleEntryList();
+			SingleEntry targetEntry = entryList.get(testRandom.nextInt(entryList.size()));
+			int positionCnt = objectList.getNumberOfSingleEntriesInDate(targetEntry.getDate());
+			int position = testRandom.nextInt(positionCnt);
+			SingleEntry newEntry = createEntry(testRandom, i);
+			SingleEntry newCopy = SingleEntry.fromSignedAmount(newEntry.getDate(), newEntry.getAccount(), newEntry.getDesc(), newEntry.getMonthlyMoney());
+			switch (testRandom.nextInt(6)) {
+			case 0:
+				objectList.deleteSingleEntry(targetEntry.getEntryId());
+				columnarList.deleteSingleEntry(targetEntry.getEntryId());
+				break;
+			case 1:
+				objectList.deleteSingleEntry(targetEntry.getDate(), position);
+				columnarList.deleteSingleEntry(targetEntry.getDate(), position);
+				break;
+			case 2:
+				objectList.updateSingleEntry(targetEntry.getEntryId(), newEntry);
+				columnarList.updateSingleEntry(targetEntry.getEntryId(), newCopy);
+				break;
+			case 3:
+				// an update on the same day keeps the entry's position
+				newEntry.setDate(targetEntry.getDate());
+				newCopy.setDate(targetEntry.getDate());
+				objectList.updateSingleEntry(targetEntry.getDate(), position, newEntry);
+				columnarList.updateSingleEntry(targetEntry.getDate(), position, newCopy);
+				break;
+			case 4:
+				newEntry.setDate(targetEntry.getDate());
+				newCopy.setDate(targetEntry.getDate());
+				objectList.addSingleEntry(newEntry, position);
+				columnarList.addSingleEntry(newCopy, position);
+				break;
+			default:
+				objectList.addSingleEntry(newEntry);
+				columnarList.addSingleEntry(newCopy);
+			}
+		}
+		checkSame(checker, objectList, columnarList, "random changes");
+
+		objectList.removeMonth(new JDateTime(2018, 2, 1));
+		columnarList.removeMonth(new JDateTime(2018, 2, 1));
+		checkSame(checker, objectList, columnarList, "removing February");
+		checker.checkEquals(0, columnarList.singleEntrySize(new JDateTime(2018, 2, 1)), "February count after removing it");
+	}
+
+	/**
+	 * This checks that entries handed out by columnar storage are copies, and that ids already in use aren't given out again
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testEntriesAreCopies(TestChecker checker) {
+		EntryList columnarList = new EntryList(true);
+		SingleEntry firstEntry = new SingleEntry(new JDateTime(2018, 5, 1), ACCOUNT_LIST[0], "Store", new BigDecimal("10.00"));
+		columnarList.addSingleEntry(firstEntry);
+		SingleEntry readEntry = columnarList.getSingleEntry(firstEntry.getEntryId());
+		readEntry.setDesc("Changed");
+		checker.checkEquals("Store", columnarList.getSingleEntry(firstEntry.getEntryId()).getDesc(), "changing a copy doesn't change the list");
+		checker.check(columnarList.isSingleEntryInTheList(readEntry), "a copy is found by its id");
+
+		SingleEntry sameIdEntry = new SingleEntry(new JDateTime(2018, 5, 2), ACCOUNT_LIST[0], "Market", new BigDecimal("1.00"));
+		sameIdEntry.setEntryId(firstEntry.getEntryId());
+		columnarList.addSingleEntry(sameIdEntry);
+		checker.check(sameIdEntry.getEntryId() != firstEntry.getEntryId(), "an entry with an id that is in use gets a new id");
+		checker.checkEquals(2, columnarList.singleEntrySize(), "both entries are in the list");
+	}
+
+	/**
+	 * This checks that a ledger with columnar storage loads and changes the same entries as one without
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the ledger can't be loaded or saved
+	 */
+	static void testLedgerWithColumnarStorage(TestChecker checker) throws Exception {
+		InMemoryLedgerStore testStore = new InMemoryLedgerStore();
+		GeneralLedger savedLedger = new GeneralLedger(testStore);
+		savedLedger.loadData();
+		savedLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		for (int i = 0; i < 40; i++) {
+			savedLedger.addSingleEntry(new JDateTime(2018, i % 12 + 1, i % 28 + 1), "Store " + i, savedLedger.getAccount("Food"), BigDecimal.valueOf(i));
+		}
+		savedLedger.saveData();
+
+		GeneralLedger columnarLedger = new GeneralLedger(testStore);
+		columnarLedger.setColumnarStorage(true);
+		columnarLedger.loadData();
+		checker.checkEquals(listEntries(savedLedger.getSingleEntries(null, null)), listEntries(columnarLedger.getSingleEntries(null, null)),
+				"entries loaded into columnar storage");
+		long firstId = columnarLedger.getSingleEntries(null, null).get(0).getEntryId();
+		columnarLedger.updateSingleEntry(firstId, new JDateTime(2018, 12, 31), "Moved", columnarLedger.getAccount("Food"), new BigDecimal("5.00"));
+		columnarLedger.saveData();
+
+		GeneralLedger reloadedLedger = new GeneralLedger(testStore);
+		reloadedLedger.loadData();
+		checker.checkEquals("Moved", reloadedLedger.getSingleEntry(firstId).getDesc(), "an update made with columnar storage is saved");
+		try {
+			reloadedLedger.setColumnarStorage(true);
+			checker.check(false, "choosing the storage after loading should fail");
+		} catch (IllegalStateException e) {
+			checker.check(true, "choosing the storage after loading fails");
+		}
+	}
+}
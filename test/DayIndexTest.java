@@ -0,0 +1,124 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * This class tests DayIndex: keeping the days sorted, removing entries by position, and compacting days
+ *
+ * @author Asa Swain
+ */
+
+class DayIndexTest {
+	/**
+	 * This creates an entry to put in an index (the index doesn't look at the entry, so the date doesn't matter)
+	 *
+	 * @param desc - the description of the entry
+	 * @return a new SingleEntry
+	 */
+	private static SingleEntry createEntry(String desc) {
+		return new SingleEntry(1, 1, 2015, new Account("Food", "Groceries", true, true), desc, BigDecimal.ONE);
+	}
+
+	/**
+	 * This checks that days added out of order are kept sorted and can be found
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDaysStaySorted(TestChecker checker) {
+		DayIndex testIndex = new DayIndex();
+		int[] dayList = { 500, -20, 100, 300, 100, 0, 1000 };
+		for (int tmpDay : dayList) {
+			testIndex.add(tmpDay, createEntry("day " + tmpDay));
+		}
+		checker.checkEquals(6, testIndex.size(), "number of days (100 was added twice)");
+		int[] sortedDayList = { -20, 0, 100, 300, 500, 1000 };
+		for (int i = 0; i < sortedDayList.length; i++) {
+			checker.checkEquals(sortedDayList[i], testIndex.dayAt(i), "day at position " + i);
+		}
+		checker.checkEquals(2, testIndex.get(100).size(), "entries on day 100");
+		checker.check(testIndex.get(200) == null, "day 200 isn't in the index");
+		checker.checkEquals(2, testIndex.findDay(100), "position of day 100");
+		checker.checkEquals(-4, testIndex.findDay(200), "insertion point of day 200 (-(3) - 1)");
+		checker.checkEquals(3, testIndex.ceilingSlot(200), "first day on or after 200");
+		checker.checkEquals(6, testIndex.ceilingSlot(2000), "first day on or after 2000 (past the end)");
+	}
+
+	/**
+	 * This checks that removing an entry leaves the other entries at their positions, and that an index that has had
+	 * every entry removed is empty
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRemoveKeepsPositions(TestChecker checker) {
+		DayIndex testIndex = new DayIndex();
+		SingleEntry firstEntry = createEntry("first");
+		SingleEntry secondEntry = createEntry("second");
+		SingleEntry thirdEntry = createEntry("third");
+		testIndex.add(10, firstEntry);
+		testIndex.add(10, secondEntry);
+		int thirdPosition = testIndex.add(10, thirdEntry);
+		checker.checkEquals(2, thirdPosition, "position of the third entry");
+
+		checker.check(testIndex.remove(10, 1) == secondEntry, "remove returns the entry at the position");
+		checker.check(testIndex.get(10).get(2) == thirdEntry, "the third entry keeps its position");
+		checker.checkEquals(2, testIndex.liveSizeAt(0), "entries left on the day");
+		checker.check(!testIndex.isSparse(10), "one removed entry out of three isn't sparse");
+
+		testIndex.remove(10, 0);
+		checker.check(testIndex.isSparse(10), "two removed entries out of three is sparse");
+		checker.check(testIndex.compactDay(10), "compacting moves the third entry");
+		checker.check(testIndex.get(10).size() == 1 && testIndex.get(10).get(0) == thirdEntry, "only the third entry is left");
+		checker.check(!testIndex.compactDay(10), "compacting again doesn't move anything");
+
+		testIndex.remove(10, 0);
+		checker.check(testIndex.isEmpty(), "the index is empty once every entry is removed");
+	}
+
+	/**
+	 * This checks that empty days are dropped once more than half the days are empty
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testEmptyDaysAreDropped(TestChecker checker) {
+		DayIndex testIndex = new DayIndex();
+		for (int i = 0; i < 10; i++) {
+			testIndex.add(i, createEntry("day " + i));
+		}
+		for (int i = 0; i < 5; i++) {
+			testIndex.remove(i, 0);
+		}
+		checker.checkEquals(10, testIndex.size(), "half the days empty are kept");
+		checker.checkEquals(0, testIndex.liveSizeAt(0), "an empty day has no live entries");
+		testIndex.remove(5, 0);
+		checker.checkEquals(4, testIndex.size(), "empty days are dropped once more than half are empty");
+		checker.checkEquals(6, testIndex.dayAt(0), "first day left");
+	}
+
+	/**
+	 * This checks insert, set and removeDay
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInsertSetAndRemoveDay(TestChecker checker) {
+		DayIndex testIndex = new DayIndex();
+		SingleEntry firstEntry = createEntry("first");
+		SingleEntry lastEntry = createEntry("last");
+		SingleEntry middleEntry = createEntry("middle");
+		testIndex.add(7, firstEntry);
+		testIndex.add(7, lastEntry);
+		testIndex.insert(7, 1, middleEntry);
+		ArrayList<SingleEntry> dayList = testIndex.get(7);
+		checker.check(dayList.get(0) == firstEntry && dayList.get(1) == middleEntry && dayList.get(2) == lastEntry, "insert puts the entry in the middle");
+
+		SingleEntry newEntry = createEntry("new");
+		testIndex.set(7, 1, newEntry);
+		checker.check(testIndex.get(7).get(1) == newEntry, "set replaces the entry");
+
+		testIndex.add(8, createEntry("other day"));
+		testIndex.removeDay(7);
+		checker.checkEquals(1, testIndex.size(), "days left after removing day 7");
+		checker.checkEquals(8, testIndex.dayAt(0), "day left");
+		checker.check(!testIndex.isEmpty(), "the entry on day 8 is still counted");
+	}
+}
@@ -0,0 +1,567 @@
+package budget_program;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests deleting and updating single entries in an EntryList by id and by position: removed entries leave
+ * nulls in the day lists until a day is compacted, empty days are dropped, and the stored location of each entry,
+ * the per-account lists, the counts and the running balances stay in step through all of it. It also checks that
+ * looking up an account's entries in a date range gives the same entries, in the same order, as the whole list
+ *
+ * @author Asa Swain
+ */
+
+class EntryListTest {
+	// accounts for the test entries
+	private static final Account FOOD_ACCOUNT = new Account("Food", "Groceries", true, true);
+	private static final Account RENT_ACCOUNT = new Account("Rent", "Apartment", true, true);
+	private static final Account PAY_ACCOUNT = new Account("Pay", "Paycheck", false, true);
+	private static final Account[] ACCOUNT_LIST = { FOOD_ACCOUNT, RENT_ACCOUNT, PAY_ACCOUNT };
+	// first day of the test entries
+	private static final int FIRST_DAY = EpochDay.fromDate(2017, 3, 1);
+
+	/**
+	 * This creates a test entry
+	 *
+	 * @param epochDay - the day of the entry
+	 * @param entryAccount - the account of the entry
+	 * @param desc - the description of the entry
+	 * @param cents - the amount of the entry in cents
+	 * @return the new entry
+	 */
+	private static SingleEntry createEntry(int epochDay, Account entryAccount, String desc, long cents) {
+		return new SingleEntry(EpochDay.toDate(epochDay), entryAccount, desc, BigDecimal.valueOf(cents, 2));
+	}
+
+	/**
+	 * This reads a private field of an object
+	 *
+	 * @param target - the object
+	 * @param fieldName - the name of the field
+	 * @return the value of the field
+	 * @exception Exception if the field can't be read
+	 */
+	private static Object getField(Object target, String fieldName) throws Exception {
+		Field tmpField = target.getClass().getDeclaredField(fieldName);
+		tmpField.setAccessible(true);
+		return tmpField.get(target);
+	}
+
+	/**
+	 * This gets the list of entries an EntryList stores for a day, including the nulls left by removed entries
+	 *
+	 * @param testList - the list
+	 * @param epochDay - the day
+	 * @return the stored list for the day, or null if the day isn't in the index
+	 * @exception Exception if the list can't be read
+	 */
+	private static ArrayList<SingleEntry> getStoredDay(EntryList testList, int epochDay) throws Exception {
+		return ((DayIndex) getField(testList, "singleEntryList")).get(epochDay);
+	}
+
+	/**
+	 * This gets the position an EntryList has stored for an entry in its day's list and in its account's list
+	 *
+	 * @param testList - the list
+	 * @param entryId - the id of the entry
+	 * @return the day position and the account position
+	 * @exception Exception if the location can't be read
+	 */
+	private static int[] getStoredPositions(EntryList testList, long entryId) throws Exception {
+		Object entryLocation = ((HashMap<?, ?>) getField(testList, "entryIdList")).get(entryId);
+		return new int[] { (Integer) getField(entryLocation, "position"), (Integer) getField(entryLocation, "accountPosition") };
+	}
+
+	/**
+	 * This checks that the location stored for each entry points at the entry in its day's list and in its account's list,
+	 * and that every entry in those lists has a location
+	 *
+	 * @param checker - the checker to report to
+	 * @param testList - the list to check
+	 * @param step - the change that was just made (for the check description)
+	 * @exception Exception if the indexes can't be read
+	 */
+	private static void checkLocations(TestChecker checker, EntryList testList, String step) throws Exception {
+		DayIndex dayIndex = (DayIndex) getField(testList, "singleEntryList");
+		HashMap<?, ?> accountIndexList = (HashMap<?, ?>) getField(testList, "accountEntryList");
+		HashMap<?, ?> locationList = (HashMap<?, ?>) getField(testList, "entryIdList");
+		boolean isConsistent = true;
+		for (Map.Entry<?, ?> tmpLocation : locationList.entrySet()) {
+			SingleEntry tmpEntry = (SingleEntry) getField(tmpLocation.getValue(), "entry");
+			int entryDay = (Integer) getField(tmpLocation.getValue(), "day");
+			int[] positionList = getStoredPositions(testList, (Long) tmpLocation.getKey());
+			DayIndex accountIndex = (DayIndex) accountIndexList.get(tmpEntry.getAccount());
+			isConsistent = isConsistent && tmpEntry.getEntryId() == (Long) tmpLocation.getKey() && entryDay == EpochDay.fromDate(tmpEntry.getDate())
+					&& dayIndex.get(entryDay).get(positionList[0]) == tmpEntry && accountIndex != null
+					&& accountIndex.get(entryDay).get(positionList[1]) == tmpEntry;
+		}
+		int dayEntryCnt = 0;
+		for (int i = 0; i < dayIndex.size(); i++) {
+			dayEntryCnt += dayIndex.liveSizeAt(i);
+		}
+		int accountEntryCnt = 0;
+		for (Object accountIndex : accountIndexList.values()) {
+			for (int i = 0; i < ((DayIndex) accountIndex).size(); i++) {
+				accountEntryCnt += ((DayIndex) accountIndex).liveSizeAt(i);
+			}
+		}
+		checker.check(isConsistent, "each stored location points at its entry after " + step);
+		checker.checkEquals(locationList.size(), dayEntryCnt, "entries in the day lists after " + step);
+		checker.checkEquals(locationList.size(), accountEntryCnt, "entries in the account lists after " + step);
+	}
+
+	/**
+	 * This lists the ids of some entries
+	 *
+	 * @param entryList - the entries
+	 * @return the ids in order
+	 */
+	private static ArrayList<Long> listIds(List<SingleEntry> entryList) {
+		ArrayList<Long> idList = new ArrayList<Long>();
+		for (SingleEntry tmpEntry : entryList) {
+			idList.add(tmpEntry.getEntryId());
+		}
+		return idList;
+	}
+
+	/**
+	 * This checks that a list has the same entries as a simple model of it (a list of entries for each day), in the day lists,
+	 * the account lists, the counts and the running balances, and that its stored locations are right
+	 *
+	 * @param checker - the checker to report to
+	 * @param testList - the list to check
+	 * @param modelList - the entries that should be in the list, by epoch day, in their order on the day
+	 * @param step - the change that was just made (for the check descriptions)
+	 * @exception Exception if the indexes can't be read
+	 */
+	private static void checkModel(TestChecker checker, EntryList testList, TreeMap<Integer, ArrayList<SingleEntry>> modelList, String step)
+			throws Exception {
+		ArrayList<SingleEntry> allEntryList = new ArrayList<SingleEntry>();
+		ArrayList<JDateTime> dateList = new ArrayList<JDateTime>();
+		boolean isSameDays = true;
+		for (Map.Entry<Integer, ArrayList<SingleEntry>> modelDay : modelList.entrySet()) {
+			if (modelDay.getValue().isEmpty()) {
+				continue;
+			}
+			JDateTime modelDate = EpochDay.toDate(modelDay.getKey());
+			dateList.add(modelDate);
+			allEntryList.addAll(modelDay.getValue());
+			ArrayList<SingleEntry> dayList = testList.getSingleEntryList(modelDate);
+			isSameDays = isSameDays && dayList != null && listIds(modelDay.getValue()).equals(listIds(dayList))
+					&& testList.getNumberOfSingleEntriesInDate(modelDate) == modelDay.getValue().size();
+		}
+		checker.check(isSameDays, "entries on each day after " + step);
+		checker.checkEquals(dateList, testList.getSingleEntryDateList(), "days with entries after " + step);
+		checker.checkEquals(allEntryList.size(), testList.singleEntrySize(), "count after " + step);
+
+		JDateTime midDate = EpochDay.toDate(FIRST_DAY + 10);
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			ArrayList<SingleEntry> accountEntryList = new ArrayList<SingleEntry>();
+			long allCents = 0;
+			long midCents = 0;
+			for (SingleEntry tmpEntry : allEntryList) {
+				if (tmpEntry.getAccount() == tmpAccount) {
+					accountEntryList.add(tmpEntry);
+					allCents += tmpEntry.getMonthlyMoney().getCents();
+					if (EpochDay.fromDate(tmpEntry.getDate()) <= FIRST_DAY + 10) {
+						midCents += tmpEntry.getMonthlyMoney().getCents();
+					}
+				}
+			}
+			String accountName = tmpAccount.getAccountName();
+			checker.checkEquals(listIds(accountEntryList), listIds(testList.getSingleEntries(tmpAccount, null, null)), accountName + " entries after " + step);
+			checker.checkEquals(accountEntryList.size(), testList.singleEntrySize(tmpAccount), accountName + " count after " + step);
+			checker.check(BigDecimal.valueOf(allCents, 2).compareTo(testList.getBalanceAsOf(tmpAccount, EpochDay.toDate(FIRST_DAY + 100))) == 0,
+					accountName + " balance after " + step);
+			checker.check(BigDecimal.valueOf(midCents, 2).compareTo(testList.getBalanceAsOf(tmpAccount, midDate)) == 0,
+					accountName + " balance part way through after " + step);
+		}
+		checkLocations(checker, testList, step);
+	}
+
+	/**
+	 * This checks that a removed entry leaves a null in its day's list so the later entries keep their positions,
+	 * and that the day is compacted (with the stored positions moved down) once more than half of it is removed
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the indexes can't be read
+	 */
+	static void testRemovedEntriesLeaveGaps(TestChecker checker) throws Exception {
+		EntryList testList = new EntryList();
+		SingleEntry[] entryList = new SingleEntry[4];
+		for (int i = 0; i < entryList.length; i++) {
+			entryList[i] = createEntry(FIRST_DAY, FOOD_ACCOUNT, "Store " + i, 100 + i);
+			testList.addSingleEntry(entryList[i]);
+		}
+
+		testList.deleteSingleEntry(entryList[1].getEntryId());
+		ArrayList<SingleEntry> storedDay = getStoredDay(testList, FIRST_DAY);
+		checker.check(storedDay.size() == 4 && storedDay.get(1) == null, "deleting by id leaves a null in its place");
+		checker.checkEquals(3, getStoredPositions(testList, entryList[3].getEntryId())[0], "a later entry keeps its position");
+		checker.checkEquals(3, getStoredPositions(testList, entryList[3].getEntryId())[1], "a later entry keeps its account position");
+		checker.checkEquals(3, testList.getNumberOfSingleEntriesInDate(EpochDay.toDate(FIRST_DAY)), "the removed entry isn't counted");
+
+		// a same-day update goes into the old entry's place without compacting
+		SingleEntry newEntry = createEntry(FIRST_DAY, FOOD_ACCOUNT, "Changed", 500);
+		testList.updateSingleEntry(entryList[2].getEntryId(), newEntry);
+		checker.check(getStoredDay(testList, FIRST_DAY).get(2) == newEntry, "an update on the same day replaces the entry in place");
+		checkLocations(checker, testList, "an update next to a removed entry");
+
+		testList.deleteSingleEntry(entryList[0]);
+		checker.checkEquals(4, getStoredDay(testList, FIRST_DAY).size(), "two removed entries out of four aren't compacted");
+		testList.deleteSingleEntry(newEntry.getEntryId());
+		checker.checkEquals(1, getStoredDay(testList, FIRST_DAY).size(), "the day is compacted once most of it is removed");
+		checker.checkEquals(0, getStoredPositions(testList, entryList[3].getEntryId())[0], "the entry left moves to the first position");
+		checker.checkEquals(0, getStoredPositions(testList, entryList[3].getEntryId())[1], "the entry left moves to the first account position");
+		checkLocations(checker, testList, "compacting a day");
+	}
+
+	/**
+	 * This checks that looking up or changing an entry by position counts only the entries that haven't been removed
+	 * (the day is compacted first, which moves the stored positions of the later entries)
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the indexes can't be read
+	 */
+	static void testPositionsSkipRemovedEntries(TestChecker checker) throws Exception {
+		EntryList testList = new EntryList();
+		SingleEntry[] entryList = new SingleEntry[5];
+		for (int i = 0; i < entryList.length; i++) {
+			entryList[i] = createEntry(FIRST_DAY, (i % 2 == 0) ? FOOD_ACCOUNT : RENT_ACCOUNT, "Entry " + i, 100 * (i + 1));
+			testList.addSingleEntry(entryList[i]);
+		}
+		JDateTime testDate = EpochDay.toDate(FIRST_DAY);
+		testList.deleteSingleEntry(entryList[1].getEntryId());
+		checker.check(testList.getSingleEntry(testDate, 1) == entryList[2], "position 1 is the entry after the removed one");
+		checker.checkEquals(4, getStoredDay(testList, FIRST_DAY).size(), "looking up by position compacts the day");
+		checker.checkEquals(1, getStoredPositions(testList, entryList[2].getEntryId())[0], "the stored position moves down with the entry");
+
+		testList.deleteSingleEntry(entryList[3].getEntryId());
+		testList.deleteSingleEntry(testDate, 2);
+		checker.checkEquals(Arrays.asList(entryList[0].getEntryId(), entryList[2].getEntryId()), listIds(testList.getSingleEntryList(testDate)),
+				"deleting by position after a removed entry deletes the right entry");
+
+		SingleEntry newEntry = createEntry(FIRST_DAY, FOOD_ACCOUNT, "New", 999);
+		testList.updateSingleEntry(testDate, 1, newEntry);
+		checker.checkEquals(entryList[2].getEntryId(), newEntry.getEntryId(), "an update by position keeps the id");
+		checker.checkEquals(Arrays.asList(entryList[0].getEntryId(), newEntry.getEntryId()), listIds(testList.getSingleEntries(FOOD_ACCOUNT, null, null)),
+				"the account's list after the update");
+		checkLocations(checker, testList, "changes by position");
+	}
+
+	/**
+	 * This checks that an update that changes an entry's account on the same day puts it into the new account's list
+	 * at the position that keeps that list in the order of the day's list, counting past removed entries
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the indexes can't be read
+	 */
+	static void testAccountChangeKeepsDayOrder(TestChecker checker) throws Exception {
+		EntryList testList = new EntryList();
+		SingleEntry[] entryList = new SingleEntry[6];
+		Account[] accountList = { RENT_ACCOUNT, FOOD_ACCOUNT, RENT_ACCOUNT, FOOD_ACCOUNT, RENT_ACCOUNT, FOOD_ACCOUNT };
+		for (int i = 0; i < entryList.length; i++) {
+			entryList[i] = createEntry(FIRST_DAY, accountList[i], "Entry " + i, 100 * (i + 1));
+			testList.addSingleEntry(entryList[i]);
+		}
+		// leave a null before the entry that changes account, in both the day's list and the food list
+		testList.deleteSingleEntry(entryList[1].getEntryId());
+		SingleEntry newEntry = createEntry(FIRST_DAY, FOOD_ACCOUNT, "Now food", 250);
+		testList.updateSingleEntry(entryList[2].getEntryId(), newEntry);
+		checker.checkEquals(Arrays.asList(newEntry.getEntryId(), entryList[3].getEntryId(), entryList[5].getEntryId()),
+				listIds(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "the new account's list is in day order");
+		checker.checkEquals(Arrays.asList(entryList[0].getEntryId(), entryList[4].getEntryId()), listIds(testList.getSingleEntries(RENT_ACCOUNT, null, null)),
+				"the old account's list");
+		checker.checkEquals(1, testList.getSingleEntryList(EpochDay.toDate(FIRST_DAY)).indexOf(newEntry), "the entry keeps its place in the day");
+		checker.checkEquals(3, testList.singleEntrySize(FOOD_ACCOUNT), "count for the new account");
+		checker.checkEquals(2, testList.singleEntrySize(RENT_ACCOUNT), "count for the old account");
+		checkLocations(checker, testList, "changing an entry's account");
+	}
+
+	/**
+	 * This checks that the days whose entries have all been removed are dropped once more than half the days are empty,
+	 * and that the entries on the days that are left can still be found, changed and deleted by id and by position
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the indexes can't be read
+	 */
+	static void testEmptyDaysAreDropped(TestChecker checker) throws Exception {
+		EntryList testList = new EntryList();
+		ArrayList<SingleEntry> entryList = new ArrayList<SingleEntry>();
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 2; j++) {
+				SingleEntry newEntry = createEntry(FIRST_DAY + i, ACCOUNT_LIST[j], "Day " + i + " entry " + j, 100 * i + j);
+				testList.addSingleEntry(newEntry);
+				entryList.add(newEntry);
+			}
+		}
+		DayIndex dayIndex = (DayIndex) getField(testList, "singleEntryList");
+		for (int i = 0; i < 12; i++) {
+			testList.deleteSingleEntry(entryList.get(i).getEntryId());
+		}
+		checker.checkEquals(4, dayIndex.size(), "the empty days are dropped once more than half the days are empty");
+		checker.checkEquals(FIRST_DAY + 6, dayIndex.dayAt(0), "the first day left");
+		checkLocations(checker, testList, "dropping empty days");
+
+		testList.updateSingleEntry(entryList.get(13).getEntryId(), createEntry(FIRST_DAY + 9, RENT_ACCOUNT, "Moved", 1));
+		testList.deleteSingleEntry(EpochDay.toDate(FIRST_DAY + 7), 1);
+		testList.updateSingleEntry(EpochDay.toDate(FIRST_DAY + 8), 0, createEntry(FIRST_DAY + 8, FOOD_ACCOUNT, "Changed", 2));
+		checker.checkEquals(Arrays.asList(entryList.get(14).getEntryId()), listIds(testList.getSingleEntryList(EpochDay.toDate(FIRST_DAY + 7))),
+				"day 7 after deleting by position");
+		checker.checkEquals(Arrays.asList(entryList.get(18).getEntryId(), entryList.get(19).getEntryId(), entryList.get(13).getEntryId()),
+				listIds(testList.getSingleEntryList(EpochDay.toDate(FIRST_DAY + 9))), "the moved entry goes onto the end of its new day");
+		checker.checkEquals(7, testList.singleEntrySize(), "count after the changes");
+		checkLocations(checker, testList, "changes after dropping empty days");
+	}
+
+	/**
+	 * This makes random additions, deletes and updates (by id and by position, moving entries between days and accounts)
+	 * while the list grows, churns and then shrinks, checking it against a simple model after each change
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the indexes can't be read
+	 */
+	static void testRandomChangesMatchModel(TestChecker checker) throws Exception {
+		EntryList testList = new EntryList();
+		TreeMap<Integer, ArrayList<SingleEntry>> modelList = new TreeMap<Integer, ArrayList<SingleEntry>>();
+		ArrayList<SingleEntry> liveList = new ArrayList<SingleEntry>();
+		Random testRandom = new Random(9);
+		// the chance out of 10 that a change adds an entry while the list grows, churns and shrinks
+		int[] addChanceList = { 8, 4, 1, 5 };
+		int changeNbr = 0;
+		for (int phase = 0; phase < addChanceList.length; phase++) {
+			for (int i = 0; i < 400; i++) {
+				changeNbr++;
+				int newDay = FIRST_DAY + testRandom.nextInt(30);
+				SingleEntry newEntry = createEntry(newDay, ACCOUNT_LIST[testRandom.nextInt(ACCOUNT_LIST.length)], "Change " + changeNbr,
+						testRandom.nextInt(100000));
+				if (liveList.isEmpty() || testRandom.nextInt(10) < addChanceList[phase]) {
+					ArrayList<SingleEntry> dayList = getModelDay(modelList, newDay);
+					if (testRandom.nextBoolean() && !dayList.isEmpty()) {
+						int position = testRandom.nextInt(dayList.size() + 1);
+						testList.addSingleEntry(newEntry, position);
+						dayList.add(position, newEntry);
+					} else {
+						testList.addSingleEntry(newEntry);
+						dayList.add(newEntry);
+					}
+					liveList.add(newEntry);
+					continue;
+				}
+				SingleEntry targetEntry = liveList.get(testRandom.nextInt(liveList.size()));
+				int targetDay = EpochDay.fromDate(targetEntry.getDate());
+				ArrayList<SingleEntry> targetDayList = modelList.get(targetDay);
+				int position = targetDayList.indexOf(targetEntry);
+				if (testRandom.nextInt(5) == 0) {
+					// update on the same day (in place)
+					newEntry.setDate(targetEntry.getDate());
+					newDay = targetDay;
+				}
+				switch (testRandom.nextInt(4)) {
+				case 0:
+					testList.deleteSingleEntry(targetEntry.getEntryId());
+					break;
+				case 1:
+					testList.deleteSingleEntry(targetEntry.getDate(), position);
+					break;
+				case 2:
+					testList.updateSingleEntry(targetEntry.getEntryId(), newEntry);
+					break;
+				default:
+					testList.updateSingleEntry(targetEntry.getDate(), position, newEntry);
+				}
+				liveList.remove(targetEntry);
+				if (newEntry.getEntryId() != targetEntry.getEntryId()) {
+					targetDayList.remove(position);
+				} else {
+					liveList.add(newEntry);
+					if (newDay == targetDay) {
+						targetDayList.set(position, newEntry);
+					} else {
+						targetDayList.remove(position);
+						getModelDay(modelList, newDay).add(newEntry);
+					}
+				}
+				if (i % 50 == 49) {
+					checkModel(checker, testList, modelList, "change " + changeNbr);
+				}
+			}
+			checkModel(checker, testList, modelList, "phase " + phase);
+		}
+	}
+
+	/**
+	 * This gets the model's list of entries for a day, adding an empty list if the day doesn't have one
+	 *
+	 * @param modelList - the model, by epoch day
+	 * @param epochDay - the day
+	 * @return the list of entries for the day
+	 */
+	private static ArrayList<SingleEntry> getModelDay(TreeMap<Integer, ArrayList<SingleEntry>> modelList, int epochDay) {
+		ArrayList<SingleEntry> dayList = modelList.get(epochDay);
+		if (dayList == null) {
+			dayList = new ArrayList<SingleEntry>();
+			modelList.put(epochDay, dayList);
+		}
+		return dayList;
+	}
+
+	/**
+	 * This lists the descriptions of entries, so a list can be compared with the expected entries in order
+	 *
+	 * @param entryList - the entries to list
+	 * @return the descriptions, separated by spaces
+	 */
+	private static String listDescs(List<SingleEntry> entryList) {
+		StringBuilder descText = new StringBuilder();
+		for (SingleEntry tmpEntry : entryList) {
+			if (descText.length() > 0) {
+				descText.append(' ');
+			}
+			descText.append(tmpEntry.getDesc());
+		}
+		return descText.toString();
+	}
+
+	/**
+	 * This checks that looking up an account's entries in a date range gives the entries of that account from the
+	 * whole list, in the same order
+	 *
+	 * @param checker - the checker to report to
+	 * @param testList - the list to check
+	 * @param startDay - the first day to look up (or Integer.MIN_VALUE for an open start)
+	 * @param endDay - the last day to look up (or Integer.MAX_VALUE for an open end)
+	 * @param step - the change that was just made (for the check descriptions)
+	 */
+	private static void checkAccountLookups(TestChecker checker, EntryList testList, int startDay, int endDay, String step) {
+		JDateTime startDate = (startDay == Integer.MIN_VALUE) ? null : EpochDay.toDate(startDay);
+		JDateTime endDate = (endDay == Integer.MAX_VALUE) ? null : EpochDay.toDate(endDay);
+		String rangeName = ((startDate == null) ? "the start" : startDate.toString("YYYY-MM-DD")) + " to "
+				+ ((endDate == null) ? "the end" : endDate.toString("YYYY-MM-DD"));
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			ArrayList<SingleEntry> expectedList = new ArrayList<SingleEntry>();
+			for (SingleEntry tmpEntry : testList.getSingleEntryList()) {
+				int entryDay = EpochDay.fromDate(tmpEntry.getDate());
+				if (tmpEntry.getAccount().equals(tmpAccount) && entryDay >= startDay && entryDay <= endDay) {
+					expectedList.add(tmpEntry);
+				}
+			}
+			checker.checkEquals(listDescs(expectedList), listDescs(testList.getSingleEntries(tmpAccount, startDate, endDate)),
+					tmpAccount.getAccountName() + " entries from " + rangeName + " after " + step);
+		}
+	}
+
+	/**
+	 * This checks the entries found for each account after adding entries (at the end of a day and at a position),
+	 * updating them (to another account, to another day and in place) and deleting them (by entry and by position)
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testAccountLookupsAfterChanges(TestChecker checker) {
+		EntryList testList = new EntryList();
+		int aprilDay = FIRST_DAY + 31;
+		SingleEntry food1 = createEntry(FIRST_DAY, FOOD_ACCOUNT, "f1", 100);
+		SingleEntry food2 = createEntry(FIRST_DAY, FOOD_ACCOUNT, "f2", 200);
+		SingleEntry food3 = createEntry(aprilDay, FOOD_ACCOUNT, "f3", 300);
+		SingleEntry rent1 = createEntry(FIRST_DAY, RENT_ACCOUNT, "r1", 90000);
+		SingleEntry pay1 = createEntry(FIRST_DAY + 1, PAY_ACCOUNT, "p1", 150000);
+		testList.addSingleEntry(food1);
+		testList.addSingleEntry(rent1);
+		testList.addSingleEntry(food2);
+		testList.addSingleEntry(pay1);
+		testList.addSingleEntry(food3);
+		testList.addSingleEntry(createEntry(aprilDay, RENT_ACCOUNT, "r2", 90000));
+		checker.checkEquals("f1 f2 f3", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "Food entries");
+		checker.checkEquals("f1 f2", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, EpochDay.toDate(FIRST_DAY), EpochDay.toDate(aprilDay - 1))),
+				"Food entries in March");
+		checker.checkEquals("f3", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, EpochDay.toDate(FIRST_DAY + 1), null)),
+				"Food entries after the first day");
+		checker.checkEquals("p1", listDescs(testList.getSingleEntries(PAY_ACCOUNT, null, EpochDay.toDate(FIRST_DAY + 1))),
+				"Pay entries up to the second day");
+		checker.checkEquals("", listDescs(testList.getSingleEntries(PAY_ACCOUNT, null, EpochDay.toDate(FIRST_DAY))),
+				"Pay entries up to the first day");
+
+		// an entry added at a position comes before the same account's entries after that position on its day
+		testList.addSingleEntry(createEntry(FIRST_DAY, FOOD_ACCOUNT, "f0", 50), 0);
+		testList.addSingleEntry(createEntry(FIRST_DAY, RENT_ACCOUNT, "r0", 80000), 2);
+		checker.checkEquals("f0 f1 f2 f3", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "Food entries after adding at a position");
+		checker.checkEquals("r0 r1 r2", listDescs(testList.getSingleEntries(RENT_ACCOUNT, null, null)), "Rent entries after adding at a position");
+		checkAccountLookups(checker, testList, Integer.MIN_VALUE, Integer.MAX_VALUE, "adding at a position");
+
+		// moving an entry to another account and day takes it out of its old account's entries
+		testList.updateSingleEntry(food1, createEntry(aprilDay, RENT_ACCOUNT, "f1m", 100));
+		checker.checkEquals("f0 f2 f3", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "Food entries after moving f1");
+		checker.checkEquals("r0 r1 r2 f1m", listDescs(testList.getSingleEntries(RENT_ACCOUNT, null, null)), "Rent entries after moving f1");
+
+		// updates in place keep the entry's position on the day, in the new account's entries too
+		testList.updateSingleEntry(EpochDay.toDate(FIRST_DAY), 0, createEntry(FIRST_DAY, PAY_ACCOUNT, "p0", 5000));
+		testList.updateSingleEntry(EpochDay.toDate(FIRST_DAY), 2, createEntry(FIRST_DAY, FOOD_ACCOUNT, "f4", 400));
+		checker.checkEquals("p0 r0 f4 f2", listDescs(testList.getSingleEntryList(EpochDay.toDate(FIRST_DAY))), "first day after updates in place");
+		checker.checkEquals("f4 f2 f3", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "Food entries after updates in place");
+		checker.checkEquals("r0 r2 f1m", listDescs(testList.getSingleEntries(RENT_ACCOUNT, null, null)), "Rent entries after updates in place");
+		checker.checkEquals("p0 p1", listDescs(testList.getSingleEntries(PAY_ACCOUNT, null, null)), "Pay entries after updates in place");
+		checkAccountLookups(checker, testList, FIRST_DAY, aprilDay - 1, "updates in place");
+
+		testList.deleteSingleEntry(food2);
+		testList.deleteSingleEntry(EpochDay.toDate(aprilDay), 0);
+		checker.checkEquals("f4", listDescs(testList.getSingleEntries(FOOD_ACCOUNT, null, null)), "Food entries after deletes");
+		testList.deleteSingleEntry(pay1);
+		testList.deleteSingleEntry(EpochDay.toDate(FIRST_DAY), 0);
+		checker.checkEquals("", listDescs(testList.getSingleEntries(PAY_ACCOUNT, null, null)), "Pay entries after deleting all of them");
+		checkAccountLookups(checker, testList, Integer.MIN_VALUE, Integer.MAX_VALUE, "deletes");
+	}
+
+	/**
+	 * This makes random additions, updates and deletes, checking the entries found for each account over a few date ranges
+	 * against the entries of the whole list as it goes
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testAccountLookupsMatchWholeList(TestChecker checker) {
+		EntryList testList = new EntryList();
+		ArrayList<SingleEntry> entryList = new ArrayList<SingleEntry>();
+		Random testRandom = new Random(2);
+		for (int i = 0; i < 1500; i++) {
+			int entryDay = FIRST_DAY + testRandom.nextInt(60);
+			SingleEntry newEntry = createEntry(entryDay, ACCOUNT_LIST[testRandom.nextInt(ACCOUNT_LIST.length)], "e" + i, testRandom.nextInt(100000));
+			int change = entryList.isEmpty() ? 0 : testRandom.nextInt(6);
+			SingleEntry targetEntry = entryList.isEmpty() ? null : entryList.get(testRandom.nextInt(entryList.size()));
+			if (change == 0 || change == 1) {
+				testList.addSingleEntry(newEntry);
+				entryList.add(newEntry);
+			} else if (change == 2) {
+				JDateTime targetDate = targetEntry.getDate();
+				newEntry.setDate(targetDate);
+				testList.addSingleEntry(newEntry, testRandom.nextInt(testList.getNumberOfSingleEntriesInDate(targetDate) + 1));
+				entryList.add(newEntry);
+			} else if (change == 3) {
+				testList.deleteSingleEntry(targetEntry);
+				entryList.remove(targetEntry);
+			} else if (change == 4) {
+				// a new account, and half the time a new day
+				if (testRandom.nextBoolean()) {
+					newEntry.setDate(targetEntry.getDate());
+				}
+				testList.updateSingleEntry(targetEntry, newEntry);
+				entryList.set(entryList.indexOf(targetEntry), newEntry);
+			} else {
+				JDateTime targetDate = targetEntry.getDate();
+				int position = testRandom.nextInt(testList.getNumberOfSingleEntriesInDate(targetDate));
+				SingleEntry oldEntry = testList.getSingleEntry(targetDate, position);
+				newEntry.setDate(targetDate);
+				testList.updateSingleEntry(targetDate, position, newEntry);
+				entryList.set(entryList.indexOf(oldEntry), newEntry);
+			}
+			if (i % 100 == 99) {
+				checker.checkEquals(entryList.size(), testList.singleEntrySize(), "count after " + (i + 1) + " changes");
+				checkAccountLookups(checker, testList, Integer.MIN_VALUE, Integer.MAX_VALUE, (i + 1) + " changes");
+				checkAccountLookups(checker, testList, FIRST_DAY + 10, FIRST_DAY + 40, (i + 1) + " changes");
+				checkAccountLookups(checker, testList, Integer.MIN_VALUE, FIRST_DAY + 5, (i + 1) + " changes");
+			}
+		}
+	}
+}
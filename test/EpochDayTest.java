@@ -0,0 +1,64 @@
+package budget_program;
+
+import java.time.LocalDate;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests EpochDay against java.time.LocalDate, which counts days from 1/1/1970 the same way
+ *
+ * @author Asa Swain
+ */
+
+class EpochDayTest {
+	/**
+	 * This checks dates that are easy to get wrong: the epoch itself, the days around it, and leap days
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testKnownDates(TestChecker checker) {
+		checker.checkEquals(0, EpochDay.fromDate(1970, 1, 1), "1/1/1970");
+		checker.checkEquals(-1, EpochDay.fromDate(1969, 12, 31), "12/31/1969");
+		checker.checkEquals(11016, EpochDay.fromDate(2000, 2, 29), "2/29/2000 (a leap day in a year divisible by 400)");
+		checker.checkEquals(11017, EpochDay.fromDate(2000, 3, 1), "3/1/2000");
+		checker.checkEquals(EpochDay.fromDate(1900, 3, 1) - 1, EpochDay.fromDate(1900, 2, 28), "1900 has no leap day");
+	}
+
+	/**
+	 * This checks every day from 1600 to 2400 against LocalDate, in both directions
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testMatchesLocalDate(TestChecker checker) {
+		int badCnt = 0;
+		int firstDay = (int) LocalDate.of(1600, 1, 1).toEpochDay();
+		int lastDay = (int) LocalDate.of(2400, 12, 31).toEpochDay();
+		for (int epochDay = firstDay; epochDay <= lastDay; epochDay++) {
+			LocalDate expectedDate = LocalDate.ofEpochDay(epochDay);
+			JDateTime date = EpochDay.toDate(epochDay);
+			if (EpochDay.fromDate(expectedDate.getYear(), expectedDate.getMonthValue(), expectedDate.getDayOfMonth()) != epochDay
+					|| date.getYear() != expectedDate.getYear() || date.getMonth() != expectedDate.getMonthValue()
+					|| date.getDay() != expectedDate.getDayOfMonth()
+					|| EpochDay.toMonthIndex(epochDay) != expectedDate.getYear() * 12 + expectedDate.getMonthValue() - 1) {
+				badCnt++;
+			}
+		}
+		checker.checkEquals(0, badCnt, "days that don't match LocalDate");
+	}
+
+	/**
+	 * This checks that converting a date to a month index and back gives the first day of the month
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testMonthIndex(TestChecker checker) {
+		JDateTime date = new JDateTime(2015, 7, 19);
+		int monthIndex = EpochDay.toMonthIndex(date);
+		checker.checkEquals(2015 * 12 + 6, monthIndex, "month index of 7/19/2015");
+		checker.checkEquals(monthIndex, EpochDay.toMonthIndex(EpochDay.fromDate(date)), "month index from the epoch day");
+		JDateTime firstDay = EpochDay.fromMonthIndex(monthIndex);
+		checker.check(firstDay.getYear() == 2015 && firstDay.getMonth() == 7 && firstDay.getDay() == 1, "first day of the month is 7/1/2015");
+		JDateTime december = EpochDay.fromMonthIndex(2015 * 12 + 11);
+		checker.check(december.getYear() == 2015 && december.getMonth() == 12, "month index 11 of a year is December");
+	}
+}
@@ -0,0 +1,106 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests IntervalIndex by comparing its searches with checking every entry
+ *
+ * @author Asa Swain
+ */
+
+class IntervalIndexTest {
+	// account for the test entries
+	private static final Account RENT_ACCOUNT = new Account("Rent", "Apartment", true, true);
+
+	/**
+	 * This creates a repeating entry covering a range of epoch days
+	 *
+	 * @param startDay - the start day (or null for no start date)
+	 * @param endDay - the end day (or null for no end date)
+	 * @return a new RepeatingEntry
+	 */
+	private static RepeatingEntry createEntry(Integer startDay, Integer endDay) {
+		JDateTime startDate = (startDay == null) ? null : EpochDay.toDate(startDay);
+		JDateTime endDate = (endDay == null) ? null : EpochDay.toDate(endDay);
+		return new RepeatingEntry(startDate, endDate, RENT_ACCOUNT, startDay + "-" + endDay, BigDecimal.TEN);
+	}
+
+	/**
+	 * This checks if an entry is active on a day by looking at its dates
+	 *
+	 * @param tmpEntry - the entry to check
+	 * @param targetDay - the epoch day to check
+	 * @return true if the entry is active on the day, else false
+	 */
+	private static boolean isActive(RepeatingEntry tmpEntry, int targetDay) {
+		return (tmpEntry.getStartDate() == null || EpochDay.fromDate(tmpEntry.getStartDate()) <= targetDay)
+				&& (tmpEntry.getEndDate() == null || EpochDay.fromDate(tmpEntry.getEndDate()) >= targetDay);
+	}
+
+	/**
+	 * This checks that the search finds the entries that start or end on the day searched for, and entries without dates
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testEdgesAndOpenRanges(TestChecker checker) {
+		IntervalIndex<RepeatingEntry> testIndex = new IntervalIndex<RepeatingEntry>();
+		RepeatingEntry closedEntry = createEntry(100, 200);
+		RepeatingEntry openStartEntry = createEntry(null, 150);
+		RepeatingEntry openEndEntry = createEntry(180, null);
+		testIndex.add(closedEntry);
+		testIndex.add(openStartEntry);
+		testIndex.add(openEndEntry);
+
+		checker.checkEquals(1, testIndex.getActiveEntries(-10000).size(), "only the entry with no start is active long before");
+		checker.checkEquals(2, testIndex.getActiveEntries(100).size(), "an entry is active on its start day");
+		checker.checkEquals(2, testIndex.getActiveEntries(180).size(), "the entry with no start has ended by day 180");
+		checker.checkEquals(2, testIndex.getActiveEntries(200).size(), "an entry is active on its end day");
+		checker.checkEquals(1, testIndex.getActiveEntries(201).size(), "only the entry with no end is active after day 200");
+
+		testIndex.remove(openEndEntry);
+		checker.checkEquals(0, testIndex.getActiveEntries(201).size(), "a removed entry isn't found");
+		testIndex.add(closedEntry);
+		checker.checkEquals(2, testIndex.getActiveEntries(120).size(), "adding an entry that is already indexed doesn't index it twice");
+	}
+
+	/**
+	 * This checks the search against every entry for random ranges, adding and removing entries between searches
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testMatchesLinearSearch(TestChecker checker) {
+		Random random = new Random(3);
+		IntervalIndex<RepeatingEntry> testIndex = new IntervalIndex<RepeatingEntry>();
+		ArrayList<RepeatingEntry> entryList = new ArrayList<RepeatingEntry>();
+		int badCnt = 0;
+		for (int round = 0; round < 50; round++) {
+			for (int i = 0; i < 20; i++) {
+				int startDay = random.nextInt(3000);
+				RepeatingEntry newEntry = createEntry(random.nextInt(10) == 0 ? null : startDay,
+						random.nextInt(10) == 0 ? null : startDay + random.nextInt(400));
+				entryList.add(newEntry);
+				testIndex.add(newEntry);
+			}
+			for (int i = 0; i < 5; i++) {
+				testIndex.remove(entryList.remove(random.nextInt(entryList.size())));
+			}
+			for (int i = 0; i < 20; i++) {
+				int targetDay = random.nextInt(3600) - 100;
+				HashSet<RepeatingEntry> expectedList = new HashSet<RepeatingEntry>();
+				for (RepeatingEntry tmpEntry : entryList) {
+					if (isActive(tmpEntry, targetDay)) {
+						expectedList.add(tmpEntry);
+					}
+				}
+				ArrayList<RepeatingEntry> foundList = testIndex.getActiveEntries(targetDay);
+				if (foundList.size() != expectedList.size() || !expectedList.containsAll(foundList)) {
+					badCnt++;
+				}
+			}
+		}
+		checker.checkEquals(0, badCnt, "searches that don't match checking every entry");
+	}
+}
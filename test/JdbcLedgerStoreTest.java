@@ -0,0 +1,494 @@
+package budget_program;
+
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests loading from the SQL database store with every table read at the same time on its own connection.
+ * There is no database server here, so the tests register a JDBC driver that reads rows from tables held in memory
+ * (only the calls the store makes when it opens a database and loads it are supported).
+ *
+ * @author Asa Swain
+ */
+
+class JdbcLedgerStoreTest {
+	// start of the URLs handled by the test driver (the rest of the URL is the name of a test database)
+	private static final String URL_PREFIX = "jdbc:budgettest:";
+
+	// test databases by name
+	private static final ConcurrentHashMap<String, TestDatabase> databaseList = new ConcurrentHashMap<String, TestDatabase>();
+	// true once the test driver has been registered with DriverManager
+	private static boolean isDriverRegistered = false;
+
+	/**
+	 * This registers the test driver with DriverManager (the first time it is called)
+	 *
+	 * @exception SQLException if the driver can't be registered
+	 */
+	private static synchronized void registerDriver() throws SQLException {
+		if (!isDriverRegistered) {
+			DriverManager.registerDriver(new TestDriver());
+			isDriverRegistered = true;
+		}
+	}
+
+	/**
+	 * This creates a test database with a few months of single entries, repeating and installment entries,
+	 * monthly budgets and a default budget
+	 *
+	 * @param databaseName - the name to register the database under
+	 * @return the database
+	 */
+	private static TestDatabase createTestDatabase(String databaseName) {
+		TestDatabase testDatabase = new TestDatabase();
+		String[] accountNameList = { "Food", "Rent", "Pay" };
+		testDatabase.addRow("account_list", "Food", "Groceries", "Y", "Y");
+		testDatabase.addRow("account_list", "Rent", "Apartment", "Y", "Y");
+		testDatabase.addRow("account_list", "Pay", "Paycheck", "N", "Y");
+		Random testRandom = new Random(20);
+		long entryId = 1;
+		for (int day = 0; day < 120; day++) {
+			int entryCnt = testRandom.nextInt(3);
+			for (int i = 0; i < entryCnt; i++) {
+				String accountName = accountNameList[testRandom.nextInt(accountNameList.length)];
+				BigDecimal entryAmount = BigDecimal.valueOf(testRandom.nextInt(50000), 2);
+				if (!accountName.equals("Pay")) {
+					entryAmount = entryAmount.negate();
+				}
+				testDatabase.addRow("general_ledger", entryId, toSQLDate(EpochDay.fromDate(2019, 1, 1) + day), "Entry " + entryId, accountName,
+						entryAmount);
+				entryId++;
+			}
+		}
+		for (int i = 1; i <= 3; i++) {
+			testDatabase.addRow("repeat_entry", entryId++, toSQLDate(EpochDay.fromDate(2019, i, 1)), toSQLDate(EpochDay.fromDate(2019, 12, 1)),
+					"Repeat " + i, accountNameList[i - 1], BigDecimal.valueOf(i * 100));
+			testDatabase.addRow("installment_entry", entryId++, toSQLDate(EpochDay.fromDate(2019, i, 1)), toSQLDate(EpochDay.fromDate(2019, 6, 1)),
+					"Installment " + i, accountNameList[i - 1], BigDecimal.valueOf(i * 60));
+		}
+		for (int month = 1; month <= 4; month++) {
+			testDatabase.addRow("monthly_budget", month, 2019, "Food", BigDecimal.valueOf(200 + month));
+			testDatabase.addRow("monthly_budget", month, 2019, "Rent", new BigDecimal("950.00"));
+		}
+		testDatabase.addRow("default_budget", "Food", new BigDecimal("250.00"));
+		testDatabase.addRow("default_budget", "Rent", new BigDecimal("950.00"));
+		testDatabase.addRow("schema_version", 2);
+		databaseList.put(databaseName, testDatabase);
+		return testDatabase;
+	}
+
+	/**
+	 * This converts an epoch day to a date as it is read from the SQL database
+	 *
+	 * @param epochDay - the day
+	 * @return the SQL date
+	 */
+	private static java.sql.Date toSQLDate(int epochDay) {
+		return java.sql.Date.valueOf(java.time.LocalDate.ofEpochDay(epochDay));
+	}
+
+	/**
+	 * This loads a test database into a new ledger
+	 *
+	 * @param databaseName - the name of the database
+	 * @param loadConnectionCnt - the number of extra connections to load the tables on (0 to load them one after another)
+	 * @return the ledger
+	 * @exception LedgerStoreException if the database can't be opened or loaded
+	 */
+	private static GeneralLedger loadTestLedger(String databaseName, int loadConnectionCnt) throws LedgerStoreException {
+		JdbcLedgerStore testStore = new JdbcLedgerStore(URL_PREFIX + databaseName, "test", "");
+		// small batches, so the loading thread has to wait for the thread reading the general ledger more than once
+		testStore.setBatchSize(7);
+		testStore.setLoadConnectionCnt(loadConnectionCnt);
+		GeneralLedger testLedger = new GeneralLedger(testStore);
+		try {
+			testLedger.loadData();
+		} finally {
+			testStore.close();
+		}
+		return testLedger;
+	}
+
+	/**
+	 * This lists everything loaded into a ledger as text, so two ledgers can be compared
+	 *
+	 * @param targetLedger - the ledger to list
+	 * @return the accounts, entries and budgets of the ledger, one per line
+	 */
+	private static String listLedger(GeneralLedger targetLedger) {
+		StringBuilder ledgerText = new StringBuilder();
+		for (Account tmpAccount : targetLedger.getAccountList()) {
+			ledgerText.append(tmpAccount.getAccountName()).append(' ').append(tmpAccount.getIsAnExpense()).append('\n');
+		}
+		for (SingleEntry tmpEntry : targetLedger.getSingleEntries(null, null)) {
+			ledgerText.append(tmpEntry.getEntryId()).append(' ').append(tmpEntry.getDate().toString("YYYY-MM-DD")).append(' ')
+					.append(tmpEntry.getAccount().getAccountName()).append(' ').append(tmpEntry.getDesc()).append(' ')
+					.append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		ArrayList<MultipleEntry> multipleEntryList = new ArrayList<MultipleEntry>(targetLedger.getRepeatingEntryList(null));
+		multipleEntryList.addAll(targetLedger.getInstallmentEntryList(null));
+		for (MultipleEntry tmpEntry : multipleEntryList) {
+			ledgerText.append(tmpEntry.getEntryType()).append(' ').append(tmpEntry.getEntryId()).append(' ')
+					.append(tmpEntry.getStartDate().toString("YYYY-MM-DD")).append(' ').append(tmpEntry.getEndDate().toString("YYYY-MM-DD"))
+					.append(' ').append(tmpEntry.getAccount().getAccountName()).append(' ').append(tmpEntry.getDesc()).append(' ')
+					.append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		for (int month = 1; month <= 12; month++) {
+			ArrayList<Account> budgetAccountList = targetLedger.getMonthlyBudgetAccounts(month, 2019);
+			if (budgetAccountList != null) {
+				for (Account tmpAccount : budgetAccountList) {
+					ledgerText.append("Budget ").append(month).append(' ').append(tmpAccount.getAccountName()).append(' ')
+							.append(targetLedger.getMonthlyBudgetAmount(month, 2019, tmpAccount)).append('\n');
+				}
+			}
+		}
+		for (Account tmpAccount : targetLedger.getDefaultBudgetAccounts()) {
+			ledgerText.append("Default ").append(tmpAccount.getAccountName()).append(' ').append(targetLedger.getDefaultBudgetAmount(tmpAccount))
+					.append('\n');
+		}
+		return ledgerText.toString();
+	}
+
+	/**
+	 * This checks that loading the tables at the same time gives the same ledger as loading them one after another
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the test database can't be loaded
+	 */
+	static void testParallelLoadMatchesSerialLoad(TestChecker checker) throws Exception {
+		registerDriver();
+		TestDatabase testDatabase = createTestDatabase("matches");
+		try {
+			String serialText = listLedger(loadTestLedger("matches", 0));
+			checker.check(serialText.contains("Entry 1 ") && serialText.contains("Installment 3") && serialText.contains("Default Rent"),
+					"the serial load read every table");
+			checker.checkEquals(serialText, listLedger(loadTestLedger("matches", 1)), "ledger loaded on one extra connection");
+			checker.checkEquals(serialText, listLedger(loadTestLedger("matches", 4)), "ledger loaded on four extra connections");
+			checker.checkEquals(serialText, listLedger(loadTestLedger("matches", 8)), "ledger loaded with more connections than tables");
+			checker.checkEquals(0, testDatabase.openConnectionCnt.get(), "every connection is closed");
+		} finally {
+			databaseList.remove("matches");
+		}
+	}
+
+	/**
+	 * This checks that when one table can't be read the load fails with that table's error, the tables that are still
+	 * being read are stopped, and the threads that loaded the tables finish
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the test is interrupted
+	 */
+	static void testFailedTableStopsLoad(TestChecker checker) throws Exception {
+		registerDriver();
+		TestDatabase testDatabase = createTestDatabase("fails");
+		// with four connections every thread is busy when repeat_entry fails: the other three tables are read until
+		// their threads are interrupted (default_budget is read by the thread that read the general ledger)
+		testDatabase.failingTable = "repeat_entry";
+		testDatabase.blockingTableList.addAll(Arrays.asList("installment_entry", "monthly_budget", "default_budget"));
+		try {
+			try {
+				loadTestLedger("fails", 4);
+				checker.check(false, "loading a table that can't be read should fail");
+			} catch (LedgerStoreException e) {
+				checker.check(e.getCause() instanceof SQLException && e.getCause().getMessage().contains("repeat_entry"),
+						"the load fails with the error from the table that couldn't be read");
+			}
+			checker.check(testDatabase.interruptedLatch.await(10, TimeUnit.SECONDS), "every table that was still being read is stopped");
+			boolean isEveryThreadFinished = true;
+			for (Thread blockedThread : testDatabase.blockedThreadList) {
+				blockedThread.join(10000);
+				isEveryThreadFinished = isEveryThreadFinished && !blockedThread.isAlive();
+			}
+			checker.checkEquals(3, testDatabase.blockedThreadList.size(), "number of threads that were stopped");
+			checker.check(isEveryThreadFinished, "the threads that were reading the stopped tables finish");
+			checker.checkEquals(0, testDatabase.openConnectionCnt.get(), "every connection is closed");
+		} finally {
+			databaseList.remove("fails");
+		}
+	}
+
+	/**
+	 * This class holds the tables of a test database in memory
+	 *
+	 * @author Asa Swain
+	 */
+	private static class TestDatabase {
+		// rows of each table by table name (the columns in the order the store selects them)
+		private final HashMap<String, ArrayList<Object[]>> tableList = new HashMap<String, ArrayList<Object[]>>();
+		// number of connections that haven't been closed
+		private final AtomicInteger openConnectionCnt = new AtomicInteger();
+		// table whose query fails once every blocking table is being read (null if none)
+		private volatile String failingTable;
+		// tables whose first row isn't returned until the reading thread is interrupted
+		private final Set<String> blockingTableList = new HashSet<String>();
+		// threads that read the blocking tables
+		private final List<Thread> blockedThreadList = new CopyOnWriteArrayList<Thread>();
+		// counted down when a thread starts reading a blocking table
+		private final CountDownLatch blockedLatch = new CountDownLatch(3);
+		// counted down when a thread reading a blocking table is interrupted
+		private final CountDownLatch interruptedLatch = new CountDownLatch(3);
+
+		/**
+		 * This adds a row to a table
+		 *
+		 * @param tableName - the table
+		 * @param columnList - the values of the row
+		 */
+		private void addRow(String tableName, Object... columnList) {
+			ArrayList<Object[]> rowList = tableList.get(tableName);
+			if (rowList == null) {
+				rowList = new ArrayList<Object[]>();
+				tableList.put(tableName, rowList);
+			}
+			rowList.add(columnList);
+		}
+
+		/**
+		 * This creates a connection to the database
+		 *
+		 * @return the connection
+		 */
+		private Connection createConnection() {
+			openConnectionCnt.incrementAndGet();
+			return (Connection) createProxy(Connection.class, new InvocationHandler() {
+				private boolean isClosed = false;
+
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if (method.getName().equals("createStatement")) {
+						return createStatement();
+					}
+					if (method.getName().equals("getMetaData")) {
+						return createMetaData();
+					}
+					if (method.getName().equals("close") && !isClosed) {
+						isClosed = true;
+						openConnectionCnt.decrementAndGet();
+					}
+					return getDefaultValue(proxy, method, args);
+				}
+			});
+		}
+
+		/**
+		 * This creates the database metadata, which lists the tables of the database
+		 *
+		 * @return the metadata
+		 */
+		private DatabaseMetaData createMetaData() {
+			return (DatabaseMetaData) createProxy(DatabaseMetaData.class, new InvocationHandler() {
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if (method.getName().equals("getTables")) {
+						ArrayList<Object[]> rowList = new ArrayList<Object[]>();
+						for (String tableName : tableList.keySet()) {
+							rowList.add(new Object[] { null, null, tableName });
+						}
+						return createResultSet(rowList, false);
+					}
+					return getDefaultValue(proxy, method, args);
+				}
+			});
+		}
+
+		/**
+		 * This creates a statement that runs SELECT commands against the tables
+		 *
+		 * @return the statement
+		 */
+		private Statement createStatement() {
+			return (Statement) createProxy(Statement.class, new InvocationHandler() {
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if (method.getName().equals("executeQuery")) {
+						String command = (String) args[0];
+						int tableStart = command.indexOf('`') + 1;
+						String tableName = command.substring(tableStart, command.indexOf('`', tableStart));
+						if (tableName.equals(failingTable)) {
+							blockedLatch.await(10, TimeUnit.SECONDS);
+							throw new SQLException("Unable to read " + tableName);
+						}
+						ArrayList<Object[]> rowList = tableList.get(tableName);
+						return createResultSet((rowList == null) ? new ArrayList<Object[]>() : rowList, blockingTableList.contains(tableName));
+					}
+					return getDefaultValue(proxy, method, args);
+				}
+			});
+		}
+
+		/**
+		 * This creates a result set that returns a list of rows
+		 *
+		 * @param rowList - the rows
+		 * @param isBlocking - true to wait for the reading thread to be interrupted before the first row
+		 * @return the result set
+		 */
+		private ResultSet createResultSet(final List<Object[]> rowList, final boolean isBlocking) {
+			return (ResultSet) createProxy(ResultSet.class, new InvocationHandler() {
+				private int rowNbr = -1;
+
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					String methodName = method.getName();
+					if (methodName.equals("next")) {
+						if (isBlocking) {
+							blockedThreadList.add(Thread.currentThread());
+							blockedLatch.countDown();
+							try {
+								new CountDownLatch(1).await();
+							} catch (InterruptedException e) {
+								interruptedLatch.countDown();
+								throw new SQLException("Reading was interrupted", e);
+							}
+						}
+						rowNbr++;
+						return rowNbr < rowList.size();
+					}
+					if (methodName.startsWith("get") && args != null && args.length == 1 && args[0] instanceof Integer) {
+						Object value = rowList.get(rowNbr)[(Integer) args[0] - 1];
+						if (methodName.equals("getString")) {
+							return (value == null) ? null : value.toString();
+						}
+						if (methodName.equals("getInt")) {
+							return ((Number) value).intValue();
+						}
+						if (methodName.equals("getLong")) {
+							return ((Number) value).longValue();
+						}
+						return value;
+					}
+					return getDefaultValue(proxy, method, args);
+				}
+			});
+		}
+	}
+
+	/**
+	 * This creates an object that implements a JDBC interface
+	 *
+	 * @param jdbcInterface - the interface
+	 * @param handler - the handler the calls are passed to
+	 * @return the object
+	 */
+	private static Object createProxy(Class<?> jdbcInterface, InvocationHandler handler) {
+		return Proxy.newProxyInstance(JdbcLedgerStoreTest.class.getClassLoader(), new Class<?>[] { jdbcInterface }, handler);
+	}
+
+	/**
+	 * This handles a call a test JDBC object doesn't support, by doing nothing
+	 *
+	 * @param proxy - the object that was called
+	 * @param method - the method that was called
+	 * @param args - the arguments of the call
+	 * @return the value returned by the Object methods, false or 0 for methods that return a primitive, or null
+	 */
+	private static Object getDefaultValue(Object proxy, Method method, Object[] args) {
+		if (method.getName().equals("equals")) {
+			return proxy == args[0];
+		}
+		if (method.getName().equals("hashCode")) {
+			return System.identityHashCode(proxy);
+		}
+		if (method.getName().equals("toString")) {
+			return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+		}
+		Class<?> returnType = method.getReturnType();
+		if (returnType == boolean.class) {
+			return false;
+		}
+		if (returnType == int.class) {
+			return 0;
+		}
+		if (returnType == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	/**
+	 * This class is a JDBC driver for the test databases
+	 *
+	 * @author Asa Swain
+	 */
+	private static class TestDriver implements Driver {
+		/**
+		 * This connects to a test database
+		 *
+		 * @param url - the URL of the database
+		 * @param info - the user and password (not checked)
+		 * @return the connection, or null if the URL isn't for a test database
+		 * @exception SQLException if there is no test database with that name
+		 */
+		public Connection connect(String url, Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			TestDatabase testDatabase = databaseList.get(url.substring(URL_PREFIX.length()));
+			if (testDatabase == null) {
+				throw new SQLException("There is no test database " + url);
+			}
+			return testDatabase.createConnection();
+		}
+
+		/**
+		 * This checks if a URL is for a test database
+		 *
+		 * @param url - the URL
+		 * @return true if the URL starts with URL_PREFIX
+		 */
+		public boolean acceptsURL(String url) {
+			return url.startsWith(URL_PREFIX);
+		}
+
+		/**
+		 * This lists the connection properties (the test driver doesn't have any)
+		 *
+		 * @param url - the URL of the database
+		 * @param info - the properties given so far
+		 * @return an empty list
+		 */
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		/**
+		 * This gets the major version of the driver
+		 *
+		 * @return 1
+		 */
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		/**
+		 * This gets the minor version of the driver
+		 *
+		 * @return 0
+		 */
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		/**
+		 * This tells DriverManager the test driver isn't a full JDBC driver
+		 *
+		 * @return false
+		 */
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		/**
+		 * This gets the logger of the driver (the test driver doesn't log)
+		 *
+		 * @return nothing
+		 * @exception SQLFeatureNotSupportedException always
+		 */
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+}
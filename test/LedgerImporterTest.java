@@ -0,0 +1,162 @@
+package budget_program;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * This class tests reading CSV and OFX files with LedgerImporter
+ *
+ * @author Asa Swain
+ */
+
+class LedgerImporterTest {
+	/**
+	 * This creates an empty ledger in memory with a Food account and a Bank account
+	 *
+	 * @return the ledger
+	 * @exception LedgerStoreException if the ledger can't be loaded
+	 */
+	private static GeneralLedger createLedger() throws LedgerStoreException {
+		GeneralLedger testLedger = new GeneralLedger(new InMemoryLedgerStore());
+		testLedger.loadData();
+		testLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		testLedger.addAccount("Bank", "Checking account", false, false, false, BigDecimal.ZERO);
+		return testLedger;
+	}
+
+	/**
+	 * This lists the single entries of a ledger as text
+	 *
+	 * @param targetLedger - the ledger to list
+	 * @return the date, description, account and amount of each entry, one entry per line
+	 */
+	private static String listEntries(GeneralLedger targetLedger) {
+		StringBuilder entryText = new StringBuilder();
+		for (SingleEntry tmpEntry : targetLedger.getSingleEntries(null, null)) {
+			entryText.append(tmpEntry.getDate().toString("YYYY-MM-DD")).append('|').append(tmpEntry.getDesc()).append('|')
+					.append(tmpEntry.getAccount().getAccountName()).append('|').append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		return entryText.toString();
+	}
+
+	/**
+	 * This checks quoted fields (with separators, quotes and line breaks in them), blank lines, Windows line breaks,
+	 * and amounts with currency signs, thousands separators and parentheses
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be imported
+	 */
+	static void testCsvFields(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = createLedger();
+		LedgerImporter testImporter = new LedgerImporter(testLedger);
+		testImporter.setBatchSize(2);
+		String csvText = "Date,Description,Account,Amount\r\n"
+				+ "2018-01-02,\"Store, Main St\",Food,-12.50\r\n"
+				+ "\r\n"
+				+ "2018-01-03,\"The \"\"Good\"\" Bakery\",Food,(3.25)\n"
+				+ "2018-01-04,\"Two\nlines\",Bank,\"$1,200.00\"\n"
+				+ "2018-01-05,No line break at the end,Food, -1.00 ";
+		ImportResult result = testImporter.importCsv(new StringReader(csvText));
+		checker.checkEquals(4L, result.getRowCnt(), "rows read (the header and blank line aren't rows)");
+		checker.checkEquals(4L, result.getImportedCnt(), "entries imported");
+		checker.checkEquals(0L, result.getErrorCnt(), "rows with errors");
+		checker.checkEquals("2018-01-02|Store, Main St|Food|-12.50\n"
+				+ "2018-01-03|The \"Good\" Bakery|Food|-3.25\n"
+				+ "2018-01-04|Two\nlines|Bank|1200.00\n"
+				+ "2018-01-05|No line break at the end|Food|-1.00\n", listEntries(testLedger), "imported entries");
+	}
+
+	/**
+	 * This checks that rows that can't be imported are skipped and reported with their line numbers
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be imported
+	 */
+	static void testCsvBadRows(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = createLedger();
+		LedgerImporter testImporter = new LedgerImporter(testLedger);
+		String csvText = "Date,Description,Account,Amount\n"
+				+ "2018-13-45,Bad date,Food,1.00\n"
+				+ "2018-02-01,Unknown account,Travel,1.00\n"
+				+ "2018-02-02,Bad amount,Food,ten\n"
+				+ "2018-02-03,Missing amount,Food\n"
+				+ "2018-02-04,No account,,2.00\n"
+				+ "2018-02-05,Good,Food,-5.00\n";
+		ImportResult result = testImporter.importCsv(new StringReader(csvText));
+		checker.checkEquals(6L, result.getRowCnt(), "rows read");
+		checker.checkEquals(1L, result.getImportedCnt(), "entries imported");
+		checker.checkEquals(5L, result.getErrorCnt(), "rows with errors");
+		ArrayList<String> errorList = result.getErrorList();
+		checker.check(errorList.get(0).startsWith("Line 2:") && errorList.get(0).contains("2018-13-45"), "bad date error: " + errorList.get(0));
+		checker.check(errorList.get(1).startsWith("Line 3:") && errorList.get(1).contains("Travel"), "unknown account error: " + errorList.get(1));
+		checker.check(errorList.get(4).startsWith("Line 6:"), "a row without an account needs a default account: " + errorList.get(4));
+
+		GeneralLedger defaultLedger = createLedger();
+		LedgerImporter defaultImporter = new LedgerImporter(defaultLedger);
+		defaultImporter.setDefaultAccount(defaultLedger.getAccount("Bank"));
+		defaultImporter.importCsv(new StringReader(csvText));
+		checker.check(listEntries(defaultLedger).contains("2018-02-04|No account|Bank|2.00"), "a row without an account uses the default account");
+	}
+
+	/**
+	 * This checks other column orders, separators and date formats, and amounts that the account decides the sign of
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be imported
+	 */
+	static void testCsvSettings(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = createLedger();
+		LedgerImporter testImporter = new LedgerImporter(testLedger);
+		testImporter.setColumns(1, 2, -1, 0);
+		testImporter.setSeparator(';');
+		testImporter.setDateFormat("MM/DD/YYYY");
+		testImporter.setHasHeaderRow(false);
+		testImporter.setAmountSigned(false);
+		testImporter.setDefaultAccount(testLedger.getAccount("Food"));
+		ImportResult result = testImporter.importCsv(new StringReader("4.50;03/15/2018;Lunch\n"));
+		checker.checkEquals(1L, result.getImportedCnt(), "entries imported");
+		checker.checkEquals("2018-03-15|Lunch|Food|-4.50\n", listEntries(testLedger), "an expense account makes the amount negative");
+	}
+
+	/**
+	 * This checks reading an OFX 1 (SGML) file, where the tags for values aren't closed
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be imported
+	 */
+	static void testOfxSgml(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = createLedger();
+		LedgerImporter testImporter = new LedgerImporter(testLedger);
+		testImporter.setDefaultAccount(testLedger.getAccount("Bank"));
+		String ofxText = "OFXHEADER:100\r\nDATA:OFXSGML\r\n\r\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\r\n"
+				+ "<STMTTRN>\r\n<TRNTYPE>DEBIT\r\n<DTPOSTED>20180402120000[-5:EST]\r\n<TRNAMT>-20.00\r\n<NAME>Smith &amp; Sons\r\n</STMTTRN>\r\n"
+				+ "<STMTTRN>\r\n<TRNTYPE>CREDIT\r\n<DTPOSTED>20180403\r\n<TRNAMT>500.00\r\n<MEMO>Paycheck\r\n</STMTTRN>\r\n"
+				+ "<STMTTRN>\r\n<DTPOSTED>2018\r\n<TRNAMT>1.00\r\n<NAME>Short date\r\n</STMTTRN>\r\n"
+				+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\r\n";
+		ImportResult result = testImporter.importOfx(new StringReader(ofxText));
+		checker.checkEquals(3L, result.getRowCnt(), "transactions read");
+		checker.checkEquals(2L, result.getImportedCnt(), "transactions imported");
+		checker.check(result.getErrorCnt() == 1 && result.getErrorList().get(0).contains("2018"), "a date without a month and day is an error");
+		checker.checkEquals("2018-04-02|Smith & Sons|Bank|-20.00\n"
+				+ "2018-04-03|Paycheck|Bank|500.00\n", listEntries(testLedger), "imported transactions (the memo is used without a name)");
+	}
+
+	/**
+	 * This checks reading an OFX 2 (XML) file, where every tag is closed
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be imported
+	 */
+	static void testOfxXml(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = createLedger();
+		LedgerImporter testImporter = new LedgerImporter(testLedger);
+		testImporter.setDefaultAccount(testLedger.getAccount("Bank"));
+		String ofxText = "<?xml version=\"1.0\"?>\n<?OFX OFXHEADER=\"200\" VERSION=\"220\"?>\n<OFX><BANKTRANLIST>\n"
+				+ "<STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20180501</DTPOSTED><TRNAMT>-7.25</TRNAMT><NAME>Cafe</NAME><MEMO>Card 1234</MEMO></STMTTRN>\n"
+				+ "</BANKTRANLIST></OFX>\n";
+		ImportResult result = testImporter.importOfx(new StringReader(ofxText));
+		checker.checkEquals(1L, result.getImportedCnt(), "transactions imported");
+		checker.checkEquals("2018-05-01|Cafe|Bank|-7.25\n", listEntries(testLedger), "the name is used when there is one");
+	}
+}
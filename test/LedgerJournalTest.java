@@ -0,0 +1,182 @@
+package budget_program;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests replaying a LedgerJournal: changes that weren't saved are there when the ledger is loaded again,
+ * and replaying a journal whose changes are already saved leaves the ledger as it was
+ *
+ * @author Asa Swain
+ */
+
+class LedgerJournalTest {
+	/**
+	 * This lists the accounts and single entries of a ledger as text, so two ledgers can be compared
+	 *
+	 * @param targetLedger - the ledger to list
+	 * @return the accounts, and the id, date, description and amount of each entry
+	 */
+	private static String listLedger(GeneralLedger targetLedger) {
+		StringBuilder ledgerText = new StringBuilder();
+		for (Account tmpAccount : targetLedger.getAccountList()) {
+			ledgerText.append(tmpAccount.getAccountName()).append('\n');
+		}
+		for (SingleEntry tmpEntry : targetLedger.getSingleEntries(null, null)) {
+			ledgerText.append(tmpEntry.getEntryId()).append(' ').append(tmpEntry.getDate().toString("YYYY-MM-DD")).append(' ')
+					.append(tmpEntry.getDesc()).append(' ').append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		return ledgerText.toString();
+	}
+
+	/**
+	 * This loads a ledger from a store, replaying a journal file into the store first
+	 *
+	 * @param testStore - the store to load from
+	 * @param journalFile - the journal file
+	 * @return the loaded ledger
+	 * @exception LedgerStoreException if the ledger can't be loaded
+	 */
+	private static GeneralLedger loadLedger(LedgerStore testStore, File journalFile) throws LedgerStoreException {
+		GeneralLedger loadedLedger = new GeneralLedger(testStore);
+		loadedLedger.setJournal(new LedgerJournal(journalFile));
+		loadedLedger.loadData();
+		return loadedLedger;
+	}
+
+	/**
+	 * This checks that unsaved changes are replayed from the journal, and that replaying the same journal again
+	 * (as happens if the program stops after the changes are saved but before the journal is emptied) doesn't change anything
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the journal can't be written or read
+	 */
+	static void testReplayIsIdempotent(TestChecker checker) throws Exception {
+		File journalFile = File.createTempFile("budget-test", ".journal");
+		try {
+			InMemoryLedgerStore testStore = new InMemoryLedgerStore();
+			GeneralLedger firstLedger = loadLedger(testStore, journalFile);
+			firstLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+			Account foodAccount = firstLedger.getAccount("Food");
+			long keptId = firstLedger.addSingleEntry(new JDateTime(2017, 1, 5), "Store", foodAccount, new BigDecimal("10.00"));
+			long deletedId = firstLedger.addSingleEntry(new JDateTime(2017, 1, 6), "Market", foodAccount, new BigDecimal("4.00"));
+			firstLedger.saveData();
+			checker.checkEquals(8L, journalFile.length(), "saving empties the journal (only the header is left)");
+
+			// these changes are only in the journal when the program stops
+			firstLedger.updateSingleEntry(keptId, new JDateTime(2017, 2, 1), "Store (moved)", foodAccount, new BigDecimal("12.00"));
+			firstLedger.deleteSingleEntry(deletedId);
+			firstLedger.addSingleEntry(new JDateTime(2017, 2, 9), "Bakery", foodAccount, new BigDecimal("3.50"));
+			firstLedger.addAccount("Fun", "Movies", true, true, false, BigDecimal.ZERO);
+			String expectedLedger = listLedger(firstLedger);
+			byte[] journalData = Files.readAllBytes(journalFile.toPath());
+			firstLedger.close();
+
+			GeneralLedger replayedLedger = loadLedger(testStore, journalFile);
+			checker.checkEquals(expectedLedger, listLedger(replayedLedger), "ledger after replaying the journal");
+			checker.check(!replayedLedger.hasUnsavedChanges(), "the replayed changes are saved to the store");
+			replayedLedger.close();
+			checker.checkEquals(8L, journalFile.length(), "the journal is emptied once it has been replayed");
+
+			Files.write(journalFile.toPath(), journalData);
+			GeneralLedger secondReplayLedger = loadLedger(testStore, journalFile);
+			checker.checkEquals(expectedLedger, listLedger(secondReplayLedger), "ledger after replaying the same journal again");
+			secondReplayLedger.close();
+		} finally {
+			journalFile.delete();
+		}
+	}
+
+	/**
+	 * This checks that changes recorded on several threads at once share a sync, instead of each thread syncing
+	 * the journal in turn while it holds the change set's lock
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the journal can't be written or read
+	 */
+	static void testConcurrentChangesShareASync(TestChecker checker) throws Exception {
+		File journalFile = File.createTempFile("budget-test", ".journal");
+		final int threadCnt = 8;
+		ExecutorService recordPool = Executors.newFixedThreadPool(threadCnt);
+		try {
+			LedgerJournal testJournal = new LedgerJournal(journalFile);
+			testJournal.open();
+			// the thread that syncs waits long enough for every thread to write its change first
+			testJournal.setSyncDelay(500);
+			final ChangeSet testChangeSet = new ChangeSet();
+			testChangeSet.setJournal(testJournal);
+			final Account foodAccount = new Account("Food", "Groceries", true, true);
+			final CountDownLatch startLatch = new CountDownLatch(1);
+			ArrayList<Future<?>> recordList = new ArrayList<Future<?>>();
+			for (int i = 0; i < threadCnt; i++) {
+				final int entryNbr = i + 1;
+				recordList.add(recordPool.submit(new Callable<Void>() {
+					public Void call() throws Exception {
+						SingleEntry newEntry = new SingleEntry(new JDateTime(2017, 4, entryNbr), foodAccount, "Store", BigDecimal.ONE);
+						newEntry.setEntryId(entryNbr);
+						startLatch.await();
+						testChangeSet.record(LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry));
+						return null;
+					}
+				}));
+			}
+			long startTime = System.nanoTime();
+			startLatch.countDown();
+			for (Future<?> tmpRecord : recordList) {
+				tmpRecord.get();
+			}
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+			checker.checkEquals(threadCnt, testChangeSet.size(), "every change is recorded");
+			checker.check(testJournal.getSyncCount() <= 2, "syncs for " + threadCnt + " changes: " + testJournal.getSyncCount());
+			checker.check(elapsedMillis < 500L * threadCnt / 2, "the threads didn't wait for each other's syncs (" + elapsedMillis + "ms)");
+			testJournal.close();
+
+			LedgerJournal replayJournal = new LedgerJournal(journalFile);
+			checker.checkEquals(threadCnt * 2, replayJournal.open().size(), "every change is in the journal (as a delete and an insert)");
+			replayJournal.close();
+		} finally {
+			recordPool.shutdownNow();
+			journalFile.delete();
+		}
+	}
+
+	/**
+	 * This checks that a change that was only partly written to the end of the journal is dropped
+	 * and the changes before it are replayed
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the journal can't be written or read
+	 */
+	static void testPartlyWrittenChangeIsDropped(TestChecker checker) throws Exception {
+		File journalFile = File.createTempFile("budget-test", ".journal");
+		try {
+			InMemoryLedgerStore testStore = new InMemoryLedgerStore();
+			GeneralLedger firstLedger = loadLedger(testStore, journalFile);
+			firstLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+			firstLedger.addSingleEntry(new JDateTime(2017, 3, 3), "Store", firstLedger.getAccount("Food"), new BigDecimal("8.00"));
+			String expectedLedger = listLedger(firstLedger);
+			firstLedger.close();
+
+			long journalSize = journalFile.length();
+			FileOutputStream journalOutput = new FileOutputStream(journalFile, true);
+			try {
+				// the start of a record that says it is 50 bytes long
+				journalOutput.write(new byte[] { 0, 0, 0, 50, 9, 9 });
+			} finally {
+				journalOutput.close();
+			}
+			checker.check(journalFile.length() > journalSize, "the journal has a partly written record");
+
+			GeneralLedger replayedLedger = loadLedger(testStore, journalFile);
+			checker.checkEquals(expectedLedger, listLedger(replayedLedger), "ledger after replaying the complete records");
+			replayedLedger.close();
+		} finally {
+			journalFile.delete();
+		}
+	}
+}
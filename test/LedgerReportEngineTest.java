@@ -0,0 +1,256 @@
+package budget_program;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests the report engine by checking its reports against the count, total, smallest and largest amount
+ * worked out one entry at a time on a single thread, over groups of months that are and aren't split between tasks
+ *
+ * @author Asa Swain
+ */
+
+class LedgerReportEngineTest {
+	// accounts for the test entries
+	private static final Account[] ACCOUNT_LIST = { new Account("Food", "Groceries", true, true), new Account("Rent", "Apartment", true, true),
+			new Account("Pay", "Paycheck", false, true) };
+
+	/**
+	 * This reads the fewest days with entries the engine splits between two tasks
+	 *
+	 * @return LedgerReportEngine.MIN_SPLIT_DAYS
+	 * @exception Exception if the constant can't be read
+	 */
+	private static int getMinSplitDays() throws Exception {
+		Field splitField = LedgerReportEngine.class.getDeclaredField("MIN_SPLIT_DAYS");
+		splitField.setAccessible(true);
+		return splitField.getInt(null);
+	}
+
+	/**
+	 * This adds entries to a list on a number of days, every other day from a start date
+	 *
+	 * @param targetList - the list to add to
+	 * @param entryList - the entries that are in the list (the new entries are added to it)
+	 * @param testRandom - where to get the number of entries on each day, their accounts and amounts from
+	 * @param firstDay - the epoch day of the first day with entries
+	 * @param dayCnt - the number of days with entries
+	 * @param maxEntryCnt - the most entries on one day
+	 */
+	private static void addEntries(EntryList targetList, ArrayList<SingleEntry> entryList, Random testRandom, int firstDay, int dayCnt,
+			int maxEntryCnt) {
+		for (int i = 0; i < dayCnt; i++) {
+			JDateTime entryDate = EpochDay.toDate(firstDay + 2 * i);
+			int entryCnt = 1 + testRandom.nextInt(maxEntryCnt);
+			for (int j = 0; j < entryCnt; j++) {
+				SingleEntry newEntry = new SingleEntry(entryDate, ACCOUNT_LIST[testRandom.nextInt(ACCOUNT_LIST.length)], "Entry " + i + "-" + j,
+						BigDecimal.valueOf(testRandom.nextInt(200000), 2));
+				targetList.addSingleEntry(newEntry);
+				entryList.add(newEntry);
+			}
+		}
+	}
+
+	/**
+	 * This lists the statistics for a group as text
+	 *
+	 * @param count - the number of entries
+	 * @param sum - the total of the amounts
+	 * @param min - the smallest amount
+	 * @param max - the largest amount
+	 * @return the count, total, smallest and largest amount
+	 */
+	private static String listStats(long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+		return count + " " + sum.setScale(2) + " " + min.setScale(2) + " " + max.setScale(2);
+	}
+
+	/**
+	 * This lists the statistics in a report as text
+	 *
+	 * @param testReport - the report to list
+	 * @return the statistics for each month and account and for the whole report, one group per line
+	 */
+	private static String listReport(LedgerReport testReport) {
+		StringBuilder reportText = new StringBuilder();
+		for (Map.Entry<JDateTime, EntryStats> monthStats : testReport.getMonthStats().entrySet()) {
+			EntryStats tmpStats = monthStats.getValue();
+			reportText.append(monthStats.getKey().toString("YYYY-MM")).append(' ')
+					.append(listStats(tmpStats.getCount(), tmpStats.getSum(), tmpStats.getMin(), tmpStats.getMax())).append('\n');
+		}
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			EntryStats tmpStats = testReport.getAccountStats().get(tmpAccount);
+			if (tmpStats != null) {
+				reportText.append(tmpAccount.getAccountName()).append(' ')
+						.append(listStats(tmpStats.getCount(), tmpStats.getSum(), tmpStats.getMin(), tmpStats.getMax())).append('\n');
+			}
+		}
+		EntryStats totalStats = testReport.getTotalStats();
+		if (totalStats.getCount() > 0) {
+			reportText.append(listStats(totalStats.getCount(), totalStats.getSum(), totalStats.getMin(), totalStats.getMax())).append('\n');
+		}
+		return reportText.toString();
+	}
+
+	/**
+	 * This works out the statistics of a report one entry at a time and lists them the same way as listReport
+	 *
+	 * @param entryList - the entries that are in the list
+	 * @param startDate - the first date to include (if null start with the earliest entry)
+	 * @param endDate - the last date to include (if null end with the latest entry)
+	 * @return the statistics for each month and account and for the whole range, one group per line
+	 */
+	private static String listExpectedReport(ArrayList<SingleEntry> entryList, JDateTime startDate, JDateTime endDate) {
+		TreeMap<String, ArrayList<BigDecimal>> groupList = new TreeMap<String, ArrayList<BigDecimal>>();
+		ArrayList<BigDecimal> totalList = new ArrayList<BigDecimal>();
+		for (SingleEntry tmpEntry : entryList) {
+			int entryDay = EpochDay.fromDate(tmpEntry.getDate());
+			if ((startDate != null && entryDay < EpochDay.fromDate(startDate)) || (endDate != null && entryDay > EpochDay.fromDate(endDate))) {
+				continue;
+			}
+			for (String groupName : new String[] { tmpEntry.getDate().toString("YYYY-MM"), "~" + tmpEntry.getAccount().getAccountName() }) {
+				if (!groupList.containsKey(groupName)) {
+					groupList.put(groupName, new ArrayList<BigDecimal>());
+				}
+				groupList.get(groupName).add(tmpEntry.getMonthlyAmount());
+			}
+			totalList.add(tmpEntry.getMonthlyAmount());
+		}
+		StringBuilder reportText = new StringBuilder();
+		for (Map.Entry<String, ArrayList<BigDecimal>> tmpGroup : groupList.entrySet()) {
+			if (!tmpGroup.getKey().startsWith("~")) {
+				reportText.append(tmpGroup.getKey()).append(' ').append(listAmounts(tmpGroup.getValue())).append('\n');
+			}
+		}
+		for (Account tmpAccount : ACCOUNT_LIST) {
+			ArrayList<BigDecimal> accountList = groupList.get("~" + tmpAccount.getAccountName());
+			if (accountList != null) {
+				reportText.append(tmpAccount.getAccountName()).append(' ').append(listAmounts(accountList)).append('\n');
+			}
+		}
+		if (!totalList.isEmpty()) {
+			reportText.append(listAmounts(totalList)).append('\n');
+		}
+		return reportText.toString();
+	}
+
+	/**
+	 * This works out the count, total, smallest and largest of a list of amounts
+	 *
+	 * @param amountList - the amounts
+	 * @return the statistics listed by listStats
+	 */
+	private static String listAmounts(ArrayList<BigDecimal> amountList) {
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal min = amountList.get(0);
+		BigDecimal max = amountList.get(0);
+		for (BigDecimal tmpAmount : amountList) {
+			sum = sum.add(tmpAmount);
+			min = min.min(tmpAmount);
+			max = max.max(tmpAmount);
+		}
+		return listStats(amountList.size(), sum, min, max);
+	}
+
+	/**
+	 * This checks the reports on a list over every entry and over parts of its range against the expected statistics
+	 *
+	 * @param checker - the checker to report to
+	 * @param reportEngine - the engine to build the reports with
+	 * @param targetList - the list to report on
+	 * @param entryList - the entries that are in the list
+	 * @param step - what the list holds (for the check descriptions)
+	 */
+	private static void checkReports(TestChecker checker, LedgerReportEngine reportEngine, EntryList targetList, ArrayList<SingleEntry> entryList,
+			String step) {
+		checker.checkEquals(listExpectedReport(entryList, null, null), listReport(targetList.getLedgerReport(reportEngine, null, null)),
+				"report over every entry with " + step);
+		int firstDay = EpochDay.fromDate(targetList.getFirstSingleEntryDate());
+		int lastDay = EpochDay.fromDate(targetList.getLastSingleEntryDate());
+		// ranges that start and end partway through a month, on days with and without entries
+		int[][] rangeList = { { firstDay + 17, lastDay - 20 }, { firstDay + 1, lastDay - 1 }, { firstDay, firstDay + 10 },
+				{ (firstDay + lastDay) / 2, lastDay + 30 }, { firstDay - 40, (firstDay + lastDay) / 2 + 3 } };
+		for (int[] tmpRange : rangeList) {
+			JDateTime startDate = EpochDay.toDate(tmpRange[0]);
+			JDateTime endDate = EpochDay.toDate(tmpRange[1]);
+			checker.checkEquals(listExpectedReport(entryList, startDate, endDate),
+					listReport(targetList.getLedgerReport(reportEngine, startDate, endDate)),
+					"report from " + startDate.toString("YYYY-MM-DD") + " to " + endDate.toString("YYYY-MM-DD") + " with " + step);
+		}
+		checker.checkEquals("", listReport(targetList.getLedgerReport(reportEngine, EpochDay.toDate(lastDay + 1), EpochDay.toDate(lastDay + 90))),
+				"report after the last entry with " + step);
+	}
+
+	/**
+	 * This checks the reports on lists whose number of days with entries is just under, at and far over the number
+	 * the engine splits between two tasks, with and without columnar storage
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if MIN_SPLIT_DAYS can't be read
+	 */
+	static void testReportMatchesSingleThreadedTotals(TestChecker checker) throws Exception {
+		int minSplitDays = getMinSplitDays();
+		LedgerReportEngine reportEngine = new LedgerReportEngine(new ForkJoinPool(4));
+		int[] dayCntList = { minSplitDays - 1, minSplitDays, minSplitDays + 1, 10 * minSplitDays };
+		for (boolean isColumnar : new boolean[] { false, true }) {
+			for (int dayCnt : dayCntList) {
+				EntryList testList = new EntryList(isColumnar);
+				ArrayList<SingleEntry> entryList = new ArrayList<SingleEntry>();
+				addEntries(testList, entryList, new Random(dayCnt), EpochDay.fromDate(2017, 3, 5), dayCnt, 3);
+				checkReports(checker, reportEngine, testList, entryList, dayCnt + " days" + (isColumnar ? " (columnar)" : ""));
+			}
+		}
+	}
+
+	/**
+	 * This checks the reports on a list after deleting entries, so some days only have removed entries
+	 * (and the groups of months are split by the days that are left)
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if MIN_SPLIT_DAYS can't be read
+	 */
+	static void testReportSkipsDeletedEntries(TestChecker checker) throws Exception {
+		int minSplitDays = getMinSplitDays();
+		LedgerReportEngine reportEngine = new LedgerReportEngine(new ForkJoinPool(4));
+		EntryList testList = new EntryList();
+		ArrayList<SingleEntry> entryList = new ArrayList<SingleEntry>();
+		Random testRandom = new Random(24);
+		addEntries(testList, entryList, testRandom, EpochDay.fromDate(2016, 11, 20), 4 * minSplitDays, 2);
+		// every entry in December 2016 and April 2017, and a third of the others
+		for (Iterator<SingleEntry> entryIterator = entryList.iterator(); entryIterator.hasNext();) {
+			SingleEntry tmpEntry = entryIterator.next();
+			String entryMonth = tmpEntry.getDate().toString("YYYY-MM");
+			if (entryMonth.equals("2016-12") || entryMonth.equals("2017-04") || testRandom.nextInt(3) == 0) {
+				testList.deleteSingleEntry(tmpEntry.getEntryId());
+				entryIterator.remove();
+			}
+		}
+		checker.check(!listReport(testList.getLedgerReport(reportEngine, null, null)).contains("2016-12"),
+				"a month whose entries were all deleted isn't in the report");
+		checkReports(checker, reportEngine, testList, entryList, "deleted entries");
+	}
+
+	/**
+	 * This checks the report on a single month with more entries than MIN_SPLIT_DAYS (which isn't split, since the
+	 * engine only splits on month boundaries)
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if MIN_SPLIT_DAYS can't be read
+	 */
+	static void testReportOnOneMonth(TestChecker checker) throws Exception {
+		int minSplitDays = getMinSplitDays();
+		LedgerReportEngine reportEngine = new LedgerReportEngine(new ForkJoinPool(4));
+		EntryList testList = new EntryList();
+		ArrayList<SingleEntry> entryList = new ArrayList<SingleEntry>();
+		addEntries(testList, entryList, new Random(1), EpochDay.fromDate(2018, 7, 1), 15, 2 * minSplitDays);
+		checker.check(entryList.size() > minSplitDays, "the month has more entries than MIN_SPLIT_DAYS");
+		checker.checkEquals(listExpectedReport(entryList, null, null), listReport(testList.getLedgerReport(reportEngine, null, null)),
+				"report over one month");
+		checker.checkEquals(listExpectedReport(entryList, new JDateTime(2018, 7, 4), new JDateTime(2018, 7, 20)),
+				listReport(testList.getLedgerReport(reportEngine, new JDateTime(2018, 7, 4), new JDateTime(2018, 7, 20))),
+				"report over part of one month");
+	}
+}
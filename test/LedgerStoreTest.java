@@ -0,0 +1,236 @@
+package budget_program;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests saving to the in-memory and file ledger stores: a list of changes is saved all or not at all,
+ * the file store's change log is replayed when the file is opened again, and a snapshot can be opened on its own
+ *
+ * @author Asa Swain
+ */
+
+class LedgerStoreTest {
+	/**
+	 * This creates an empty folder for the files of a test
+	 *
+	 * @return the folder
+	 * @exception IOException if the folder can't be created
+	 */
+	private static File createTestFolder() throws IOException {
+		return Files.createTempDirectory("budget-test").toFile();
+	}
+
+	/**
+	 * This deletes a folder created by createTestFolder and the files in it
+	 *
+	 * @param testFolder - the folder to delete
+	 */
+	private static void deleteTestFolder(File testFolder) {
+		File[] fileList = testFolder.listFiles();
+		if (fileList != null) {
+			for (File tmpFile : fileList) {
+				tmpFile.delete();
+			}
+		}
+		testFolder.delete();
+	}
+
+	/**
+	 * This lists the single entries of a ledger as text, so two ledgers can be compared
+	 *
+	 * @param targetLedger - the ledger to list
+	 * @return the id, date, description and amount of each entry
+	 */
+	private static String listEntries(GeneralLedger targetLedger) {
+		StringBuilder entryText = new StringBuilder();
+		for (SingleEntry tmpEntry : targetLedger.getSingleEntries(null, null)) {
+			entryText.append(tmpEntry.getEntryId()).append(' ').append(tmpEntry.getDate().toString("YYYY-MM-DD")).append(' ')
+					.append(tmpEntry.getDesc()).append(' ').append(tmpEntry.getMonthlyAmount()).append('\n');
+		}
+		return entryText.toString();
+	}
+
+	/**
+	 * This adds an account and a few months of entries to a ledger, saving after each month
+	 *
+	 * @param targetLedger - the ledger to add to
+	 * @exception LedgerStoreException if the changes can't be saved
+	 */
+	private static void addTestEntries(GeneralLedger targetLedger) throws LedgerStoreException {
+		targetLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		Account foodAccount = targetLedger.getAccount("Food");
+		for (int month = 1; month <= 6; month++) {
+			for (int day = 1; day <= 10; day++) {
+				targetLedger.addSingleEntry(new JDateTime(2016, month, day), "Store " + month + "-" + day, foodAccount, new BigDecimal("1.25"));
+			}
+			targetLedger.saveData();
+		}
+		long firstId = targetLedger.getSingleEntries(null, null).get(0).getEntryId();
+		targetLedger.deleteSingleEntry(firstId);
+		targetLedger.updateSingleEntry(firstId + 1, new JDateTime(2016, 8, 8), "Moved", foodAccount, new BigDecimal("9.99"));
+		targetLedger.saveData();
+	}
+
+	/**
+	 * This checks that the in-memory store doesn't save any of a list of changes if one of them is bad
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the store can't be read
+	 */
+	static void testInMemorySaveIsAllOrNone(TestChecker checker) throws Exception {
+		InMemoryLedgerStore testStore = new InMemoryLedgerStore();
+		Account foodAccount = new Account("Food", "Groceries", true, true);
+		SingleEntry goodEntry = new SingleEntry(1, 2, 2016, foodAccount, "Store", BigDecimal.ONE);
+		goodEntry.setEntryId(1);
+		SingleEntry badEntry = new SingleEntry(2, 2, 2016, foodAccount, "No date", BigDecimal.ONE);
+		badEntry.setEntryId(2);
+		badEntry.setDate(null);
+		ArrayList<LedgerChange> changeList = new ArrayList<LedgerChange>();
+		changeList.add(LedgerChange.forAccount(LedgerChange.Operation.INSERT, foodAccount));
+		changeList.add(LedgerChange.forEntry(LedgerChange.Operation.INSERT, goodEntry));
+		changeList.add(LedgerChange.forEntry(LedgerChange.Operation.INSERT, badEntry));
+		try {
+			testStore.saveChanges(changeList);
+			checker.check(false, "saving an entry without a date should fail");
+		} catch (LedgerStoreException e) {
+			checker.checkEquals(0L, testStore.getMaxSingleEntryId(), "the good entry before the bad one wasn't saved");
+			GeneralLedger loadedLedger = new GeneralLedger(testStore);
+			loadedLedger.loadData();
+			checker.checkEquals(0, loadedLedger.getAccountList().size(), "the account before the bad entry wasn't saved");
+		}
+	}
+
+	/**
+	 * This checks that the changes saved to the file store's log are there when the file is opened again,
+	 * and that a record that was only partly written to the end of the log is dropped
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be written or read
+	 */
+	static void testFileStoreReplaysLog(TestChecker checker) throws Exception {
+		File testFolder = createTestFolder();
+		try {
+			File ledgerFile = new File(testFolder, "ledger.bin");
+			File logFile = new File(testFolder, "ledger.bin.log");
+			GeneralLedger savedLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			savedLedger.loadData(3);
+			addTestEntries(savedLedger);
+			String savedEntries = listEntries(savedLedger);
+			savedLedger.close();
+			checker.check(logFile.length() > 0, "the later saves were added to the log");
+
+			GeneralLedger reopenedLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			reopenedLedger.loadData(3);
+			checker.checkEquals(savedEntries, listEntries(reopenedLedger), "entries after opening the file again");
+			reopenedLedger.close();
+
+			long logSize = logFile.length();
+			FileOutputStream logOutput = new FileOutputStream(logFile, true);
+			try {
+				// the start of a record that says it is 50 bytes long
+				logOutput.write(new byte[] { 0, 0, 0, 50, 1, 2, 3 });
+			} finally {
+				logOutput.close();
+			}
+			GeneralLedger tornLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			tornLedger.loadData(3);
+			checker.checkEquals(savedEntries, listEntries(tornLedger), "entries after a partly written record");
+			checker.checkEquals(logSize, logFile.length(), "the partly written record is cut off the log");
+			tornLedger.close();
+		} finally {
+			deleteTestFolder(testFolder);
+		}
+	}
+
+	/**
+	 * This checks that replaying a log whose changes are already in the ledger file (if the program stopped after
+	 * the file was rewritten but before the log was emptied) leaves the ledger as it was
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the file can't be written or read
+	 */
+	static void testFileStoreStaleLogIsHarmless(TestChecker checker) throws Exception {
+		File testFolder = createTestFolder();
+		try {
+			File ledgerFile = new File(testFolder, "ledger.bin");
+			File logFile = new File(testFolder, "ledger.bin.log");
+			GeneralLedger savedLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			savedLedger.loadData();
+			addTestEntries(savedLedger);
+			String savedEntries = listEntries(savedLedger);
+			savedLedger.close();
+			byte[] logData = Files.readAllBytes(logFile.toPath());
+
+			FileLedgerStore compactedStore = new FileLedgerStore(ledgerFile);
+			compactedStore.open();
+			Method writeFileMethod = FileLedgerStore.class.getDeclaredMethod("writeFile");
+			writeFileMethod.setAccessible(true);
+			writeFileMethod.invoke(compactedStore);
+			compactedStore.close();
+			checker.check(!logFile.exists(), "rewriting the ledger file empties the log");
+			checker.check(!new File(testFolder, "ledger.bin.tmp").exists(), "the temporary file is gone");
+
+			Files.write(logFile.toPath(), logData);
+			GeneralLedger reopenedLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			reopenedLedger.loadData();
+			checker.checkEquals(savedEntries, listEntries(reopenedLedger), "entries after replaying a log that was already in the file");
+			reopenedLedger.close();
+		} finally {
+			deleteTestFolder(testFolder);
+		}
+	}
+
+	/**
+	 * This checks that a snapshot holds the whole ledger (including the changes in the log) and can be opened on its own,
+	 * and that loading a ledger from it only keeps the months that saved changes are made to in the store
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the files can't be written or read
+	 */
+	static void testFileStoreSnapshot(TestChecker checker) throws Exception {
+		File testFolder = createTestFolder();
+		try {
+			File ledgerFile = new File(testFolder, "ledger.bin");
+			File snapshotFile = new File(testFolder, "backup.bin");
+			GeneralLedger savedLedger = new GeneralLedger(new FileLedgerStore(ledgerFile));
+			savedLedger.loadData();
+			addTestEntries(savedLedger);
+			String savedEntries = listEntries(savedLedger);
+			savedLedger.close();
+
+			FileLedgerStore savedStore = new FileLedgerStore(ledgerFile);
+			savedStore.open();
+			byte[] ledgerData = Files.readAllBytes(ledgerFile.toPath());
+			savedStore.exportSnapshot(snapshotFile);
+			savedStore.close();
+			checker.check(Arrays.equals(ledgerData, Files.readAllBytes(ledgerFile.toPath())), "exporting a snapshot doesn't change the ledger file");
+			checker.check(!new File(testFolder, "backup.bin.log").exists(), "the snapshot doesn't have a change log");
+
+			FileLedgerStore snapshotStore = new FileLedgerStore(snapshotFile);
+			GeneralLedger snapshotLedger = new GeneralLedger(snapshotStore);
+			snapshotLedger.loadData();
+			checker.checkEquals(savedEntries, listEntries(snapshotLedger), "entries loaded from the snapshot");
+			checker.checkEquals(0, snapshotStore.singleEntryList.size(), "loading every month keeps none of them in the store");
+
+			long changedId = snapshotLedger.getSingleEntries(new JDateTime(2016, 3, 1), new JDateTime(2016, 3, 31)).get(0).getEntryId();
+			snapshotLedger.updateSingleEntry(changedId, new JDateTime(2016, 3, 20), "Changed", snapshotLedger.getAccount("Food"), new BigDecimal("2.00"));
+			snapshotLedger.saveData();
+			checker.checkEquals(10, snapshotStore.singleEntryList.size(), "only the changed month is kept in the store");
+			String changedEntries = listEntries(snapshotLedger);
+			snapshotLedger.close();
+
+			GeneralLedger lazyLedger = new GeneralLedger(new FileLedgerStore(snapshotFile));
+			lazyLedger.loadData(3);
+			checker.checkEquals(changedEntries, listEntries(lazyLedger), "entries after opening the snapshot again and loading it by month");
+			lazyLedger.close();
+		} finally {
+			deleteTestFolder(testFolder);
+		}
+	}
+}
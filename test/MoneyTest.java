@@ -0,0 +1,111 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class tests Money: rounding to a whole cent, division, and overflow
+ *
+ * @author Asa Swain
+ */
+
+class MoneyTest {
+	/**
+	 * This checks that valueOf rounds fractions of a cent up (toward positive infinity) unless it is given a rounding mode
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testValueOfRounding(TestChecker checker) {
+		checker.checkEquals(1003L, Money.valueOf(new BigDecimal("10.025")).getCents(), "10.025 rounds up");
+		checker.checkEquals(1003L, Money.valueOf(new BigDecimal("10.021")).getCents(), "10.021 rounds up");
+		checker.checkEquals(-1002L, Money.valueOf(new BigDecimal("-10.029")).getCents(), "-10.029 rounds toward positive infinity");
+		checker.checkEquals(1002L, Money.valueOf(new BigDecimal("10.025"), RoundingMode.HALF_EVEN).getCents(), "10.025 rounded half even");
+		checker.checkEquals(1000L, Money.valueOf(new BigDecimal("10")).getCents(), "a whole amount");
+		checker.checkEquals(1050L, Money.valueOf(new BigDecimal("10.5")).getCents(), "an amount with one decimal place");
+		try {
+			Money.valueOf(new BigDecimal("10.001"), RoundingMode.UNNECESSARY);
+			checker.check(false, "an amount that needs rounding with UNNECESSARY should throw");
+		} catch (ArithmeticException e) {
+			checker.check(true, "UNNECESSARY throws when rounding is needed");
+		}
+	}
+
+	/**
+	 * This checks the BigDecimal and text versions of an amount
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDecimalAndText(TestChecker checker) {
+		BigDecimal originalAmount = new BigDecimal("12.50");
+		checker.check(Money.valueOf(originalAmount).toBigDecimal() == originalAmount, "an amount with two decimal places keeps its BigDecimal");
+		checker.checkEquals("5.00", Money.valueOf(new BigDecimal("5")).toBigDecimal().toPlainString(), "a whole amount gets two decimal places");
+		checker.checkEquals("12.50", Money.valueOf(new BigDecimal("12.5000")).toBigDecimal().toPlainString(), "extra zeros are dropped");
+		checker.checkEquals(new BigDecimal("12.50"), Money.ofCents(1250).toBigDecimal(), "BigDecimal made from cents has two decimal places");
+		checker.checkEquals("-0.05", Money.ofCents(-5).toString(), "text of a negative amount under a dollar");
+		checker.checkEquals(Money.valueOf(new BigDecimal("12.5")), Money.valueOf(new BigDecimal("12.50")), "amounts with different scales are equal");
+		checker.check(Money.ofCents(0) == Money.ZERO, "zero cents is ZERO");
+	}
+
+	/**
+	 * This checks dividing an amount into parts
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDivide(TestChecker checker) {
+		checker.checkEquals(Money.ofCents(333), Money.ofCents(1000).divide(3, RoundingMode.HALF_EVEN), "10.00 / 3");
+		checker.checkEquals(Money.ofCents(334), Money.ofCents(1000).divide(3, RoundingMode.UP), "10.00 / 3 rounded up");
+		checker.checkEquals(Money.ofCents(-334), Money.ofCents(-1000).divide(3, RoundingMode.UP), "-10.00 / 3 rounded away from zero");
+		checker.checkEquals(Money.ofCents(2), Money.ofCents(5).divide(2, RoundingMode.HALF_EVEN), "0.05 / 2 rounds to the even cent");
+		checker.checkEquals(Money.ofCents(250), Money.ofCents(1000).divide(4, RoundingMode.UNNECESSARY), "an exact division");
+		try {
+			Money.ofCents(100).divide(0, RoundingMode.HALF_EVEN);
+			checker.check(false, "dividing by zero should throw");
+		} catch (ArithmeticException e) {
+			checker.check(true, "dividing by zero throws");
+		}
+	}
+
+	/**
+	 * This checks that adding, subtracting and negating throw instead of overflowing
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testOverflowThrows(TestChecker checker) {
+		Money largestAmount = Money.ofCents(Long.MAX_VALUE);
+		Money smallestAmount = Money.ofCents(Long.MIN_VALUE);
+		int throwCnt = 0;
+		try {
+			largestAmount.add(Money.ofCents(1));
+		} catch (ArithmeticException e) {
+			throwCnt++;
+		}
+		try {
+			smallestAmount.subtract(Money.ofCents(1));
+		} catch (ArithmeticException e) {
+			throwCnt++;
+		}
+		try {
+			smallestAmount.negate();
+		} catch (ArithmeticException e) {
+			throwCnt++;
+		}
+		try {
+			Money.valueOf(new BigDecimal("1e20"));
+		} catch (ArithmeticException e) {
+			throwCnt++;
+		}
+		checker.checkEquals(4, throwCnt, "operations that overflow and throw");
+		checker.checkEquals(largestAmount, largestAmount.add(Money.ZERO), "adding zero to the largest amount");
+	}
+
+	/**
+	 * This checks the monthly amount of an installment entry, which is its total divided by its number of months
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInstallmentMonthlyAmount(TestChecker checker) {
+		Account loanAccount = new Account("Loan", "Car loan", true, true);
+		InstallmentEntry testEntry = new InstallmentEntry(1, 1, 2015, 1, 4, 2015, loanAccount, "Car", new BigDecimal("100.00"));
+		checker.checkEquals(Money.ofCents(-3333), testEntry.getMonthlyMoney(), "100.00 over three months");
+	}
+}
@@ -0,0 +1,92 @@
+package budget_program;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests which months MonthWindow removes from memory, and that a ledger loaded lazily keeps to its limit
+ * when it is asked about its whole history
+ *
+ * @author Asa Swain
+ */
+
+class MonthWindowTest {
+	/**
+	 * This checks that the least recently used months are removed to make room for new months
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testRemovesLeastRecentMonths(TestChecker checker) {
+		MonthWindow testWindow = new MonthWindow(3);
+		testWindow.addMonth(1);
+		testWindow.addMonth(2);
+		testWindow.addMonth(3);
+		testWindow.touch(1);
+		checker.checkEquals(new ArrayList<Integer>(), testWindow.removeLeastRecentMonths(new HashSet<Integer>(), 0),
+				"nothing is removed while the window isn't over its limit");
+
+		ArrayList<Integer> removedList = testWindow.removeLeastRecentMonths(new HashSet<Integer>(), 2);
+		checker.checkEquals(Arrays.asList(2, 3), removedList, "the two least recently used months make room for two new ones");
+		checker.check(testWindow.isResident(1) && !testWindow.isResident(2), "the month that was touched is kept");
+	}
+
+	/**
+	 * This checks that pinned months and months about to be used aren't removed, even if the window goes over its limit
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testKeepsPinnedAndNeededMonths(TestChecker checker) {
+		MonthWindow testWindow = new MonthWindow(2);
+		testWindow.addMonth(10);
+		testWindow.addMonth(11);
+		testWindow.addMonth(12);
+		testWindow.pin(10);
+		HashSet<Integer> keepList = new HashSet<Integer>(Arrays.asList(11));
+		ArrayList<Integer> removedList = testWindow.removeLeastRecentMonths(keepList, 1);
+		checker.checkEquals(Arrays.asList(12), removedList, "only the month that isn't pinned or needed is removed");
+		checker.checkEquals(new HashSet<Integer>(Arrays.asList(10, 11)), testWindow.getResidentMonths(), "months left");
+
+		testWindow.unpinAll();
+		removedList = testWindow.removeLeastRecentMonths(new HashSet<Integer>(), 1);
+		checker.checkEquals(Arrays.asList(10), removedList, "the pinned month is removed once it is unpinned");
+	}
+
+	/**
+	 * This checks that a lazily loaded ledger gives the same entries and balance over its whole history as a ledger
+	 * with every entry loaded, without keeping more months in memory than its limit
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the ledger can't be loaded or saved
+	 */
+	static void testLazyLedgerKeepsItsLimit(TestChecker checker) throws Exception {
+		InMemoryLedgerStore testStore = new InMemoryLedgerStore();
+		GeneralLedger loadedLedger = new GeneralLedger(testStore);
+		loadedLedger.loadData();
+		loadedLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		Account foodAccount = loadedLedger.getAccount("Food");
+		for (int i = 0; i < 24; i++) {
+			loadedLedger.addSingleEntry(new JDateTime(2014 + i / 12, i % 12 + 1, 3), "Store", foodAccount, new BigDecimal(i + 1));
+			loadedLedger.addSingleEntry(new JDateTime(2014 + i / 12, i % 12 + 1, 20), "Market", foodAccount, BigDecimal.ONE);
+		}
+		loadedLedger.saveData();
+
+		GeneralLedger lazyLedger = new GeneralLedger(testStore);
+		lazyLedger.loadData(3);
+		JDateTime firstDate = new JDateTime(2014, 1, 1);
+		JDateTime lastDate = new JDateTime(2015, 12, 31);
+		checker.checkEquals(48, lazyLedger.getSingleEntries(firstDate, lastDate).size(), "entries over the whole history");
+		checker.checkEquals(loadedLedger.getBalanceAsOf(null, lastDate), lazyLedger.getBalanceAsOf(null, lastDate), "balance at the end");
+		checker.checkEquals(loadedLedger.getNetChange(foodAccount, new JDateTime(2014, 6, 1), new JDateTime(2015, 6, 30)),
+				lazyLedger.getNetChange(lazyLedger.getAccount("Food"), new JDateTime(2014, 6, 1), new JDateTime(2015, 6, 30)),
+				"net change over a year");
+
+		Field monthWindowField = GeneralLedger.class.getDeclaredField("monthWindow");
+		monthWindowField.setAccessible(true);
+		MonthWindow lazyWindow = (MonthWindow) monthWindowField.get(lazyLedger);
+		checker.check(lazyWindow.getResidentMonths().size() <= 3, "months in memory after reading the whole history: "
+				+ lazyWindow.getResidentMonths().size());
+	}
+}
@@ -0,0 +1,68 @@
+package budget_program;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * This class runs the tests. Each test class has static methods whose names start with "test" and that take a
+ * TestChecker, and they are run in name order. An exception thrown by a test counts as a failed check.
+ *
+ * Run it with the names of the test classes to run (such as "RunningBalanceTest"), or with no arguments to run them all.
+ * The program exits with status 1 if any check failed.
+ *
+ * @author Asa Swain
+ */
+
+public class RunTests {
+	// every test class, in the order they are run
+	private static final String[] TEST_CLASS_LIST = { "EpochDayTest", "DayIndexTest", "IntervalIndexTest", "RunningBalanceTest", "MoneyTest", "ChangeSetTest", "MonthWindowTest", "LedgerStoreTest", "LedgerJournalTest", "LedgerImporterTest", "BudgetActualsTest", "SumQueryCacheTest", "ColumnarEntryListTest", "EntryListTest", "WriteBehindQueueTest", "JdbcLedgerStoreTest", "LedgerReportEngineTest", "AccountRegistryTest" };
+
+	/**
+	 * This runs the tests and prints the number of checks that failed
+	 *
+	 * @param args - the names of the test classes to run (all of them if there are none)
+	 * @exception Exception if a test class can't be found
+	 */
+	public static void main(String[] args) throws Exception {
+		TestChecker checker = new TestChecker();
+		String[] classNameList = (args.length > 0) ? args : TEST_CLASS_LIST;
+		for (String className : classNameList) {
+			runTestClass(Class.forName("budget_program." + className), checker);
+		}
+		System.out.println(checker.getCheckCnt() + " checks, " + checker.getFailCnt() + " failed");
+		if (checker.getFailCnt() > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * This runs the test methods of a test class
+	 *
+	 * @param testClass - the class to run the tests of
+	 * @param checker - the checker the tests report to
+	 * @exception IllegalAccessException if a test method can't be called
+	 */
+	private static void runTestClass(Class<?> testClass, TestChecker checker) throws IllegalAccessException {
+		ArrayList<Method> testMethodList = new ArrayList<Method>();
+		for (Method tmpMethod : testClass.getDeclaredMethods()) {
+			if (tmpMethod.getName().startsWith("test") && Modifier.isStatic(tmpMethod.getModifiers())
+					&& Arrays.equals(tmpMethod.getParameterTypes(), new Class<?>[] { TestChecker.class })) {
+				testMethodList.add(tmpMethod);
+			}
+		}
+		Collections.sort(testMethodList, new Comparator<Method>() {
+			public int compare(Method first, Method second) {
+				return first.getName().compareTo(second.getName());
+			}
+		});
+		for (Method tmpMethod : testMethodList) {
+			checker.startTest(testClass.getSimpleName() + "." + tmpMethod.getName());
+			tmpMethod.setAccessible(true);
+			try {
+				tmpMethod.invoke(null, checker);
+			} catch (InvocationTargetException e) {
+				checker.fail(e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package budget_program;
+
+import java.util.*;
+
+/**
+ * This class tests RunningBalance by comparing its balances with adding up the amounts on each day
+ *
+ * @author Asa Swain
+ */
+
+class RunningBalanceTest {
+	/**
+	 * This checks the balances of an empty tree and of days before, on and after a single amount
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testBalanceAsOf(TestChecker checker) {
+		RunningBalance testBalance = new RunningBalance();
+		checker.checkEquals(Money.ZERO, testBalance.getBalanceAsOf(100), "balance with no amounts");
+		testBalance.add(100, Money.ofCents(2550));
+		testBalance.add(100, Money.ofCents(-50));
+		testBalance.add(110, Money.ofCents(1000));
+		checker.checkEquals(Money.ZERO, testBalance.getBalanceAsOf(99), "balance the day before the first amount");
+		checker.checkEquals(Money.ofCents(2500), testBalance.getBalanceAsOf(100), "balance includes amounts on the day");
+		checker.checkEquals(Money.ofCents(2500), testBalance.getBalanceAsOf(109), "balance between amounts");
+		checker.checkEquals(Money.ofCents(3500), testBalance.getBalanceAsOf(110), "balance on the last day");
+		checker.checkEquals(Money.ofCents(3500), testBalance.getBalanceAsOf(1000000), "balance long after the last day");
+		checker.checkEquals(Money.ofCents(1000), testBalance.getNetChange(101, 110), "net change after the first day");
+		checker.checkEquals(Money.ZERO, testBalance.getNetChange(110, 100), "net change of an empty range");
+	}
+
+	/**
+	 * This checks that adding amounts before and far after the days the tree covers keeps the earlier amounts
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testGrowsInBothDirections(TestChecker checker) {
+		RunningBalance testBalance = new RunningBalance();
+		testBalance.add(0, Money.ofCents(100));
+		testBalance.add(-5000, Money.ofCents(10));
+		testBalance.add(40000, Money.ofCents(1));
+		checker.checkEquals(Money.ofCents(10), testBalance.getBalanceAsOf(-1), "balance before the first day that was added");
+		checker.checkEquals(Money.ofCents(110), testBalance.getBalanceAsOf(39999), "balance before the last day");
+		checker.checkEquals(Money.ofCents(111), testBalance.getBalanceAsOf(40000), "balance on the last day");
+	}
+
+	/**
+	 * This checks random amounts on random days against adding up the amounts for each day in a TreeMap
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testMatchesDayTotals(TestChecker checker) {
+		Random random = new Random(5);
+		RunningBalance testBalance = new RunningBalance();
+		TreeMap<Integer, Long> dayTotalList = new TreeMap<Integer, Long>();
+		int badCnt = 0;
+		for (int i = 0; i < 2000; i++) {
+			int epochDay = 10000 + random.nextInt(8000) - 4000;
+			long cents = random.nextInt(200001) - 100000;
+			testBalance.add(epochDay, Money.ofCents(cents));
+			Long oldTotal = dayTotalList.get(epochDay);
+			dayTotalList.put(epochDay, (oldTotal == null) ? cents : oldTotal + cents);
+			if (i % 50 == 0) {
+				int startDay = 10000 + random.nextInt(10000) - 5000;
+				int endDay = startDay + random.nextInt(3000);
+				long expectedBalance = 0;
+				for (long tmpTotal : dayTotalList.headMap(endDay, true).values()) {
+					expectedBalance += tmpTotal;
+				}
+				long expectedChange = 0;
+				for (long tmpTotal : dayTotalList.subMap(startDay, true, endDay, true).values()) {
+					expectedChange += tmpTotal;
+				}
+				if (testBalance.getBalanceAsOf(endDay).getCents() != expectedBalance
+						|| testBalance.getNetChange(startDay, endDay).getCents() != expectedChange) {
+					badCnt++;
+				}
+			}
+		}
+		checker.checkEquals(0, badCnt, "balances that don't match the day totals");
+	}
+
+	/**
+	 * This checks that a total too large to store throws an ArithmeticException instead of overflowing
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testOverflowThrows(TestChecker checker) {
+		RunningBalance testBalance = new RunningBalance();
+		testBalance.add(1, Money.ofCents(Long.MAX_VALUE));
+		try {
+			testBalance.add(1, Money.ofCents(1));
+			checker.check(false, "adding past the largest total should throw");
+		} catch (ArithmeticException e) {
+			checker.checkEquals(Money.ofCents(Long.MAX_VALUE), testBalance.getBalanceAsOf(1), "the balance is unchanged after the overflow");
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package budget_program;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests which cached sum query results SumQueryCache drops when an entry changes, and that the totals a ledger
+ * gives follow its entries as they change
+ *
+ * @author Asa Swain
+ */
+
+class SumQueryCacheTest {
+	// accounts for the test queries
+	private static final Account FOOD_ACCOUNT = new Account("Food", "Groceries", true, true);
+	private static final Account RENT_ACCOUNT = new Account("Rent", "Apartment", true, true);
+
+	/**
+	 * This creates a query for some accounts over a date range
+	 *
+	 * @param startDate - the first date of the range
+	 * @param endDate - the last date of the range
+	 * @param targetAccounts - the accounts to total
+	 * @return the query
+	 */
+	private static SumQueryCache.SumQuery createQuery(JDateTime startDate, JDateTime endDate, Account... targetAccounts) {
+		return new SumQueryCache.SumQuery(Arrays.asList(targetAccounts), startDate, endDate);
+	}
+
+	/**
+	 * This checks that a change in one month drops only the results for that account that cover that month
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInvalidateMonth(TestChecker checker) {
+		SumQueryCache testCache = new SumQueryCache();
+		SumQueryCache.SumQuery marchFoodQuery = createQuery(new JDateTime(2019, 3, 1), new JDateTime(2019, 3, 31), FOOD_ACCOUNT);
+		SumQueryCache.SumQuery quarterQuery = createQuery(new JDateTime(2019, 1, 15), new JDateTime(2019, 4, 15), FOOD_ACCOUNT, RENT_ACCOUNT);
+		SumQueryCache.SumQuery marchRentQuery = createQuery(new JDateTime(2019, 3, 1), new JDateTime(2019, 3, 31), RENT_ACCOUNT);
+		SumQueryCache.SumQuery mayFoodQuery = createQuery(new JDateTime(2019, 5, 1), new JDateTime(2019, 5, 31), FOOD_ACCOUNT);
+		testCache.put(marchFoodQuery, Money.ofCents(100));
+		testCache.put(quarterQuery, Money.ofCents(200));
+		testCache.put(marchRentQuery, Money.ofCents(300));
+		testCache.put(mayFoodQuery, Money.ofCents(400));
+		checker.checkEquals(Money.ofCents(100), testCache.get(createQuery(new JDateTime(2019, 3, 1), new JDateTime(2019, 3, 31), FOOD_ACCOUNT)),
+				"an equal query finds the cached result");
+
+		testCache.invalidateMonth(FOOD_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2019, 3, 10)));
+		checker.check(testCache.get(marchFoodQuery) == null, "the March query for the account is dropped");
+		checker.check(testCache.get(quarterQuery) == null, "a query for several accounts over March is dropped");
+		checker.checkEquals(Money.ofCents(300), testCache.get(marchRentQuery), "the March query for another account is kept");
+		checker.checkEquals(Money.ofCents(400), testCache.get(mayFoodQuery), "the query for another month is kept");
+	}
+
+	/**
+	 * This checks that a change over a range of months (with or without a start and end) drops the results that overlap it
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testInvalidateMonths(TestChecker checker) {
+		SumQueryCache testCache = new SumQueryCache();
+		SumQueryCache.SumQuery oldQuery = createQuery(new JDateTime(2010, 1, 1), new JDateTime(2010, 12, 31), FOOD_ACCOUNT);
+		SumQueryCache.SumQuery middleQuery = createQuery(new JDateTime(2019, 6, 1), new JDateTime(2019, 6, 30), FOOD_ACCOUNT);
+		SumQueryCache.SumQuery newQuery = createQuery(new JDateTime(2030, 1, 1), new JDateTime(2030, 12, 31), FOOD_ACCOUNT);
+		testCache.put(oldQuery, Money.ofCents(1));
+		testCache.put(middleQuery, Money.ofCents(2));
+		testCache.put(newQuery, Money.ofCents(3));
+
+		testCache.invalidateMonths(FOOD_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2019, 1, 1)), EpochDay.toMonthIndex(new JDateTime(2019, 12, 1)));
+		checker.check(testCache.get(middleQuery) == null, "the query inside the range is dropped");
+		checker.check(testCache.get(oldQuery) != null && testCache.get(newQuery) != null, "the queries outside the range are kept");
+
+		testCache.invalidateMonths(RENT_ACCOUNT, null, null);
+		checker.check(testCache.get(oldQuery) != null && testCache.get(newQuery) != null, "queries for other accounts are kept");
+
+		testCache.invalidateMonths(FOOD_ACCOUNT, null, EpochDay.toMonthIndex(new JDateTime(2015, 1, 1)));
+		checker.check(testCache.get(oldQuery) == null, "a range without a start drops the earlier query");
+		checker.check(testCache.get(newQuery) != null, "a range without a start keeps the later query");
+
+		testCache.invalidateMonths(FOOD_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2025, 1, 1)), null);
+		checker.check(testCache.get(newQuery) == null, "a range without an end drops the later query");
+	}
+
+	/**
+	 * This checks that the results for very long date ranges are dropped when a month inside them changes
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testLongQueries(TestChecker checker) {
+		SumQueryCache testCache = new SumQueryCache();
+		SumQueryCache.SumQuery longQuery = createQuery(new JDateTime(1800, 1, 1), new JDateTime(2200, 12, 31), FOOD_ACCOUNT);
+		checker.check(longQuery.getMonthCount() > 1200, "the query covers more months than are indexed");
+		testCache.put(longQuery, Money.ofCents(500));
+
+		testCache.invalidateMonth(FOOD_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2300, 1, 1)));
+		testCache.invalidateMonth(RENT_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2000, 1, 1)));
+		checker.checkEquals(Money.ofCents(500), testCache.get(longQuery), "kept after changes outside its range or for other accounts");
+		testCache.invalidateMonth(FOOD_ACCOUNT, EpochDay.toMonthIndex(new JDateTime(2000, 1, 1)));
+		checker.check(testCache.get(longQuery) == null, "dropped after a change inside its range");
+	}
+
+	/**
+	 * This checks that the least recently used result is dropped once the cache is full
+	 *
+	 * @param checker - the checker to report to
+	 */
+	static void testDropsLeastRecentResult(TestChecker checker) {
+		SumQueryCache testCache = new SumQueryCache();
+		JDateTime startDate = new JDateTime(2019, 1, 1);
+		ArrayList<SumQueryCache.SumQuery> queryList = new ArrayList<SumQueryCache.SumQuery>();
+		for (int i = 0; i < SumQueryCache.MAX_CACHED_QUERIES; i++) {
+			JDateTime endDate = startDate.clone();
+			endDate.addDay(i);
+			queryList.add(createQuery(startDate, endDate, FOOD_ACCOUNT));
+			testCache.put(queryList.get(i), Money.ofCents(i));
+		}
+		testCache.get(queryList.get(0));
+		testCache.put(createQuery(startDate, new JDateTime(2030, 1, 1), FOOD_ACCOUNT), Money.ofCents(-1));
+		checker.checkEquals(Money.ZERO, testCache.get(queryList.get(0)), "the result that was just used is kept");
+		checker.check(testCache.get(queryList.get(1)) == null, "the least recently used result is dropped");
+		checker.checkEquals(Money.ofCents(2), testCache.get(queryList.get(2)), "the other results are kept");
+	}
+
+	/**
+	 * This checks that a ledger's cached totals follow its entries as they are added, changed and deleted
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the ledger can't be loaded
+	 */
+	static void testLedgerTotalsFollowChanges(TestChecker checker) throws Exception {
+		GeneralLedger testLedger = new GeneralLedger(new InMemoryLedgerStore());
+		testLedger.loadData();
+		testLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		testLedger.addAccount("Rent", "Apartment", true, true, false, BigDecimal.ZERO);
+		Account foodAccount = testLedger.getAccount("Food");
+		List<Account> foodList = Collections.singletonList(foodAccount);
+		JDateTime startDate = new JDateTime(2019, 1, 1);
+		JDateTime endDate = new JDateTime(2019, 12, 31);
+		long entryId = testLedger.addSingleEntry(new JDateTime(2019, 4, 2), "Store", foodAccount, new BigDecimal("10.00"));
+		checker.checkEquals(new BigDecimal("-10.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "total with one entry");
+
+		testLedger.addSingleEntry(new JDateTime(2019, 9, 2), "Market", foodAccount, new BigDecimal("5.00"));
+		checker.checkEquals(new BigDecimal("-15.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "total after adding an entry");
+
+		testLedger.updateSingleEntry(entryId, new JDateTime(2020, 1, 5), "Store", foodAccount, new BigDecimal("10.00"));
+		checker.checkEquals(new BigDecimal("-5.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "total after moving an entry out of the year");
+
+		testLedger.addSingleEntry(new JDateTime(2019, 9, 3), "Landlord", testLedger.getAccount("Rent"), new BigDecimal("800.00"));
+		checker.checkEquals(new BigDecimal("-5.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "an entry for another account doesn't count");
+
+		testLedger.addRepeatingEntry(new JDateTime(2019, 11, 1), null, "Delivery", foodAccount, new BigDecimal("2.00"));
+		checker.checkEquals(new BigDecimal("-9.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "total after adding a repeating entry");
+
+		testLedger.deleteRepeatingEntry("Delivery");
+		checker.checkEquals(new BigDecimal("-5.00"), testLedger.getTotalAmount(foodList, startDate, endDate), "total after deleting the repeating entry");
+	}
+}
@@ -0,0 +1,89 @@
+package budget_program;
+
+/**
+ * This class counts the checks made by the tests and reports the ones that fail.
+ * The program has no test framework, so each test class has a run method that is given a checker,
+ * and RunTests runs them all and exits with an error status if any check failed.
+ *
+ * @author Asa Swain
+ */
+
+class TestChecker {
+	// name of the test that is running (printed with each failure)
+	private String testName;
+	// number of checks made and how many of them failed
+	private int checkCnt;
+	private int failCnt;
+
+	/**
+	 * This is a blank constructor
+	 */
+	TestChecker() {
+		testName = "";
+	}
+
+	/**
+	 * This sets the name of the test that is running
+	 *
+	 * @param newTestName - the name of the test
+	 */
+	void startTest(String newTestName) {
+		testName = newTestName;
+	}
+
+	/**
+	 * This checks that a condition is true
+	 *
+	 * @param condition - the condition to check
+	 * @param description - what is being checked (printed if the check fails)
+	 */
+	void check(boolean condition, String description) {
+		checkCnt++;
+		if (!condition) {
+			failCnt++;
+			System.out.println("FAILED " + testName + ": " + description);
+		}
+	}
+
+	/**
+	 * This checks that a value is equal to the expected value
+	 *
+	 * @param expected - the expected value
+	 * @param actual - the value to check
+	 * @param description - what is being checked (printed with both values if the check fails)
+	 */
+	void checkEquals(Object expected, Object actual, String description) {
+		boolean isEqual = (expected == null) ? actual == null : expected.equals(actual);
+		check(isEqual, description + " (expected " + expected + " but was " + actual + ")");
+	}
+
+	/**
+	 * This records an exception that a test didn't expect as a failed check
+	 *
+	 * @param e - the exception
+	 */
+	void fail(Throwable e) {
+		checkCnt++;
+		failCnt++;
+		System.out.println("FAILED " + testName + ": unexpected " + e);
+		e.printStackTrace(System.out);
+	}
+
+	/**
+	 * This returns the number of checks made
+	 *
+	 * @return the number of checks
+	 */
+	int getCheckCnt() {
+		return checkCnt;
+	}
+
+	/**
+	 * This returns the number of checks that failed
+	 *
+	 * @return the number of failed checks
+	 */
+	int getFailCnt() {
+		return failCnt;
+	}
+}
@@ -0,0 +1,320 @@
+package budget_program;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+import jodd.datetime.JDateTime;
+
+/**
+ * This class tests WriteBehindQueue: a batch is saved once it is big enough or has waited long enough, a batch that
+ * can't be saved goes back into the change set ahead of newer changes, the journal is only trimmed after a batch is saved,
+ * and stopping the queue saves everything that is left
+ *
+ * @author Asa Swain
+ */
+
+class WriteBehindQueueTest {
+	// account for the test entries
+	private static final Account FOOD_ACCOUNT = new Account("Food", "Groceries", true, true);
+	// longest to wait for a background save (in milliseconds)
+	private static final long MAX_WAIT = 5000;
+	// a delay long enough that a save started by the delay doesn't run during a test (in milliseconds)
+	private static final long LONG_DELAY = 60000;
+
+	/**
+	 * This class is an in-memory store that keeps each batch it is asked to save, and can be made to fail or to wait
+	 * before it saves
+	 */
+	private static class RecordingStore extends InMemoryLedgerStore {
+		// the batches that were saved, and when each one was saved (System.nanoTime)
+		private final ArrayList<List<LedgerChange>> batchList = new ArrayList<List<LedgerChange>>();
+		private final ArrayList<Long> batchTimeList = new ArrayList<Long>();
+		// size of the journal each time a save started (if the store has a journal)
+		private final ArrayList<Long> journalSizeList = new ArrayList<Long>();
+		// the journal of the change set being saved (or null)
+		private LedgerJournal journal;
+		// true to make saves fail
+		private volatile boolean isFailing;
+		// counted down when a save starts, and waited on before the save goes on (or null to save straight away)
+		private volatile CountDownLatch startedLatch;
+		private volatile CountDownLatch releaseLatch;
+
+		/**
+		 * This saves a batch of changes, keeping a copy of the batch (or fails if the store has been told to)
+		 *
+		 * @param changeList - the changes to save
+		 * @exception LedgerStoreException if the store has been told to fail
+		 */
+		public void saveChanges(List<LedgerChange> changeList) throws LedgerStoreException {
+			synchronized (this) {
+				if (journal != null) {
+					journalSizeList.add(journal.getSize());
+				}
+			}
+			if (startedLatch != null) {
+				startedLatch.countDown();
+				try {
+					releaseLatch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (isFailing) {
+				throw new LedgerStoreException("The test store is failing saves.");
+			}
+			super.saveChanges(changeList);
+			synchronized (this) {
+				batchList.add(new ArrayList<LedgerChange>(changeList));
+				batchTimeList.add(System.nanoTime());
+				notifyAll();
+			}
+		}
+
+		/**
+		 * This gets the number of batches saved so far
+		 *
+		 * @return the number of batches
+		 */
+		synchronized int getBatchCount() {
+			return batchList.size();
+		}
+
+		/**
+		 * This waits until a number of batches have been saved (or MAX_WAIT milliseconds have passed)
+		 *
+		 * @param batchCnt - the number of batches to wait for
+		 * @return true if the batches were saved, false if the wait ran out
+		 * @exception InterruptedException if the thread is interrupted
+		 */
+		synchronized boolean awaitBatches(int batchCnt) throws InterruptedException {
+			long endTime = System.currentTimeMillis() + MAX_WAIT;
+			while (batchList.size() < batchCnt && System.currentTimeMillis() < endTime) {
+				wait(Math.max(1, endTime - System.currentTimeMillis()));
+			}
+			return batchList.size() >= batchCnt;
+		}
+	}
+
+	/**
+	 * This creates a change that inserts a single entry
+	 *
+	 * @param entryId - the id of the entry
+	 * @param desc - the description of the entry
+	 * @return the change
+	 */
+	private static LedgerChange createInsert(long entryId, String desc) {
+		SingleEntry newEntry = new SingleEntry(new JDateTime(2017, 5, (int) (entryId % 28) + 1), FOOD_ACCOUNT, desc, BigDecimal.ONE);
+		newEntry.setEntryId(entryId);
+		return LedgerChange.forEntry(LedgerChange.Operation.INSERT, newEntry);
+	}
+
+	/**
+	 * This lists the rows changed by some changes
+	 *
+	 * @param changeList - the changes
+	 * @return the change key of each change, in order
+	 */
+	private static ArrayList<String> listKeys(List<LedgerChange> changeList) {
+		ArrayList<String> keyList = new ArrayList<String>();
+		for (LedgerChange tmpChange : changeList) {
+			keyList.add(tmpChange.getChangeKey());
+		}
+		return keyList;
+	}
+
+	/**
+	 * This waits until a queue has an error from a background save (or MAX_WAIT milliseconds have passed)
+	 *
+	 * @param testQueue - the queue
+	 * @return true if there is an error, false if the wait ran out
+	 * @exception InterruptedException if the thread is interrupted
+	 */
+	private static boolean awaitSaveError(WriteBehindQueue testQueue) throws InterruptedException {
+		long endTime = System.currentTimeMillis() + MAX_WAIT;
+		while (testQueue.getSaveError() == null && System.currentTimeMillis() < endTime) {
+			Thread.sleep(5);
+		}
+		return testQueue.getSaveError() != null;
+	}
+
+	/**
+	 * This checks that a batch is saved as soon as the change set holds the batch size, without waiting for the delay
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the queue can't save
+	 */
+	static void testBatchSizeStartsASave(TestChecker checker) throws Exception {
+		RecordingStore testStore = new RecordingStore();
+		ChangeSet testChangeSet = new ChangeSet();
+		WriteBehindQueue testQueue = new WriteBehindQueue(testStore, testChangeSet, 3, LONG_DELAY);
+		testChangeSet.setWriteBehindQueue(testQueue);
+		try {
+			testChangeSet.record(createInsert(1, "One"));
+			testChangeSet.record(createInsert(2, "Two"));
+			Thread.sleep(100);
+			checker.checkEquals(0, testStore.getBatchCount(), "nothing is saved below the batch size");
+			testChangeSet.record(createInsert(3, "Three"));
+			checker.check(testStore.awaitBatches(1), "a batch is saved once it reaches the batch size");
+			checker.checkEquals(3, testStore.batchList.get(0).size(), "the batch holds every change");
+			checker.check(testChangeSet.isEmpty(), "the saved changes are taken out of the change set");
+		} finally {
+			testQueue.close();
+		}
+	}
+
+	/**
+	 * This checks that changes below the batch size are saved once the oldest one has waited for the delay
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the queue can't save
+	 */
+	static void testDelayStartsASave(TestChecker checker) throws Exception {
+		RecordingStore testStore = new RecordingStore();
+		ChangeSet testChangeSet = new ChangeSet();
+		long maxDelay = 200;
+		WriteBehindQueue testQueue = new WriteBehindQueue(testStore, testChangeSet, 100, maxDelay);
+		testChangeSet.setWriteBehindQueue(testQueue);
+		try {
+			long startTime = System.nanoTime();
+			testChangeSet.record(createInsert(1, "One"));
+			testChangeSet.record(createInsert(2, "Two"));
+			checker.check(testStore.awaitBatches(1), "the changes are saved after the delay");
+			long waitMillis = (testStore.batchTimeList.get(0) - startTime) / 1000000;
+			checker.check(waitMillis >= maxDelay * 3 / 4, "the save waited for the delay (" + waitMillis + "ms)");
+			checker.checkEquals(2, testStore.batchList.get(0).size(), "both changes are in the batch");
+		} finally {
+			testQueue.close();
+		}
+	}
+
+	/**
+	 * This checks that a batch that can't be saved goes back into the change set in its order, ahead of the changes
+	 * recorded while it was being saved, and that the journal is only trimmed once the batch is saved
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the journal can't be written
+	 */
+	static void testFailedSaveRestoresChanges(TestChecker checker) throws Exception {
+		File journalFile = File.createTempFile("budget-test", ".journal");
+		RecordingStore testStore = new RecordingStore();
+		ChangeSet testChangeSet = new ChangeSet();
+		LedgerJournal testJournal = new LedgerJournal(journalFile);
+		WriteBehindQueue testQueue = new WriteBehindQueue(testStore, testChangeSet, 2, LONG_DELAY);
+		try {
+			testJournal.open();
+			long emptySize = testJournal.getSize();
+			testChangeSet.setJournal(testJournal);
+			testStore.journal = testJournal;
+			testStore.isFailing = true;
+			testStore.startedLatch = new CountDownLatch(1);
+			testStore.releaseLatch = new CountDownLatch(1);
+			testChangeSet.setWriteBehindQueue(testQueue);
+
+			LedgerChange firstChange = createInsert(1, "One");
+			LedgerChange secondChange = createInsert(2, "Two");
+			testChangeSet.record(firstChange);
+			testChangeSet.record(secondChange);
+			testStore.startedLatch.await();
+			// recorded while the batch is being saved
+			LedgerChange newerChange = createInsert(3, "Three");
+			testChangeSet.record(newerChange);
+			testStore.startedLatch = null;
+			testStore.releaseLatch.countDown();
+			checker.check(awaitSaveError(testQueue), "the failed save is reported");
+			checker.checkEquals(Arrays.asList(firstChange.getChangeKey(), secondChange.getChangeKey(), newerChange.getChangeKey()),
+					listKeys(testChangeSet.getChangeList()), "the failed batch goes back ahead of the newer change");
+			long fullSize = testJournal.getSize();
+			checker.check(fullSize > emptySize, "the journal keeps the changes after the failed save");
+			checker.checkEquals(0L, testStore.getMaxSingleEntryId(), "nothing was saved to the store");
+
+			testStore.isFailing = false;
+			testQueue.flush();
+			checker.check(testQueue.getSaveError() == null, "a flush that works clears the error");
+			checker.checkEquals(listKeys(Arrays.asList(firstChange, secondChange, newerChange)), listKeys(testStore.batchList.get(0)),
+					"the saved batch is in the order the rows were first changed");
+			checker.checkEquals(fullSize, (long) testStore.journalSizeList.get(testStore.journalSizeList.size() - 1),
+					"the journal still held the changes while they were being saved");
+			checker.checkEquals(emptySize, testJournal.getSize(), "the journal is emptied once the changes are saved");
+			checker.check(testChangeSet.isEmpty(), "no changes are left");
+		} finally {
+			testQueue.close();
+			testJournal.close();
+			journalFile.delete();
+		}
+	}
+
+	/**
+	 * This checks that when changes are recorded after a batch is taken, a save only drops the saved batch's records
+	 * from the journal and the newer changes stay in it
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the journal can't be written or read
+	 */
+	static void testSaveKeepsNewerChangesInJournal(TestChecker checker) throws Exception {
+		File journalFile = File.createTempFile("budget-test", ".journal");
+		RecordingStore testStore = new RecordingStore();
+		ChangeSet testChangeSet = new ChangeSet();
+		LedgerJournal testJournal = new LedgerJournal(journalFile);
+		WriteBehindQueue testQueue = new WriteBehindQueue(testStore, testChangeSet, 2, LONG_DELAY);
+		try {
+			testJournal.open();
+			testChangeSet.setJournal(testJournal);
+			testStore.startedLatch = new CountDownLatch(1);
+			testStore.releaseLatch = new CountDownLatch(1);
+			testChangeSet.setWriteBehindQueue(testQueue);
+			testChangeSet.record(createInsert(1, "One"));
+			testChangeSet.record(createInsert(2, "Two"));
+			testStore.startedLatch.await();
+			LedgerChange newerChange = createInsert(3, "Three");
+			testChangeSet.record(newerChange);
+			long fullSize = testJournal.getSize();
+			testStore.startedLatch = null;
+			testStore.releaseLatch.countDown();
+			checker.check(testStore.awaitBatches(1), "the batch is saved");
+			// the journal is trimmed after the save returns
+			long endTime = System.currentTimeMillis() + MAX_WAIT;
+			while (testJournal.getSize() >= fullSize && System.currentTimeMillis() < endTime) {
+				Thread.sleep(5);
+			}
+			checker.check(testJournal.getSize() < fullSize, "the saved changes are dropped from the journal");
+
+			LedgerJournal replayJournal = new LedgerJournal(journalFile);
+			ArrayList<LedgerChange> replayList = replayJournal.open();
+			replayJournal.close();
+			checker.checkEquals(Collections.singleton(newerChange.getChangeKey()), new HashSet<String>(listKeys(replayList)),
+					"only the newer change is left in the journal");
+		} finally {
+			testQueue.close();
+			testJournal.close();
+			journalFile.delete();
+		}
+	}
+
+	/**
+	 * This checks that stopping the write-behind queue saves the changes that are still waiting for the delay
+	 *
+	 * @param checker - the checker to report to
+	 * @exception Exception if the ledger can't be loaded or saved
+	 */
+	static void testStopSavesPendingChanges(TestChecker checker) throws Exception {
+		RecordingStore testStore = new RecordingStore();
+		GeneralLedger testLedger = new GeneralLedger(testStore);
+		testLedger.loadData();
+		testLedger.startWriteBehind(1000, LONG_DELAY);
+		testLedger.addAccount("Food", "Groceries", true, true, false, BigDecimal.ZERO);
+		for (int i = 1; i <= 5; i++) {
+			testLedger.addSingleEntry(new JDateTime(2017, 6, i), "Store " + i, testLedger.getAccount("Food"), BigDecimal.TEN);
+		}
+		checker.checkEquals(0, testStore.getBatchCount(), "nothing is saved before the delay");
+		checker.check(testLedger.hasUnsavedChanges(), "the changes are waiting to be saved");
+
+		testLedger.stopWriteBehind();
+		checker.checkEquals(1, testStore.getBatchCount(), "stopping the queue saves the waiting changes as one batch");
+		checker.check(!testLedger.hasUnsavedChanges(), "no changes are left after stopping the queue");
+		GeneralLedger loadedLedger = new GeneralLedger(testStore);
+		loadedLedger.loadData();
+		checker.checkEquals(5, loadedLedger.getSingleEntries(null, null).size(), "every entry is in the store");
+	}
+}